@@ -0,0 +1,168 @@
+package com.expense.bench;
+
+import com.expense.metrics.DaoMetrics;
+import com.expense.metrics.HistogramSnapshot;
+import com.expense.metrics.LatencyHistogram;
+import com.expense.metrics.OperationMetrics;
+import com.expense.server.ApiServer;
+import com.expense.util.AppConfig;
+import com.expense.util.DatabaseConnection;
+import com.expense.util.PoolStats;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Closed-loop load test for the API server: expense.load.clients clients
+ * (default 1000) each keep one request in flight for expense.load.seconds
+ * (default 30), mixing page listings, lookups by ID and creates. The server
+ * runs in this JVM against the H2 stand-in seeded with expense.load.rows
+ * expenses, or against the configured database as-is when expense.db.url is
+ * set. Pointing expense.db.replicas at the same stand-in URL exercises
+ * replica routing. Large client counts need a raised open file limit.
+ */
+public class ApiLoadTest {
+
+    private static final Pattern ID = Pattern.compile("\"id\":(\\d+)");
+
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final String baseUrl;
+    private final int[] expenseIds;
+    private final int[] categoryIds;
+    private final int writePercent;
+    private final long deadline;
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder ok = new LongAdder();
+    private final LongAdder clientErrors = new LongAdder();
+    private final LongAdder busy = new LongAdder();
+    private final LongAdder serverErrors = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    private ApiLoadTest(String baseUrl, int[] expenseIds, int[] categoryIds, int writePercent, long deadline) {
+        this.baseUrl = baseUrl;
+        this.expenseIds = expenseIds;
+        this.categoryIds = categoryIds;
+        this.writePercent = writePercent;
+        this.deadline = deadline;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = AppConfig.getInt("expense.load.clients", 1000);
+        int seconds = AppConfig.getInt("expense.load.seconds", 30);
+        int writePercent = AppConfig.getInt("expense.load.writePercent", 10);
+        if (System.getProperty("expense.db.url") == null) {
+            BenchmarkDatabase.useStandIn();
+            BenchmarkDatabase.seed(AppConfig.getInt("expense.load.rows", 100_000));
+        }
+
+        ApiServer server = new ApiServer("127.0.0.1", 0);
+        server.start();
+        String baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+        try {
+            HttpClient setup = HttpClient.newHttpClient();
+            int[] expenseIds = ids(setup, baseUrl + "/api/expenses?limit=1000");
+            int[] categoryIds = ids(setup, baseUrl + "/api/categories");
+            if (expenseIds.length == 0 || categoryIds.length == 0) {
+                System.err.println("The database needs at least one category and one expense");
+                return;
+            }
+
+            System.out.println("Running " + clients + " clients for " + seconds + " s against " + DatabaseConnection.URL);
+            long start = System.nanoTime();
+            ApiLoadTest test = new ApiLoadTest(baseUrl, expenseIds, categoryIds, writePercent, start + seconds * 1_000_000_000L);
+            CountDownLatch done = new CountDownLatch(clients);
+            for (int i = 0; i < clients; i++) {
+                test.next(done);
+            }
+            done.await();
+            test.report(System.nanoTime() - start, server.getRejectedCount());
+        } finally {
+            server.stop(0);
+        }
+        System.exit(0);
+    }
+
+    // Issues one request and, when it completes, the client's next one until the deadline passes
+    private void next(CountDownLatch done) {
+        if (System.nanoTime() >= deadline) {
+            done.countDown();
+            return;
+        }
+        long start = System.nanoTime();
+        client.sendAsync(randomRequest(), HttpResponse.BodyHandlers.discarding())
+            .whenComplete((response, error) -> {
+                latency.record(System.nanoTime() - start);
+                if (error != null) {
+                    failures.increment();
+                } else if (response.statusCode() == 503) {
+                    busy.increment();
+                } else if (response.statusCode() >= 500) {
+                    serverErrors.increment();
+                } else if (response.statusCode() >= 400) {
+                    clientErrors.increment();
+                } else {
+                    ok.increment();
+                }
+                next(done);
+            });
+    }
+
+    private HttpRequest randomRequest() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int roll = random.nextInt(100);
+        if (roll < writePercent) {
+            String body = "{\"title\":\"load test " + random.nextInt(1000) + "\",\"amount\":\"" + (1 + random.nextInt(500)) + ".25\","
+                + "\"categoryId\":" + categoryIds[random.nextInt(categoryIds.length)] + "}";
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/api/expenses"))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        }
+        String path = roll < writePercent + (100 - writePercent) / 3
+            ? "/api/expenses?limit=50"
+            : "/api/expenses/" + expenseIds[random.nextInt(expenseIds.length)];
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30)).GET().build();
+    }
+
+    private void report(long elapsedNanos, long rejected) {
+        HistogramSnapshot snapshot = latency.snapshot();
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        System.out.printf("requests=%d throughput=%.0f req/s ok=%d 4xx=%d 503=%d 5xx=%d failed=%d rejectedByServer=%d%n",
+            snapshot.getCount(), snapshot.getCount() / seconds, ok.sum(), clientErrors.sum(), busy.sum(),
+            serverErrors.sum(), failures.sum(), rejected);
+        System.out.printf("latency mean=%.3fms p50=%.3fms p95=%.3fms p99=%.3fms max=%.3fms%n",
+            snapshot.getMeanMillis(), snapshot.getPercentileMillis(50), snapshot.getPercentileMillis(95),
+            snapshot.getPercentileMillis(99), snapshot.getMaxMillis());
+        System.out.println(DatabaseConnection.getPoolStats());
+        for (PoolStats replica : DatabaseConnection.getReplicaPoolStats()) {
+            System.out.println(replica);
+        }
+        for (OperationMetrics operation : DaoMetrics.getInstance().getOperations()) {
+            if (operation.getCalls() > 0) {
+                System.out.println(operation);
+            }
+        }
+    }
+
+    private static int[] ids(HttpClient client, String url) throws Exception {
+        String body = client.send(HttpRequest.newBuilder(URI.create(url)).GET().build(), HttpResponse.BodyHandlers.ofString()).body();
+        List<Integer> ids = new ArrayList<>();
+        Matcher matcher = ID.matcher(body);
+        while (matcher.find()) {
+            ids.add(Integer.parseInt(matcher.group(1)));
+        }
+        return ids.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
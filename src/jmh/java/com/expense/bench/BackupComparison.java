@@ -0,0 +1,99 @@
+package com.expense.bench;
+
+import com.expense.dao.ExpenseFilter;
+import com.expense.dao.ExpenseTrackerDAO;
+import com.expense.io.BackupReader;
+import com.expense.io.BackupResult;
+import com.expense.io.BackupWriter;
+import com.expense.io.CsvExpenseImporter;
+import com.expense.io.ExpenseExporter;
+import com.expense.io.ExportResult;
+import com.expense.io.ImportResult;
+import com.expense.util.AppConfig;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Size and speed of the protobuf backup against the CSV and JSON Lines
+ * dumps, plain and gzipped, over the H2 stand-in seeded with
+ * expense.backup.rows expenses (default 1,000,000). Each writer runs
+ * expense.backup.runs times (default 3) and the fastest run is reported;
+ * then a backup restore and a CSV import each load the data into an
+ * emptied database. Bytes are the file sizes; rows/s counts expenses.
+ */
+public class BackupComparison {
+
+    private static final int THREADS = Runtime.getRuntime().availableProcessors();
+
+    public static void main(String[] args) throws Exception {
+        int rows = AppConfig.getInt("expense.backup.rows", 1_000_000);
+        int runs = Math.max(1, AppConfig.getInt("expense.backup.runs", 3));
+        BenchmarkDatabase.useStandIn();
+        BenchmarkDatabase.seed(rows);
+
+        ExpenseTrackerDAO dao = new ExpenseTrackerDAO();
+        BackupWriter backups = new BackupWriter(dao);
+        ExpenseExporter exporter = new ExpenseExporter(dao);
+        Path dir = Files.createTempDirectory("expense-backup-bench");
+        Path backup = dir.resolve("expenses.pb");
+        Path csv = dir.resolve("expenses.csv");
+        try {
+            System.out.println("Writing " + rows + " expenses, best of " + runs + " runs");
+            System.out.println(String.format("%-14s %14s %12s %12s", "format", "bytes", "ms", "rows/s"));
+            for (boolean gzip : new boolean[] {false, true}) {
+                String suffix = gzip ? "+gzip" : "";
+                BackupResult best = null;
+                for (int run = 0; run < runs; run++) {
+                    BackupResult result = backups.backup(dir.resolve("run.pb"), gzip);
+                    if (best == null || result.getElapsedMillis() < best.getElapsedMillis()) {
+                        best = result;
+                    }
+                }
+                row("protobuf" + suffix, best.getBytes(), best.getElapsedMillis(), best.getExpenses());
+                for (ExpenseExporter.Format format : ExpenseExporter.Format.values()) {
+                    ExportResult bestExport = null;
+                    for (int run = 0; run < runs; run++) {
+                        ExportResult result = exporter.export(new ExpenseFilter(), format, dir.resolve("run.txt"), gzip);
+                        if (bestExport == null || result.getElapsedMillis() < bestExport.getElapsedMillis()) {
+                            bestExport = result;
+                        }
+                    }
+                    row(format.name().toLowerCase() + suffix, bestExport.getBytes(), bestExport.getElapsedMillis(), bestExport.getRows());
+                }
+            }
+
+            // The files to read back, written once more outside the timed runs
+            backups.backup(backup, false);
+            exporter.export(new ExpenseFilter(), ExpenseExporter.Format.CSV, csv, false);
+
+            System.out.println();
+            System.out.println("Reading into an empty database");
+            System.out.println(String.format("%-14s %14s %12s %12s", "format", "bytes", "ms", "rows/s"));
+            emptyDatabase(dao);
+            BackupResult restored = new BackupReader(dao, THREADS).restore(backup);
+            row("protobuf", restored.getBytes(), restored.getElapsedMillis(), restored.getExpenses());
+            emptyDatabase(dao);
+            ImportResult imported = new CsvExpenseImporter(dao, THREADS, true).importFile(csv);
+            row("csv", Files.size(csv), imported.getElapsedMillis(), imported.getRowsImported());
+        } finally {
+            for (Path file : new Path[] {dir.resolve("run.pb"), dir.resolve("run.txt"), backup, csv}) {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(dir);
+        }
+        System.exit(0);
+    }
+
+    // Drops the data under the DAO, so its caches must go too
+    private static void emptyDatabase(ExpenseTrackerDAO dao) throws Exception {
+        BenchmarkDatabase.seed(0);
+        dao.invalidateCategoryCache();
+        dao.invalidateExpenseCache();
+    }
+
+    private static void row(String format, long bytes, long millis, long rows) {
+        double rowsPerSecond = millis == 0 ? 0 : rows * 1000.0 / millis;
+        System.out.println(String.format("%-14s %14d %12d %12.0f", format, bytes, millis, rowsPerSecond));
+    }
+}
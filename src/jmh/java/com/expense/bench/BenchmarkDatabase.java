@@ -0,0 +1,98 @@
+package com.expense.bench;
+
+import com.expense.util.DatabaseConnection;
+import com.expense.util.SchemaManager;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Random;
+
+/**
+ * In-memory H2 stand-in for the MySQL database, built by the same schema
+ * migrations as the embedded backend, plus a deterministic data
+ * generator: the same seed and row count always produce the same rows,
+ * so runs can be compared with each other.
+ */
+public final class BenchmarkDatabase {
+
+    // Passed to every benchmark fork so DatabaseConnection picks up H2 instead of MySQL
+    public static final String URL_PROPERTY = "-Dexpense.db.url=jdbc:h2:mem:expense_bench;DB_CLOSE_DELAY=-1" + DatabaseConnection.EMBEDDED_OPTIONS;
+    public static final String USERNAME_PROPERTY = "-Dexpense.db.username=sa";
+    public static final String PASSWORD_PROPERTY = "-Dexpense.db.password=";
+    // seed() migrates the freshly dropped schema itself, so the DAO's first connection has nothing left to check
+    public static final String SCHEMA_PROPERTY = "-Dexpense.schema.manage=false";
+    public static final String HEADLESS_PROPERTY = "-Djava.awt.headless=true";
+
+    public static final long SEED = 20240101L;
+    public static final int CATEGORY_COUNT = 20;
+
+    private static final String INSERT_CATEGORY = "INSERT INTO categories(name, description, created_at, updated_at) VALUES(?, ?, ?, ?)";
+    private static final String INSERT_EXPENSE = "INSERT INTO expenses(title, description, amount, category_id, created_at, updated_at) VALUES(?, ?, ?, ?, ?, ?)";
+
+    private static final String[] WORDS = {
+        "coffee", "groceries", "rent", "fuel", "lunch", "dinner", "train", "taxi", "books", "cinema",
+        "gym", "pharmacy", "electricity", "internet", "phone", "insurance", "gift", "hotel", "flight", "parking"
+    };
+    private static final LocalDateTime START = LocalDateTime.of(2020, 1, 1, 0, 0);
+    private static final int BATCH_SIZE = 1000;
+
+    private BenchmarkDatabase() {
+    }
+
+    // Points DatabaseConnection at the stand-in from inside this JVM; must run before DatabaseConnection is first used
+    public static void useStandIn() {
+        for (String property : new String[] {URL_PROPERTY, USERNAME_PROPERTY, PASSWORD_PROPERTY, SCHEMA_PROPERTY}) {
+            int eq = property.indexOf('=');
+            System.setProperty(property.substring(2, eq), property.substring(eq + 1));
+        }
+    }
+
+    // Recreates the schema and fills it with CATEGORY_COUNT categories and the given number of expenses
+    public static void seed(int expenses) throws SQLException {
+        Random random = new Random(SEED);
+        try (Connection conn = DatabaseConnection.getDBConnection()) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("DROP ALL OBJECTS");
+            }
+            SchemaManager.migrate();
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(INSERT_CATEGORY)) {
+                for (int i = 0; i < CATEGORY_COUNT; i++) {
+                    Timestamp created = Timestamp.valueOf(START.plusDays(i));
+                    stmt.setString(1, WORDS[i] + " " + i);
+                    stmt.setString(2, "Generated category " + i);
+                    stmt.setTimestamp(3, created);
+                    stmt.setTimestamp(4, created);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(INSERT_EXPENSE)) {
+                for (int i = 0; i < expenses; i++) {
+                    Timestamp created = Timestamp.valueOf(START.plusSeconds(random.nextInt(5 * 365 * 24 * 3600)));
+                    stmt.setString(1, randomTitle(random));
+                    stmt.setString(2, random.nextInt(4) == 0 ? null : randomTitle(random) + " " + randomTitle(random));
+                    stmt.setBigDecimal(3, BigDecimal.valueOf(100 + random.nextInt(50_000), 2));
+                    stmt.setInt(4, 1 + random.nextInt(CATEGORY_COUNT));
+                    stmt.setTimestamp(5, created);
+                    stmt.setTimestamp(6, created);
+                    stmt.addBatch();
+                    if ((i + 1) % BATCH_SIZE == 0) {
+                        stmt.executeBatch();
+                    }
+                }
+                stmt.executeBatch();
+            }
+            conn.commit();
+        }
+    }
+
+    public static String randomTitle(Random random) {
+        return WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)];
+    }
+}
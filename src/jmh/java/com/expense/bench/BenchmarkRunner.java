@@ -0,0 +1,28 @@
+package com.expense.bench;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks and writes JMH's JSON results to
+ * {@code expense.bench.results} (default {@code target/jmh-result.json}).
+ * Any standard JMH command line arguments are passed through.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        String results = System.getProperty("expense.bench.results", "target/jmh-result.json");
+        Options options = new OptionsBuilder()
+            .parent(new CommandLineOptions(args))
+            .resultFormat(ResultFormatType.JSON)
+            .result(results)
+            .build();
+        new Runner(options).run();
+        System.out.println("Benchmark results written to " + results);
+    }
+}
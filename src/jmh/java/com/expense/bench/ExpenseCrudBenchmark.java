@@ -0,0 +1,73 @@
+package com.expense.bench;
+
+import com.expense.dao.ExpenseTrackerDAO;
+import com.expense.model.Expense;
+import com.expense.model.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Point lookups and inserts against a 10k row table; inserts grow the table over the run
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {BenchmarkDatabase.URL_PROPERTY, BenchmarkDatabase.USERNAME_PROPERTY,
+    BenchmarkDatabase.PASSWORD_PROPERTY, BenchmarkDatabase.SCHEMA_PROPERTY})
+public class ExpenseCrudBenchmark {
+
+    private static final int ROWS = 10_000;
+    private static final int BATCH = 500;
+
+    private ExpenseTrackerDAO dao;
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void seed() throws SQLException {
+        BenchmarkDatabase.seed(ROWS);
+        dao = new ExpenseTrackerDAO();
+        random = new Random(BenchmarkDatabase.SEED);
+    }
+
+    @Benchmark
+    public Expense getExpenseById() throws SQLException {
+        return dao.getExpenseById(1 + random.nextInt(ROWS));
+    }
+
+    @Benchmark
+    public int createExpense() throws SQLException {
+        return dao.createExpense(newExpense());
+    }
+
+    // Reported per row so it compares directly with createExpense
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int[] createExpensesBatched() throws SQLException {
+        List<Expense> expenses = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            expenses.add(newExpense());
+        }
+        return dao.createExpenses(expenses);
+    }
+
+    private Expense newExpense() {
+        return new Expense(BenchmarkDatabase.randomTitle(random), null, Money.ofMinor(100 + random.nextInt(50_000)),
+            1 + random.nextInt(BenchmarkDatabase.CATEGORY_COUNT));
+    }
+}
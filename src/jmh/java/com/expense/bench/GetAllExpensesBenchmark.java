@@ -0,0 +1,47 @@
+package com.expense.bench;
+
+import com.expense.dao.ExpenseTrackerDAO;
+import com.expense.model.Expense;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Full-table load through getAllExpenses, the path the GUI used before paging
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {BenchmarkDatabase.URL_PROPERTY, BenchmarkDatabase.USERNAME_PROPERTY,
+    BenchmarkDatabase.PASSWORD_PROPERTY, BenchmarkDatabase.SCHEMA_PROPERTY, "-Xmx4g"})
+public class GetAllExpensesBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    private ExpenseTrackerDAO dao;
+
+    @Setup(Level.Trial)
+    public void seed() throws SQLException {
+        BenchmarkDatabase.seed(rows);
+        dao = new ExpenseTrackerDAO();
+    }
+
+    @Benchmark
+    public List<Expense> getAllExpenses() throws SQLException {
+        return dao.getAllExpenses();
+    }
+}
@@ -0,0 +1,112 @@
+package com.expense.bench;
+
+import com.expense.util.AppConfig;
+
+import java.awt.GraphicsEnvironment;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cold-start benchmark for the GUI: launches the packaged jar
+ * expense.startup.runs times (default 10) in a fresh JVM with
+ * expense.startup.exitWhenInteractive set, and reports the median and p90
+ * time from launch to the window's first paint and to the first tab's data
+ * being on screen. When the class-data sharing archive in
+ * expense.startup.archive exists, every run is repeated with it for
+ * comparison. Needs a display and the configured database; other expense.*
+ * properties are passed on to the application.
+ */
+public class StartupBenchmark {
+
+    private static final String FIRST_PAINT = "Startup: first paint";
+    private static final String INTERACTIVE = "Startup: interactive";
+
+    public static void main(String[] args) throws Exception {
+        if (GraphicsEnvironment.isHeadless()) {
+            System.err.println("The startup benchmark opens the application window and needs a display");
+            System.exit(2);
+        }
+        int runs = AppConfig.getInt("expense.startup.runs", 10);
+        File jar = new File(AppConfig.getString("expense.startup.jar", "target/expense-tracker-0.0.1-SNAPSHOT.jar"));
+        File archive = new File(AppConfig.getString("expense.startup.archive", "target/expense-tracker-0.0.1-SNAPSHOT.jsa"));
+        if (!jar.isFile()) {
+            System.err.println("No application jar at " + jar + "; run mvn package first");
+            System.exit(2);
+        }
+
+        report("default", measure(jar, null, runs));
+        if (archive.isFile()) {
+            report("appcds", measure(jar, archive, runs));
+        } else {
+            System.out.println("No class-data sharing archive at " + archive + "; build with -Pappcds to compare");
+        }
+    }
+
+    // Milliseconds from launch to each milestone, one row per run
+    private static long[][] measure(File jar, File archive, int runs) throws IOException, InterruptedException {
+        long[][] times = new long[runs][];
+        for (int run = 0; run < runs; run++) {
+            List<String> command = new ArrayList<>();
+            command.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+            if (archive != null) {
+                command.add("-XX:SharedArchiveFile=" + archive.getPath());
+            }
+            command.add("-Dexpense.startup.exitWhenInteractive=true");
+            for (Map.Entry<Object, Object> property : System.getProperties().entrySet()) {
+                String key = property.getKey().toString();
+                if (key.startsWith("expense.") && !key.startsWith("expense.startup.")) {
+                    command.add("-D" + key + "=" + property.getValue());
+                }
+            }
+            command.add("-jar");
+            command.add(jar.getPath());
+
+            long start = System.nanoTime();
+            Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+            long firstPaint = -1;
+            long interactive = -1;
+            try (BufferedReader out = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = out.readLine()) != null) {
+                    long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                    if (firstPaint < 0 && line.startsWith(FIRST_PAINT)) {
+                        firstPaint = elapsed;
+                    } else if (interactive < 0 && line.startsWith(INTERACTIVE)) {
+                        interactive = elapsed;
+                    }
+                }
+            }
+            if (!process.waitFor(60, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+            if (firstPaint < 0 || interactive < 0) {
+                throw new IllegalStateException("Run " + (run + 1) + " exited with " + process.exitValue()
+                    + " before reporting both startup milestones");
+            }
+            times[run] = new long[] {firstPaint, interactive};
+        }
+        return times;
+    }
+
+    private static void report(String label, long[][] times) {
+        System.out.println(label + ": first paint " + summary(times, 0) + ", interactive " + summary(times, 1));
+    }
+
+    private static String summary(long[][] times, int column) {
+        long[] values = new long[times.length];
+        for (int i = 0; i < times.length; i++) {
+            values[i] = times[i][column];
+        }
+        Arrays.sort(values);
+        int p90 = Math.min(values.length - 1, (int) Math.ceil(values.length * 0.9) - 1);
+        return "median " + values[values.length / 2] + " ms, p90 " + values[p90] + " ms";
+    }
+}
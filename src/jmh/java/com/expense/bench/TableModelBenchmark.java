@@ -0,0 +1,92 @@
+package com.expense.bench;
+
+import com.expense.dao.AsyncExpenseTrackerDAO;
+import com.expense.dao.ExpenseTrackerDAO;
+import com.expense.gui.BusyIndicator;
+import com.expense.gui.ExpenseTableModel;
+import com.expense.model.Expense;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.swing.table.DefaultTableModel;
+import javax.swing.table.TableModel;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of putting already-loaded rows into a table model and reading every
+ * cell back, as a JTable does when it paints. The DefaultTableModel case is
+ * what the GUI's old updateExpenseTable did.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {BenchmarkDatabase.URL_PROPERTY, BenchmarkDatabase.USERNAME_PROPERTY,
+    BenchmarkDatabase.PASSWORD_PROPERTY, BenchmarkDatabase.SCHEMA_PROPERTY, BenchmarkDatabase.HEADLESS_PROPERTY})
+public class TableModelBenchmark {
+
+    private static final String[] COLUMN_NAMES = {"ID", "Title", "Description", "Amount", "Category", "Created At", "Updated At"};
+
+    @Param({"1000", "10000"})
+    public int rows;
+
+    private List<Expense> expenses;
+    private AsyncExpenseTrackerDAO asyncDao;
+    private ExpenseTableModel expenseTableModel;
+
+    @Setup(Level.Trial)
+    public void seed() throws SQLException {
+        BenchmarkDatabase.seed(rows);
+        ExpenseTrackerDAO dao = new ExpenseTrackerDAO();
+        expenses = dao.getAllExpenses();
+        asyncDao = new AsyncExpenseTrackerDAO(dao);
+        expenseTableModel = new ExpenseTableModel(asyncDao, new BusyIndicator(), 200, 25);
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        asyncDao.close();
+    }
+
+    @Benchmark
+    public void defaultTableModel(Blackhole bh) {
+        DefaultTableModel model = new DefaultTableModel(COLUMN_NAMES, 0);
+        for (Expense e : expenses) {
+            model.addRow(new Object[] {
+                e.getId(), e.getTitle(), e.getDescription(), e.getAmount(), e.getCategoryName(), e.getCreated_at(), e.getUpdated_at()
+            });
+        }
+        readAll(model, bh);
+    }
+
+    @Benchmark
+    public void expenseTableModel(Blackhole bh) {
+        expenseTableModel.showSearchResults(expenses);
+        readAll(expenseTableModel, bh);
+    }
+
+    private static void readAll(TableModel model, Blackhole bh) {
+        int rowCount = model.getRowCount();
+        int columnCount = model.getColumnCount();
+        for (int row = 0; row < rowCount; row++) {
+            for (int column = 0; column < columnCount; column++) {
+                bh.consume(model.getValueAt(row, column));
+            }
+        }
+    }
+}
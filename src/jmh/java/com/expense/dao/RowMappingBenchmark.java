@@ -0,0 +1,118 @@
+package com.expense.dao;
+
+import com.expense.bench.BenchmarkDatabase;
+import com.expense.model.Expense;
+import com.expense.model.Money;
+import com.expense.util.DatabaseConnection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+// Per-row cost of the DAO's row mappers over an already-fetched, scrollable result set, with the old
+// lookup-by-name mapping kept as a baseline, and of reading just the amount as Money versus BigDecimal
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {BenchmarkDatabase.URL_PROPERTY, BenchmarkDatabase.USERNAME_PROPERTY,
+    BenchmarkDatabase.PASSWORD_PROPERTY, BenchmarkDatabase.SCHEMA_PROPERTY})
+public class RowMappingBenchmark {
+
+    private static final int ROWS = 1000;
+
+    private Connection conn;
+    private ResultSet expenseRows;
+    private ResultSet categoryRows;
+
+    @Setup(Level.Trial)
+    public void seed() throws SQLException {
+        BenchmarkDatabase.seed(ROWS);
+        conn = DatabaseConnection.getDBConnection();
+        Statement expenseStmt = conn.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
+        expenseRows = expenseStmt.executeQuery("SELECT e.id, e.title, e.description, e.amount, e.category_id, "
+            + "c.name AS category_name, e.created_at, e.updated_at FROM expenses e LEFT JOIN categories c ON e.category_id = c.id");
+        Statement categoryStmt = conn.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
+        categoryRows = categoryStmt.executeQuery("SELECT id, name, description, created_at, updated_at FROM categories");
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws SQLException {
+        conn.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void expenseRowMapper(Blackhole bh) throws SQLException {
+        expenseRows.beforeFirst();
+        ExpenseRowMapper mapper = new ExpenseRowMapper(expenseRows);
+        while (expenseRows.next()) {
+            bh.consume(mapper.map(expenseRows));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void expenseByColumnName(Blackhole bh) throws SQLException {
+        expenseRows.beforeFirst();
+        while (expenseRows.next()) {
+            bh.consume(new Expense(
+                expenseRows.getInt("id"),
+                expenseRows.getString("title"),
+                expenseRows.getString("description"),
+                Money.of(expenseRows.getBigDecimal("amount")),
+                expenseRows.getInt("category_id"),
+                expenseRows.getString("category_name"),
+                expenseRows.getTimestamp("created_at").toLocalDateTime(),
+                expenseRows.getTimestamp("updated_at").toLocalDateTime()
+            ));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void amountAsMoney(Blackhole bh) throws SQLException {
+        expenseRows.beforeFirst();
+        int amount = expenseRows.findColumn("amount");
+        while (expenseRows.next()) {
+            bh.consume(Money.read(expenseRows, amount));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void amountAsBigDecimal(Blackhole bh) throws SQLException {
+        expenseRows.beforeFirst();
+        int amount = expenseRows.findColumn("amount");
+        while (expenseRows.next()) {
+            bh.consume(expenseRows.getBigDecimal(amount));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkDatabase.CATEGORY_COUNT)
+    public void categoryRowMapper(Blackhole bh) throws SQLException {
+        categoryRows.beforeFirst();
+        CategoryRowMapper mapper = new CategoryRowMapper(categoryRows);
+        while (categoryRows.next()) {
+            bh.consume(mapper.map(categoryRows));
+        }
+    }
+}
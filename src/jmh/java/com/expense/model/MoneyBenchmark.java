@@ -0,0 +1,108 @@
+package com.expense.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Per-amount cost of parsing, summing, averaging and formatting with Money, each next to the BigDecimal code it replaced
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MoneyBenchmark {
+
+    private static final int AMOUNTS = 1000;
+
+    private String[] texts;
+    private Money[] amounts;
+    private BigDecimal[] decimals;
+    private StringBuilder out;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        Random random = new Random(42);
+        texts = new String[AMOUNTS];
+        amounts = new Money[AMOUNTS];
+        decimals = new BigDecimal[AMOUNTS];
+        for (int i = 0; i < AMOUNTS; i++) {
+            long cents = 100 + random.nextInt(50_000);
+            amounts[i] = Money.ofMinor(cents);
+            decimals[i] = BigDecimal.valueOf(cents, 2);
+            texts[i] = decimals[i].toPlainString();
+        }
+        out = new StringBuilder(AMOUNTS * 16);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(AMOUNTS)
+    public void parseMoney(Blackhole bh) {
+        for (String text : texts) {
+            bh.consume(Money.parse(text));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(AMOUNTS)
+    public void parseBigDecimal(Blackhole bh) {
+        for (String text : texts) {
+            bh.consume(new BigDecimal(text));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(AMOUNTS)
+    public Money sumMoney() {
+        Money total = Money.ZERO;
+        for (Money amount : amounts) {
+            total = total.plus(amount);
+        }
+        return total.dividedBy(AMOUNTS);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(AMOUNTS)
+    public BigDecimal sumBigDecimal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (BigDecimal amount : decimals) {
+            total = total.add(amount);
+        }
+        return total.divide(BigDecimal.valueOf(AMOUNTS), 2, RoundingMode.HALF_UP);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(AMOUNTS)
+    public int formatMoney() {
+        out.setLength(0);
+        for (Money amount : amounts) {
+            amount.appendTo(out).append(',');
+        }
+        return out.length();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(AMOUNTS)
+    public int formatBigDecimal() {
+        out.setLength(0);
+        for (BigDecimal amount : decimals) {
+            out.append(amount.toPlainString()).append(',');
+        }
+        return out.length();
+    }
+}
@@ -0,0 +1,110 @@
+package com.expense;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.Enumeration;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+import javax.swing.JButton;
+import javax.swing.JCheckBox;
+import javax.swing.JComboBox;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTabbedPane;
+import javax.swing.JTable;
+import javax.swing.JTextArea;
+import javax.swing.JTextField;
+import javax.swing.UIManager;
+import javax.swing.table.DefaultTableModel;
+
+/**
+ * Training run for the application class-data sharing archive, started with
+ * {@code --cds-training} under {@code -XX:ArchiveClassesAtExit}. It needs
+ * neither a display nor a database: it loads the application and JDBC driver
+ * classes, MySQL's and the embedded H2's, from the jar and lays out the Swing
+ * components the window uses, so their classes and look-and-feel delegates
+ * end up in the archive.
+ */
+final class CdsTraining {
+
+    private static final String[] PACKAGES = {"com/expense/", "com/mysql/cj/", "org/h2/"};
+
+    private CdsTraining() {
+    }
+
+    static void run() {
+        long start = System.nanoTime();
+        int loaded = loadJarClasses();
+        layOutComponents();
+        System.out.println("CDS training loaded " + loaded + " classes in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    // Loads without initializing, so no static initializer opens connections or threads
+    private static int loadJarClasses() {
+        File jar;
+        try {
+            jar = new File(Main.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        } catch (URISyntaxException | SecurityException e) {
+            System.err.println("CDS training could not locate the application jar: " + e.getMessage());
+            return 0;
+        }
+        if (!jar.isFile()) {
+            System.err.println("CDS training expects to run from the packaged jar, not " + jar);
+            return 0;
+        }
+        ClassLoader loader = Main.class.getClassLoader();
+        int loaded = 0;
+        try (JarFile file = new JarFile(jar)) {
+            Enumeration<JarEntry> entries = file.entries();
+            while (entries.hasMoreElements()) {
+                String name = entries.nextElement().getName();
+                if (!name.endsWith(".class") || name.endsWith("module-info.class") || !inPackages(name)) {
+                    continue;
+                }
+                try {
+                    Class.forName(name.substring(0, name.length() - 6).replace('/', '.'), false, loader);
+                    loaded++;
+                } catch (ClassNotFoundException | LinkageError e) {
+                    // Optional driver integrations whose libraries are not on the class path
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("CDS training could not read " + jar + ": " + e.getMessage());
+        }
+        return loaded;
+    }
+
+    private static boolean inPackages(String name) {
+        for (String prefix : PACKAGES) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Lightweight components work headless; only top-level windows need a display
+    private static void layOutComponents() {
+        try {
+            UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
+        } catch (Exception e) {
+            System.err.println("CDS training could not set the look and feel: " + e.getMessage());
+        }
+        JPanel panel = new JPanel();
+        JTabbedPane tabs = new JTabbedPane();
+        JTable table = new JTable(new DefaultTableModel(new Object[] {"ID", "Title"}, 1));
+        tabs.addTab("Table", new JScrollPane(table));
+        panel.add(tabs);
+        panel.add(new JTextField(20));
+        panel.add(new JScrollPane(new JTextArea(3, 20)));
+        panel.add(new JComboBox<>(new Object[] {"All"}));
+        panel.add(new JButton("Apply"));
+        panel.add(new JCheckBox("Check"));
+        panel.add(new JLabel("Label"));
+        panel.setSize(panel.getPreferredSize());
+        panel.doLayout();
+    }
+}
@@ -1,26 +1,74 @@
 package com.expense;
 
-import java.sql.Connection;
+import java.nio.file.Path;
 import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 
 import javax.swing.SwingUtilities;
 import javax.swing.UIManager;
 import javax.swing.UnsupportedLookAndFeelException;
 
+import com.expense.dao.ExpenseArchiver;
+import com.expense.dao.ExpenseFilter;
+import com.expense.dao.ExpenseReportDAO;
+import com.expense.dao.ExpenseTrackerDAO;
 import com.expense.gui.ExpenseTrackerGUI;
+import com.expense.io.BackupReader;
+import com.expense.io.BackupWriter;
+import com.expense.io.CsvExpenseImporter;
+import com.expense.io.ExpenseExporter;
+import com.expense.io.ImportResult;
+import com.expense.server.ApiServer;
+import com.expense.util.AppConfig;
 import com.expense.util.DatabaseConnection;
+import com.expense.util.QueryPlanCheck;
+import com.expense.util.SchemaManager;
 
 public class Main {
     public static void main(String[] args) {
-        try{
-            Connection cn = DatabaseConnection.getDBConnection();
-            System.out.println("Database connection has been established");
-            cn.close();
+        if (args.length > 0 && args[0].equals("--import")) {
+            runImport(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--export")) {
+            runExport(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--backup")) {
+            runBackup(args);
+            return;
         }
-        catch(SQLException e){
-            System.out.println("Database connection has failed");
+        if (args.length > 0 && args[0].equals("--restore")) {
+            runRestore(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--server")) {
+            runServer(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--cds-training")) {
+            CdsTraining.run();
+            return;
         }
 
+        // The window opens straight away while the driver, pool and schema warm up on their own thread;
+        // the GUI's first queries simply wait for whatever is still in progress
+        Thread warmUp = new Thread(() -> {
+            try {
+                DatabaseConnection.warmUp();
+                System.out.println("Database connection has been established");
+                prepareDatabase();
+            } catch (SQLException e) {
+                System.out.println("Database connection has failed: " + e.getMessage());
+            }
+        }, "startup-warmup");
+        warmUp.setDaemon(true);
+        warmUp.start();
+
         try{
             UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
         }
@@ -37,4 +85,148 @@ public class Main {
             }
         });
     }
-}
\ No newline at end of file
+
+    // --import <file.csv> [--create-categories]
+    private static void runImport(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: --import <file.csv> [--create-categories]");
+            System.exit(2);
+        }
+        boolean createCategories = hasFlag(args, "--create-categories");
+        CsvExpenseImporter importer = new CsvExpenseImporter(new ExpenseTrackerDAO(),
+            Runtime.getRuntime().availableProcessors(), createCategories);
+        try {
+            ImportResult result = importer.importFile(Path.of(args[1]));
+            System.out.println("Import finished: " + result);
+            for (String error : result.getErrors()) {
+                System.out.println("  " + error);
+            }
+        } catch (Exception e) {
+            System.err.println("Import failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    // --export <file> [--format csv|jsonl] [--from yyyy-MM-dd] [--to yyyy-MM-dd] [--categories 1,2,3] [--gzip]
+    private static void runExport(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: --export <file> [--format csv|jsonl] [--from yyyy-MM-dd] [--to yyyy-MM-dd] [--categories 1,2,3] [--gzip]");
+            System.exit(2);
+        }
+        Path file = Path.of(args[1]);
+        try {
+            ExpenseFilter filter = new ExpenseFilter();
+            String from = option(args, "--from");
+            if (from != null) {
+                filter.setFrom(LocalDate.parse(from).atStartOfDay());
+            }
+            String to = option(args, "--to");
+            if (to != null) {
+                filter.setTo(LocalDate.parse(to).plusDays(1).atStartOfDay());
+            }
+            String categories = option(args, "--categories");
+            if (categories != null) {
+                Set<Integer> ids = new LinkedHashSet<>();
+                for (String id : categories.split(",")) {
+                    ids.add(Integer.parseInt(id.trim()));
+                }
+                filter.setCategoryIds(ids);
+            }
+            ExpenseExporter.Format format = "jsonl".equalsIgnoreCase(option(args, "--format"))
+                ? ExpenseExporter.Format.JSON_LINES : ExpenseExporter.Format.CSV;
+            boolean gzip = hasFlag(args, "--gzip") || file.toString().endsWith(".gz");
+
+            System.out.println("Export finished: " + new ExpenseExporter(new ExpenseTrackerDAO()).export(filter, format, file, gzip));
+        } catch (Exception e) {
+            System.err.println("Export failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    // --backup <file> [--gzip]
+    private static void runBackup(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: --backup <file> [--gzip]");
+            System.exit(2);
+        }
+        Path file = Path.of(args[1]);
+        boolean gzip = hasFlag(args, "--gzip") || file.toString().endsWith(".gz");
+        try {
+            System.out.println("Backup finished: " + new BackupWriter(new ExpenseTrackerDAO()).backup(file, gzip));
+        } catch (Exception e) {
+            System.err.println("Backup failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    // --restore <file>
+    private static void runRestore(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: --restore <file>");
+            System.exit(2);
+        }
+        BackupReader reader = new BackupReader(new ExpenseTrackerDAO(), Runtime.getRuntime().availableProcessors());
+        try {
+            System.out.println("Restore finished: " + reader.restore(Path.of(args[1])));
+        } catch (Exception e) {
+            System.err.println("Restore failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    // --server [--host 127.0.0.1] [--port 8080]; runs until the process is stopped
+    private static void runServer(String[] args) {
+        String host = option(args, "--host");
+        String port = option(args, "--port");
+        try {
+            prepareDatabase();
+            ApiServer server = new ApiServer(host != null ? host : AppConfig.getString("expense.server.host", "127.0.0.1"),
+                port != null ? Integer.parseInt(port) : AppConfig.getInt("expense.server.port", 8080));
+            server.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> server.stop(2), "api-server-shutdown"));
+            System.out.println("API server listening on " + server.getAddress());
+        } catch (Exception e) {
+            System.err.println("Failed to start the API server: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    // Migrates the schema and starts the archive job, then EXPLAINs the DAO's statements in the background unless
+    // expense.schema.checkPlans is false
+    private static void prepareDatabase() throws SQLException {
+        SchemaManager.ensureSchema();
+        new ExpenseArchiver().start();
+        if (!AppConfig.getBoolean("expense.schema.checkPlans", true)) {
+            return;
+        }
+        Thread check = new Thread(() -> {
+            List<QueryPlanCheck> checks = new ArrayList<>(ExpenseTrackerDAO.getQueryPlanChecks());
+            checks.addAll(new ExpenseReportDAO().getQueryPlanChecks());
+            try {
+                SchemaManager.checkQueryPlans(checks);
+            } catch (SQLException e) {
+                System.err.println("Query plan check failed: " + e.getMessage());
+            }
+        }, "query-plan-check");
+        check.setDaemon(true);
+        check.start();
+    }
+
+    private static String option(String[] args, String name) {
+        for (int i = 0; i < args.length - 1; i++) {
+            if (args[i].equals(name)) {
+                return args[i + 1];
+            }
+        }
+        return null;
+    }
+
+    private static boolean hasFlag(String[] args, String name) {
+        for (String arg : args) {
+            if (arg.equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
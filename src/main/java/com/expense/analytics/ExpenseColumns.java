@@ -0,0 +1,394 @@
+package com.expense.analytics;
+
+import com.expense.dao.ExpenseFilter;
+import com.expense.dao.ExpenseTrackerDAO;
+import com.expense.dao.ReportGrouping;
+import com.expense.model.Expense;
+import com.expense.model.ExpenseSummary;
+import com.expense.model.Money;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.IsoFields;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Read-only columnar snapshot of the expenses table for analytics. Each
+ * field is a primitive array indexed by row: amounts as long cents,
+ * timestamps as epoch millis (wall-clock time read as UTC), and text
+ * dictionary-encoded to int codes. Scans split the rows across the common
+ * fork-join pool and only allocate per-task accumulators, never per row.
+ */
+public class ExpenseColumns {
+
+    // Rows per fork-join leaf
+    private static final int SCAN_THRESHOLD = 1 << 16;
+
+    private final int size;
+    private final int[] ids;
+    private final long[] amountCents;
+    private final int[] categoryIds;
+    // Dense 0..n-1 index of each row's category, used as an array index by category scans
+    private final int[] categorySlots;
+    private final int[] categoryIdBySlot;
+    private final long[] createdMillis;
+    private final int[] createdDays;
+    private final long[] updatedMillis;
+    private final int[] titleCodes;
+    private final int[] descriptionCodes;
+    private final StringDictionary titles;
+    private final StringDictionary descriptions;
+    private final Map<Integer, String> categoryNames;
+    private final int minDay;
+    private final int maxDay;
+    private final LocalDateTime loadedAt;
+
+    private ExpenseColumns(Builder b, LocalDateTime loadedAt) {
+        this.size = b.size;
+        this.ids = Arrays.copyOf(b.ids, b.size);
+        this.amountCents = Arrays.copyOf(b.amountCents, b.size);
+        this.categoryIds = Arrays.copyOf(b.categoryIds, b.size);
+        this.categorySlots = Arrays.copyOf(b.categorySlots, b.size);
+        this.createdMillis = Arrays.copyOf(b.createdMillis, b.size);
+        this.createdDays = Arrays.copyOf(b.createdDays, b.size);
+        this.updatedMillis = Arrays.copyOf(b.updatedMillis, b.size);
+        this.titleCodes = Arrays.copyOf(b.titleCodes, b.size);
+        this.descriptionCodes = Arrays.copyOf(b.descriptionCodes, b.size);
+        this.titles = b.titles;
+        this.descriptions = b.descriptions;
+        this.categoryNames = b.categoryNames;
+        this.minDay = b.minDay;
+        this.maxDay = b.maxDay;
+        this.loadedAt = loadedAt;
+
+        this.categoryIdBySlot = new int[b.slotByCategoryId.size()];
+        for (Map.Entry<Integer, Integer> entry : b.slotByCategoryId.entrySet()) {
+            categoryIdBySlot[entry.getValue()] = entry.getKey();
+        }
+    }
+
+    // One streaming pass over the expenses table
+    public static ExpenseColumns load(ExpenseTrackerDAO dao) throws SQLException {
+        return load(dao, new ExpenseFilter());
+    }
+
+    public static ExpenseColumns load(ExpenseTrackerDAO dao, ExpenseFilter filter) throws SQLException {
+        LocalDateTime loadedAt = LocalDateTime.now();
+        Builder builder = new Builder();
+        try {
+            dao.streamExpenses(filter, builder::add);
+        } catch (IOException e) {
+            throw new SQLException("Loading the expense snapshot failed", e);
+        }
+        return new ExpenseColumns(builder, loadedAt);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public LocalDateTime getLoadedAt() {
+        return loadedAt;
+    }
+
+    // Rough footprint of the column arrays, excluding the dictionaries
+    public long getColumnBytes() {
+        return (long) size * (4 + 8 + 4 + 4 + 8 + 4 + 8 + 4 + 4);
+    }
+
+    public int getId(int row) {
+        return ids[row];
+    }
+
+    public long getAmountCents(int row) {
+        return amountCents[row];
+    }
+
+    public int getCategoryId(int row) {
+        return categoryIds[row];
+    }
+
+    public String getTitle(int row) {
+        return titles.decode(titleCodes[row]);
+    }
+
+    public String getDescription(int row) {
+        return descriptions.decode(descriptionCodes[row]);
+    }
+
+    public Expense getExpense(int row) {
+        return new Expense(ids[row], getTitle(row), getDescription(row), Money.ofMinor(amountCents[row]),
+            categoryIds[row], categoryNames.get(categoryIds[row]), toDateTime(createdMillis[row]), toDateTime(updatedMillis[row]));
+    }
+
+    public long count(ExpenseFilter filter) {
+        return scan(null, filter).counts[0];
+    }
+
+    public long sumCents(ExpenseFilter filter) {
+        return scan(null, filter).sums[0];
+    }
+
+    // Same rows and rounding as ExpenseReportDAO.summarize, computed from the snapshot
+    public List<ExpenseSummary> summarize(ReportGrouping grouping, LocalDateTime from, LocalDateTime to) {
+        ExpenseFilter filter = new ExpenseFilter();
+        filter.setFrom(from);
+        filter.setTo(to);
+        return summarize(grouping, filter);
+    }
+
+    public List<ExpenseSummary> summarize(ReportGrouping grouping, ExpenseFilter filter) {
+        Groups groups = groups(grouping);
+        Accumulator totals = scan(groups, filter);
+
+        List<ExpenseSummary> rows = new ArrayList<>();
+        for (int g = 0; g < groups.labels.length; g++) {
+            long count = totals.counts[g];
+            if (count == 0) {
+                continue;
+            }
+            Money total = Money.ofMinor(totals.sums[g]);
+            rows.add(new ExpenseSummary(groups.labels[g], count, total, Money.ofMinor(totals.mins[g]),
+                Money.ofMinor(totals.maxs[g]), total.dividedBy(count)));
+        }
+        if (grouping == ReportGrouping.CATEGORY) {
+            rows.sort((a, b) -> b.getTotal().compareTo(a.getTotal()));
+        }
+        return rows;
+    }
+
+    private Accumulator scan(Groups groups, ExpenseFilter filter) {
+        RowFilter rowFilter = new RowFilter(filter);
+        int groupCount = groups != null ? groups.labels.length : 1;
+        return ForkJoinPool.commonPool().invoke(new ScanTask(groups, rowFilter, groupCount, 0, size));
+    }
+
+    // Group index per category slot, or per day offset from minDay for the time buckets
+    private Groups groups(ReportGrouping grouping) {
+        if (grouping == ReportGrouping.CATEGORY) {
+            String[] labels = new String[categoryIdBySlot.length];
+            for (int slot = 0; slot < labels.length; slot++) {
+                String name = categoryNames.get(categoryIdBySlot[slot]);
+                labels[slot] = name != null ? name : "Uncategorized";
+            }
+            return new Groups(grouping, null, labels);
+        }
+
+        int span = size == 0 ? 0 : maxDay - minDay + 1;
+        int[] dayToGroup = new int[span];
+        // Days ascend, so groups are numbered in label order
+        Map<String, Integer> groupByLabel = new LinkedHashMap<>();
+        for (int d = 0; d < span; d++) {
+            String label = bucketLabel(grouping, LocalDate.ofEpochDay(minDay + d));
+            Integer group = groupByLabel.get(label);
+            if (group == null) {
+                group = groupByLabel.size();
+                groupByLabel.put(label, group);
+            }
+            dayToGroup[d] = group;
+        }
+        return new Groups(grouping, dayToGroup, groupByLabel.keySet().toArray(new String[0]));
+    }
+
+    private static String bucketLabel(ReportGrouping grouping, LocalDate day) {
+        switch (grouping) {
+            case DAY: return day.toString();
+            case WEEK: return String.format("%d-W%02d", day.get(IsoFields.WEEK_BASED_YEAR), day.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+            case MONTH: return String.format("%d-%02d", day.getYear(), day.getMonthValue());
+            default: throw new IllegalArgumentException("Unknown grouping " + grouping);
+        }
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static LocalDateTime toDateTime(long millis) {
+        return millis == Long.MIN_VALUE ? null : LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000),
+            Math.floorMod(millis, 1000) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    private final class RowFilter {
+        private final long fromMillis;
+        private final long toMillis;
+        // Null means every category
+        private final boolean[] allowedSlots;
+
+        private RowFilter(ExpenseFilter filter) {
+            fromMillis = filter.getFrom() != null ? toMillis(filter.getFrom()) : Long.MIN_VALUE;
+            toMillis = filter.getTo() != null ? toMillis(filter.getTo()) : Long.MAX_VALUE;
+            if (filter.getCategoryIds().isEmpty()) {
+                allowedSlots = null;
+            } else {
+                allowedSlots = new boolean[categoryIdBySlot.length];
+                for (int slot = 0; slot < categoryIdBySlot.length; slot++) {
+                    allowedSlots[slot] = filter.getCategoryIds().contains(categoryIdBySlot[slot]);
+                }
+            }
+        }
+
+        private boolean matches(int row) {
+            long created = createdMillis[row];
+            return created >= fromMillis && created < toMillis
+                && (allowedSlots == null || allowedSlots[categorySlots[row]]);
+        }
+    }
+
+    private static final class Groups {
+        private final ReportGrouping grouping;
+        private final int[] dayToGroup;
+        private final String[] labels;
+
+        private Groups(ReportGrouping grouping, int[] dayToGroup, String[] labels) {
+            this.grouping = grouping;
+            this.dayToGroup = dayToGroup;
+            this.labels = labels;
+        }
+    }
+
+    private static final class Accumulator {
+        private final long[] counts;
+        private final long[] sums;
+        private final long[] mins;
+        private final long[] maxs;
+
+        private Accumulator(int groups) {
+            counts = new long[groups];
+            sums = new long[groups];
+            mins = new long[groups];
+            maxs = new long[groups];
+            Arrays.fill(mins, Long.MAX_VALUE);
+            Arrays.fill(maxs, Long.MIN_VALUE);
+        }
+
+        private void merge(Accumulator other) {
+            for (int g = 0; g < counts.length; g++) {
+                counts[g] += other.counts[g];
+                sums[g] = Math.addExact(sums[g], other.sums[g]);
+                mins[g] = Math.min(mins[g], other.mins[g]);
+                maxs[g] = Math.max(maxs[g], other.maxs[g]);
+            }
+        }
+    }
+
+    private final class ScanTask extends RecursiveTask<Accumulator> {
+        private final Groups groups;
+        private final RowFilter filter;
+        private final int groupCount;
+        private final int from;
+        private final int to;
+
+        private ScanTask(Groups groups, RowFilter filter, int groupCount, int from, int to) {
+            this.groups = groups;
+            this.filter = filter;
+            this.groupCount = groupCount;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Accumulator compute() {
+            if (to - from > SCAN_THRESHOLD) {
+                int mid = (from + to) >>> 1;
+                ScanTask left = new ScanTask(groups, filter, groupCount, from, mid);
+                left.fork();
+                Accumulator right = new ScanTask(groups, filter, groupCount, mid, to).compute();
+                Accumulator result = left.join();
+                result.merge(right);
+                return result;
+            }
+
+            Accumulator acc = new Accumulator(groupCount);
+            boolean byCategory = groups != null && groups.grouping == ReportGrouping.CATEGORY;
+            int[] dayToGroup = groups != null ? groups.dayToGroup : null;
+            for (int row = from; row < to; row++) {
+                if (!filter.matches(row)) {
+                    continue;
+                }
+                int g = byCategory ? categorySlots[row] : dayToGroup != null ? dayToGroup[createdDays[row] - minDay] : 0;
+                long cents = amountCents[row];
+                acc.counts[g]++;
+                acc.sums[g] = Math.addExact(acc.sums[g], cents);
+                if (cents < acc.mins[g]) {
+                    acc.mins[g] = cents;
+                }
+                if (cents > acc.maxs[g]) {
+                    acc.maxs[g] = cents;
+                }
+            }
+            return acc;
+        }
+    }
+
+    // Growable columns filled row by row from the DAO stream
+    private static final class Builder {
+        private int size;
+        private int[] ids = new int[1024];
+        private long[] amountCents = new long[1024];
+        private int[] categoryIds = new int[1024];
+        private int[] categorySlots = new int[1024];
+        private long[] createdMillis = new long[1024];
+        private int[] createdDays = new int[1024];
+        private long[] updatedMillis = new long[1024];
+        private int[] titleCodes = new int[1024];
+        private int[] descriptionCodes = new int[1024];
+        private final StringDictionary titles = new StringDictionary();
+        private final StringDictionary descriptions = new StringDictionary();
+        private final Map<Integer, String> categoryNames = new HashMap<>();
+        private final Map<Integer, Integer> slotByCategoryId = new HashMap<>();
+        private int minDay = Integer.MAX_VALUE;
+        private int maxDay = Integer.MIN_VALUE;
+
+        private void add(Expense expense) {
+            if (size == ids.length) {
+                grow();
+            }
+            int row = size++;
+            ids[row] = expense.getId();
+            amountCents[row] = expense.getAmount().getMinorUnits();
+            int categoryId = expense.getCategoryId();
+            categoryIds[row] = categoryId;
+            Integer slot = slotByCategoryId.get(categoryId);
+            if (slot == null) {
+                slot = slotByCategoryId.size();
+                slotByCategoryId.put(categoryId, slot);
+                categoryNames.put(categoryId, expense.getCategoryName());
+            }
+            categorySlots[row] = slot;
+
+            LocalDateTime created = expense.getCreated_at();
+            createdMillis[row] = toMillis(created);
+            int day = (int) created.toLocalDate().toEpochDay();
+            createdDays[row] = day;
+            minDay = Math.min(minDay, day);
+            maxDay = Math.max(maxDay, day);
+            updatedMillis[row] = expense.getUpdated_at() != null ? toMillis(expense.getUpdated_at()) : Long.MIN_VALUE;
+
+            titleCodes[row] = titles.encode(expense.getTitle());
+            descriptionCodes[row] = descriptions.encode(expense.getDescription());
+        }
+
+        private void grow() {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            amountCents = Arrays.copyOf(amountCents, capacity);
+            categoryIds = Arrays.copyOf(categoryIds, capacity);
+            categorySlots = Arrays.copyOf(categorySlots, capacity);
+            createdMillis = Arrays.copyOf(createdMillis, capacity);
+            createdDays = Arrays.copyOf(createdDays, capacity);
+            updatedMillis = Arrays.copyOf(updatedMillis, capacity);
+            titleCodes = Arrays.copyOf(titleCodes, capacity);
+            descriptionCodes = Arrays.copyOf(descriptionCodes, capacity);
+        }
+    }
+}
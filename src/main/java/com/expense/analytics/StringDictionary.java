@@ -0,0 +1,40 @@
+package com.expense.analytics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Maps each distinct string to a dense int code so a column can store codes instead of references. Code -1 is null.
+public class StringDictionary {
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+
+    public int encode(String value) {
+        if (value == null) {
+            return -1;
+        }
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = values.size();
+            codes.put(value, code);
+            values.add(value);
+        }
+        return code;
+    }
+
+    public String decode(int code) {
+        return code < 0 ? null : values.get(code);
+    }
+
+    // -1 if the value never occurs, which lets equality filters compare codes only
+    public int codeOf(String value) {
+        Integer code = value != null ? codes.get(value) : null;
+        return code != null ? code : -1;
+    }
+
+    public int size() {
+        return values.size();
+    }
+}
@@ -0,0 +1,174 @@
+package com.expense.dao;
+
+import com.expense.model.Category;
+import com.expense.model.Expense;
+import com.expense.model.ExpenseKey;
+import com.expense.util.AppConfig;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs {@link ExpenseTrackerDAO} calls on a small bounded worker pool and
+ * hands back {@link CompletableFuture}s, so callers such as the Swing GUI
+ * never wait on JDBC themselves.
+ */
+public class AsyncExpenseTrackerDAO implements AutoCloseable {
+
+    @FunctionalInterface
+    public interface SqlCall<T> {
+        T call() throws SQLException;
+    }
+
+    private final ExpenseTrackerDAO dao;
+    private final ThreadPoolExecutor executor;
+    // Most recent in-flight call per key, cancelled when a newer call with the same key arrives
+    private final Map<String, CompletableFuture<?>> latestByKey = new ConcurrentHashMap<>();
+
+    public AsyncExpenseTrackerDAO(ExpenseTrackerDAO dao) {
+        this(dao, AppConfig.getInt("expense.async.threads", 4), AppConfig.getInt("expense.async.queueSize", 256));
+    }
+
+    public AsyncExpenseTrackerDAO(ExpenseTrackerDAO dao, int threads, int queueSize) {
+        this.dao = dao;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueSize), r -> {
+                Thread t = new Thread(r, "dao-worker-" + counter.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    public ExpenseTrackerDAO getDao() {
+        return dao;
+    }
+
+    public <T> CompletableFuture<T> submit(SqlCall<T> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> task;
+        try {
+            task = executor.submit(() -> {
+                if (result.isDone()) {
+                    return;
+                }
+                try {
+                    result.complete(call.call());
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(new SQLException("Too many database requests queued", e));
+            return result;
+        }
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                task.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    // Like submit, but cancels the previous call made with the same key if it has not finished yet
+    public <T> CompletableFuture<T> submitLatest(String key, SqlCall<T> call) {
+        CompletableFuture<T> result = submit(call);
+        CompletableFuture<?> previous = latestByKey.put(key, result);
+        if (previous != null) {
+            previous.cancel(true);
+        }
+        result.whenComplete((value, error) -> latestByKey.remove(key, result));
+        return result;
+    }
+
+    //Cat
+
+    public CompletableFuture<Integer> createCategory(Category category) {
+        return submit(() -> dao.createCategory(category));
+    }
+
+    public CompletableFuture<List<Category>> getAllCategories() {
+        return submitLatest("categories", dao::getAllCategories);
+    }
+
+    public CompletableFuture<Category> getCategoryById(int categoryId) {
+        return submit(() -> dao.getCategoryById(categoryId));
+    }
+
+    public CompletableFuture<Boolean> updateCategory(Category category) {
+        return submit(() -> dao.updateCategory(category));
+    }
+
+    public CompletableFuture<UpdateResult> updateCategoryIfCurrent(Category category) {
+        return submit(() -> dao.updateCategoryIfCurrent(category));
+    }
+
+    public CompletableFuture<Boolean> deleteCategory(int categoryId) {
+        return submit(() -> dao.deleteCategory(categoryId));
+    }
+
+    public CompletableFuture<Integer> deleteCategories(int[] categoryIds) {
+        return submit(() -> dao.deleteCategories(categoryIds));
+    }
+
+    //Expense
+
+    public CompletableFuture<Integer> createExpense(Expense expense) {
+        return submit(() -> dao.createExpense(expense));
+    }
+
+    public CompletableFuture<List<Expense>> getAllExpenses() {
+        return submitLatest("expenses", dao::getAllExpenses);
+    }
+
+    public CompletableFuture<Expense> getExpenseById(int expenseId) {
+        return submit(() -> dao.getExpenseById(expenseId));
+    }
+
+    public CompletableFuture<Boolean> updateExpense(Expense expense) {
+        return submit(() -> dao.updateExpense(expense));
+    }
+
+    public CompletableFuture<UpdateResult> updateExpenseIfCurrent(Expense expense) {
+        return submit(() -> dao.updateExpenseIfCurrent(expense));
+    }
+
+    public CompletableFuture<UpdateResult[]> updateExpensesIfCurrent(List<Expense> expenses) {
+        return submit(() -> dao.updateExpensesIfCurrent(expenses));
+    }
+
+    public CompletableFuture<Boolean> deleteExpense(int expenseId) {
+        return submit(() -> dao.deleteExpense(expenseId));
+    }
+
+    public CompletableFuture<Integer> deleteExpenses(int[] expenseIds) {
+        return submit(() -> dao.deleteExpenses(expenseIds));
+    }
+
+    public CompletableFuture<Integer> reassignCategory(int[] expenseIds, int categoryId) {
+        return submit(() -> dao.reassignCategory(expenseIds, categoryId));
+    }
+
+    public CompletableFuture<Integer> countExpenses() {
+        return submitLatest("expense-count", dao::countExpenses);
+    }
+
+    public CompletableFuture<List<Expense>> getExpensesPage(ExpenseKey after, int limit) {
+        return submit(() -> dao.getExpensesPage(after, limit));
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,161 @@
+package com.expense.dao;
+
+import com.expense.model.Category;
+import com.expense.util.CacheStats;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process copy of the categories table. Reads go against an immutable
+ * snapshot that is swapped whole on every write, so lookups never lock.
+ * Every write bumps a generation; a snapshot read from the database is only
+ * installed if no write happened while it was being read, so a slow load
+ * cannot undo a category created in the meantime. Callers always get
+ * copies, never the cached instances.
+ */
+class CategoryCache {
+
+    // Same order as SELECT_ALL_CATEGORIES
+    private static final Comparator<Category> NEWEST_FIRST = Comparator
+        .comparing(Category::getCreated_at, Comparator.nullsLast(Comparator.reverseOrder()))
+        .thenComparing(Comparator.comparingInt(Category::getId).reversed());
+
+    private volatile Snapshot snapshot;
+    private volatile long generation;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    boolean isLoaded() {
+        return snapshot != null;
+    }
+
+    // Returns null when the cache has not been loaded yet
+    List<Category> getAll() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        List<Category> copies = new ArrayList<>(current.ordered.size());
+        for (Category category : current.ordered) {
+            copies.add(copyOf(category));
+        }
+        return copies;
+    }
+
+    Category getById(int id) {
+        Snapshot current = snapshot;
+        Category category = current != null ? current.byId.get(id) : null;
+        record(category);
+        return category != null ? copyOf(category) : null;
+    }
+
+    Category getByName(String name) {
+        Snapshot current = snapshot;
+        Category category = current != null && name != null ? current.byName.get(nameKey(name)) : null;
+        record(category);
+        return category != null ? copyOf(category) : null;
+    }
+
+    // Taken before reading categories from the database, and passed to load or putIfUnchanged with what was read
+    long readStarted() {
+        return generation;
+    }
+
+    // Returns false, leaving the cache unloaded, if a write happened since readStarted
+    synchronized boolean load(Collection<Category> categories, long readStarted) {
+        if (generation != readStarted) {
+            return false;
+        }
+        Map<Integer, Category> byId = new HashMap<>();
+        for (Category category : categories) {
+            byId.put(category.getId(), copyOf(category));
+        }
+        snapshot = new Snapshot(byId);
+        return true;
+    }
+
+    // Writes are applied only to a loaded cache; an unloaded one is filled from the database on next read
+    synchronized void put(Category category) {
+        putAll(List.of(category));
+    }
+
+    // One snapshot rebuild for the lot, as after a batch insert
+    synchronized void putAll(Collection<Category> categories) {
+        generation++;
+        if (snapshot != null) {
+            Map<Integer, Category> byId = new HashMap<>(snapshot.byId);
+            for (Category category : categories) {
+                byId.put(category.getId(), copyOf(category));
+            }
+            snapshot = new Snapshot(byId);
+        }
+    }
+
+    // For a row read from the database: skipped if a write happened since readStarted, as the row may be older
+    synchronized void putIfUnchanged(Category category, long readStarted) {
+        if (generation == readStarted) {
+            put(category);
+        }
+    }
+
+    synchronized void remove(int id) {
+        generation++;
+        if (snapshot != null && snapshot.byId.containsKey(id)) {
+            Map<Integer, Category> byId = new HashMap<>(snapshot.byId);
+            byId.remove(id);
+            snapshot = new Snapshot(byId);
+        }
+    }
+
+    synchronized void invalidate() {
+        generation++;
+        snapshot = null;
+    }
+
+    CacheStats getStats() {
+        Snapshot current = snapshot;
+        return new CacheStats("categories", hits.sum(), misses.sum(), 0, current != null ? current.byId.size() : 0);
+    }
+
+    private void record(Category found) {
+        if (found != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+    }
+
+    private static String nameKey(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Category copyOf(Category c) {
+        return new Category(c.getId(), c.getName(), c.getDescription(), c.getCreated_at(), c.getUpdated_at());
+    }
+
+    private static final class Snapshot {
+        private final Map<Integer, Category> byId;
+        private final Map<String, Category> byName = new HashMap<>();
+        private final List<Category> ordered;
+
+        private Snapshot(Map<Integer, Category> byId) {
+            this.byId = byId;
+            this.ordered = new ArrayList<>(byId.values());
+            this.ordered.sort(NEWEST_FIRST);
+            for (Category category : ordered) {
+                if (category.getName() != null) {
+                    byName.putIfAbsent(nameKey(category.getName()), category);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.expense.dao;
+
+import com.expense.model.Category;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+// Category counterpart of ExpenseRowMapper
+final class CategoryRowMapper {
+
+    private final int id;
+    private final int name;
+    private final int description;
+    private final int createdAt;
+    private final int updatedAt;
+
+    CategoryRowMapper(ResultSet rs) throws SQLException {
+        id = rs.findColumn("id");
+        name = rs.findColumn("name");
+        description = rs.findColumn("description");
+        createdAt = rs.findColumn("created_at");
+        updatedAt = rs.findColumn("updated_at");
+    }
+
+    Category map(ResultSet rs) throws SQLException {
+        return new Category(
+            rs.getInt(id),
+            rs.getString(name),
+            rs.getString(description),
+            rs.getObject(createdAt, LocalDateTime.class),
+            rs.getObject(updatedAt, LocalDateTime.class)
+        );
+    }
+}
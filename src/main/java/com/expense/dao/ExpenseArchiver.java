@@ -0,0 +1,343 @@
+package com.expense.dao;
+
+import com.expense.metrics.DaoMetrics;
+import com.expense.util.AppConfig;
+import com.expense.util.DatabaseConnection;
+import com.expense.util.SchemaManager;
+import com.expense.util.SqlDialect;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves expenses created before the archive horizon from expenses into
+ * expenses_archive and keeps per-month, per-category totals of the archive
+ * in expense_monthly_rollups. The horizon is the start of the month
+ * expense.archive.horizonMonths (default 24) months back. Every archived row
+ * is older than expense_archive_state.archived_before, which is what lets
+ * readers skip the archive and reports read whole months from the rollups.
+ * Readers take that horizon from an in-process cache, refreshed every
+ * expense.archive.horizonCacheMillis (default 60,000) and by each run here.
+ * Archived rows keep their IDs; writing to one moves it back first.
+ */
+public class ExpenseArchiver {
+
+    private static final DaoMetrics METRICS = DaoMetrics.getInstance();
+
+    private static final String LOCK_NAME = "expense_tracker_archive";
+    private static final String COLUMNS = "id, title, description, amount, category_id, created_at, updated_at";
+    private static final SqlDialect DIALECT = DatabaseConnection.DIALECT;
+    private static final String MONTH = DIALECT.monthStart("created_at");
+
+    private static final long HORIZON_CACHE_NANOS = TimeUnit.MILLISECONDS.toNanos(AppConfig.getLong("expense.archive.horizonCacheMillis", 60_000));
+
+    private static final String SELECT_ARCHIVED_BEFORE = "SELECT archived_before FROM expense_archive_state WHERE id = 1";
+    private static final String UPDATE_ARCHIVED_BEFORE = "UPDATE expense_archive_state SET archived_before = ? WHERE id = 1 AND (archived_before IS NULL OR archived_before < ?)";
+    private static final String SELECT_EXPENSES_TO_ARCHIVE = "SELECT id FROM expenses WHERE created_at < ? ORDER BY created_at, id LIMIT ? FOR UPDATE";
+    private static final String COPY_TO_ARCHIVE = "INSERT INTO expenses_archive(" + COLUMNS + ") SELECT " + COLUMNS + " FROM expenses WHERE id IN (";
+    private static final String DELETE_EXPENSES = "DELETE FROM expenses WHERE id IN (";
+    private static final String ROLLUP_COLUMNS = "month, category_id, expense_count, total, min_amount, max_amount";
+    // Adds the archived rows' counts and totals to their months' rollups; H2 has no INSERT ... SELECT ... ON DUPLICATE KEY
+    private static final String ADD_TO_ROLLUPS = DIALECT == SqlDialect.H2
+        ? "MERGE INTO expense_monthly_rollups r USING (SELECT " + MONTH + " AS month, COALESCE(category_id, 0) AS category_id, COUNT(*) AS expense_count, SUM(amount) AS total, MIN(amount) AS min_amount, MAX(amount) AS max_amount FROM expenses_archive WHERE id IN ("
+        : "INSERT INTO expense_monthly_rollups(" + ROLLUP_COLUMNS + ") SELECT " + MONTH + ", COALESCE(category_id, 0), COUNT(*), SUM(amount), MIN(amount), MAX(amount) FROM expenses_archive WHERE id IN (";
+    private static final String ADD_TO_ROLLUPS_END = DIALECT == SqlDialect.H2
+        ? ") GROUP BY " + MONTH + ", COALESCE(category_id, 0)) a ON r.month = a.month AND r.category_id = a.category_id"
+            + " WHEN MATCHED THEN UPDATE SET expense_count = r.expense_count + a.expense_count, total = r.total + a.total, min_amount = LEAST(r.min_amount, a.min_amount), max_amount = GREATEST(r.max_amount, a.max_amount)"
+            + " WHEN NOT MATCHED THEN INSERT (" + ROLLUP_COLUMNS + ") VALUES (a.month, a.category_id, a.expense_count, a.total, a.min_amount, a.max_amount)"
+        : ") GROUP BY 1, 2 ON DUPLICATE KEY UPDATE expense_count = expense_count + VALUES(expense_count), total = total + VALUES(total), min_amount = LEAST(min_amount, VALUES(min_amount)), max_amount = GREATEST(max_amount, VALUES(max_amount))";
+
+    private static final String SELECT_ARCHIVED_FOR_UPDATE = "SELECT id, created_at FROM expenses_archive WHERE id IN (";
+    private static final String COPY_FROM_ARCHIVE = "INSERT INTO expenses(" + COLUMNS + ") SELECT " + COLUMNS + " FROM expenses_archive WHERE id IN (";
+    private static final String DELETE_ARCHIVED = "DELETE FROM expenses_archive WHERE id IN (";
+    private static final String DELETE_ROLLUP_MONTH = "DELETE FROM expense_monthly_rollups WHERE month = ?";
+    private static final String INSERT_ROLLUP_MONTH = "INSERT INTO expense_monthly_rollups(" + ROLLUP_COLUMNS + ") SELECT ?, COALESCE(category_id, 0), COUNT(*), SUM(amount), MIN(amount), MAX(amount) FROM expenses_archive WHERE created_at >= ? AND created_at < ? GROUP BY COALESCE(category_id, 0)";
+
+    private static volatile Horizon horizon;
+
+    private final int horizonMonths;
+    private final int batchSize;
+    private ScheduledExecutorService scheduler;
+
+    public ExpenseArchiver() {
+        this(AppConfig.getInt("expense.archive.horizonMonths", 24), AppConfig.getInt("expense.archive.batchSize", 1000));
+    }
+
+    public ExpenseArchiver(int horizonMonths, int batchSize) {
+        this.horizonMonths = horizonMonths;
+        this.batchSize = batchSize;
+    }
+
+    // Archives every expense.archive.intervalMinutes (default 60), starting a minute from now; does nothing when the horizon is 0
+    public synchronized void start() {
+        if (scheduler != null || horizonMonths <= 0) {
+            return;
+        }
+        long intervalMinutes = AppConfig.getLong("expense.archive.intervalMinutes", 60);
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "expense-archiver");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                int moved = archive();
+                if (moved > 0) {
+                    System.out.println("Archived " + moved + " expenses created before " + getCutoff());
+                }
+            } catch (SQLException e) {
+                System.err.println("Archiving expenses failed: " + e.getMessage());
+            }
+        }, 1, Math.max(1, intervalMinutes), TimeUnit.MINUTES);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    public LocalDateTime getCutoff() {
+        return LocalDate.now().withDayOfMonth(1).minusMonths(horizonMonths).atStartOfDay();
+    }
+
+    public int archive() throws SQLException {
+        return archive(getCutoff());
+    }
+
+    // Moves expenses created before the cutoff in batches, one transaction per batch, and returns how many moved.
+    // Skips the run when another instance is already archiving.
+    public int archive(LocalDateTime cutoff) throws SQLException {
+        return METRICS.call("archiveExpenses", moved -> moved, () -> {
+            SchemaManager.ensureSchema();
+            try (Connection conn = METRICS.acquire(DatabaseConnection::getDBConnection)) {
+                if (!lock(conn)) {
+                    return 0;
+                }
+                try {
+                    // Committed before the first batch, so readers look in the archive for every row a batch moves,
+                    // including while the run is in progress or after it failed part way. Rows before the cutoff that
+                    // have not moved yet are still found in expenses.
+                    boolean raised;
+                    try (PreparedStatement stmt = conn.prepareStatement(UPDATE_ARCHIVED_BEFORE)) {
+                        stmt.setTimestamp(1, Timestamp.valueOf(cutoff));
+                        stmt.setTimestamp(2, Timestamp.valueOf(cutoff));
+                        raised = stmt.executeUpdate() > 0;
+                    }
+                    refreshHorizon(conn);
+                    // Other instances may still hold the old horizon in their caches; no row moves until those expire
+                    if (raised && DIALECT.supportsNamedLocks() && HORIZON_CACHE_NANOS > 0) {
+                        try {
+                            TimeUnit.NANOSECONDS.sleep(HORIZON_CACHE_NANOS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return 0;
+                        }
+                    }
+                    int moved = 0;
+                    int batch;
+                    do {
+                        batch = archiveBatch(conn, cutoff);
+                        moved += batch;
+                    } while (batch == batchSize);
+                    return moved;
+                } finally {
+                    unlock(conn);
+                }
+            }
+        });
+    }
+
+    // Rollups grow with each batch in the same transaction, so they always match the archive exactly
+    private int archiveBatch(Connection conn, LocalDateTime cutoff) throws SQLException {
+        conn.setAutoCommit(false);
+        try {
+            List<Integer> ids = new ArrayList<>(batchSize);
+            try (PreparedStatement stmt = conn.prepareStatement(SELECT_EXPENSES_TO_ARCHIVE)) {
+                stmt.setTimestamp(1, Timestamp.valueOf(cutoff));
+                stmt.setInt(2, batchSize);
+                try (ResultSet res = stmt.executeQuery()) {
+                    while (res.next()) {
+                        ids.add(res.getInt(1));
+                    }
+                }
+            }
+            if (!ids.isEmpty()) {
+                executeForIds(conn, COPY_TO_ARCHIVE, ")", ids);
+                executeForIds(conn, DELETE_EXPENSES, ")", ids);
+                executeForIds(conn, ADD_TO_ROLLUPS, ADD_TO_ROLLUPS_END, ids);
+            }
+            conn.commit();
+            return ids.size();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    // Every archived row is older than this, though older rows may still be in expenses; null before the first run.
+    // Served from the cache while it is fresh, otherwise read on the given connection.
+    static LocalDateTime getArchivedBefore(Connection conn) throws SQLException {
+        Horizon cached = horizon;
+        if (cached != null && System.nanoTime() - cached.readAtNanos < HORIZON_CACHE_NANOS) {
+            return cached.archivedBefore;
+        }
+        return refreshHorizon(conn);
+    }
+
+    // Drops the cached horizon, e.g. after the tables were emptied under the DAO
+    static void invalidateHorizon() {
+        horizon = null;
+    }
+
+    // The horizon only rises, so a read that raced an archive run and saw the older value never replaces the newer one
+    private static LocalDateTime refreshHorizon(Connection conn) throws SQLException {
+        long readAtNanos = System.nanoTime();
+        LocalDateTime archivedBefore = readArchivedBefore(conn);
+        synchronized (ExpenseArchiver.class) {
+            Horizon cached = horizon;
+            if (cached != null && cached.archivedBefore != null
+                && (archivedBefore == null || archivedBefore.isBefore(cached.archivedBefore))) {
+                archivedBefore = cached.archivedBefore;
+            }
+            horizon = new Horizon(archivedBefore, readAtNanos);
+        }
+        return archivedBefore;
+    }
+
+    private static LocalDateTime readArchivedBefore(Connection conn) throws SQLException {
+        try (
+            PreparedStatement stmt = conn.prepareStatement(SELECT_ARCHIVED_BEFORE);
+            ResultSet res = stmt.executeQuery()
+        ) {
+            return res.next() ? res.getObject(1, LocalDateTime.class) : null;
+        }
+    }
+
+    // Moves the given expenses back from the archive, if they are there, and returns the IDs that moved. Runs in the
+    // caller's transaction, or in its own when the connection is in auto-commit. The next archive run moves them back.
+    static Set<Integer> restore(Connection conn, List<Integer> ids) throws SQLException {
+        boolean autoCommit = conn.getAutoCommit();
+        if (autoCommit) {
+            conn.setAutoCommit(false);
+        }
+        try {
+            Set<Integer> restored = new TreeSet<>();
+            Set<LocalDate> months = new TreeSet<>();
+            try (PreparedStatement stmt = conn.prepareStatement(withIds(SELECT_ARCHIVED_FOR_UPDATE, ") FOR UPDATE", ids.size()))) {
+                bindIds(stmt, ids);
+                try (ResultSet res = stmt.executeQuery()) {
+                    while (res.next()) {
+                        restored.add(res.getInt(1));
+                        months.add(res.getObject(2, LocalDateTime.class).toLocalDate().withDayOfMonth(1));
+                    }
+                }
+            }
+            if (!restored.isEmpty()) {
+                List<Integer> moving = new ArrayList<>(restored);
+                executeForIds(conn, COPY_FROM_ARCHIVE, ")", moving);
+                executeForIds(conn, DELETE_ARCHIVED, ")", moving);
+                for (LocalDate month : months) {
+                    refreshRollup(conn, month);
+                }
+            }
+            if (autoCommit) {
+                conn.commit();
+            }
+            return restored;
+        } catch (SQLException e) {
+            if (autoCommit) {
+                conn.rollback();
+            }
+            throw e;
+        } finally {
+            if (autoCommit) {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    // Removing rows can lower a month's minimum or maximum, so the month is summed again from the archive
+    private static void refreshRollup(Connection conn, LocalDate month) throws SQLException {
+        try (
+            PreparedStatement delete = conn.prepareStatement(DELETE_ROLLUP_MONTH);
+            PreparedStatement insert = conn.prepareStatement(INSERT_ROLLUP_MONTH)
+        ) {
+            delete.setObject(1, month);
+            delete.executeUpdate();
+            insert.setObject(1, month);
+            insert.setTimestamp(2, Timestamp.valueOf(month.atStartOfDay()));
+            insert.setTimestamp(3, Timestamp.valueOf(month.plusMonths(1).atStartOfDay()));
+            insert.executeUpdate();
+        }
+    }
+
+    private static void executeForIds(Connection conn, String prefix, String suffix, List<Integer> ids) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(withIds(prefix, suffix, ids.size()))) {
+            bindIds(stmt, ids);
+            stmt.executeUpdate();
+        }
+    }
+
+    private static String withIds(String prefix, String suffix, int count) {
+        StringBuilder sql = new StringBuilder(prefix.length() + suffix.length() + count * 3);
+        sql.append(prefix);
+        for (int i = 0; i < count; i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        return sql.append(suffix).toString();
+    }
+
+    private static void bindIds(PreparedStatement stmt, List<Integer> ids) throws SQLException {
+        for (int i = 0; i < ids.size(); i++) {
+            stmt.setInt(i + 1, ids.get(i));
+        }
+    }
+
+    private static boolean lock(Connection conn) throws SQLException {
+        if (!DIALECT.supportsNamedLocks()) {
+            return true;
+        }
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT GET_LOCK(?, 0)")) {
+            stmt.setString(1, LOCK_NAME);
+            try (ResultSet res = stmt.executeQuery()) {
+                return res.next() && res.getInt(1) == 1;
+            }
+        }
+    }
+
+    private static void unlock(Connection conn) throws SQLException {
+        if (!DIALECT.supportsNamedLocks()) {
+            return;
+        }
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            stmt.setString(1, LOCK_NAME);
+            stmt.executeQuery().close();
+        }
+    }
+
+    private static final class Horizon {
+        private final LocalDateTime archivedBefore;
+        private final long readAtNanos;
+
+        private Horizon(LocalDateTime archivedBefore, long readAtNanos) {
+            this.archivedBefore = archivedBefore;
+            this.readAtNanos = readAtNanos;
+        }
+    }
+}
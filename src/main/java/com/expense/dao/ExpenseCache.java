@@ -0,0 +1,288 @@
+package com.expense.dao;
+
+import com.expense.model.Expense;
+import com.expense.util.AppConfig;
+import com.expense.util.CacheStats;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of expenses by ID in front of {@code getExpenseById}. The
+ * budget is in estimated bytes and split over independently locked segments.
+ * A new entry only displaces least recently used ones that a TinyLFU
+ * frequency sketch says are asked for less often, so a burst of one-off
+ * lookups cannot flush the expenses that are read again and again. Entries
+ * expire after a TTL, which bounds how long another process's writes go
+ * unseen. Callers always get copies, never the cached instances.
+ */
+class ExpenseCache {
+
+    private static final int SEGMENTS = 16;
+    // Object headers, the boxed key, map entry, Money and two LocalDateTimes, roughly; strings are counted on top
+    private static final int ENTRY_OVERHEAD = 240;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final long settleNanos;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    // settleMillis: how long after an invalidation a read may still return the old row, e.g. from a lagging replica
+    ExpenseCache(long maxBytes, long ttlMillis, long settleMillis) {
+        this.enabled = maxBytes > 0;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.settleNanos = TimeUnit.MILLISECONDS.toNanos(settleMillis);
+        long segmentBytes = Math.max(0, maxBytes / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(segmentBytes);
+        }
+    }
+
+    // expense.cache.expenses.maxBytes (default 4 MiB, 0 turns the cache off) and .ttlSeconds (default 60, 0 never expires)
+    static ExpenseCache fromProperties(long settleMillis) {
+        return new ExpenseCache(
+            AppConfig.getLong("expense.cache.expenses.maxBytes", 4L << 20),
+            TimeUnit.SECONDS.toMillis(AppConfig.getLong("expense.cache.expenses.ttlSeconds", 60)),
+            settleMillis);
+    }
+
+    // Returns null on a miss; pass the time taken just before reading the database to put()
+    Expense get(int id) {
+        if (!enabled) {
+            return null;
+        }
+        Expense found = segmentFor(id).get(id, System.nanoTime());
+        if (found == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return copyOf(found);
+    }
+
+    long readStarted() {
+        return System.nanoTime();
+    }
+
+    // Skipped if the expense's segment was invalidated after (or settleMillis before) the read started
+    void put(Expense expense, long readStarted) {
+        if (enabled) {
+            segmentFor(expense.getId()).put(copyOf(expense), readStarted);
+        }
+    }
+
+    void invalidate(int id) {
+        if (enabled) {
+            segmentFor(id).invalidate(id);
+        }
+    }
+
+    void invalidateAll(Iterable<Integer> ids) {
+        for (Integer id : ids) {
+            invalidate(id);
+        }
+    }
+
+    // For changes that reach every cached row, such as a category rename
+    void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    CacheStats getStats() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return new CacheStats("expenses", hits.sum(), misses.sum(), evictions.sum(), size);
+    }
+
+    private Segment segmentFor(int id) {
+        return segments[spread(id) >>> 28];
+    }
+
+    static int spread(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int weigh(Expense e) {
+        return ENTRY_OVERHEAD + 2 * (length(e.getTitle()) + length(e.getDescription()) + length(e.getCategoryName()));
+    }
+
+    private static int length(String s) {
+        return s != null ? s.length() : 0;
+    }
+
+    private static Expense copyOf(Expense e) {
+        return new Expense(e.getId(), e.getTitle(), e.getDescription(), e.getAmount(), e.getCategoryId(),
+            e.getCategoryName(), e.getCreated_at(), e.getUpdated_at());
+    }
+
+    private static final class Entry {
+        private final Expense expense;
+        private final int weight;
+        private final long loadedAt;
+
+        private Entry(Expense expense, int weight, long loadedAt) {
+            this.expense = expense;
+            this.weight = weight;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    private final class Segment {
+        // Access order: the first entry is the least recently used
+        private final LinkedHashMap<Integer, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private final FrequencySketch sketch;
+        private final long maxWeight;
+        private long weight;
+        private long lastInvalidated = System.nanoTime() - settleNanos - 1;
+
+        private Segment(long maxWeight) {
+            this.maxWeight = maxWeight;
+            this.sketch = new FrequencySketch((int) Math.min(1 << 20, maxWeight / ENTRY_OVERHEAD));
+        }
+
+        synchronized Expense get(int id, long now) {
+            sketch.increment(id);
+            Entry entry = entries.get(id);
+            if (entry == null) {
+                return null;
+            }
+            if (isExpired(entry, now)) {
+                remove(id);
+                return null;
+            }
+            return entry.expense;
+        }
+
+        synchronized void put(Expense expense, long readStarted) {
+            if (readStarted - settleNanos - lastInvalidated <= 0) {
+                return;
+            }
+            int id = expense.getId();
+            int entryWeight = weigh(expense);
+            if (entryWeight > maxWeight) {
+                return;
+            }
+            long now = System.nanoTime();
+            boolean resident = remove(id) != null;
+
+            // Admission: every victim needed to make room must be expired or less frequent than the newcomer
+            List<Integer> victims = new ArrayList<>();
+            long freed = 0;
+            int frequency = sketch.frequency(id);
+            Iterator<Map.Entry<Integer, Entry>> lru = entries.entrySet().iterator();
+            while (weight - freed + entryWeight > maxWeight) {
+                Map.Entry<Integer, Entry> victim = lru.next();
+                if (!resident && !isExpired(victim.getValue(), now) && sketch.frequency(victim.getKey()) >= frequency) {
+                    return;
+                }
+                victims.add(victim.getKey());
+                freed += victim.getValue().weight;
+            }
+            for (Integer victim : victims) {
+                remove(victim);
+                evictions.increment();
+            }
+            entries.put(id, new Entry(expense, entryWeight, now));
+            weight += entryWeight;
+        }
+
+        synchronized void invalidate(int id) {
+            lastInvalidated = System.nanoTime();
+            remove(id);
+        }
+
+        synchronized void clear() {
+            lastInvalidated = System.nanoTime();
+            entries.clear();
+            weight = 0;
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+
+        private Entry remove(int id) {
+            Entry removed = entries.remove(id);
+            if (removed != null) {
+                weight -= removed.weight;
+            }
+            return removed;
+        }
+
+        private boolean isExpired(Entry entry, long now) {
+            return ttlNanos > 0 && now - entry.loadedAt >= ttlNanos;
+        }
+    }
+
+    /**
+     * Count-min sketch of how often each ID was looked up: four 4-bit counters
+     * per ID, sixteen to a {@code long}. Once the sample reaches ten times the
+     * table size every counter is halved, so old popularity fades.
+     */
+    private static final class FrequencySketch {
+        private static final long RESET_MASK = 0x7777_7777_7777_7777L;
+        private static final int[] SEEDS = {0x97CB3127, 0xB7E1B9B3, 0x85EBCA6B, 0xC2B2AE35};
+
+        private final long[] table;
+        private final int sampleSize;
+        private int additions;
+
+        private FrequencySketch(int expectedEntries) {
+            int size = Integer.highestOneBit(Math.max(16, expectedEntries) - 1) << 1;
+            this.table = new long[size];
+            this.sampleSize = 10 * size;
+        }
+
+        int frequency(int key) {
+            int hash = spread(key);
+            int min = 15;
+            for (int i = 0; i < 4; i++) {
+                long slot = table[indexOf(hash, i)];
+                min = Math.min(min, (int) (slot >>> shiftOf(hash, i)) & 15);
+            }
+            return min;
+        }
+
+        void increment(int key) {
+            int hash = spread(key);
+            boolean added = false;
+            for (int i = 0; i < 4; i++) {
+                int index = indexOf(hash, i);
+                int shift = shiftOf(hash, i);
+                if (((table[index] >>> shift) & 15) != 15) {
+                    table[index] += 1L << shift;
+                    added = true;
+                }
+            }
+            if (added && ++additions >= sampleSize) {
+                for (int i = 0; i < table.length; i++) {
+                    table[i] = (table[i] >>> 1) & RESET_MASK;
+                }
+                additions /= 2;
+            }
+        }
+
+        private int indexOf(int hash, int i) {
+            int h = (hash + SEEDS[i]) * SEEDS[i];
+            return (h ^ (h >>> 16)) & (table.length - 1);
+        }
+
+        // Which of the sixteen counters in the long, taken from a different nibble of the hash for each row
+        private static int shiftOf(int hash, int i) {
+            return ((hash >>> (i << 2)) & 15) << 2;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.expense.dao;
+
+import com.expense.model.Expense;
+import com.expense.model.ExpenseKey;
+
+import java.util.Objects;
+
+// Position of an expense in an ExpenseQuery's order: the value of its sort column and its ID
+public class ExpenseCursor {
+    private final ExpenseSort sort;
+    private final Object value;
+    private final int id;
+
+    public ExpenseCursor(ExpenseSort sort, Object value, int id) {
+        this.sort = sort;
+        this.value = value;
+        this.id = id;
+    }
+
+    public static ExpenseCursor of(Expense expense, ExpenseSort sort) {
+        return new ExpenseCursor(sort, sort.valueOf(expense), expense.getId());
+    }
+
+    public static ExpenseCursor of(ExpenseKey key) {
+        return new ExpenseCursor(ExpenseSort.CREATED_AT, key.getCreated_at(), key.getId());
+    }
+
+    public ExpenseSort getSort() {
+        return sort;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ExpenseCursor)) {
+            return false;
+        }
+        ExpenseCursor other = (ExpenseCursor) o;
+        return sort == other.sort && id == other.id && Objects.equals(value, other.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(sort, value, id);
+    }
+}
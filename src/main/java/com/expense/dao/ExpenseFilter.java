@@ -0,0 +1,66 @@
+package com.expense.dao;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+// Optional created_at range (from inclusive, to exclusive) and category restriction for streaming queries
+public class ExpenseFilter {
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private Set<Integer> categoryIds = Collections.emptySet();
+
+    public ExpenseFilter() {
+    }
+
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    public Set<Integer> getCategoryIds() {
+        return categoryIds;
+    }
+
+    public void setFrom(LocalDateTime from) {
+        this.from = from;
+    }
+
+    public void setTo(LocalDateTime to) {
+        this.to = to;
+    }
+
+    public void setCategoryIds(Set<Integer> categoryIds) {
+        this.categoryIds = categoryIds != null ? new LinkedHashSet<>(categoryIds) : Collections.emptySet();
+    }
+
+    // Appends " WHERE ..." (or nothing) for an expenses table aliased as e, collecting bind values in order
+    void appendWhere(StringBuilder sql, List<Object> params) {
+        String keyword = " WHERE ";
+        if (from != null) {
+            sql.append(keyword).append("e.created_at >= ?");
+            params.add(from);
+            keyword = " AND ";
+        }
+        if (to != null) {
+            sql.append(keyword).append("e.created_at < ?");
+            params.add(to);
+            keyword = " AND ";
+        }
+        if (!categoryIds.isEmpty()) {
+            sql.append(keyword).append("e.category_id IN (");
+            String separator = "";
+            for (Integer id : categoryIds) {
+                sql.append(separator).append('?');
+                params.add(id);
+                separator = ", ";
+            }
+            sql.append(')');
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package com.expense.dao;
+
+import com.expense.model.Expense;
+import com.expense.model.Money;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Filters, sort order and page size for {@link ExpenseTrackerDAO#findExpenses}.
+ * Every filter is optional: a created_at range (from inclusive, to
+ * exclusive), a set of categories, an amount range (both ends inclusive) and
+ * a title prefix. Queries are immutable; build them with {@link #builder()}.
+ * The generated SQL only depends on which filters are set, how many
+ * categories there are (rounded up to a power of two) and the sort, so
+ * repeated queries reuse the driver's cached prepared statements.
+ */
+public class ExpenseQuery {
+    private final LocalDateTime createdFrom;
+    private final LocalDateTime createdTo;
+    private final Set<Integer> categoryIds;
+    private final Money minAmount;
+    private final Money maxAmount;
+    private final String titlePrefix;
+    private final ExpenseSort sort;
+    private final boolean descending;
+    private final int limit;
+
+    private ExpenseQuery(Builder builder) {
+        this.createdFrom = builder.createdFrom;
+        this.createdTo = builder.createdTo;
+        this.categoryIds = Collections.unmodifiableSet(new LinkedHashSet<>(builder.categoryIds));
+        this.minAmount = builder.minAmount;
+        this.maxAmount = builder.maxAmount;
+        this.titlePrefix = builder.titlePrefix;
+        this.sort = builder.sort;
+        this.descending = builder.descending;
+        this.limit = builder.limit;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public Builder toBuilder() {
+        Builder builder = new Builder();
+        builder.createdFrom = createdFrom;
+        builder.createdTo = createdTo;
+        builder.categoryIds = new LinkedHashSet<>(categoryIds);
+        builder.minAmount = minAmount;
+        builder.maxAmount = maxAmount;
+        builder.titlePrefix = titlePrefix;
+        builder.sort = sort;
+        builder.descending = descending;
+        builder.limit = limit;
+        return builder;
+    }
+
+    public LocalDateTime getCreatedFrom() {
+        return createdFrom;
+    }
+
+    public LocalDateTime getCreatedTo() {
+        return createdTo;
+    }
+
+    public Set<Integer> getCategoryIds() {
+        return categoryIds;
+    }
+
+    public Money getMinAmount() {
+        return minAmount;
+    }
+
+    public Money getMaxAmount() {
+        return maxAmount;
+    }
+
+    public String getTitlePrefix() {
+        return titlePrefix;
+    }
+
+    public ExpenseSort getSort() {
+        return sort;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public boolean hasFilters() {
+        return createdFrom != null || createdTo != null || !categoryIds.isEmpty() || minAmount != null || maxAmount != null || titlePrefix != null;
+    }
+
+    // The filters evaluated in Java, for patching rows into a filtered view. The title prefix is compared
+    // case-insensitively, like MySQL's default collation.
+    public boolean matches(Expense expense) {
+        if (createdFrom != null && expense.getCreated_at().isBefore(createdFrom)) {
+            return false;
+        }
+        if (createdTo != null && !expense.getCreated_at().isBefore(createdTo)) {
+            return false;
+        }
+        if (!categoryIds.isEmpty() && !categoryIds.contains(expense.getCategoryId())) {
+            return false;
+        }
+        if (minAmount != null && expense.getAmount().compareTo(minAmount) < 0) {
+            return false;
+        }
+        if (maxAmount != null && expense.getAmount().compareTo(maxAmount) > 0) {
+            return false;
+        }
+        return titlePrefix == null || expense.getTitle().regionMatches(true, 0, titlePrefix, 0, titlePrefix.length());
+    }
+
+    public ExpenseCursor cursorOf(Expense expense) {
+        return ExpenseCursor.of(expense, sort);
+    }
+
+    // Negative when a comes before b in this query's order
+    @SuppressWarnings("unchecked")
+    public int compare(ExpenseCursor a, ExpenseCursor b) {
+        int cmp;
+        if (a.getValue() instanceof String) {
+            cmp = String.CASE_INSENSITIVE_ORDER.compare((String) a.getValue(), (String) b.getValue());
+        } else {
+            cmp = ((Comparable<Object>) a.getValue()).compareTo(b.getValue());
+        }
+        if (cmp == 0) {
+            cmp = Integer.compare(a.getId(), b.getId());
+        }
+        return descending ? -cmp : cmp;
+    }
+
+    // Appends " WHERE ..." (or nothing) for an expenses table aliased as e, collecting bind values in order.
+    // With a cursor, only rows after it in this query's order match.
+    void appendWhere(StringBuilder sql, List<Object> params, ExpenseCursor after) {
+        String keyword = " WHERE ";
+        if (createdFrom != null) {
+            sql.append(keyword).append("e.created_at >= ?");
+            params.add(createdFrom);
+            keyword = " AND ";
+        }
+        if (createdTo != null) {
+            sql.append(keyword).append("e.created_at < ?");
+            params.add(createdTo);
+            keyword = " AND ";
+        }
+        if (!categoryIds.isEmpty()) {
+            sql.append(keyword).append("e.category_id IN (");
+            Integer last = null;
+            for (Integer id : categoryIds) {
+                sql.append(last == null ? "?" : ", ?");
+                params.add(id);
+                last = id;
+            }
+            // Repeating the last ID keeps the number of distinct statement shapes small
+            for (int i = categoryIds.size(); i < Integer.highestOneBit(categoryIds.size() * 2 - 1); i++) {
+                sql.append(", ?");
+                params.add(last);
+            }
+            sql.append(')');
+            keyword = " AND ";
+        }
+        if (minAmount != null) {
+            sql.append(keyword).append("e.amount >= ?");
+            params.add(minAmount);
+            keyword = " AND ";
+        }
+        if (maxAmount != null) {
+            sql.append(keyword).append("e.amount <= ?");
+            params.add(maxAmount);
+            keyword = " AND ";
+        }
+        if (titlePrefix != null) {
+            sql.append(keyword).append("e.title LIKE ?");
+            params.add(escapeLike(titlePrefix) + "%");
+            keyword = " AND ";
+        }
+        if (after != null) {
+            String op = descending ? " < ?" : " > ?";
+            if (sort == ExpenseSort.ID) {
+                sql.append(keyword).append("e.id").append(op);
+                params.add(after.getId());
+            } else {
+                String column = "e." + sort.getColumn();
+                sql.append(keyword).append('(').append(column).append(op)
+                    .append(" OR (").append(column).append(" = ? AND e.id").append(op).append("))");
+                params.add(after.getValue());
+                params.add(after.getValue());
+                params.add(after.getId());
+            }
+        }
+    }
+
+    // " ORDER BY ..." on the sort column and the ID; qualifier is "e." for a single table or "" over a UNION
+    void appendOrderBy(StringBuilder sql, String qualifier) {
+        String direction = descending ? " DESC" : "";
+        sql.append(" ORDER BY ");
+        if (sort != ExpenseSort.ID) {
+            sql.append(qualifier).append(sort.getColumn()).append(direction).append(", ");
+        }
+        sql.append(qualifier).append("id").append(direction);
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    public static class Builder {
+        private LocalDateTime createdFrom;
+        private LocalDateTime createdTo;
+        private Set<Integer> categoryIds = new LinkedHashSet<>();
+        private Money minAmount;
+        private Money maxAmount;
+        private String titlePrefix;
+        private ExpenseSort sort = ExpenseSort.CREATED_AT;
+        private boolean descending = true;
+        private int limit = 200;
+
+        private Builder() {
+        }
+
+        public Builder createdFrom(LocalDateTime createdFrom) {
+            this.createdFrom = createdFrom;
+            return this;
+        }
+
+        public Builder createdTo(LocalDateTime createdTo) {
+            this.createdTo = createdTo;
+            return this;
+        }
+
+        public Builder categoryIds(Set<Integer> categoryIds) {
+            this.categoryIds = categoryIds != null ? new LinkedHashSet<>(categoryIds) : new LinkedHashSet<>();
+            return this;
+        }
+
+        public Builder minAmount(Money minAmount) {
+            this.minAmount = minAmount;
+            return this;
+        }
+
+        public Builder maxAmount(Money maxAmount) {
+            this.maxAmount = maxAmount;
+            return this;
+        }
+
+        // Blank means no title filter
+        public Builder titlePrefix(String titlePrefix) {
+            this.titlePrefix = titlePrefix == null || titlePrefix.isBlank() ? null : titlePrefix;
+            return this;
+        }
+
+        public Builder sort(ExpenseSort sort, boolean descending) {
+            this.sort = sort;
+            this.descending = descending;
+            return this;
+        }
+
+        public Builder limit(int limit) {
+            this.limit = limit;
+            return this;
+        }
+
+        public ExpenseQuery build() {
+            if (limit <= 0) {
+                throw new IllegalArgumentException("limit must be positive, was " + limit);
+            }
+            if (sort == null) {
+                throw new IllegalArgumentException("sort must not be null");
+            }
+            return new ExpenseQuery(this);
+        }
+    }
+}
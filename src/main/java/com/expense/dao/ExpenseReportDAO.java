@@ -0,0 +1,217 @@
+package com.expense.dao;
+
+import com.expense.model.ExpenseSummary;
+import com.expense.model.Money;
+import com.expense.util.DatabaseConnection;
+import com.expense.util.QueryPlanCheck;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aggregate queries over expenses. The GROUP BY runs in MySQL, so only one
+ * row per group crosses the wire no matter how many expenses it covers.
+ * Whole archived months of month and category reports come from the monthly
+ * rollups ExpenseArchiver keeps; the rest is aggregated from raw rows.
+ * Averages are worked out from the total and count in {@link Money}.
+ */
+public class ExpenseReportDAO {
+
+    private static final String AGGREGATES = "COUNT(*) AS expense_count, SUM(e.amount) AS total, MIN(e.amount) AS min_amount, MAX(e.amount) AS max_amount";
+
+    //group expressions
+    private static final String CATEGORY_BUCKET = "COALESCE(c.name, 'Uncategorized')";
+    private static final String DAY_BUCKET = DatabaseConnection.DIALECT.dayText("e.created_at");
+    private static final String WEEK_BUCKET = DatabaseConnection.DIALECT.weekText("e.created_at");
+    private static final String MONTH_BUCKET = DatabaseConnection.DIALECT.monthText("e.created_at");
+
+    //rollup queries, with the same column labels as the raw ones
+    private static final String ROLLUP_AGGREGATES = "SUM(r.expense_count) AS expense_count, SUM(r.total) AS total, MIN(r.min_amount) AS min_amount, MAX(r.max_amount) AS max_amount";
+    private static final String SELECT_MONTH_ROLLUPS = "SELECT " + DatabaseConnection.DIALECT.monthText("r.month") + " AS bucket, " + ROLLUP_AGGREGATES + " FROM expense_monthly_rollups r WHERE r.month >= ? AND r.month < ? GROUP BY r.month";
+    private static final String SELECT_CATEGORY_ROLLUPS = "SELECT r.category_id AS group_key, " + CATEGORY_BUCKET + " AS bucket, " + ROLLUP_AGGREGATES + " FROM expense_monthly_rollups r LEFT JOIN categories c ON r.category_id = c.id WHERE r.month >= ? AND r.month < ? GROUP BY r.category_id, c.name";
+
+    // from is inclusive, to is exclusive; either may be null for an open range
+    public List<ExpenseSummary> summarize(ReportGrouping grouping, LocalDateTime from, LocalDateTime to) throws SQLException {
+        try (Connection conn = DatabaseConnection.getReadConnection()) {
+            List<GroupRow> current = query(conn, grouping, buildQuery(grouping, "expenses", from, to), from, to);
+            LocalDateTime archivedBefore = ExpenseArchiver.getArchivedBefore(conn);
+            if (archivedBefore == null || (from != null && !from.isBefore(archivedBefore))) {
+                List<ExpenseSummary> rows = new ArrayList<>(current.size());
+                for (GroupRow row : current) {
+                    rows.add(row.summary);
+                }
+                return rows;
+            }
+
+            // Every archived row is older than archivedBefore, which is always the start of a month
+            LocalDateTime archiveTo = to != null && to.isBefore(archivedBefore) ? to : archivedBefore;
+            List<GroupRow> archived = new ArrayList<>();
+            if (grouping == ReportGrouping.MONTH || grouping == ReportGrouping.CATEGORY) {
+                LocalDateTime firstMonth = from == null ? null : startOfMonth(from.minusNanos(1)).plusMonths(1);
+                LocalDateTime endMonth = startOfMonth(archiveTo);
+                if (firstMonth == null || firstMonth.isBefore(endMonth)) {
+                    String rollups = grouping == ReportGrouping.MONTH ? SELECT_MONTH_ROLLUPS : SELECT_CATEGORY_ROLLUPS;
+                    archived.addAll(queryRollups(conn, grouping, rollups, firstMonth, endMonth));
+                    if (firstMonth != null && from.isBefore(firstMonth)) {
+                        archived.addAll(query(conn, grouping, buildQuery(grouping, "expenses_archive", from, firstMonth), from, firstMonth));
+                    }
+                    if (endMonth.isBefore(archiveTo)) {
+                        archived.addAll(query(conn, grouping, buildQuery(grouping, "expenses_archive", endMonth, archiveTo), endMonth, archiveTo));
+                    }
+                } else {
+                    archived.addAll(query(conn, grouping, buildQuery(grouping, "expenses_archive", from, archiveTo), from, archiveTo));
+                }
+            } else {
+                archived.addAll(query(conn, grouping, buildQuery(grouping, "expenses_archive", from, archiveTo), from, archiveTo));
+            }
+            return combine(grouping, current, archived);
+        }
+    }
+
+    private List<GroupRow> query(Connection conn, ReportGrouping grouping, String sql, LocalDateTime from, LocalDateTime to) throws SQLException {
+        List<GroupRow> rows = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int index = 1;
+            if (from != null) {
+                stmt.setTimestamp(index++, Timestamp.valueOf(from));
+            }
+            if (to != null) {
+                stmt.setTimestamp(index, Timestamp.valueOf(to));
+            }
+            try (ResultSet res = stmt.executeQuery()) {
+                while (res.next()) {
+                    rows.add(getGroupRow(grouping, res));
+                }
+            }
+        }
+        return rows;
+    }
+
+    // Months from firstMonth (or the first rollup, when null) up to but excluding endMonth
+    private List<GroupRow> queryRollups(Connection conn, ReportGrouping grouping, String sql, LocalDateTime firstMonth, LocalDateTime endMonth) throws SQLException {
+        List<GroupRow> rows = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setObject(1, firstMonth != null ? firstMonth.toLocalDate() : LocalDate.of(1000, 1, 1));
+            stmt.setObject(2, endMonth.toLocalDate());
+            try (ResultSet res = stmt.executeQuery()) {
+                while (res.next()) {
+                    rows.add(getGroupRow(grouping, res));
+                }
+            }
+        }
+        return rows;
+    }
+
+    // Adds up the rows for each group and puts them back in the order the SQL would have returned them. Categories are
+    // matched by ID, not label, so a category named Uncategorized stays apart from expenses without one.
+    private List<ExpenseSummary> combine(ReportGrouping grouping, List<GroupRow> current, List<GroupRow> archived) {
+        Map<String, ExpenseSummary> groups = new LinkedHashMap<>();
+        for (List<GroupRow> part : List.of(current, archived)) {
+            for (GroupRow row : part) {
+                groups.merge(row.key, row.summary, this::add);
+            }
+        }
+        List<ExpenseSummary> rows = new ArrayList<>(groups.values());
+        if (grouping == ReportGrouping.CATEGORY) {
+            rows.sort(Comparator.comparing(ExpenseSummary::getTotal).reversed());
+        } else {
+            rows.sort(Comparator.comparing(ExpenseSummary::getGroup));
+        }
+        return rows;
+    }
+
+    private ExpenseSummary add(ExpenseSummary a, ExpenseSummary b) {
+        long count = a.getCount() + b.getCount();
+        Money total = a.getTotal().plus(b.getTotal());
+        return new ExpenseSummary(a.getGroup(), count, total, a.getMin().min(b.getMin()), a.getMax().max(b.getMax()), total.dividedBy(count));
+    }
+
+    private static LocalDateTime startOfMonth(LocalDateTime time) {
+        return time.toLocalDate().withDayOfMonth(1).atStartOfDay();
+    }
+
+    // A month-by-month and a by-category report over the last 90 days, for SchemaManager.checkQueryPlans.
+    // Grouping on a computed bucket always sorts, so only full scans are reported.
+    public List<QueryPlanCheck> getQueryPlanChecks() {
+        LocalDateTime to = LocalDateTime.now().withNano(0);
+        LocalDateTime from = to.minusDays(90);
+        List<QueryPlanCheck> checks = new ArrayList<>();
+        checks.add(new QueryPlanCheck("summarize.month", buildQuery(ReportGrouping.MONTH, "expenses", from, to), false, true, from, to));
+        checks.add(new QueryPlanCheck("summarize.category", buildQuery(ReportGrouping.CATEGORY, "expenses", from, to), false, true, from, to));
+        checks.add(new QueryPlanCheck("summarize.archive", buildQuery(ReportGrouping.MONTH, "expenses_archive", from, to), false, true, from, to));
+        return checks;
+    }
+
+    private String buildQuery(ReportGrouping grouping, String table, LocalDateTime from, LocalDateTime to) {
+        StringBuilder sql = new StringBuilder("SELECT ");
+        if (grouping == ReportGrouping.CATEGORY) {
+            // Rollups file expenses without a category under 0
+            sql.append("COALESCE(e.category_id, 0) AS group_key, ");
+        }
+        sql.append(bucketExpression(grouping)).append(" AS bucket, ").append(AGGREGATES).append(" FROM ").append(table).append(" e");
+        if (grouping == ReportGrouping.CATEGORY) {
+            sql.append(" LEFT JOIN categories c ON e.category_id = c.id");
+        }
+        String keyword = " WHERE ";
+        if (from != null) {
+            sql.append(keyword).append("e.created_at >= ?");
+            keyword = " AND ";
+        }
+        if (to != null) {
+            sql.append(keyword).append("e.created_at < ?");
+        }
+        if (grouping == ReportGrouping.CATEGORY) {
+            sql.append(" GROUP BY e.category_id, c.name ORDER BY total DESC");
+        } else {
+            sql.append(" GROUP BY bucket ORDER BY bucket");
+        }
+        return sql.toString();
+    }
+
+    private String bucketExpression(ReportGrouping grouping) {
+        switch (grouping) {
+            case CATEGORY: return CATEGORY_BUCKET;
+            case DAY: return DAY_BUCKET;
+            case WEEK: return WEEK_BUCKET;
+            case MONTH: return MONTH_BUCKET;
+            default: throw new IllegalArgumentException("Unknown grouping " + grouping);
+        }
+    }
+
+    // Category rows are keyed by category ID, 0 for expenses without a category; the rest by label
+    private GroupRow getGroupRow(ReportGrouping grouping, ResultSet rs) throws SQLException {
+        ExpenseSummary summary = getSummaryRow(rs);
+        String key = grouping == ReportGrouping.CATEGORY ? Integer.toString(rs.getInt("group_key")) : summary.getGroup();
+        return new GroupRow(key, summary);
+    }
+
+    private ExpenseSummary getSummaryRow(ResultSet rs) throws SQLException {
+        String group = rs.getString("bucket");
+        long count = rs.getLong("expense_count");
+        Money total = Money.read(rs, "total");
+        Money min = Money.read(rs, "min_amount");
+        Money max = Money.read(rs, "max_amount");
+
+        return new ExpenseSummary(group, count, total, min, max, total.dividedBy(count));
+    }
+
+    private static final class GroupRow {
+        private final String key;
+        private final ExpenseSummary summary;
+
+        private GroupRow(String key, ExpenseSummary summary) {
+            this.key = key;
+            this.summary = summary;
+        }
+    }
+}
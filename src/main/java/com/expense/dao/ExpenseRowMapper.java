@@ -0,0 +1,47 @@
+package com.expense.dao;
+
+import com.expense.model.Expense;
+import com.expense.model.Money;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+// Maps rows selected with ExpenseTrackerDAO's expense column list. Column positions are resolved once per
+// ResultSet, timestamps are read straight into LocalDateTime without a java.sql.Timestamp in between, and
+// amounts are parsed from the column text into Money without a BigDecimal.
+final class ExpenseRowMapper {
+
+    private final int id;
+    private final int title;
+    private final int description;
+    private final int amount;
+    private final int categoryId;
+    private final int categoryName;
+    private final int createdAt;
+    private final int updatedAt;
+
+    ExpenseRowMapper(ResultSet rs) throws SQLException {
+        id = rs.findColumn("id");
+        title = rs.findColumn("title");
+        description = rs.findColumn("description");
+        amount = rs.findColumn("amount");
+        categoryId = rs.findColumn("category_id");
+        categoryName = rs.findColumn("category_name");
+        createdAt = rs.findColumn("created_at");
+        updatedAt = rs.findColumn("updated_at");
+    }
+
+    Expense map(ResultSet rs) throws SQLException {
+        return new Expense(
+            rs.getInt(id),
+            rs.getString(title),
+            rs.getString(description),
+            Money.read(rs, amount),
+            rs.getInt(categoryId),
+            rs.getString(categoryName),
+            rs.getObject(createdAt, LocalDateTime.class),
+            rs.getObject(updatedAt, LocalDateTime.class)
+        );
+    }
+}
@@ -0,0 +1,31 @@
+package com.expense.dao;
+
+import com.expense.model.Expense;
+
+import java.util.function.Function;
+
+// Columns an ExpenseQuery can sort on. Each is NOT NULL and indexed, with the ID as tie-breaker for keyset paging.
+public enum ExpenseSort {
+    ID("id", Expense::getId),
+    TITLE("title", Expense::getTitle),
+    AMOUNT("amount", Expense::getAmount),
+    CREATED_AT("created_at", Expense::getCreated_at),
+    UPDATED_AT("updated_at", Expense::getUpdated_at);
+
+    private final String column;
+    private final Function<Expense, Object> value;
+
+    ExpenseSort(String column, Function<Expense, Object> value) {
+        this.column = column;
+        this.value = value;
+    }
+
+    // Column name, unqualified, as it appears in both the expense tables and the DAO's result sets
+    String getColumn() {
+        return column;
+    }
+
+    Object valueOf(Expense expense) {
+        return value.apply(expense);
+    }
+}
@@ -1,223 +1,1418 @@
 package com.expense.dao;
 
+import com.expense.metrics.DaoMetrics;
+import com.expense.util.CacheStats;
 import com.expense.util.DatabaseConnection;
+import com.expense.util.QueryPlanCheck;
+import com.expense.util.SchemaManager;
 import com.expense.model.Category;
+import com.expense.model.ChangeSet;
 import com.expense.model.Expense;
+import com.expense.model.ExpenseKey;
+import com.expense.model.Money;
 
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Set;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.sql.*;
-import java.math.BigDecimal;
 
 public class ExpenseTrackerDAO {
 
+    // Rows sent per executeBatch; each chunk is committed as its own transaction
+    private static final int BATCH_SIZE = 500;
+
+    // Shared by every DAO instance so all of them see the same category writes
+    private static final CategoryCache CATEGORY_CACHE = new CategoryCache();
+    // Likewise for getExpenseById; entries read from a replica are only kept once the replica lag has passed since a write
+    private static final ExpenseCache EXPENSE_CACHE = ExpenseCache.fromProperties(DatabaseConnection.getMaxReadLagMillis());
+
+    // Every public data access method is timed under its own name
+    private static final DaoMetrics METRICS = DaoMetrics.getInstance();
+
     //cat queries
-    private static final String SELECT_ALL_CATEGORIES = "SELECT * FROM categories ORDER BY created_at DESC";
+    // Explicit column lists, read by CategoryRowMapper and ExpenseRowMapper
+    private static final String CATEGORY_COLUMNS = "id, name, description, created_at, updated_at";
+    private static final String EXPENSE_COLUMNS = "e.id, e.title, e.description, e.amount, e.category_id, c.name AS category_name, e.created_at, e.updated_at";
+    private static final String EXPENSES_JOIN_CATEGORIES = " FROM expenses e LEFT JOIN categories c ON e.category_id = c.id";
+    private static final String ARCHIVE_JOIN_CATEGORIES = " FROM expenses_archive e LEFT JOIN categories c ON e.category_id = c.id";
+
+    private static final String SELECT_ALL_CATEGORIES = "SELECT " + CATEGORY_COLUMNS + " FROM categories ORDER BY created_at DESC";
     private static final String INSERT_CATEGORY = "INSERT INTO categories(name, description, created_at, updated_at) VALUES(?, ?, ?, ?)";
-    private static final String SELECT_CATEGORY_BY_ID = "SELECT * FROM categories WHERE id = ?";
+    private static final String SELECT_CATEGORY_BY_ID = "SELECT " + CATEGORY_COLUMNS + " FROM categories WHERE id = ?";
     private static final String UPDATE_CATEGORY = "UPDATE categories SET name = ?, description = ?, updated_at = ? WHERE id = ?";
+    private static final String UPDATE_CATEGORY_IF_CURRENT = UPDATE_CATEGORY + " AND updated_at = ?";
+    private static final String SELECT_CATEGORY_VERSION = "SELECT updated_at FROM categories WHERE id = ?";
     private static final String DELETE_CATEGORY = "DELETE FROM categories WHERE id = ?";
+    private static final String DELETE_CATEGORIES = "DELETE FROM categories WHERE id IN (";
 
     //expense queries
-    private static final String SELECT_ALL_EXPENSES = "SELECT e.*, c.name as category_name FROM expenses e LEFT JOIN categories c ON e.category_id = c.id ORDER BY e.created_at DESC";
+    private static final String SELECT_ALL_EXPENSES = "SELECT " + EXPENSE_COLUMNS + EXPENSES_JOIN_CATEGORIES + " ORDER BY e.created_at DESC, e.id DESC";
     private static final String INSERT_EXPENSE = "INSERT INTO expenses(title, description, amount, category_id, created_at, updated_at) VALUES(?, ?, ?, ?, ?, ?)";
-    private static final String SELECT_EXPENSE_BY_ID = "SELECT e.*, c.name as category_name FROM expenses e LEFT JOIN categories c ON e.category_id = c.id WHERE e.id = ?";
+    private static final String SELECT_EXPENSE_BY_ID = "SELECT " + EXPENSE_COLUMNS + EXPENSES_JOIN_CATEGORIES + " WHERE e.id = ?";
     private static final String UPDATE_EXPENSE = "UPDATE expenses SET title = ?, description = ?, amount = ?, category_id = ?, updated_at = ? WHERE id = ?";
+    private static final String UPDATE_EXPENSE_IF_CURRENT = UPDATE_EXPENSE + " AND updated_at = ?";
+    private static final String SELECT_EXPENSE_VERSIONS = "SELECT id, updated_at FROM expenses WHERE id IN (";
     private static final String DELETE_EXPENSE = "DELETE FROM expenses WHERE id = ?";
+    private static final String DELETE_EXPENSES = "DELETE FROM expenses WHERE id IN (";
+    private static final String REASSIGN_EXPENSES = "UPDATE expenses SET category_id = ?, updated_at = ? WHERE id IN (";
+
+    //keyset paging queries, ordered by (created_at, id) so the seek predicate can use an index
+    private static final String SELECT_EXPENSES_BY_IDS = "SELECT " + EXPENSE_COLUMNS + EXPENSES_JOIN_CATEGORIES + " WHERE e.id IN (";
+    private static final String COUNT_EXPENSES = "SELECT COUNT(*) FROM expenses";
+    private static final String SELECT_EXPENSES_FIRST_PAGE = "SELECT " + EXPENSE_COLUMNS + EXPENSES_JOIN_CATEGORIES + " ORDER BY e.created_at DESC, e.id DESC LIMIT ?";
+    private static final String SELECT_EXPENSES_PAGE_AFTER = "SELECT " + EXPENSE_COLUMNS + EXPENSES_JOIN_CATEGORIES + " WHERE e.created_at < ? OR (e.created_at = ? AND e.id < ?) ORDER BY e.created_at DESC, e.id DESC LIMIT ?";
+    private static final String SELECT_EXPENSE_KEY_AT = "SELECT created_at, id FROM expenses ORDER BY created_at DESC, id DESC LIMIT 1 OFFSET ?";
+    private static final String SELECT_EXPENSE_KEY_AFTER = "SELECT created_at, id FROM expenses WHERE created_at < ? OR (created_at = ? AND id < ?) ORDER BY created_at DESC, id DESC LIMIT 1 OFFSET ?";
+    private static final String SELECT_EXPENSES_FOR_STREAM = "SELECT " + EXPENSE_COLUMNS + EXPENSES_JOIN_CATEGORIES;
+
+    //archive queries; see ExpenseArchiver. Archived rows are all older than its archived_before, so the archive is
+    //only read when a page, key walk or stream reaches that far back
+    private static final String SELECT_ALL_ARCHIVED_EXPENSES = "SELECT " + EXPENSE_COLUMNS + ARCHIVE_JOIN_CATEGORIES + " ORDER BY e.created_at DESC, e.id DESC";
+    private static final String SELECT_ARCHIVED_EXPENSE_BY_ID = "SELECT " + EXPENSE_COLUMNS + ARCHIVE_JOIN_CATEGORIES + " WHERE e.id = ?";
+    private static final String SELECT_ARCHIVED_EXPENSES_BY_IDS = "SELECT " + EXPENSE_COLUMNS + ARCHIVE_JOIN_CATEGORIES + " WHERE e.id IN (";
+    private static final String COUNT_ARCHIVED_EXPENSES = "SELECT COALESCE(SUM(expense_count), 0) FROM expense_monthly_rollups";
+    private static final String SELECT_ARCHIVED_FIRST_PAGE = "SELECT " + EXPENSE_COLUMNS + ARCHIVE_JOIN_CATEGORIES + " ORDER BY e.created_at DESC, e.id DESC LIMIT ?";
+    private static final String SELECT_ARCHIVED_PAGE_AFTER = "SELECT " + EXPENSE_COLUMNS + ARCHIVE_JOIN_CATEGORIES + " WHERE e.created_at < ? OR (e.created_at = ? AND e.id < ?) ORDER BY e.created_at DESC, e.id DESC LIMIT ?";
+    private static final String SELECT_KEY_AT_WITH_ARCHIVE = "SELECT created_at, id FROM ((SELECT created_at, id FROM expenses ORDER BY created_at DESC, id DESC LIMIT ?) UNION ALL (SELECT created_at, id FROM expenses_archive ORDER BY created_at DESC, id DESC LIMIT ?)) k ORDER BY created_at DESC, id DESC LIMIT 1 OFFSET ?";
+    private static final String SELECT_KEY_AFTER_WITH_ARCHIVE = "SELECT created_at, id FROM ((SELECT created_at, id FROM expenses WHERE created_at < ? OR (created_at = ? AND id < ?) ORDER BY created_at DESC, id DESC LIMIT ?) UNION ALL (SELECT created_at, id FROM expenses_archive WHERE created_at < ? OR (created_at = ? AND id < ?) ORDER BY created_at DESC, id DESC LIMIT ?)) k ORDER BY created_at DESC, id DESC LIMIT 1 OFFSET ?";
+    private static final String SELECT_ARCHIVED_FOR_STREAM = "SELECT " + EXPENSE_COLUMNS + ARCHIVE_JOIN_CATEGORIES;
+    private static final String SELECT_ARCHIVED_CATEGORY_USE = "SELECT 1 FROM expenses_archive WHERE category_id = ? LIMIT 1";
+    private static final String SELECT_ARCHIVED_CATEGORIES_USE = "SELECT category_id FROM expenses_archive WHERE category_id IN (";
+
+    //delta sync queries; deletes leave a tombstone so they can be reported too
+    private static final String INSERT_EXPENSE_TOMBSTONE = DatabaseConnection.DIALECT.upsert("expense_tombstones", "id, created_at, deleted_at", "id", "SELECT id, created_at, ? FROM expenses WHERE id = ?");
+    private static final String SELECT_EXPENSES_TO_TOMBSTONE = "SELECT id, created_at, ? FROM expenses WHERE id IN (";
+    private static final String INSERT_CATEGORY_TOMBSTONE = DatabaseConnection.DIALECT.upsert("category_tombstones", "id, deleted_at", "id", "VALUES(?, ?)");
+    private static final String SELECT_EXPENSES_CHANGED_SINCE = "SELECT " + EXPENSE_COLUMNS + EXPENSES_JOIN_CATEGORIES + " WHERE e.updated_at >= ? ORDER BY e.updated_at";
+    private static final String SELECT_EXPENSE_TOMBSTONES_SINCE = "SELECT id, created_at FROM expense_tombstones WHERE deleted_at >= ?";
+    private static final String SELECT_CATEGORIES_CHANGED_SINCE = "SELECT " + CATEGORY_COLUMNS + " FROM categories WHERE updated_at >= ? ORDER BY updated_at";
+    private static final String SELECT_CATEGORY_TOMBSTONES_SINCE = "SELECT id FROM category_tombstones WHERE deleted_at >= ?";
+    private static final String PURGE_EXPENSE_TOMBSTONES = "DELETE FROM expense_tombstones WHERE deleted_at < ?";
+    private static final String PURGE_CATEGORY_TOMBSTONES = "DELETE FROM category_tombstones WHERE deleted_at < ?";
+
+    // Change queries look back this far past the watermark to catch rows committed late or stamped by a skewed clock
+    private static final Duration CHANGE_OVERLAP = Duration.ofSeconds(5);
 
     //Cat
 
     public int createCategory(Category category) throws SQLException {
-        try (
-            Connection conn = DatabaseConnection.getDBConnection();
-            PreparedStatement stmt = conn.prepareStatement(INSERT_CATEGORY, Statement.RETURN_GENERATED_KEYS)
-        ) {
-            stmt.setString(1, category.getName());
-            stmt.setString(2, category.getDescription());
-            stmt.setTimestamp(3, Timestamp.valueOf(category.getCreated_at()));
-            stmt.setTimestamp(4, Timestamp.valueOf(category.getUpdated_at()));
+        return METRICS.call("createCategory", id -> 1, () -> {
+            try (
+                Connection conn = connectForWrite();
+                PreparedStatement stmt = conn.prepareStatement(INSERT_CATEGORY, Statement.RETURN_GENERATED_KEYS)
+            ) {
+                bindCategoryInsert(stmt, category);
             
-            int rowsAffected = stmt.executeUpdate();
+                int rowsAffected = stmt.executeUpdate();
             
-            if (rowsAffected == 0) {
-                throw new SQLException("Creating category failed, no rows affected.");
+                if (rowsAffected == 0) {
+                    throw new SQLException("Creating category failed, no rows affected.");
+                }
+
+                try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                    if (generatedKeys.next()) {
+                        int id = generatedKeys.getInt(1);
+                        category.setId(id);
+                        CATEGORY_CACHE.put(category);
+                        return id;
+                    } else {
+                        throw new SQLException("Creating category failed, no ID obtained.");
+                    }
+                }
             }
+        });
+    }
 
-            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
-                if (generatedKeys.next()) {
-                    return generatedKeys.getInt(1);
-                } else {
-                    throw new SQLException("Creating category failed, no ID obtained.");
+    // Inserts in chunks of BATCH_SIZE, one transaction per chunk, and returns the generated IDs in list order
+    public int[] createCategories(List<Category> categories) throws SQLException {
+        return METRICS.call("createCategories", ids -> ids.length, () -> {
+            int[] ids = new int[categories.size()];
+            try (
+                Connection conn = connectForWrite();
+                PreparedStatement stmt = conn.prepareStatement(INSERT_CATEGORY, Statement.RETURN_GENERATED_KEYS)
+            ) {
+                conn.setAutoCommit(false);
+                for (int start = 0; start < ids.length; start += BATCH_SIZE) {
+                    int end = Math.min(ids.length, start + BATCH_SIZE);
+                    for (int i = start; i < end; i++) {
+                        bindCategoryInsert(stmt, categories.get(i));
+                        stmt.addBatch();
+                    }
+                    executeInsertBatch(conn, stmt, ids, start, end, "category");
+                    for (int i = start; i < end; i++) {
+                        categories.get(i).setId(ids[i]);
+                    }
+                    CATEGORY_CACHE.putAll(categories.subList(start, end));
                 }
             }
-        }
+            return ids;
+        });
     }
 
-    private Category getCategoryRow(ResultSet rs) throws SQLException {
-        int id = rs.getInt("id");
-        String name = rs.getString("name");
-        String description = rs.getString("description");
-        LocalDateTime createdAt = rs.getTimestamp("created_at").toLocalDateTime();
-        LocalDateTime updatedAt = rs.getTimestamp("updated_at").toLocalDateTime();
-        
-        return new Category(id, name, description, createdAt, updatedAt);
+    private void bindCategoryInsert(PreparedStatement stmt, Category category) throws SQLException {
+        stmt.setString(1, category.getName());
+        stmt.setString(2, category.getDescription());
+        stmt.setTimestamp(3, Timestamp.valueOf(category.getCreated_at()));
+        stmt.setTimestamp(4, Timestamp.valueOf(category.getUpdated_at()));
     }
-    
+
+    // Served from the category cache; the first call (or the first after invalidateCategoryCache) loads it
     public List<Category> getAllCategories() throws SQLException {
+        return METRICS.call("getAllCategories", List::size, () -> {
+            List<Category> cached = CATEGORY_CACHE.getAll();
+            if (cached != null) {
+                return cached;
+            }
+            long readStarted = CATEGORY_CACHE.readStarted();
+            List<Category> categories = loadAllCategories();
+            CATEGORY_CACHE.load(categories, readStarted);
+            return categories;
+        });
+    }
+
+    private List<Category> loadAllCategories() throws SQLException {
         List<Category> categories = new ArrayList<>();
 
         try (
-            Connection conn = DatabaseConnection.getDBConnection();
+            Connection conn = connectForRead();
             PreparedStatement stmt = conn.prepareStatement(SELECT_ALL_CATEGORIES);
             ResultSet res = stmt.executeQuery()
         ) {
+            CategoryRowMapper mapper = new CategoryRowMapper(res);
             while (res.next()) {
-                categories.add(getCategoryRow(res));
+                categories.add(mapper.map(res));
             }
         }
         return categories;
     }
 
     public Category getCategoryById(int categoryId) throws SQLException {
-        try (
-            Connection conn = DatabaseConnection.getDBConnection();
-            PreparedStatement stmt = conn.prepareStatement(SELECT_CATEGORY_BY_ID)
-        ) {
-            stmt.setInt(1, categoryId);
-            try (ResultSet res = stmt.executeQuery()) {
-                if (res.next()) {
-                    return getCategoryRow(res);
+        return METRICS.call("getCategoryById", ExpenseTrackerDAO::oneIfPresent, () -> {
+            Category cached = CATEGORY_CACHE.getById(categoryId);
+            if (cached != null) {
+                return cached;
+            }
+            long readStarted = CATEGORY_CACHE.readStarted();
+            try (
+                Connection conn = connectForRead();
+                PreparedStatement stmt = conn.prepareStatement(SELECT_CATEGORY_BY_ID)
+            ) {
+                stmt.setInt(1, categoryId);
+                try (ResultSet res = stmt.executeQuery()) {
+                    if (res.next()) {
+                        Category category = new CategoryRowMapper(res).map(res);
+                        CATEGORY_CACHE.putIfUnchanged(category, readStarted);
+                        return category;
+                    }
                 }
             }
-        }
-        return null;
+            return null;
+        });
+    }
+
+    // Case-insensitive lookup against the category cache
+    public Category getCategoryByName(String name) throws SQLException {
+        return METRICS.call("getCategoryByName", ExpenseTrackerDAO::oneIfPresent, () -> {
+            if (!CATEGORY_CACHE.isLoaded()) {
+                getAllCategories();
+            }
+            return CATEGORY_CACHE.getByName(name);
+        });
+    }
+
+    public void invalidateCategoryCache() {
+        CATEGORY_CACHE.invalidate();
+    }
+
+    public CacheStats getCategoryCacheStats() {
+        return CATEGORY_CACHE.getStats();
+    }
+
+    // Also drops the cached archive horizon, which describes the same rows
+    public void invalidateExpenseCache() {
+        EXPENSE_CACHE.clear();
+        ExpenseArchiver.invalidateHorizon();
+    }
+
+    public CacheStats getExpenseCacheStats() {
+        return EXPENSE_CACHE.getStats();
     }
 
     public boolean updateCategory(Category category) throws SQLException {
-        try (
-            Connection conn = DatabaseConnection.getDBConnection();
-            PreparedStatement stmt = conn.prepareStatement(UPDATE_CATEGORY)
-        ) {
-            stmt.setString(1, category.getName());
-            stmt.setString(2, category.getDescription());
-            stmt.setTimestamp(3, Timestamp.valueOf(LocalDateTime.now()));
-            stmt.setInt(4, category.getId());
+        return METRICS.call("updateCategory", ExpenseTrackerDAO::oneIfTrue, () -> {
+            try (
+                Connection conn = connectForWrite();
+                PreparedStatement stmt = conn.prepareStatement(UPDATE_CATEGORY)
+            ) {
+                LocalDateTime now = LocalDateTime.now();
+                stmt.setString(1, category.getName());
+                stmt.setString(2, category.getDescription());
+                stmt.setTimestamp(3, Timestamp.valueOf(now));
+                stmt.setInt(4, category.getId());
             
-            int rowsAffected = stmt.executeUpdate();
-            return rowsAffected > 0;
-        }
+                int rowsAffected = stmt.executeUpdate();
+                if (rowsAffected > 0) {
+                    category.setUpdated_at(now);
+                    CATEGORY_CACHE.put(category);
+                    EXPENSE_CACHE.clear();
+                }
+                return rowsAffected > 0;
+            }
+        });
+    }
+
+    // Writes the category only if its updated_at still matches category.getUpdated_at(), in one statement.
+    // On UPDATED the category carries its new version; the database is only read again when nothing was written.
+    public UpdateResult updateCategoryIfCurrent(Category category) throws SQLException {
+        return METRICS.call("updateCategoryIfCurrent", ExpenseTrackerDAO::oneIfUpdated, () -> {
+            LocalDateTime version = nextVersion(category.getUpdated_at());
+            try (
+                Connection conn = connectForWrite();
+                PreparedStatement stmt = conn.prepareStatement(UPDATE_CATEGORY_IF_CURRENT)
+            ) {
+                stmt.setString(1, category.getName());
+                stmt.setString(2, category.getDescription());
+                stmt.setTimestamp(3, Timestamp.valueOf(version));
+                stmt.setInt(4, category.getId());
+                stmt.setTimestamp(5, Timestamp.valueOf(category.getUpdated_at()));
+                if (stmt.executeUpdate() > 0) {
+                    category.setUpdated_at(version);
+                    CATEGORY_CACHE.put(category);
+                    EXPENSE_CACHE.clear();
+                    return UpdateResult.UPDATED;
+                }
+
+                // The cached copy is stale either way
+                CATEGORY_CACHE.remove(category.getId());
+                try (PreparedStatement check = conn.prepareStatement(SELECT_CATEGORY_VERSION)) {
+                    check.setInt(1, category.getId());
+                    try (ResultSet res = check.executeQuery()) {
+                        return res.next() ? UpdateResult.CONFLICT : UpdateResult.NOT_FOUND;
+                    }
+                }
+            }
+        });
     }
 
     public boolean deleteCategory(int categoryId) throws SQLException {
-        try (
-            Connection conn = DatabaseConnection.getDBConnection();
-            PreparedStatement stmt = conn.prepareStatement(DELETE_CATEGORY)
-        ) {
+        return METRICS.call("deleteCategory", ExpenseTrackerDAO::oneIfTrue, () -> {
+            try (
+                Connection conn = connectForWrite();
+                PreparedStatement tombstone = conn.prepareStatement(INSERT_CATEGORY_TOMBSTONE);
+                PreparedStatement stmt = conn.prepareStatement(DELETE_CATEGORY)
+            ) {
+                checkArchiveDoesNotUse(conn, categoryId);
+                conn.setAutoCommit(false);
+                try {
+                    tombstone.setInt(1, categoryId);
+                    tombstone.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
+                    tombstone.executeUpdate();
+                    stmt.setInt(1, categoryId);
+                    int rowsAffected = stmt.executeUpdate();
+                    conn.commit();
+                    CATEGORY_CACHE.remove(categoryId);
+                    return rowsAffected > 0;
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                }
+            }
+        });
+    }
+
+    // All or nothing, in one transaction: if any of the categories is still used by an expense, none is deleted.
+    // Returns how many were deleted.
+    public int deleteCategories(int[] categoryIds) throws SQLException {
+        return METRICS.call("deleteCategories", deleted -> deleted, () -> {
+            if (categoryIds.length == 0) {
+                return 0;
+            }
+            int deleted = 0;
+            try (
+                Connection conn = connectForWrite();
+                PreparedStatement tombstone = conn.prepareStatement(INSERT_CATEGORY_TOMBSTONE)
+            ) {
+                conn.setAutoCommit(false);
+                try {
+                    Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                    for (int start = 0; start < categoryIds.length; start += BATCH_SIZE) {
+                        List<Integer> chunk = chunkOf(categoryIds, start);
+                        checkArchiveDoesNotUse(conn, chunk);
+                        for (Integer id : chunk) {
+                            tombstone.setInt(1, id);
+                            tombstone.setTimestamp(2, now);
+                            tombstone.addBatch();
+                        }
+                        tombstone.executeBatch();
+                        deleted += executeForIds(conn, DELETE_CATEGORIES, chunk);
+                    }
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                }
+            }
+            for (int id : categoryIds) {
+                CATEGORY_CACHE.remove(id);
+            }
+            return deleted;
+        });
+    }
+
+    private void checkArchiveDoesNotUse(Connection conn, List<Integer> categoryIds) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(withIds(SELECT_ARCHIVED_CATEGORIES_USE, categoryIds.size()) + " LIMIT 1")) {
+            bindIds(stmt, 1, categoryIds);
+            try (ResultSet res = stmt.executeQuery()) {
+                if (res.next()) {
+                    throw new SQLIntegrityConstraintViolationException("Category " + res.getInt(1) + " is still used by archived expenses");
+                }
+            }
+        }
+    }
+
+    // The archive has no foreign key to categories, so the check the constraint makes for current expenses is made here
+    private void checkArchiveDoesNotUse(Connection conn, int categoryId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(SELECT_ARCHIVED_CATEGORY_USE)) {
             stmt.setInt(1, categoryId);
-            int rowsAffected = stmt.executeUpdate();
-            return rowsAffected > 0;
+            try (ResultSet res = stmt.executeQuery()) {
+                if (res.next()) {
+                    throw new SQLIntegrityConstraintViolationException("Category " + categoryId + " is still used by archived expenses");
+                }
+            }
         }
     }
 
+    // Categories inserted, updated or deleted since the watermark. Also brings the category cache up to date.
+    public ChangeSet<Category, Integer> getCategoryChanges(LocalDateTime since) throws SQLException {
+        return METRICS.call("getCategoryChanges", ChangeSet::size, () -> {
+            LocalDateTime watermark = LocalDateTime.now();
+            Timestamp from = Timestamp.valueOf(since.minus(CHANGE_OVERLAP));
+            List<Category> changed = new ArrayList<>();
+            List<Integer> deleted = new ArrayList<>();
+
+            try (
+                Connection conn = connectToPrimary();
+                PreparedStatement changedStmt = conn.prepareStatement(SELECT_CATEGORIES_CHANGED_SINCE);
+                PreparedStatement deletedStmt = conn.prepareStatement(SELECT_CATEGORY_TOMBSTONES_SINCE)
+            ) {
+                deletedStmt.setTimestamp(1, from);
+                try (ResultSet res = deletedStmt.executeQuery()) {
+                    while (res.next()) {
+                        deleted.add(res.getInt(1));
+                    }
+                }
+                changedStmt.setTimestamp(1, from);
+                try (ResultSet res = changedStmt.executeQuery()) {
+                    CategoryRowMapper mapper = new CategoryRowMapper(res);
+                    while (res.next()) {
+                        changed.add(mapper.map(res));
+                    }
+                }
+            }
+
+            for (Category category : changed) {
+                CATEGORY_CACHE.put(category);
+            }
+            for (Integer id : deleted) {
+                CATEGORY_CACHE.remove(id);
+            }
+            // A renamed category, possibly by another process, changes the category name of cached expenses
+            if (!changed.isEmpty()) {
+                EXPENSE_CACHE.clear();
+            }
+            return new ChangeSet<>(changed, deleted, watermark);
+        });
+    }
+
     //Expense
 
     public int createExpense(Expense expense) throws SQLException {
-        try (
-            Connection conn = DatabaseConnection.getDBConnection();
-            PreparedStatement stmt = conn.prepareStatement(INSERT_EXPENSE, Statement.RETURN_GENERATED_KEYS)
-        ) {
-            stmt.setString(1, expense.getTitle());
-            stmt.setString(2, expense.getDescription());
-            stmt.setBigDecimal(3, expense.getAmount());
-            stmt.setInt(4, expense.getCategoryId());
-            stmt.setTimestamp(5, Timestamp.valueOf(expense.getCreated_at()));
-            stmt.setTimestamp(6, Timestamp.valueOf(expense.getUpdated_at()));
+        return METRICS.call("createExpense", id -> 1, () -> {
+            try (
+                Connection conn = connectForWrite();
+                PreparedStatement stmt = conn.prepareStatement(INSERT_EXPENSE, Statement.RETURN_GENERATED_KEYS)
+            ) {
+                bindExpenseInsert(stmt, expense);
             
-            int rowsAffected = stmt.executeUpdate();
+                int rowsAffected = stmt.executeUpdate();
             
-            if (rowsAffected == 0) {
-                throw new SQLException("Creating expense failed, no rows affected.");
+                if (rowsAffected == 0) {
+                    throw new SQLException("Creating expense failed, no rows affected.");
+                }
+
+                try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                    if (generatedKeys.next()) {
+                        return generatedKeys.getInt(1);
+                    } else {
+                        throw new SQLException("Creating expense failed, no ID obtained.");
+                    }
+                }
             }
+        });
+    }
 
+    // Inserts in chunks of BATCH_SIZE, one transaction per chunk, and returns the generated IDs in list order.
+    // Chunks committed before a failure stay in the database.
+    public int[] createExpenses(List<Expense> expenses) throws SQLException {
+        return METRICS.call("createExpenses", ids -> ids.length, () -> {
+            int[] ids = new int[expenses.size()];
+            try (
+                Connection conn = connectForWrite();
+                PreparedStatement stmt = conn.prepareStatement(INSERT_EXPENSE, Statement.RETURN_GENERATED_KEYS)
+            ) {
+                conn.setAutoCommit(false);
+                for (int start = 0; start < ids.length; start += BATCH_SIZE) {
+                    int end = Math.min(ids.length, start + BATCH_SIZE);
+                    for (int i = start; i < end; i++) {
+                        bindExpenseInsert(stmt, expenses.get(i));
+                        stmt.addBatch();
+                    }
+                    executeInsertBatch(conn, stmt, ids, start, end, "expense");
+                    for (int i = start; i < end; i++) {
+                        expenses.get(i).setId(ids[i]);
+                    }
+                }
+            }
+            return ids;
+        });
+    }
+
+    private void bindExpenseInsert(PreparedStatement stmt, Expense expense) throws SQLException {
+        stmt.setString(1, expense.getTitle());
+        stmt.setString(2, expense.getDescription());
+        expense.getAmount().bind(stmt, 3);
+        stmt.setInt(4, expense.getCategoryId());
+        stmt.setTimestamp(5, Timestamp.valueOf(expense.getCreated_at()));
+        stmt.setTimestamp(6, Timestamp.valueOf(expense.getUpdated_at()));
+    }
+
+    private void executeInsertBatch(Connection conn, PreparedStatement stmt, int[] ids, int start, int end, String entity) throws SQLException {
+        try {
+            stmt.executeBatch();
+            int i = start;
             try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
-                if (generatedKeys.next()) {
-                    return generatedKeys.getInt(1);
-                } else {
-                    throw new SQLException("Creating expense failed, no ID obtained.");
+                while (i < end && generatedKeys.next()) {
+                    ids[i++] = generatedKeys.getInt(1);
                 }
             }
+            if (i != end) {
+                throw new SQLException("Creating " + entity + " batch failed, expected " + (end - start) + " IDs but got " + (i - start) + ".");
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
         }
     }
 
-    private Expense getExpenseRow(ResultSet rs) throws SQLException {
-        int id = rs.getInt("id");
-        String title = rs.getString("title");
-        String description = rs.getString("description");
-        BigDecimal amount = rs.getBigDecimal("amount");
-        int categoryId = rs.getInt("category_id");
-        String categoryName = rs.getString("category_name");
-        LocalDateTime createdAt = rs.getTimestamp("created_at").toLocalDateTime();
-        LocalDateTime updatedAt = rs.getTimestamp("updated_at").toLocalDateTime();
-        
-        return new Expense(id, title, description, amount, categoryId, categoryName, createdAt, updatedAt);
-    }
-    
+    // Current and archived expenses, newest first
     public List<Expense> getAllExpenses() throws SQLException {
-        List<Expense> expenses = new ArrayList<>();
+        return METRICS.call("getAllExpenses", List::size, () -> {
+            try (Connection conn = connectForRead()) {
+                List<Expense> expenses = readExpenses(conn, SELECT_ALL_EXPENSES);
+                if (ExpenseArchiver.getArchivedBefore(conn) != null) {
+                    expenses = mergeNewestFirst(expenses, readExpenses(conn, SELECT_ALL_ARCHIVED_EXPENSES), Integer.MAX_VALUE);
+                }
+                return expenses;
+            }
+        });
+    }
 
-        try (
-            Connection conn = DatabaseConnection.getDBConnection();
-            PreparedStatement stmt = conn.prepareStatement(SELECT_ALL_EXPENSES);
-            ResultSet res = stmt.executeQuery()
-        ) {
-            while (res.next()) {
-                expenses.add(getExpenseRow(res));
+    private List<Expense> readExpenses(Connection conn, String sql) throws SQLException {
+        return readExpenses(conn, sql, List.of());
+    }
+
+    // Both lists are ordered by (created_at, id) descending; returns up to limit of their rows in the same order
+    private static List<Expense> mergeNewestFirst(List<Expense> a, List<Expense> b, int limit) {
+        List<Expense> merged = new ArrayList<>(Math.min(limit, a.size() + b.size()));
+        int i = 0;
+        int j = 0;
+        while (merged.size() < limit && (i < a.size() || j < b.size())) {
+            if (j == b.size() || (i < a.size() && isNewer(a.get(i), b.get(j)))) {
+                merged.add(a.get(i++));
+            } else {
+                merged.add(b.get(j++));
             }
         }
-        return expenses;
+        return merged;
+    }
+
+    private static boolean isNewer(Expense a, Expense b) {
+        int cmp = a.getCreated_at().compareTo(b.getCreated_at());
+        return cmp != 0 ? cmp > 0 : a.getId() > b.getId();
     }
 
     public Expense getExpenseById(int expenseId) throws SQLException {
-        try (
-            Connection conn = DatabaseConnection.getDBConnection();
-            PreparedStatement stmt = conn.prepareStatement(SELECT_EXPENSE_BY_ID)
-        ) {
-            stmt.setInt(1, expenseId);
-            try (ResultSet res = stmt.executeQuery()) {
-                if (res.next()) {
-                    return getExpenseRow(res);
+        return METRICS.call("getExpenseById", ExpenseTrackerDAO::oneIfPresent, () -> {
+            Expense cached = EXPENSE_CACHE.get(expenseId);
+            if (cached != null) {
+                return cached;
+            }
+            long readStarted = EXPENSE_CACHE.readStarted();
+            Expense expense = null;
+            try (
+                Connection conn = connectForRead();
+                PreparedStatement stmt = conn.prepareStatement(SELECT_EXPENSE_BY_ID)
+            ) {
+                stmt.setInt(1, expenseId);
+                try (ResultSet res = stmt.executeQuery()) {
+                    if (res.next()) {
+                        expense = new ExpenseRowMapper(res).map(res);
+                    }
+                }
+                if (expense == null) {
+                    try (PreparedStatement archived = conn.prepareStatement(SELECT_ARCHIVED_EXPENSE_BY_ID)) {
+                        archived.setInt(1, expenseId);
+                        try (ResultSet res = archived.executeQuery()) {
+                            if (res.next()) {
+                                expense = new ExpenseRowMapper(res).map(res);
+                            }
+                        }
+                    }
+                }
+            }
+            if (expense != null) {
+                EXPENSE_CACHE.put(expense, readStarted);
+            }
+            return expense;
+        });
+    }
+
+    // Returned in the order of the given IDs; IDs that no longer exist are skipped
+    public List<Expense> getExpensesByIds(List<Integer> expenseIds) throws SQLException {
+        return METRICS.call("getExpensesByIds", List::size, () -> {
+            Map<Integer, Expense> found = new HashMap<>();
+            try (Connection conn = connectForRead()) {
+                readExpensesByIds(conn, SELECT_EXPENSES_BY_IDS, expenseIds, found);
+                if (found.size() < expenseIds.size()) {
+                    List<Integer> missing = new ArrayList<>();
+                    for (Integer id : expenseIds) {
+                        if (!found.containsKey(id)) {
+                            missing.add(id);
+                        }
+                    }
+                    readExpensesByIds(conn, SELECT_ARCHIVED_EXPENSES_BY_IDS, missing, found);
+                }
+            }
+            List<Expense> expenses = new ArrayList<>(found.size());
+            for (Integer id : expenseIds) {
+                Expense expense = found.get(id);
+                if (expense != null) {
+                    expenses.add(expense);
+                }
+            }
+            return expenses;
+        });
+    }
+
+    private void readExpensesByIds(Connection conn, String query, List<Integer> expenseIds, Map<Integer, Expense> found) throws SQLException {
+        for (int start = 0; start < expenseIds.size(); start += BATCH_SIZE) {
+            List<Integer> chunk = expenseIds.subList(start, Math.min(start + BATCH_SIZE, expenseIds.size()));
+            StringBuilder sql = new StringBuilder(query);
+            for (int i = 0; i < chunk.size(); i++) {
+                sql.append(i == 0 ? "?" : ", ?");
+            }
+            sql.append(')');
+            try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    stmt.setInt(i + 1, chunk.get(i));
+                }
+                try (ResultSet res = stmt.executeQuery()) {
+                    ExpenseRowMapper mapper = new ExpenseRowMapper(res);
+                    while (res.next()) {
+                        Expense expense = mapper.map(res);
+                        found.put(expense.getId(), expense);
+                    }
                 }
             }
         }
-        return null;
     }
 
+    // An archived expense is moved back before it is written, here and in the other expense writes
     public boolean updateExpense(Expense expense) throws SQLException {
-        try (
-            Connection conn = DatabaseConnection.getDBConnection();
-            PreparedStatement stmt = conn.prepareStatement(UPDATE_EXPENSE)
-        ) {
-            stmt.setString(1, expense.getTitle());
-            stmt.setString(2, expense.getDescription());
-            stmt.setBigDecimal(3, expense.getAmount());
-            stmt.setInt(4, expense.getCategoryId());
-            stmt.setTimestamp(5, Timestamp.valueOf(LocalDateTime.now()));
-            stmt.setInt(6, expense.getId());
+        return METRICS.call("updateExpense", ExpenseTrackerDAO::oneIfTrue, () -> {
+            try (
+                Connection conn = connectForWrite();
+                PreparedStatement stmt = conn.prepareStatement(UPDATE_EXPENSE)
+            ) {
+                stmt.setString(1, expense.getTitle());
+                stmt.setString(2, expense.getDescription());
+                expense.getAmount().bind(stmt, 3);
+                stmt.setInt(4, expense.getCategoryId());
+                stmt.setTimestamp(5, Timestamp.valueOf(LocalDateTime.now()));
+                stmt.setInt(6, expense.getId());
             
-            int rowsAffected = stmt.executeUpdate();
-            return rowsAffected > 0;
+                int rowsAffected = stmt.executeUpdate();
+                if (rowsAffected == 0 && !ExpenseArchiver.restore(conn, List.of(expense.getId())).isEmpty()) {
+                    rowsAffected = stmt.executeUpdate();
+                }
+                EXPENSE_CACHE.invalidate(expense.getId());
+                return rowsAffected > 0;
+            }
+        });
+    }
+
+    // Writes the expense only if its updated_at still matches expense.getUpdated_at(), in one statement.
+    // On UPDATED the expense carries its new version; the database is only read again when nothing was written.
+    public UpdateResult updateExpenseIfCurrent(Expense expense) throws SQLException {
+        return METRICS.call("updateExpenseIfCurrent", ExpenseTrackerDAO::oneIfUpdated, () -> {
+            LocalDateTime version = nextVersion(expense.getUpdated_at());
+            try (
+                Connection conn = connectForWrite();
+                PreparedStatement stmt = conn.prepareStatement(UPDATE_EXPENSE_IF_CURRENT)
+            ) {
+                bindExpenseUpdate(stmt, expense, version);
+                if (stmt.executeUpdate() > 0 || (!ExpenseArchiver.restore(conn, List.of(expense.getId())).isEmpty() && stmt.executeUpdate() > 0)) {
+                    expense.setUpdated_at(version);
+                    EXPENSE_CACHE.invalidate(expense.getId());
+                    return UpdateResult.UPDATED;
+                }
+                Map<Integer, LocalDateTime> current = readExpenseVersions(conn, List.of(expense.getId()));
+                return current.containsKey(expense.getId()) ? UpdateResult.CONFLICT : UpdateResult.NOT_FOUND;
+            }
+        });
+    }
+
+    // Batched updateExpenseIfCurrent: one executeBatch and one transaction per chunk of BATCH_SIZE, with results in
+    // list order. A conflicting row does not stop the others from being written.
+    public UpdateResult[] updateExpensesIfCurrent(List<Expense> expenses) throws SQLException {
+        return METRICS.call("updateExpensesIfCurrent", ExpenseTrackerDAO::countUpdated, () -> {
+            UpdateResult[] results = new UpdateResult[expenses.size()];
+            LocalDateTime[] versions = new LocalDateTime[expenses.size()];
+            try (
+                Connection conn = connectForWrite();
+                PreparedStatement stmt = conn.prepareStatement(UPDATE_EXPENSE_IF_CURRENT)
+            ) {
+                conn.setAutoCommit(false);
+                for (int start = 0; start < results.length; start += BATCH_SIZE) {
+                    int end = Math.min(results.length, start + BATCH_SIZE);
+                    try {
+                        for (int i = start; i < end; i++) {
+                            versions[i] = nextVersion(expenses.get(i).getUpdated_at());
+                            bindExpenseUpdate(stmt, expenses.get(i), versions[i]);
+                            stmt.addBatch();
+                        }
+                        int[] counts = stmt.executeBatch();
+                        resolveBatchResults(conn, stmt, expenses, versions, counts, results, start, end);
+                        conn.commit();
+                        for (int i = start; i < end; i++) {
+                            EXPENSE_CACHE.invalidate(expenses.get(i).getId());
+                        }
+                    } catch (SQLException e) {
+                        conn.rollback();
+                        throw e;
+                    }
+                }
+            }
+            for (int i = 0; i < results.length; i++) {
+                if (results[i] == UpdateResult.UPDATED) {
+                    expenses.get(i).setUpdated_at(versions[i]);
+                }
+            }
+            return results;
+        });
+    }
+
+    private void bindExpenseUpdate(PreparedStatement stmt, Expense expense, LocalDateTime version) throws SQLException {
+        stmt.setString(1, expense.getTitle());
+        stmt.setString(2, expense.getDescription());
+        expense.getAmount().bind(stmt, 3);
+        stmt.setInt(4, expense.getCategoryId());
+        stmt.setTimestamp(5, Timestamp.valueOf(version));
+        stmt.setInt(6, expense.getId());
+        stmt.setTimestamp(7, Timestamp.valueOf(expense.getUpdated_at()));
+    }
+
+    // A count of 0 means the row did not match, so it is a conflict or missing, never UPDATED: a stale editor can compute
+    // the same next version as the edit that beat it. Only rows the driver gives no count for are judged by reading
+    // back their versions. Rows found in neither table are looked for in the archive and, if there, updated one by one.
+    private void resolveBatchResults(Connection conn, PreparedStatement stmt, List<Expense> expenses, LocalDateTime[] versions,
+                                     int[] counts, UpdateResult[] results, int start, int end) throws SQLException {
+        List<Integer> unresolved = new ArrayList<>();
+        boolean[] noCount = new boolean[end - start];
+        for (int i = start; i < end; i++) {
+            int count = counts[i - start];
+            if (count > 0) {
+                results[i] = UpdateResult.UPDATED;
+            } else {
+                noCount[i - start] = count == Statement.SUCCESS_NO_INFO || count == Statement.EXECUTE_FAILED;
+                unresolved.add(expenses.get(i).getId());
+            }
         }
+        if (unresolved.isEmpty()) {
+            return;
+        }
+        Map<Integer, LocalDateTime> current = readExpenseVersions(conn, unresolved);
+        List<Integer> missing = new ArrayList<>();
+        for (Integer id : unresolved) {
+            if (!current.containsKey(id)) {
+                missing.add(id);
+            }
+        }
+        Set<Integer> restored = missing.isEmpty() ? Set.of() : ExpenseArchiver.restore(conn, missing);
+        for (int i = start; i < end; i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            Expense expense = expenses.get(i);
+            LocalDateTime stored = current.get(expense.getId());
+            if (restored.contains(expense.getId())) {
+                bindExpenseUpdate(stmt, expense, versions[i]);
+                results[i] = stmt.executeUpdate() > 0 ? UpdateResult.UPDATED : UpdateResult.CONFLICT;
+            } else if (stored == null) {
+                results[i] = UpdateResult.NOT_FOUND;
+            } else {
+                results[i] = noCount[i - start] && stored.equals(versions[i]) ? UpdateResult.UPDATED : UpdateResult.CONFLICT;
+            }
+        }
+    }
+
+    private Map<Integer, LocalDateTime> readExpenseVersions(Connection conn, List<Integer> ids) throws SQLException {
+        StringBuilder sql = new StringBuilder(SELECT_EXPENSE_VERSIONS);
+        for (int i = 0; i < ids.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(')');
+        Map<Integer, LocalDateTime> versions = new HashMap<>();
+        try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            for (int i = 0; i < ids.size(); i++) {
+                stmt.setInt(i + 1, ids.get(i));
+            }
+            try (ResultSet res = stmt.executeQuery()) {
+                while (res.next()) {
+                    versions.put(res.getInt(1), res.getObject(2, LocalDateTime.class));
+                }
+            }
+        }
+        return versions;
     }
 
     public boolean deleteExpense(int expenseId) throws SQLException {
-        try (
-            Connection conn = DatabaseConnection.getDBConnection();
-            PreparedStatement stmt = conn.prepareStatement(DELETE_EXPENSE)
-        ) {
-            stmt.setInt(1, expenseId);
-            int rowsAffected = stmt.executeUpdate();
-            return rowsAffected > 0;
+        return METRICS.call("deleteExpense", ExpenseTrackerDAO::oneIfTrue, () -> {
+            try (
+                Connection conn = connectForWrite();
+                PreparedStatement tombstone = conn.prepareStatement(INSERT_EXPENSE_TOMBSTONE);
+                PreparedStatement stmt = conn.prepareStatement(DELETE_EXPENSE)
+            ) {
+                conn.setAutoCommit(false);
+                try {
+                    tombstone.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now()));
+                    tombstone.setInt(2, expenseId);
+                    tombstone.executeUpdate();
+                    stmt.setInt(1, expenseId);
+                    int rowsAffected = stmt.executeUpdate();
+                    if (rowsAffected == 0 && !ExpenseArchiver.restore(conn, List.of(expenseId)).isEmpty()) {
+                        tombstone.executeUpdate();
+                        rowsAffected = stmt.executeUpdate();
+                    }
+                    conn.commit();
+                    EXPENSE_CACHE.invalidate(expenseId);
+                    return rowsAffected > 0;
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                }
+            }
+        });
+    }
+
+    // Deletes in chunks of BATCH_SIZE IDs, all in one transaction, leaving a tombstone for each.
+    // Archived expenses are moved back first, as in deleteExpense. Returns how many were deleted.
+    public int deleteExpenses(int[] expenseIds) throws SQLException {
+        return METRICS.call("deleteExpenses", deleted -> deleted, () -> {
+            if (expenseIds.length == 0) {
+                return 0;
+            }
+            int deleted = 0;
+            try (Connection conn = connectForWrite()) {
+                conn.setAutoCommit(false);
+                try {
+                    Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                    for (int start = 0; start < expenseIds.length; start += BATCH_SIZE) {
+                        List<Integer> chunk = chunkOf(expenseIds, start);
+                        int chunkDeleted = deleteWithTombstones(conn, chunk, now);
+                        if (chunkDeleted < chunk.size()) {
+                            Set<Integer> restored = ExpenseArchiver.restore(conn, chunk);
+                            if (!restored.isEmpty()) {
+                                chunkDeleted += deleteWithTombstones(conn, new ArrayList<>(restored), now);
+                            }
+                        }
+                        deleted += chunkDeleted;
+                    }
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                }
+            }
+            for (int id : expenseIds) {
+                EXPENSE_CACHE.invalidate(id);
+            }
+            return deleted;
+        });
+    }
+
+    private int deleteWithTombstones(Connection conn, List<Integer> ids, Timestamp deletedAt) throws SQLException {
+        String tombstones = DatabaseConnection.DIALECT.upsert("expense_tombstones", "id, created_at, deleted_at", "id",
+            withIds(SELECT_EXPENSES_TO_TOMBSTONE, ids.size()));
+        try (PreparedStatement stmt = conn.prepareStatement(tombstones)) {
+            stmt.setTimestamp(1, deletedAt);
+            bindIds(stmt, 2, ids);
+            stmt.executeUpdate();
+        }
+        return executeForIds(conn, DELETE_EXPENSES, ids);
+    }
+
+    // Moves the expenses to another category in one transaction, in chunks of BATCH_SIZE IDs, and bumps their
+    // updated_at so delta refreshes pick them up. Archived expenses are moved back first. Returns how many were updated.
+    public int reassignCategory(int[] expenseIds, int categoryId) throws SQLException {
+        return METRICS.call("reassignCategory", updated -> updated, () -> {
+            if (expenseIds.length == 0) {
+                return 0;
+            }
+            int updated = 0;
+            try (Connection conn = connectForWrite()) {
+                conn.setAutoCommit(false);
+                try {
+                    Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                    for (int start = 0; start < expenseIds.length; start += BATCH_SIZE) {
+                        List<Integer> chunk = chunkOf(expenseIds, start);
+                        int chunkUpdated = reassign(conn, chunk, categoryId, now);
+                        if (chunkUpdated < chunk.size()) {
+                            Set<Integer> restored = ExpenseArchiver.restore(conn, chunk);
+                            if (!restored.isEmpty()) {
+                                chunkUpdated += reassign(conn, new ArrayList<>(restored), categoryId, now);
+                            }
+                        }
+                        updated += chunkUpdated;
+                    }
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                }
+            }
+            for (int id : expenseIds) {
+                EXPENSE_CACHE.invalidate(id);
+            }
+            return updated;
+        });
+    }
+
+    private int reassign(Connection conn, List<Integer> ids, int categoryId, Timestamp updatedAt) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(withIds(REASSIGN_EXPENSES, ids.size()))) {
+            stmt.setInt(1, categoryId);
+            stmt.setTimestamp(2, updatedAt);
+            bindIds(stmt, 3, ids);
+            return stmt.executeUpdate();
+        }
+    }
+
+    private static List<Integer> chunkOf(int[] ids, int start) {
+        int end = Math.min(ids.length, start + BATCH_SIZE);
+        List<Integer> chunk = new ArrayList<>(end - start);
+        for (int i = start; i < end; i++) {
+            chunk.add(ids[i]);
+        }
+        return chunk;
+    }
+
+    private static int executeForIds(Connection conn, String prefix, List<Integer> ids) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(withIds(prefix, ids.size()))) {
+            bindIds(stmt, 1, ids);
+            return stmt.executeUpdate();
+        }
+    }
+
+    // Completes an "... IN (" prefix with one placeholder per ID
+    private static String withIds(String prefix, int count) {
+        StringBuilder sql = new StringBuilder(prefix.length() + count * 3);
+        sql.append(prefix);
+        for (int i = 0; i < count; i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        return sql.append(')').toString();
+    }
+
+    private static void bindIds(PreparedStatement stmt, int first, List<Integer> ids) throws SQLException {
+        for (int i = 0; i < ids.size(); i++) {
+            stmt.setInt(first + i, ids.get(i));
+        }
+    }
+
+    // Expenses inserted, updated or deleted since the watermark. A row that was changed and then deleted is only reported as deleted.
+    public ChangeSet<Expense, ExpenseKey> getExpenseChanges(LocalDateTime since) throws SQLException {
+        return METRICS.call("getExpenseChanges", ChangeSet::size, () -> {
+            LocalDateTime watermark = LocalDateTime.now();
+            Timestamp from = Timestamp.valueOf(since.minus(CHANGE_OVERLAP));
+            List<Expense> changed = new ArrayList<>();
+            List<ExpenseKey> deleted = new ArrayList<>();
+            Set<Integer> deletedIds = new HashSet<>();
+
+            try (
+                Connection conn = connectToPrimary();
+                PreparedStatement changedStmt = conn.prepareStatement(SELECT_EXPENSES_CHANGED_SINCE);
+                PreparedStatement deletedStmt = conn.prepareStatement(SELECT_EXPENSE_TOMBSTONES_SINCE)
+            ) {
+                deletedStmt.setTimestamp(1, from);
+                try (ResultSet res = deletedStmt.executeQuery()) {
+                    while (res.next()) {
+                        ExpenseKey key = new ExpenseKey(res.getObject(2, LocalDateTime.class), res.getInt(1));
+                        deleted.add(key);
+                        deletedIds.add(key.getId());
+                    }
+                }
+                changedStmt.setTimestamp(1, from);
+                try (ResultSet res = changedStmt.executeQuery()) {
+                    ExpenseRowMapper mapper = new ExpenseRowMapper(res);
+                    while (res.next()) {
+                        Expense expense = mapper.map(res);
+                        if (!deletedIds.contains(expense.getId())) {
+                            changed.add(expense);
+                        }
+                    }
+                }
+            }
+            // Covers writes made by other processes as well
+            for (Expense expense : changed) {
+                EXPENSE_CACHE.invalidate(expense.getId());
+            }
+            EXPENSE_CACHE.invalidateAll(deletedIds);
+            return new ChangeSet<>(changed, deleted, watermark);
+        });
+    }
+
+    // Tombstones only need to outlive the longest gap between two delta refreshes
+    public int purgeTombstones(LocalDateTime before) throws SQLException {
+        return METRICS.call("purgeTombstones", purged -> purged, () -> {
+            try (
+                Connection conn = connectForWrite();
+                PreparedStatement expenses = conn.prepareStatement(PURGE_EXPENSE_TOMBSTONES);
+                PreparedStatement categories = conn.prepareStatement(PURGE_CATEGORY_TOMBSTONES)
+            ) {
+                Timestamp cutoff = Timestamp.valueOf(before);
+                expenses.setTimestamp(1, cutoff);
+                categories.setTimestamp(1, cutoff);
+                return expenses.executeUpdate() + categories.executeUpdate();
+            }
+        });
+    }
+
+    // Every read this DAO issues, with sample parameters, for SchemaManager.checkQueryPlans
+    public static List<QueryPlanCheck> getQueryPlanChecks() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS));
+        LocalDateTime recent = LocalDateTime.now().minusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        List<QueryPlanCheck> checks = new ArrayList<>();
+        checks.add(new QueryPlanCheck("getAllCategories", SELECT_ALL_CATEGORIES, true, true));
+        checks.add(new QueryPlanCheck("getCategoryById", SELECT_CATEGORY_BY_ID, false, false, 1));
+        checks.add(new QueryPlanCheck("getAllExpenses", SELECT_ALL_EXPENSES, true, false));
+        checks.add(new QueryPlanCheck("getExpenseById", SELECT_EXPENSE_BY_ID, false, false, 1));
+        checks.add(new QueryPlanCheck("getExpensesByIds", SELECT_EXPENSES_BY_IDS + "?, ?, ?)", false, false, 1, 2, 3));
+        checks.add(new QueryPlanCheck("updateExpenseIfCurrent", UPDATE_EXPENSE_IF_CURRENT, false, false, "", "", 0, 1, now, 1, now));
+        checks.add(new QueryPlanCheck("countExpenses", COUNT_EXPENSES, true, false));
+        checks.add(new QueryPlanCheck("getExpensesPage", SELECT_EXPENSES_FIRST_PAGE, false, false, 50));
+        checks.add(new QueryPlanCheck("getExpensesPage.after", SELECT_EXPENSES_PAGE_AFTER, false, false, now, now, Integer.MAX_VALUE, 50));
+        checks.add(new QueryPlanCheck("getExpenseKeyAfter", SELECT_EXPENSE_KEY_AT, false, false, 50));
+        checks.add(new QueryPlanCheck("getExpenseKeyAfter.after", SELECT_EXPENSE_KEY_AFTER, false, false, now, now, Integer.MAX_VALUE, 50));
+        checks.add(new QueryPlanCheck("streamExpenses", SELECT_EXPENSES_FOR_STREAM, true, true));
+        checks.add(new QueryPlanCheck("getExpenseChanges", SELECT_EXPENSES_CHANGED_SINCE, false, false, recent));
+        checks.add(new QueryPlanCheck("getExpenseChanges.deleted", SELECT_EXPENSE_TOMBSTONES_SINCE, false, false, recent));
+        checks.add(new QueryPlanCheck("getCategoryChanges", SELECT_CATEGORIES_CHANGED_SINCE, false, false, recent));
+        checks.add(new QueryPlanCheck("getCategoryChanges.deleted", SELECT_CATEGORY_TOMBSTONES_SINCE, false, false, recent));
+        checks.add(new QueryPlanCheck("getExpenseById.archive", SELECT_ARCHIVED_EXPENSE_BY_ID, false, false, 1));
+        checks.add(new QueryPlanCheck("getExpensesPage.archive", SELECT_ARCHIVED_PAGE_AFTER, false, false, recent, recent, Integer.MAX_VALUE, 50));
+        checks.add(new QueryPlanCheck("getExpenseKeyAfter.archive", SELECT_KEY_AFTER_WITH_ARCHIVE, false, false, now, now, Integer.MAX_VALUE, 51, now, now, Integer.MAX_VALUE, 51, 50));
+        checks.add(new QueryPlanCheck("deleteCategory.archive", SELECT_ARCHIVED_CATEGORY_USE, false, false, 1));
+        checks.add(new QueryPlanCheck("deleteCategories.archive", SELECT_ARCHIVED_CATEGORIES_USE + "?, ?) LIMIT 1", false, false, 1, 2));
+        for (ExpenseQuery query : List.of(
+                ExpenseQuery.builder().sort(ExpenseSort.AMOUNT, true).limit(50).build(),
+                ExpenseQuery.builder().titlePrefix("a").sort(ExpenseSort.TITLE, false).limit(50).build(),
+                ExpenseQuery.builder().categoryIds(Set.of(1)).createdFrom(recent).limit(50).build())) {
+            List<Object> params = new ArrayList<>();
+            StringBuilder sql = new StringBuilder("SELECT ").append(EXPENSE_COLUMNS).append(EXPENSES_JOIN_CATEGORIES);
+            query.appendWhere(sql, params, null);
+            query.appendOrderBy(sql, "e.");
+            sql.append(" LIMIT 50");
+            checks.add(new QueryPlanCheck("findExpenses." + query.getSort().name().toLowerCase(), sql.toString(), false, false, params.toArray()));
+        }
+        return checks;
+    }
+
+    // Archived expenses are counted from the rollups rather than the archive itself
+    public int countExpenses() throws SQLException {
+        return METRICS.call("countExpenses", count -> 1, () -> {
+            try (
+                Connection conn = connectForRead();
+                PreparedStatement stmt = conn.prepareStatement(COUNT_EXPENSES);
+                PreparedStatement archived = conn.prepareStatement(COUNT_ARCHIVED_EXPENSES);
+                ResultSet res = stmt.executeQuery();
+                ResultSet archivedRes = archived.executeQuery()
+            ) {
+                return (res.next() ? res.getInt(1) : 0) + (archivedRes.next() ? archivedRes.getInt(1) : 0);
+            }
+        });
+    }
+
+    // Returns up to limit expenses that come after the given key, or the first page when after is null.
+    // The archive is only read when the page runs past the current table or back beyond the archive horizon.
+    public List<Expense> getExpensesPage(ExpenseKey after, int limit) throws SQLException {
+        return METRICS.call("getExpensesPage", List::size, () -> {
+            try (Connection conn = connectForRead()) {
+                List<Expense> expenses = readPage(conn, after == null ? SELECT_EXPENSES_FIRST_PAGE : SELECT_EXPENSES_PAGE_AFTER, after, limit);
+                LocalDateTime archivedBefore = ExpenseArchiver.getArchivedBefore(conn);
+                if (archivedBefore != null && (expenses.size() < limit || expenses.get(expenses.size() - 1).getCreated_at().isBefore(archivedBefore))) {
+                    List<Expense> archived = readPage(conn, after == null ? SELECT_ARCHIVED_FIRST_PAGE : SELECT_ARCHIVED_PAGE_AFTER, after, limit);
+                    expenses = mergeNewestFirst(expenses, archived, limit);
+                }
+                return expenses;
+            }
+        });
+    }
+
+    private List<Expense> readPage(Connection conn, String sql, ExpenseKey after, int limit) throws SQLException {
+        List<Expense> expenses = new ArrayList<>(limit);
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int index = bindKey(stmt, after, 1);
+            stmt.setInt(index, limit);
+            try (ResultSet res = stmt.executeQuery()) {
+                ExpenseRowMapper mapper = new ExpenseRowMapper(res);
+                while (res.next()) {
+                    expenses.add(mapper.map(res));
+                }
+            }
+        }
+        return expenses;
+    }
+
+    // Finds the key offset rows past the given key by walking only (created_at, id), without touching the rows themselves.
+    // A key found in the current table at or after the archive horizon cannot have archived rows before it.
+    public ExpenseKey getExpenseKeyAfter(ExpenseKey after, int offset) throws SQLException {
+        return METRICS.call("getExpenseKeyAfter", ExpenseTrackerDAO::oneIfPresent, () -> {
+            try (Connection conn = connectForRead()) {
+                ExpenseKey key;
+                try (PreparedStatement stmt = conn.prepareStatement(after == null ? SELECT_EXPENSE_KEY_AT : SELECT_EXPENSE_KEY_AFTER)) {
+                    int index = bindKey(stmt, after, 1);
+                    stmt.setInt(index, offset);
+                    key = readKey(stmt);
+                }
+                LocalDateTime archivedBefore = ExpenseArchiver.getArchivedBefore(conn);
+                if (archivedBefore == null || (key != null && !key.getCreated_at().isBefore(archivedBefore))) {
+                    return key;
+                }
+                try (PreparedStatement stmt = conn.prepareStatement(after == null ? SELECT_KEY_AT_WITH_ARCHIVE : SELECT_KEY_AFTER_WITH_ARCHIVE)) {
+                    int index = bindKey(stmt, after, 1);
+                    stmt.setInt(index++, offset + 1);
+                    index = bindKey(stmt, after, index);
+                    stmt.setInt(index++, offset + 1);
+                    stmt.setInt(index, offset);
+                    return readKey(stmt);
+                }
+            }
+        });
+    }
+
+    private static ExpenseKey readKey(PreparedStatement stmt) throws SQLException {
+        try (ResultSet res = stmt.executeQuery()) {
+            return res.next() ? new ExpenseKey(res.getObject(1, LocalDateTime.class), res.getInt(2)) : null;
+        }
+    }
+
+    // Up to query.getLimit() matching expenses that come after the cursor in the query's order, or the first ones when
+    // after is null. Filtering, sorting and paging all run in MySQL. Archived expenses are merged in with a UNION when
+    // the query's date range reaches back past the archive horizon, except when the newest-first current rows fill the
+    // page before reaching it.
+    public List<Expense> findExpenses(ExpenseQuery query, ExpenseCursor after) throws SQLException {
+        return METRICS.call("findExpenses", List::size, () -> {
+            try (Connection conn = connectForRead()) {
+                LocalDateTime archivedBefore = archiveHorizonFor(conn, query);
+                if (archivedBefore == null || (query.getSort() == ExpenseSort.CREATED_AT && query.isDescending())) {
+                    List<Object> params = new ArrayList<>();
+                    StringBuilder sql = new StringBuilder("SELECT ").append(EXPENSE_COLUMNS).append(EXPENSES_JOIN_CATEGORIES);
+                    query.appendWhere(sql, params, after);
+                    query.appendOrderBy(sql, "e.");
+                    sql.append(" LIMIT ?");
+                    params.add(query.getLimit());
+                    List<Expense> expenses = readExpenses(conn, sql.toString(), params);
+                    if (archivedBefore == null || (expenses.size() == query.getLimit()
+                            && !expenses.get(expenses.size() - 1).getCreated_at().isBefore(archivedBefore))) {
+                        return expenses;
+                    }
+                }
+                List<Object> params = new ArrayList<>();
+                StringBuilder sql = new StringBuilder();
+                for (String from : new String[] {EXPENSES_JOIN_CATEGORIES, ARCHIVE_JOIN_CATEGORIES}) {
+                    sql.append(sql.length() == 0 ? "(SELECT " : " UNION ALL (SELECT ").append(EXPENSE_COLUMNS).append(from);
+                    query.appendWhere(sql, params, after);
+                    query.appendOrderBy(sql, "e.");
+                    sql.append(" LIMIT ?)");
+                    params.add(query.getLimit());
+                }
+                query.appendOrderBy(sql, "");
+                sql.append(" LIMIT ?");
+                params.add(query.getLimit());
+                return readExpenses(conn, sql.toString(), params);
+            }
+        });
+    }
+
+    // The cursor offset rows past the given one in the query's order, read from the sort column and ID alone
+    public ExpenseCursor getExpenseCursorAfter(ExpenseQuery query, ExpenseCursor after, int offset) throws SQLException {
+        return METRICS.call("getExpenseCursorAfter", ExpenseTrackerDAO::oneIfPresent, () -> {
+            ExpenseSort sort = query.getSort();
+            String columns = sort == ExpenseSort.ID ? "e.id" : "e." + sort.getColumn() + ", e.id";
+            try (Connection conn = connectForRead()) {
+                LocalDateTime archivedBefore = archiveHorizonFor(conn, query);
+                List<Object> params = new ArrayList<>();
+                StringBuilder sql = new StringBuilder();
+                if (archivedBefore == null) {
+                    sql.append("SELECT ").append(columns).append(" FROM expenses e");
+                    query.appendWhere(sql, params, after);
+                    query.appendOrderBy(sql, "e.");
+                } else {
+                    for (String table : new String[] {"expenses", "expenses_archive"}) {
+                        sql.append(sql.length() == 0 ? "(SELECT " : " UNION ALL (SELECT ").append(columns).append(" FROM ").append(table).append(" e");
+                        query.appendWhere(sql, params, after);
+                        query.appendOrderBy(sql, "e.");
+                        sql.append(" LIMIT ?)");
+                        params.add(offset + 1);
+                    }
+                    query.appendOrderBy(sql, "");
+                }
+                sql.append(" LIMIT 1 OFFSET ?");
+                params.add(offset);
+                try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+                    bindParams(stmt, params);
+                    try (ResultSet res = stmt.executeQuery()) {
+                        if (!res.next()) {
+                            return null;
+                        }
+                        if (sort == ExpenseSort.ID) {
+                            return new ExpenseCursor(sort, res.getInt(1), res.getInt(1));
+                        }
+                        return new ExpenseCursor(sort, readSortValue(res, sort), res.getInt(2));
+                    }
+                }
+            }
+        });
+    }
+
+    // IDs of up to query.getLimit() matching expenses after the cursor in the query's order, read from the sort column
+    // and ID alone. Resolves a large table selection without loading the rows.
+    public int[] findExpenseIds(ExpenseQuery query, ExpenseCursor after) throws SQLException {
+        return METRICS.call("findExpenseIds", ids -> ids.length, () -> {
+            ExpenseSort sort = query.getSort();
+            String columns = sort == ExpenseSort.ID ? "e.id" : "e." + sort.getColumn() + ", e.id";
+            try (Connection conn = connectForRead()) {
+                LocalDateTime archivedBefore = archiveHorizonFor(conn, query);
+                List<Object> params = new ArrayList<>();
+                StringBuilder sql = new StringBuilder();
+                if (archivedBefore == null) {
+                    sql.append("SELECT ").append(columns).append(" FROM expenses e");
+                    query.appendWhere(sql, params, after);
+                    query.appendOrderBy(sql, "e.");
+                } else {
+                    for (String table : new String[] {"expenses", "expenses_archive"}) {
+                        sql.append(sql.length() == 0 ? "(SELECT " : " UNION ALL (SELECT ").append(columns).append(" FROM ").append(table).append(" e");
+                        query.appendWhere(sql, params, after);
+                        query.appendOrderBy(sql, "e.");
+                        sql.append(" LIMIT ?)");
+                        params.add(query.getLimit());
+                    }
+                    query.appendOrderBy(sql, "");
+                }
+                sql.append(" LIMIT ?");
+                params.add(query.getLimit());
+                int idColumn = sort == ExpenseSort.ID ? 1 : 2;
+                try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+                    bindParams(stmt, params);
+                    try (ResultSet res = stmt.executeQuery()) {
+                        int[] ids = new int[Math.min(query.getLimit(), 1024)];
+                        int count = 0;
+                        while (res.next()) {
+                            if (count == ids.length) {
+                                ids = Arrays.copyOf(ids, ids.length * 2);
+                            }
+                            ids[count++] = res.getInt(idColumn);
+                        }
+                        return Arrays.copyOf(ids, count);
+                    }
+                }
+            }
+        });
+    }
+
+    // Unfiltered counts take the archived part from the rollups
+    public int countExpenses(ExpenseQuery query) throws SQLException {
+        if (!query.hasFilters()) {
+            return countExpenses();
+        }
+        return METRICS.call("countExpensesMatching", count -> 1, () -> {
+            try (Connection conn = connectForRead()) {
+                int count = 0;
+                boolean archive = archiveHorizonFor(conn, query) != null;
+                for (String table : archive ? new String[] {"expenses", "expenses_archive"} : new String[] {"expenses"}) {
+                    List<Object> params = new ArrayList<>();
+                    StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM ").append(table).append(" e");
+                    query.appendWhere(sql, params, null);
+                    try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+                        bindParams(stmt, params);
+                        try (ResultSet res = stmt.executeQuery()) {
+                            count += res.next() ? res.getInt(1) : 0;
+                        }
+                    }
+                }
+                return count;
+            }
+        });
+    }
+
+    // The archive horizon when the query has to read archived rows, or null when the current table is enough
+    private static LocalDateTime archiveHorizonFor(Connection conn, ExpenseQuery query) throws SQLException {
+        LocalDateTime archivedBefore = ExpenseArchiver.getArchivedBefore(conn);
+        if (archivedBefore == null || (query.getCreatedFrom() != null && !query.getCreatedFrom().isBefore(archivedBefore))) {
+            return null;
+        }
+        return archivedBefore;
+    }
+
+    private static Object readSortValue(ResultSet res, ExpenseSort sort) throws SQLException {
+        switch (sort) {
+            case TITLE: return res.getString(1);
+            case AMOUNT: return Money.read(res, 1);
+            default: return res.getObject(1, LocalDateTime.class);
+        }
+    }
+
+    private List<Expense> readExpenses(Connection conn, String sql, List<Object> params) throws SQLException {
+        List<Expense> expenses = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            bindParams(stmt, params);
+            try (ResultSet res = stmt.executeQuery()) {
+                ExpenseRowMapper mapper = new ExpenseRowMapper(res);
+                while (res.next()) {
+                    expenses.add(mapper.map(res));
+                }
+            }
+        }
+        return expenses;
+    }
+
+    private static void bindParams(PreparedStatement stmt, List<Object> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            Object param = params.get(i);
+            if (param instanceof LocalDateTime) {
+                stmt.setTimestamp(i + 1, Timestamp.valueOf((LocalDateTime) param));
+            } else if (param instanceof Money) {
+                ((Money) param).bind(stmt, i + 1);
+            } else {
+                stmt.setObject(i + 1, param);
+            }
+        }
+    }
+
+    // Writes go to the primary and pin the session's reads there for the read-your-writes window.
+    // The first connection of the process also brings the schema up to date.
+    private static Connection connectForWrite() throws SQLException {
+        SchemaManager.ensureSchema();
+        return METRICS.acquire(DatabaseConnection::getWriteConnection);
+    }
+
+    private static Connection connectForRead() throws SQLException {
+        SchemaManager.ensureSchema();
+        return METRICS.acquire(DatabaseConnection::getReadConnection);
+    }
+
+    // Change feeds read the primary so the watermark logic sees every committed row
+    private static Connection connectToPrimary() throws SQLException {
+        SchemaManager.ensureSchema();
+        return METRICS.acquire(DatabaseConnection::getDBConnection);
+    }
+
+    private static long oneIfPresent(Object row) {
+        return row != null ? 1 : 0;
+    }
+
+    private static long oneIfTrue(boolean affected) {
+        return affected ? 1 : 0;
+    }
+
+    private static long oneIfUpdated(UpdateResult result) {
+        return result == UpdateResult.UPDATED ? 1 : 0;
+    }
+
+    private static long countUpdated(UpdateResult[] results) {
+        long updated = 0;
+        for (UpdateResult result : results) {
+            if (result == UpdateResult.UPDATED) {
+                updated++;
+            }
+        }
+        return updated;
+    }
+
+    // Whole seconds, so the value reads back unchanged whatever the column's fractional precision, and always
+    // later than the version it replaces, so two edits within one second still get different versions
+    private static LocalDateTime nextVersion(LocalDateTime current) {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        LocalDateTime next = current.truncatedTo(ChronoUnit.SECONDS).plusSeconds(1);
+        return now.isAfter(next) ? now : next;
+    }
+
+    // Binds the seek predicate from the given parameter index on and returns the next index
+    private static int bindKey(PreparedStatement stmt, ExpenseKey key, int index) throws SQLException {
+        if (key == null) {
+            return index;
+        }
+        Timestamp createdAt = Timestamp.valueOf(key.getCreated_at());
+        stmt.setTimestamp(index, createdAt);
+        stmt.setTimestamp(index + 1, createdAt);
+        stmt.setInt(index + 2, key.getId());
+        return index + 3;
+    }
+
+    // Feeds matching rows to the handler as they arrive from the server and returns how many were sent: archived rows
+    // first, when the filter reaches back before the archive horizon, then current ones, each oldest first.
+    // Uses forward-only, read-only result sets with row streaming on MySQL, so memory use does not grow with the table.
+    public long streamExpenses(ExpenseFilter filter, RowHandler<Expense> handler) throws SQLException, IOException {
+        return METRICS.call("streamExpenses", rows -> rows, () -> {
+            long rows = 0;
+            try (Connection conn = connectForRead()) {
+                LocalDateTime archivedBefore = ExpenseArchiver.getArchivedBefore(conn);
+                if (archivedBefore != null && (filter.getFrom() == null || filter.getFrom().isBefore(archivedBefore))) {
+                    rows += stream(conn, SELECT_ARCHIVED_FOR_STREAM, filter, handler);
+                }
+                rows += stream(conn, SELECT_EXPENSES_FOR_STREAM, filter, handler);
+            }
+            return rows;
+        });
+    }
+
+    private long stream(Connection conn, String select, ExpenseFilter filter, RowHandler<Expense> handler) throws SQLException, IOException {
+        StringBuilder sql = new StringBuilder(select);
+        List<Object> params = new ArrayList<>();
+        filter.appendWhere(sql, params);
+        sql.append(" ORDER BY e.created_at, e.id");
+
+        long rows = 0;
+        try (PreparedStatement stmt = conn.prepareStatement(sql.toString(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            stmt.setFetchSize(DatabaseConnection.DIALECT.streamingFetchSize());
+            bindParams(stmt, params);
+            try (ResultSet res = stmt.executeQuery()) {
+                ExpenseRowMapper mapper = new ExpenseRowMapper(res);
+                while (res.next()) {
+                    handler.handle(mapper.map(res));
+                    rows++;
+                }
+            }
         }
+        return rows;
     }
-}
\ No newline at end of file
+}
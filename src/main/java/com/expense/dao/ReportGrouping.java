@@ -0,0 +1,19 @@
+package com.expense.dao;
+
+public enum ReportGrouping {
+    CATEGORY("By category"),
+    DAY("By day"),
+    WEEK("By week"),
+    MONTH("By month");
+
+    private final String label;
+
+    ReportGrouping(String label) {
+        this.label = label;
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
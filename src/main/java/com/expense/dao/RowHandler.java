@@ -0,0 +1,9 @@
+package com.expense.dao;
+
+import java.io.IOException;
+
+// Receives rows one at a time from the DAO's streaming queries
+@FunctionalInterface
+public interface RowHandler<T> {
+    void handle(T row) throws IOException;
+}
@@ -0,0 +1,9 @@
+package com.expense.dao;
+
+// Outcome of an update guarded by the row's updated_at version
+public enum UpdateResult {
+    UPDATED,
+    // The row exists but was changed since the caller read it; nothing was written
+    CONFLICT,
+    NOT_FOUND
+}
@@ -0,0 +1,72 @@
+package com.expense.gui;
+
+import javax.swing.*;
+
+import java.awt.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Status bar widget for background database work. The spinner only appears
+ * once a call has been running longer than the show delay, so fast round
+ * trips never flicker; the label keeps the latency of the last call, or the
+ * error of the last call that failed while others were running.
+ */
+public class BusyIndicator extends JPanel {
+
+    private static final int SHOW_DELAY_MILLIS = 250;
+
+    private final JProgressBar progressBar = new JProgressBar();
+    private final JLabel label = new JLabel(" ");
+    private final Timer showTimer;
+    private int pending;
+    private long busySinceNanos;
+    // The most recent failure since the spinner last went idle; cancelled calls do not count
+    private Throwable failure;
+
+    public BusyIndicator() {
+        super(new FlowLayout(FlowLayout.RIGHT, 5, 0));
+        progressBar.setIndeterminate(true);
+        progressBar.setPreferredSize(new Dimension(80, 14));
+        progressBar.setVisible(false);
+        add(label);
+        add(progressBar);
+
+        showTimer = new Timer(SHOW_DELAY_MILLIS, e -> {
+            progressBar.setVisible(true);
+            label.setText("Working... " + (System.nanoTime() - busySinceNanos) / 1_000_000 + " ms");
+        });
+        showTimer.setInitialDelay(SHOW_DELAY_MILLIS);
+    }
+
+    // Must be called on the event dispatch thread
+    public void track(CompletableFuture<?> future) {
+        long startNanos = System.nanoTime();
+        if (pending++ == 0) {
+            busySinceNanos = startNanos;
+            showTimer.restart();
+        }
+        future.whenComplete((value, error) -> SwingUtilities.invokeLater(() -> finished(startNanos, error)));
+    }
+
+    private void finished(long startNanos, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause != null && !(cause instanceof CancellationException)) {
+            failure = cause;
+        }
+        if (--pending > 0) {
+            return;
+        }
+        showTimer.stop();
+        progressBar.setVisible(false);
+        if (failure != null) {
+            label.setText("Database call failed: " + failure.getMessage());
+            label.setToolTipText(failure.toString());
+            failure = null;
+        } else {
+            label.setText("Last database call: " + (System.nanoTime() - startNanos) / 1_000_000 + " ms");
+            label.setToolTipText(null);
+        }
+    }
+}
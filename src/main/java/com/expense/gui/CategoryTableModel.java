@@ -0,0 +1,145 @@
+package com.expense.gui;
+
+import javax.swing.SwingUtilities;
+import javax.swing.table.AbstractTableModel;
+import com.expense.dao.AsyncExpenseTrackerDAO;
+import com.expense.dao.ExpenseTrackerDAO;
+import com.expense.model.Category;
+import com.expense.model.ChangeSet;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Category table model that loads the full list once and afterwards only
+ * patches the rows reported by the DAO's delta sync.
+ * All methods must be called on the event dispatch thread.
+ */
+public class CategoryTableModel extends AbstractTableModel {
+
+    private static final String[] COLUMN_NAMES = {"ID", "Name", "Description", "Created At", "Updated At"};
+    private static final Class<?>[] COLUMN_CLASSES = {Integer.class, String.class, String.class, LocalDateTime.class, LocalDateTime.class};
+
+    private final AsyncExpenseTrackerDAO asyncDao;
+    private final List<Category> rows = new ArrayList<>();
+    private LocalDateTime watermark;
+
+    public CategoryTableModel(AsyncExpenseTrackerDAO asyncDao) {
+        this.asyncDao = asyncDao;
+    }
+
+    public CompletableFuture<List<Category>> reload() {
+        ExpenseTrackerDAO dao = asyncDao.getDao();
+        return asyncDao.submitLatest("categories", () -> {
+            LocalDateTime loadedAt = LocalDateTime.now();
+            return new ChangeSet<Category, Integer>(dao.getAllCategories(), Collections.emptyList(), loadedAt);
+        }).thenApplyAsync(snapshot -> {
+            rows.clear();
+            rows.addAll(snapshot.getChanged());
+            watermark = snapshot.getWatermark();
+            fireTableDataChanged();
+            return getCategories();
+        }, SwingUtilities::invokeLater);
+    }
+
+    // Applies only what changed since the last load or refresh; falls back to a full load before the first one
+    public CompletableFuture<ChangeSet<Category, Integer>> refreshChanges() {
+        if (watermark == null) {
+            return reload().thenApply(categories -> new ChangeSet<>(categories, Collections.emptyList(), watermark));
+        }
+        LocalDateTime since = watermark;
+        ExpenseTrackerDAO dao = asyncDao.getDao();
+        return asyncDao.submitLatest("category-changes", () -> dao.getCategoryChanges(since))
+            .thenApplyAsync(changes -> {
+                applyChanges(changes);
+                return changes;
+            }, SwingUtilities::invokeLater);
+    }
+
+    public List<Category> getCategories() {
+        return new ArrayList<>(rows);
+    }
+
+    public Category getCategoryAt(int row) {
+        return row >= 0 && row < rows.size() ? rows.get(row) : null;
+    }
+
+    @Override
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMN_NAMES.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMN_NAMES[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return COLUMN_CLASSES[column];
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        Category c = rows.get(row);
+        switch (column) {
+            case 0: return c.getId();
+            case 1: return c.getName();
+            case 2: return c.getDescription();
+            case 3: return c.getCreated_at();
+            case 4: return c.getUpdated_at();
+            default: return null;
+        }
+    }
+
+    private void applyChanges(ChangeSet<Category, Integer> changes) {
+        for (Integer id : changes.getDeleted()) {
+            int index = indexOf(id);
+            if (index >= 0) {
+                rows.remove(index);
+                fireTableRowsDeleted(index, index);
+            }
+        }
+        for (Category category : changes.getChanged()) {
+            int index = indexOf(category.getId());
+            if (index >= 0) {
+                rows.set(index, category);
+                fireTableRowsUpdated(index, index);
+            } else {
+                index = insertionPoint(category);
+                rows.add(index, category);
+                fireTableRowsInserted(index, index);
+            }
+        }
+        watermark = changes.getWatermark();
+    }
+
+    private int indexOf(int id) {
+        for (int i = 0; i < rows.size(); i++) {
+            if (rows.get(i).getId() == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Keeps the newest-first order of the full load
+    private int insertionPoint(Category category) {
+        for (int i = 0; i < rows.size(); i++) {
+            Category other = rows.get(i);
+            int cmp = category.getCreated_at().compareTo(other.getCreated_at());
+            if (cmp > 0 || (cmp == 0 && category.getId() > other.getId())) {
+                return i;
+            }
+        }
+        return rows.size();
+    }
+}
@@ -0,0 +1,130 @@
+package com.expense.gui;
+
+import com.expense.dao.ExpenseQuery;
+import com.expense.dao.ExpenseSort;
+
+import javax.swing.RowSorter;
+import javax.swing.SortOrder;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Row sorter for the expense table that sorts in the database instead of in
+ * memory: clicking a header hands the model's query with the new sort to a
+ * callback that reloads the model, so view and model rows are always the
+ * same. Only NOT NULL, indexed columns are sortable; the others ignore clicks.
+ */
+public class ExpenseRowSorter extends RowSorter<ExpenseTableModel> {
+
+    // Table column to sort, indexed like ExpenseTableModel's columns
+    private static final ExpenseSort[] COLUMN_SORTS = {
+        ExpenseSort.ID, ExpenseSort.TITLE, null, ExpenseSort.AMOUNT, null, ExpenseSort.CREATED_AT, ExpenseSort.UPDATED_AT
+    };
+
+    private final ExpenseTableModel model;
+    private final Consumer<ExpenseQuery> onSort;
+    private List<SortKey> sortKeys;
+
+    public ExpenseRowSorter(ExpenseTableModel model, Consumer<ExpenseQuery> onSort) {
+        this.model = model;
+        this.onSort = onSort;
+        this.sortKeys = keysFor(model.getQuery().getSort(), model.getQuery().isDescending());
+    }
+
+    @Override
+    public ExpenseTableModel getModel() {
+        return model;
+    }
+
+    // Same column flips the direction; a new column starts ascending
+    @Override
+    public void toggleSortOrder(int column) {
+        ExpenseSort sort = column >= 0 && column < COLUMN_SORTS.length ? COLUMN_SORTS[column] : null;
+        if (sort == null) {
+            return;
+        }
+        boolean descending = sort == model.getQuery().getSort() ? !model.getQuery().isDescending() : false;
+        setSortKeys(keysFor(sort, descending));
+    }
+
+    @Override
+    public int convertRowIndexToModel(int index) {
+        return index;
+    }
+
+    @Override
+    public int convertRowIndexToView(int index) {
+        return index;
+    }
+
+    @Override
+    public void setSortKeys(List<? extends SortKey> keys) {
+        if (keys == null || keys.isEmpty()) {
+            keys = keysFor(ExpenseSort.CREATED_AT, true);
+        }
+        SortKey key = keys.get(0);
+        ExpenseSort sort = key.getColumn() < COLUMN_SORTS.length ? COLUMN_SORTS[key.getColumn()] : null;
+        if (sort == null || key.getSortOrder() == SortOrder.UNSORTED) {
+            return;
+        }
+        boolean descending = key.getSortOrder() == SortOrder.DESCENDING;
+        List<SortKey> newKeys = keysFor(sort, descending);
+        if (newKeys.equals(sortKeys)) {
+            return;
+        }
+        sortKeys = newKeys;
+        onSort.accept(model.getQuery().toBuilder().sort(sort, descending).build());
+        fireSortOrderChanged();
+    }
+
+    @Override
+    public List<? extends SortKey> getSortKeys() {
+        return sortKeys;
+    }
+
+    @Override
+    public int getViewRowCount() {
+        return model.getRowCount();
+    }
+
+    @Override
+    public int getModelRowCount() {
+        return model.getRowCount();
+    }
+
+    // Row changes never reorder the view; the model reloads the affected pages in query order
+
+    @Override
+    public void modelStructureChanged() {
+    }
+
+    @Override
+    public void allRowsChanged() {
+    }
+
+    @Override
+    public void rowsInserted(int firstRow, int endRow) {
+    }
+
+    @Override
+    public void rowsDeleted(int firstRow, int endRow) {
+    }
+
+    @Override
+    public void rowsUpdated(int firstRow, int endRow) {
+    }
+
+    @Override
+    public void rowsUpdated(int firstRow, int endRow, int column) {
+    }
+
+    private static List<SortKey> keysFor(ExpenseSort sort, boolean descending) {
+        for (int column = 0; column < COLUMN_SORTS.length; column++) {
+            if (COLUMN_SORTS[column] == sort) {
+                return Collections.singletonList(new SortKey(column, descending ? SortOrder.DESCENDING : SortOrder.ASCENDING));
+            }
+        }
+        return Collections.emptyList();
+    }
+}
@@ -0,0 +1,611 @@
+package com.expense.gui;
+
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import javax.swing.table.AbstractTableModel;
+import com.expense.dao.AsyncExpenseTrackerDAO;
+import com.expense.dao.ExpenseCursor;
+import com.expense.dao.ExpenseQuery;
+import com.expense.dao.ExpenseSort;
+import com.expense.dao.ExpenseTrackerDAO;
+import com.expense.model.Category;
+import com.expense.model.ChangeSet;
+import com.expense.model.Expense;
+import com.expense.model.ExpenseKey;
+import com.expense.model.Money;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Expense table model that fetches fixed-size pages on demand with keyset
+ * pagination and keeps only the most recently used pages in memory.
+ * Rows are filtered and sorted by MySQL according to an {@link ExpenseQuery}
+ * set with {@link #setQuery(ExpenseQuery)}.
+ * Pages load on a background thread; rows show as blank until they arrive.
+ * After the first load, {@link #refreshChanges()} patches loaded rows in
+ * place from the DAO's delta sync instead of reloading the table.
+ * {@link #showSearchResults(List)} temporarily replaces the paged rows with
+ * a fixed list, such as the hits of a search.
+ * All methods must be called on the event dispatch thread.
+ */
+public class ExpenseTableModel extends AbstractTableModel {
+
+    private static final String[] COLUMN_NAMES = {"ID", "Title", "Description", "Amount", "Category", "Created At", "Updated At"};
+    private static final Class<?>[] COLUMN_CLASSES = {Integer.class, String.class, String.class, Money.class, String.class, LocalDateTime.class, LocalDateTime.class};
+    private static final int MAX_PAGES_IN_FLIGHT = 4;
+    // Beyond this many changes a plain reload is cheaper than patching
+    private static final int MAX_PATCHED_CHANGES = 1000;
+    // A page that failed to load is retried after this delay, doubled per further failure up to the maximum
+    private static final int RETRY_DELAY_MILLIS = 500;
+    private static final int MAX_RETRY_DELAY_MILLIS = 30_000;
+
+    private final AsyncExpenseTrackerDAO asyncDao;
+    private final BusyIndicator busyIndicator;
+    private final int pageSize;
+    private final Map<Integer, List<Expense>> pages;
+    // Cursor for page p is the position of the last row on page p - 1; kept for every page seen so far
+    private final Map<Integer, ExpenseCursor> pageCursors = new HashMap<>();
+    private final LinkedHashMap<Integer, CompletableFuture<PageLoad>> pendingPages = new LinkedHashMap<>();
+    // Pages whose last load failed, until one succeeds
+    private final Map<Integer, PageRetry> failedPages = new HashMap<>();
+    private int rowCount;
+    // Bumped on every reload so pages fetched for an older snapshot are dropped
+    private int generation;
+    private LocalDateTime watermark;
+    // Non-null while a fixed result list is shown instead of the paged table
+    private List<Expense> searchResults;
+    private ExpenseQuery query;
+
+    public ExpenseTableModel(AsyncExpenseTrackerDAO asyncDao, BusyIndicator busyIndicator, int pageSize, int maxPages) {
+        this.asyncDao = asyncDao;
+        this.busyIndicator = busyIndicator;
+        this.pageSize = pageSize;
+        this.query = ExpenseQuery.builder().limit(pageSize).build();
+        this.pages = new LinkedHashMap<>(maxPages, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<Expense>> eldest) {
+                return size() > maxPages;
+            }
+        };
+    }
+
+    public ExpenseQuery getQuery() {
+        return query;
+    }
+
+    // Replaces the filters and sort order and reloads; the query's limit is replaced by the page size
+    public CompletableFuture<Integer> setQuery(ExpenseQuery query) {
+        this.query = query.toBuilder().limit(pageSize).build();
+        return reload();
+    }
+
+    public CompletableFuture<Integer> reload() {
+        ExpenseTrackerDAO dao = asyncDao.getDao();
+        ExpenseQuery counted = query;
+        return asyncDao.submitLatest("expense-count", () -> {
+            LocalDateTime countedAt = LocalDateTime.now();
+            return new CountLoad(dao.countExpenses(counted), countedAt);
+        }).thenApplyAsync(load -> {
+            reset(load.count, load.watermark);
+            return load.count;
+        }, SwingUtilities::invokeLater);
+    }
+
+    // Fetches rows changed since the last load or refresh and patches them in; returns the number of changes
+    public CompletableFuture<Integer> refreshChanges() {
+        if (watermark == null) {
+            return reload().thenApply(rows -> rows);
+        }
+        LocalDateTime since = watermark;
+        int requestedGeneration = generation;
+        ExpenseTrackerDAO dao = asyncDao.getDao();
+        ExpenseQuery counted = query;
+        return asyncDao.submitLatest("expense-changes", () -> {
+            ChangeSet<Expense, ExpenseKey> changes = dao.getExpenseChanges(since);
+            return new DeltaLoad(changes, changes.isEmpty() ? -1 : dao.countExpenses(counted));
+        }).thenApplyAsync(delta -> {
+            if (requestedGeneration == generation) {
+                applyChanges(delta.changes, delta.count);
+            }
+            return delta.changes.size();
+        }, SwingUtilities::invokeLater);
+    }
+
+    // Category renames and deletes do not touch expenses.updated_at, so loaded rows are patched here
+    public void applyCategoryChanges(ChangeSet<Category, Integer> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        Map<Integer, String> names = new HashMap<>();
+        for (Category category : changes.getChanged()) {
+            names.put(category.getId(), category.getName());
+        }
+        for (Integer id : changes.getDeleted()) {
+            names.put(id, null);
+        }
+        for (Map.Entry<Integer, List<Expense>> entry : pages.entrySet()) {
+            List<Expense> page = entry.getValue();
+            for (int i = 0; i < page.size(); i++) {
+                Expense expense = page.get(i);
+                if (names.containsKey(expense.getCategoryId())) {
+                    expense.setCategoryName(names.get(expense.getCategoryId()));
+                    int row = entry.getKey() * pageSize + i;
+                    if (searchResults == null) {
+                        fireTableRowsUpdated(row, row);
+                    }
+                }
+            }
+        }
+        if (searchResults != null) {
+            for (int i = 0; i < searchResults.size(); i++) {
+                Expense expense = searchResults.get(i);
+                if (names.containsKey(expense.getCategoryId())) {
+                    expense.setCategoryName(names.get(expense.getCategoryId()));
+                    fireTableRowsUpdated(i, i);
+                }
+            }
+        }
+    }
+
+    public void showSearchResults(List<Expense> results) {
+        searchResults = new ArrayList<>(results);
+        fireTableDataChanged();
+    }
+
+    public void clearSearchResults() {
+        if (searchResults != null) {
+            searchResults = null;
+            fireTableDataChanged();
+        }
+    }
+
+    public boolean isShowingSearchResults() {
+        return searchResults != null;
+    }
+
+    // Returns null while the row's page is still loading
+    public Expense getExpenseAt(int row) {
+        if (searchResults != null) {
+            return row >= 0 && row < searchResults.size() ? searchResults.get(row) : null;
+        }
+        if (row < 0 || row >= rowCount) {
+            return null;
+        }
+        int pageIndex = row / pageSize;
+        List<Expense> page = pages.get(pageIndex);
+        if (page == null) {
+            requestPage(pageIndex);
+            return null;
+        }
+        int index = row % pageSize;
+        return index < page.size() ? page.get(index) : null;
+    }
+
+    @Override
+    public int getRowCount() {
+        return searchResults != null ? searchResults.size() : rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMN_NAMES.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMN_NAMES[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return COLUMN_CLASSES[column];
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        Expense e = getExpenseAt(row);
+        if (e == null) {
+            return null;
+        }
+        switch (column) {
+            case 0: return e.getId();
+            case 1: return e.getTitle();
+            case 2: return e.getDescription();
+            case 3: return e.getAmount();
+            case 4: return e.getCategoryName();
+            case 5: return e.getCreated_at();
+            case 6: return e.getUpdated_at();
+            default: return null;
+        }
+    }
+
+    private void requestPage(int pageIndex) {
+        PageRetry retry = failedPages.get(pageIndex);
+        if (pendingPages.containsKey(pageIndex) || retry != null && System.nanoTime() - retry.notBeforeNanos < 0) {
+            return;
+        }
+
+        // Scrolling fast leaves older requests behind; drop them rather than queueing every page passed over
+        if (pendingPages.size() >= MAX_PAGES_IN_FLIGHT) {
+            Iterator<CompletableFuture<PageLoad>> oldest = pendingPages.values().iterator();
+            oldest.next().cancel(true);
+            oldest.remove();
+        }
+
+        // Seek from the nearest known cursor so jumping to the end of the table never fetches the rows in between
+        Seek seek = seekTo(pageIndex * pageSize);
+
+        ExpenseTrackerDAO dao = asyncDao.getDao();
+        ExpenseQuery pageQuery = query;
+        CompletableFuture<PageLoad> load = asyncDao.submit(() -> {
+            ExpenseCursor cursor = seek.cursor(dao, pageQuery);
+            // No cursor past page 0 means the table shrank since it was counted
+            if (pageIndex > 0 && cursor == null) {
+                return new PageLoad(null, Collections.emptyList());
+            }
+            return new PageLoad(cursor, dao.findExpenses(pageQuery, cursor));
+        });
+        pendingPages.put(pageIndex, load);
+        busyIndicator.track(load);
+
+        int requestedGeneration = generation;
+        load.whenComplete((result, error) -> SwingUtilities.invokeLater(() -> {
+            if (requestedGeneration != generation || pendingPages.get(pageIndex) != load) {
+                return;
+            }
+            pendingPages.remove(pageIndex);
+            if (error != null) {
+                if (!(error instanceof CancellationException)) {
+                    System.err.println("Error loading expense page " + pageIndex + ": " + error.getMessage());
+                    scheduleRetry(pageIndex);
+                }
+                return;
+            }
+            failedPages.remove(pageIndex);
+            pageLoaded(pageIndex, result);
+        }));
+    }
+
+    // Leaves the page unloaded and repaints its rows once the backoff ends, so the next getValueAt requests it again
+    private void scheduleRetry(int pageIndex) {
+        PageRetry retry = failedPages.computeIfAbsent(pageIndex, p -> new PageRetry());
+        int delayMillis = (int) Math.min(MAX_RETRY_DELAY_MILLIS, (long) RETRY_DELAY_MILLIS << Math.min(retry.failures, 16));
+        retry.failures++;
+        retry.notBeforeNanos = System.nanoTime() + delayMillis * 1_000_000L;
+
+        int requestedGeneration = generation;
+        Timer timer = new Timer(delayMillis, e -> {
+            int first = pageIndex * pageSize;
+            int last = Math.min(rowCount, first + pageSize) - 1;
+            if (requestedGeneration == generation && failedPages.get(pageIndex) == retry && first <= last && searchResults == null) {
+                fireTableRowsUpdated(first, last);
+            }
+        });
+        timer.setRepeats(false);
+        timer.start();
+    }
+
+    /**
+     * IDs of the given rows, which must be in ascending order as
+     * {@code JTable.getSelectedRows()} returns them. Loaded rows are read
+     * from memory; each run of rows that is not loaded is read from the DAO
+     * by keyset, IDs only, so selecting the whole table does not load every
+     * page. Fails if the table is reloaded or shrinks before the IDs arrive.
+     */
+    public CompletableFuture<int[]> getExpenseIdsAt(int[] rows) {
+        int[] ids = new int[rows.length];
+        if (searchResults != null) {
+            for (int i = 0; i < rows.length; i++) {
+                ids[i] = searchResults.get(rows[i]).getId();
+            }
+            return CompletableFuture.completedFuture(ids);
+        }
+
+        // Each unloaded run as {first index into rows, index past the end}
+        List<int[]> runs = new ArrayList<>();
+        for (int i = 0; i < rows.length; i++) {
+            Expense expense = loadedExpenseAt(rows[i]);
+            if (expense != null) {
+                ids[i] = expense.getId();
+                continue;
+            }
+            int[] run = runs.isEmpty() ? null : runs.get(runs.size() - 1);
+            if (run != null && run[1] == i && rows[i - 1] == rows[i] - 1) {
+                run[1] = i + 1;
+            } else {
+                runs.add(new int[] {i, i + 1});
+            }
+        }
+        if (runs.isEmpty()) {
+            return CompletableFuture.completedFuture(ids);
+        }
+
+        List<Seek> seeks = new ArrayList<>();
+        for (int[] run : runs) {
+            seeks.add(seekTo(rows[run[0]]));
+        }
+        ExpenseTrackerDAO dao = asyncDao.getDao();
+        ExpenseQuery idQuery = query;
+        int requestedGeneration = generation;
+        return asyncDao.submit(() -> {
+            for (int r = 0; r < runs.size(); r++) {
+                int[] run = runs.get(r);
+                int length = run[1] - run[0];
+                ExpenseCursor cursor = seeks.get(r).cursor(dao, idQuery);
+                int[] found = rows[run[0]] > 0 && cursor == null ? new int[0]
+                    : dao.findExpenseIds(idQuery.toBuilder().limit(length).build(), cursor);
+                if (found.length < length) {
+                    throw new IllegalStateException("The expense list changed; refresh it and select again");
+                }
+                System.arraycopy(found, 0, ids, run[0], length);
+            }
+            return ids;
+        }).thenApplyAsync(resolved -> {
+            if (requestedGeneration != generation) {
+                throw new IllegalStateException("The expense list was reloaded; select the expenses again");
+            }
+            return resolved;
+        }, SwingUtilities::invokeLater);
+    }
+
+    // Unlike getExpenseAt, never requests the row's page
+    private Expense loadedExpenseAt(int row) {
+        List<Expense> page = pages.get(row / pageSize);
+        int index = row % pageSize;
+        return page != null && index < page.size() ? page.get(index) : null;
+    }
+
+    // The nearest known cursor at or before the row, and how many rows past it the row's cursor is
+    private Seek seekTo(int row) {
+        int pageIndex = row / pageSize;
+        ExpenseCursor knownCursor = pageCursors.get(pageIndex);
+        int knownPage = knownCursor != null || pageIndex == 0 ? pageIndex : 0;
+        if (knownCursor == null) {
+            for (Map.Entry<Integer, ExpenseCursor> entry : pageCursors.entrySet()) {
+                int p = entry.getKey();
+                if (p < pageIndex && p > knownPage) {
+                    knownPage = p;
+                    knownCursor = entry.getValue();
+                }
+            }
+        }
+        return new Seek(knownCursor, row - knownPage * pageSize - 1);
+    }
+
+    private void reset(int count, LocalDateTime loadedAt) {
+        generation++;
+        for (CompletableFuture<PageLoad> pending : pendingPages.values()) {
+            pending.cancel(true);
+        }
+        pendingPages.clear();
+        failedPages.clear();
+        pages.clear();
+        pageCursors.clear();
+        rowCount = count;
+        watermark = loadedAt;
+        fireTableDataChanged();
+    }
+
+    private void applyChanges(ChangeSet<Expense, ExpenseKey> changes, int count) {
+        if (changes.isEmpty()) {
+            watermark = changes.getWatermark();
+            return;
+        }
+        if (searchResults != null) {
+            // The paged rows are not on screen; drop them and patch only the shown results
+            dropPagesFrom(0);
+            rowCount = count;
+            watermark = changes.getWatermark();
+            patchSearchResults(changes);
+            return;
+        }
+        if (changes.size() > MAX_PATCHED_CHANGES) {
+            reset(count, changes.getWatermark());
+            return;
+        }
+
+        Map<Integer, RowLocation> loaded = locateLoadedRows();
+        int firstStalePage = Integer.MAX_VALUE;
+
+        // An update that keeps the row in the view at the same position is patched in place; anything that moves,
+        // adds or removes a row invalidates its page and every page after it. A row that is not loaded and no longer
+        // matches the filters may have left from any page, as may a deleted row outside the default order.
+        for (Expense expense : changes.getChanged()) {
+            RowLocation at = loaded.get(expense.getId());
+            boolean matches = query.matches(expense);
+            if (at != null && matches && query.cursorOf(at.page.get(at.index)).equals(query.cursorOf(expense))) {
+                at.page.set(at.index, expense);
+                int row = at.pageIndex * pageSize + at.index;
+                fireTableRowsUpdated(row, row);
+                continue;
+            }
+            if (matches) {
+                firstStalePage = Math.min(firstStalePage, pageOf(query.cursorOf(expense)));
+            }
+            if (at != null) {
+                firstStalePage = Math.min(firstStalePage, at.pageIndex);
+            } else if (!matches && query.hasFilters()) {
+                firstStalePage = 0;
+            }
+        }
+        boolean keysLocateRows = query.getSort() == ExpenseSort.CREATED_AT && !query.hasFilters();
+        for (ExpenseKey key : changes.getDeleted()) {
+            RowLocation at = loaded.get(key.getId());
+            if (at != null) {
+                firstStalePage = Math.min(firstStalePage, at.pageIndex);
+            } else {
+                firstStalePage = Math.min(firstStalePage, keysLocateRows ? pageOf(ExpenseCursor.of(key)) : 0);
+            }
+        }
+
+        watermark = changes.getWatermark();
+        int oldCount = rowCount;
+        rowCount = count;
+        if (firstStalePage == Integer.MAX_VALUE) {
+            return;
+        }
+
+        dropPagesFrom(firstStalePage);
+        if (rowCount > oldCount) {
+            fireTableRowsInserted(oldCount, rowCount - 1);
+        } else if (rowCount < oldCount) {
+            fireTableRowsDeleted(rowCount, oldCount - 1);
+        }
+        int first = firstStalePage * pageSize;
+        int last = Math.min(oldCount, rowCount) - 1;
+        if (first <= last) {
+            fireTableRowsUpdated(first, last);
+        }
+    }
+
+    private void patchSearchResults(ChangeSet<Expense, ExpenseKey> changes) {
+        Map<Integer, Expense> changed = new HashMap<>();
+        for (Expense expense : changes.getChanged()) {
+            changed.put(expense.getId(), expense);
+        }
+        for (ExpenseKey key : changes.getDeleted()) {
+            changed.put(key.getId(), null);
+        }
+        for (int i = searchResults.size() - 1; i >= 0; i--) {
+            int id = searchResults.get(i).getId();
+            if (!changed.containsKey(id)) {
+                continue;
+            }
+            Expense expense = changed.get(id);
+            if (expense == null) {
+                searchResults.remove(i);
+                fireTableRowsDeleted(i, i);
+            } else {
+                searchResults.set(i, expense);
+                fireTableRowsUpdated(i, i);
+            }
+        }
+    }
+
+    private Map<Integer, RowLocation> locateLoadedRows() {
+        Map<Integer, RowLocation> loaded = new HashMap<>();
+        for (Map.Entry<Integer, List<Expense>> entry : pages.entrySet()) {
+            List<Expense> page = entry.getValue();
+            for (int i = 0; i < page.size(); i++) {
+                loaded.put(page.get(i).getId(), new RowLocation(entry.getKey(), page, i));
+            }
+        }
+        return loaded;
+    }
+
+    // The page a row falls on: the last page whose cursor sorts before the row
+    private int pageOf(ExpenseCursor cursor) {
+        int pageIndex = 0;
+        for (Map.Entry<Integer, ExpenseCursor> entry : pageCursors.entrySet()) {
+            if (entry.getKey() > pageIndex && query.compare(entry.getValue(), cursor) < 0) {
+                pageIndex = entry.getKey();
+            }
+        }
+        return pageIndex;
+    }
+
+    // Cursor for the first stale page is the last row of the page before it, so it stays valid
+    private void dropPagesFrom(int firstStalePage) {
+        pages.keySet().removeIf(p -> p >= firstStalePage);
+        failedPages.keySet().removeIf(p -> p >= firstStalePage);
+        pageCursors.keySet().removeIf(p -> p > firstStalePage);
+        Iterator<Map.Entry<Integer, CompletableFuture<PageLoad>>> pending = pendingPages.entrySet().iterator();
+        while (pending.hasNext()) {
+            Map.Entry<Integer, CompletableFuture<PageLoad>> entry = pending.next();
+            if (entry.getKey() >= firstStalePage) {
+                entry.getValue().cancel(true);
+                pending.remove();
+            }
+        }
+    }
+
+    private void pageLoaded(int pageIndex, PageLoad result) {
+        List<Expense> page = result.rows;
+        if (result.cursor != null) {
+            pageCursors.put(pageIndex, result.cursor);
+        }
+        pages.put(pageIndex, page);
+        if (page.size() == pageSize) {
+            pageCursors.put(pageIndex + 1, query.cursorOf(page.get(page.size() - 1)));
+        }
+
+        int first = pageIndex * pageSize;
+        int last = Math.min(rowCount, first + pageSize) - 1;
+        if (first <= last && searchResults == null) {
+            fireTableRowsUpdated(first, last);
+        }
+    }
+
+    private static final class CountLoad {
+        private final int count;
+        private final LocalDateTime watermark;
+
+        private CountLoad(int count, LocalDateTime watermark) {
+            this.count = count;
+            this.watermark = watermark;
+        }
+    }
+
+    private static final class DeltaLoad {
+        private final ChangeSet<Expense, ExpenseKey> changes;
+        private final int count;
+
+        private DeltaLoad(ChangeSet<Expense, ExpenseKey> changes, int count) {
+            this.changes = changes;
+            this.count = count;
+        }
+    }
+
+    private static final class RowLocation {
+        private final int pageIndex;
+        private final List<Expense> page;
+        private final int index;
+
+        private RowLocation(int pageIndex, List<Expense> page, int index) {
+            this.pageIndex = pageIndex;
+            this.page = page;
+            this.index = index;
+        }
+    }
+
+    // Cursor for a row: from a known cursor, skip rows further on; a skip of -1 means the known cursor itself
+    private static final class Seek {
+        private final ExpenseCursor from;
+        private final int skip;
+
+        private Seek(ExpenseCursor from, int skip) {
+            this.from = from;
+            this.skip = skip;
+        }
+
+        // Runs on a background thread; null past the first row means the table shrank since it was counted
+        ExpenseCursor cursor(ExpenseTrackerDAO dao, ExpenseQuery query) throws SQLException {
+            return skip < 0 ? from : dao.getExpenseCursorAfter(query, from, skip);
+        }
+    }
+
+    private static final class PageRetry {
+        private int failures;
+        private long notBeforeNanos;
+    }
+
+    private static final class PageLoad {
+        private final ExpenseCursor cursor;
+        private final List<Expense> rows;
+
+        private PageLoad(ExpenseCursor cursor, List<Expense> rows) {
+            this.cursor = cursor;
+            this.rows = rows;
+        }
+    }
+}
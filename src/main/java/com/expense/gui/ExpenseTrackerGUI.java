@@ -1,22 +1,59 @@
 package com.expense.gui;
 
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.table.DefaultTableCellRenderer;
 import javax.swing.table.DefaultTableModel;
+import com.expense.analytics.ExpenseColumns;
+import com.expense.dao.AsyncExpenseTrackerDAO;
+import com.expense.dao.ExpenseQuery;
+import com.expense.dao.ExpenseReportDAO;
 import com.expense.dao.ExpenseTrackerDAO;
+import com.expense.dao.ReportGrouping;
 import com.expense.model.Category;
 import com.expense.model.Expense;
+import com.expense.model.ExpenseSummary;
+import com.expense.model.Money;
+import com.expense.search.ExpenseSearchIndex;
+import com.expense.search.SearchHit;
+import com.expense.util.AppConfig;
 
 import java.awt.*;
-import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.math.BigDecimal;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
 
 public class ExpenseTrackerGUI extends JFrame {
 
+    private static final int EXPENSE_PAGE_SIZE = 200;
+    private static final int EXPENSE_PAGE_CACHE = 25;
+    private static final int SEARCH_LIMIT = 500;
+    private static final int SEARCH_DELAY_MILLIS = 150;
+    private static final int CATEGORIES_TAB = 0;
+    private static final int EXPENSES_TAB = 1;
+
     private ExpenseTrackerDAO dao;
+    private ExpenseReportDAO reportDao;
+    private AsyncExpenseTrackerDAO asyncDao;
+    private BusyIndicator busyIndicator;
+    // Null until the background build finishes
+    private ExpenseSearchIndex searchIndex;
+    private final StartupTiming startupTiming = new StartupTiming();
+    // Tabs load their data the first time they are shown
+    private JTabbedPane tabbedPane;
+    private boolean categoriesLoaded;
+    private boolean expensesLoaded;
 
     private JTable categoryTable;
-    private DefaultTableModel categoryTableModel;
+    private CategoryTableModel categoryTableModel;
     private JTextField categoryNameField;
     private JTextArea categoryDescriptionArea;
     private JButton addCategoryButton;
@@ -25,7 +62,7 @@ public class ExpenseTrackerGUI extends JFrame {
     private JButton refreshCategoriesButton;
 
     private JTable expenseTable;
-    private DefaultTableModel expenseTableModel;
+    private ExpenseTableModel expenseTableModel;
     private JTextField expenseTitleField;
     private JTextArea expenseDescriptionArea;
     private JTextField expenseAmountField;
@@ -33,16 +70,46 @@ public class ExpenseTrackerGUI extends JFrame {
     private JButton addExpenseButton;
     private JButton updateExpenseButton;
     private JButton deleteExpenseButton;
+    private JButton reassignCategoryButton;
     private JButton refreshExpensesButton;
+    private JTextField expenseSearchField;
+    private JLabel expenseSearchStatusLabel;
+    private Timer expenseSearchTimer;
+    private JTextField filterFromField;
+    private JTextField filterToField;
+    private JComboBox<Object> filterCategoryComboBox;
+    private JTextField filterMinAmountField;
+    private JTextField filterMaxAmountField;
+    private JTextField filterTitleField;
+    private JButton applyFilterButton;
+    private JButton clearFilterButton;
+
+    private JTable reportTable;
+    private DefaultTableModel reportTableModel;
+    private JTextField reportFromField;
+    private JTextField reportToField;
+    private JComboBox<ReportGrouping> reportGroupingComboBox;
+    private JButton runReportButton;
+    private JLabel reportTotalLabel;
+    private JCheckBox reportInMemoryCheckBox;
+    // Loaded on the first in-memory report and dropped when a refresh finds changed expenses
+    private volatile ExpenseColumns reportSnapshot;
 
     public ExpenseTrackerGUI() {
         this.dao = new ExpenseTrackerDAO();
+        this.reportDao = new ExpenseReportDAO();
+        this.asyncDao = new AsyncExpenseTrackerDAO(dao);
         initializeComponents();
         setupLayout();
         setupEventListeners();
-        loadCategories();
-        loadExpenses();
-        loadCategoryComboBox();
+        loadTab(tabbedPane.getSelectedIndex()).whenComplete((result, error) ->
+            SwingUtilities.invokeLater(startupTiming::interactive));
+    }
+
+    @Override
+    public void paint(Graphics g) {
+        super.paint(g);
+        startupTiming.firstPaint();
     }
 
     private void initializeComponents() {
@@ -51,16 +118,12 @@ public class ExpenseTrackerGUI extends JFrame {
         setSize(1000, 700);
         setLocationRelativeTo(null);
 
+        busyIndicator = new BusyIndicator();
+
         // Cat table
-        String[] categoryColumnNames = {"ID", "Name", "Description", "Created At", "Updated At"};
-        categoryTableModel = new DefaultTableModel(categoryColumnNames, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        categoryTableModel = new CategoryTableModel(asyncDao);
         categoryTable = new JTable(categoryTableModel);
-        categoryTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        categoryTable.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
 
         // Cat input fields
         categoryNameField = new JTextField(20);
@@ -75,15 +138,16 @@ public class ExpenseTrackerGUI extends JFrame {
         refreshCategoriesButton = new JButton("Refresh");
 
         // Exp table
-        String[] expenseColumnNames = {"ID", "Title", "Description", "Amount", "Category", "Created At", "Updated At"};
-        expenseTableModel = new DefaultTableModel(expenseColumnNames, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        expenseTableModel = new ExpenseTableModel(asyncDao, busyIndicator, EXPENSE_PAGE_SIZE, EXPENSE_PAGE_CACHE);
         expenseTable = new JTable(expenseTableModel);
-        expenseTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        // Several rows can be deleted or moved to another category at once
+        expenseTable.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+        // Header clicks re-query MySQL in the chosen order rather than sorting the loaded pages
+        expenseTable.setRowSorter(new ExpenseRowSorter(expenseTableModel, this::queryExpenses));
+        // Amounts line up on the right, as numbers do
+        DefaultTableCellRenderer amountRenderer = new DefaultTableCellRenderer();
+        amountRenderer.setHorizontalAlignment(SwingConstants.RIGHT);
+        expenseTable.setDefaultRenderer(Money.class, amountRenderer);
 
         // Expense input fields
         expenseTitleField = new JTextField(20);
@@ -93,25 +157,54 @@ public class ExpenseTrackerGUI extends JFrame {
         expenseAmountField = new JTextField(20);
 
         categoryComboBox = new JComboBox<>();
-        try {
-            List<Category> categories = dao.getAllCategories();
-            for (Category category : categories) {
-                categoryComboBox.addItem(category);
-            }
-        } catch (SQLException e) {
-            JOptionPane.showMessageDialog(this, "Error loading categories: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        }
 
         addExpenseButton = new JButton("Add Expense");
         updateExpenseButton = new JButton("Update Expense");
         deleteExpenseButton = new JButton("Delete Expense");
+        reassignCategoryButton = new JButton("Set Category");
         refreshExpensesButton = new JButton("Refresh");
+
+        // Search box, queried once typing pauses
+        expenseSearchField = new JTextField(30);
+        expenseSearchStatusLabel = new JLabel("Building search index...");
+        expenseSearchTimer = new Timer(SEARCH_DELAY_MILLIS, e -> searchExpenses());
+        expenseSearchTimer.setRepeats(false);
+
+        // Filters, applied by MySQL to the paged table
+        filterFromField = new JTextField(8);
+        filterToField = new JTextField(8);
+        filterCategoryComboBox = new JComboBox<>(new Object[] {"All"});
+        filterMinAmountField = new JTextField(6);
+        filterMaxAmountField = new JTextField(6);
+        filterTitleField = new JTextField(10);
+        applyFilterButton = new JButton("Apply");
+        clearFilterButton = new JButton("Clear");
+
+        // Report table
+        String[] reportColumnNames = {"Group", "Count", "Total", "Min", "Max", "Average"};
+        reportTableModel = new DefaultTableModel(reportColumnNames, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        reportTable = new JTable(reportTableModel);
+
+        // Report inputs, defaulting to the current year
+        LocalDate today = LocalDate.now();
+        reportFromField = new JTextField(today.withDayOfYear(1).toString(), 10);
+        reportToField = new JTextField(today.toString(), 10);
+        reportGroupingComboBox = new JComboBox<>(ReportGrouping.values());
+        reportGroupingComboBox.setSelectedItem(ReportGrouping.MONTH);
+        runReportButton = new JButton("Run Report");
+        reportTotalLabel = new JLabel(" ");
+        reportInMemoryCheckBox = new JCheckBox("In-memory snapshot");
     }
 
     private void setupLayout() {
         setLayout(new BorderLayout());
 
-        JTabbedPane tabbedPane = new JTabbedPane();
+        tabbedPane = new JTabbedPane();
 
         // Cat tab
         JPanel categoriesPanel = createCategoriesPanel();
@@ -121,11 +214,17 @@ public class ExpenseTrackerGUI extends JFrame {
         JPanel expensesPanel = createExpensesPanel();
         tabbedPane.addTab("Expenses", expensesPanel);
 
+        // Reports tab
+        JPanel reportsPanel = createReportsPanel();
+        tabbedPane.addTab("Reports", reportsPanel);
+
         add(tabbedPane, BorderLayout.CENTER);
 
         // Status panel
-        JPanel statusPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
-        statusPanel.add(new JLabel("Use tabs to manage Categories and Expenses"));
+        JPanel statusPanel = new JPanel(new BorderLayout());
+        statusPanel.add(new JLabel("Use tabs to manage Categories and Expenses"), BorderLayout.WEST);
+        statusPanel.add(busyIndicator, BorderLayout.EAST);
+        statusPanel.setBorder(BorderFactory.createEmptyBorder(3, 5, 3, 5));
         add(statusPanel, BorderLayout.SOUTH);
     }
 
@@ -198,6 +297,7 @@ public class ExpenseTrackerGUI extends JFrame {
         buttonPanel.add(addExpenseButton);
         buttonPanel.add(updateExpenseButton);
         buttonPanel.add(deleteExpenseButton);
+        buttonPanel.add(reassignCategoryButton);
         buttonPanel.add(refreshExpensesButton);
 
         // North panel
@@ -205,8 +305,62 @@ public class ExpenseTrackerGUI extends JFrame {
         northPanel.add(inputPanel, BorderLayout.CENTER);
         northPanel.add(buttonPanel, BorderLayout.SOUTH);
 
+        // Filter and search bars above the table
+        JPanel filterPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        filterPanel.add(new JLabel("From (yyyy-mm-dd):"));
+        filterPanel.add(filterFromField);
+        filterPanel.add(new JLabel("To:"));
+        filterPanel.add(filterToField);
+        filterPanel.add(new JLabel("Category:"));
+        filterPanel.add(filterCategoryComboBox);
+        filterPanel.add(new JLabel("Amount:"));
+        filterPanel.add(filterMinAmountField);
+        filterPanel.add(new JLabel("-"));
+        filterPanel.add(filterMaxAmountField);
+        filterPanel.add(new JLabel("Title starts with:"));
+        filterPanel.add(filterTitleField);
+        filterPanel.add(applyFilterButton);
+        filterPanel.add(clearFilterButton);
+
+        JPanel searchPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        searchPanel.add(new JLabel("Search:"));
+        searchPanel.add(expenseSearchField);
+        searchPanel.add(expenseSearchStatusLabel);
+
+        JPanel barsPanel = new JPanel(new BorderLayout());
+        barsPanel.add(filterPanel, BorderLayout.NORTH);
+        barsPanel.add(searchPanel, BorderLayout.SOUTH);
+
+        JPanel tablePanel = new JPanel(new BorderLayout());
+        tablePanel.add(barsPanel, BorderLayout.NORTH);
+        tablePanel.add(new JScrollPane(expenseTable), BorderLayout.CENTER);
+
         panel.add(northPanel, BorderLayout.NORTH);
-        panel.add(new JScrollPane(expenseTable), BorderLayout.CENTER);
+        panel.add(tablePanel, BorderLayout.CENTER);
+
+        return panel;
+    }
+
+    private JPanel createReportsPanel() {
+        JPanel panel = new JPanel(new BorderLayout());
+
+        // Input panel
+        JPanel inputPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        inputPanel.add(new JLabel("From (yyyy-mm-dd):"));
+        inputPanel.add(reportFromField);
+        inputPanel.add(new JLabel("To:"));
+        inputPanel.add(reportToField);
+        inputPanel.add(reportGroupingComboBox);
+        inputPanel.add(reportInMemoryCheckBox);
+        inputPanel.add(runReportButton);
+
+        // Totals panel
+        JPanel totalsPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        totalsPanel.add(reportTotalLabel);
+
+        panel.add(inputPanel, BorderLayout.NORTH);
+        panel.add(new JScrollPane(reportTable), BorderLayout.CENTER);
+        panel.add(totalsPanel, BorderLayout.SOUTH);
 
         return panel;
     }
@@ -216,10 +370,7 @@ public class ExpenseTrackerGUI extends JFrame {
         addCategoryButton.addActionListener(e -> addCategory());
         updateCategoryButton.addActionListener(e -> updateCategory());
         deleteCategoryButton.addActionListener(e -> deleteCategory());
-        refreshCategoriesButton.addActionListener(e -> {
-            loadCategories();
-            loadCategoryComboBox();
-        });
+        refreshCategoriesButton.addActionListener(e -> refreshCategories());
 
         categoryTable.getSelectionModel().addListSelectionListener(
             e -> { if (!e.getValueIsAdjusting()) loadSelectedCategory(); }
@@ -229,11 +380,42 @@ public class ExpenseTrackerGUI extends JFrame {
         addExpenseButton.addActionListener(e -> addExpense());
         updateExpenseButton.addActionListener(e -> updateExpense());
         deleteExpenseButton.addActionListener(e -> deleteExpense());
-        refreshExpensesButton.addActionListener(e -> loadExpenses());
+        reassignCategoryButton.addActionListener(e -> reassignExpenseCategory());
+        refreshExpensesButton.addActionListener(e -> refreshExpenses());
 
         expenseTable.getSelectionModel().addListSelectionListener(
             e -> { if (!e.getValueIsAdjusting()) loadSelectedExpense(); }
         );
+
+        applyFilterButton.addActionListener(e -> applyExpenseFilter());
+        clearFilterButton.addActionListener(e -> clearExpenseFilter());
+        filterTitleField.addActionListener(e -> applyExpenseFilter());
+
+        expenseSearchField.addActionListener(e -> {
+            expenseSearchTimer.stop();
+            searchExpenses();
+        });
+        expenseSearchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                expenseSearchTimer.restart();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                expenseSearchTimer.restart();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                expenseSearchTimer.restart();
+            }
+        });
+
+        // Report event listeners
+        runReportButton.addActionListener(e -> runReport());
+
+        tabbedPane.addChangeListener(e -> loadTab(tabbedPane.getSelectedIndex()));
     }
 
     // Category methods
@@ -246,24 +428,20 @@ public class ExpenseTrackerGUI extends JFrame {
             return;
         }
 
-        try {
-            Category category = new Category();
-            category.setName(name);
-            category.setDescription(description);
-            dao.createCategory(category);
+        Category category = new Category();
+        category.setName(name);
+        category.setDescription(description);
+        runAsync(asyncDao.createCategory(category), id -> {
             clearCategoryFields();
-            loadCategories();
-            loadCategoryComboBox();
+            refreshCategories();
             showMessage("Category added successfully!");
-        } catch (SQLException e) {
-            showError("Error adding category: " + e.getMessage());
-        }
+        }, "Error adding category: ");
     }
 
     private void updateCategory() {
         int row = categoryTable.getSelectedRow();
-        if (row == -1) {
-            showMessage("Please select a category to update!");
+        if (row == -1 || categoryTable.getSelectedRowCount() > 1) {
+            showMessage("Please select a single category to update!");
             return;
         }
 
@@ -273,82 +451,99 @@ public class ExpenseTrackerGUI extends JFrame {
             return;
         }
 
-        int id = (int) categoryTable.getValueAt(row, 0);
-        String description = categoryDescriptionArea.getText().trim();
-
-        try {
-            Category category = dao.getCategoryById(id);
-            if (category != null) {
-                category.setName(name);
-                category.setDescription(description);
-                dao.updateCategory(category);
-                clearCategoryFields();
-                loadCategories();
-                loadCategoryComboBox();
-                showMessage("Category updated successfully!");
+        // Guarded by the version shown in the table, so an edit made elsewhere in the meantime is not overwritten
+        Category selected = categoryTableModel.getCategoryAt(row);
+        Category category = new Category(selected.getId(), name, categoryDescriptionArea.getText().trim(),
+            selected.getCreated_at(), selected.getUpdated_at());
+        runAsync(asyncDao.updateCategoryIfCurrent(category), result -> {
+            switch (result) {
+                case UPDATED:
+                    clearCategoryFields();
+                    refreshCategories();
+                    showMessage("Category updated successfully!");
+                    break;
+                case CONFLICT:
+                    refreshCategories();
+                    showError("This category was changed by someone else. The table now shows the latest version; review it and update again.");
+                    break;
+                default:
+                    clearCategoryFields();
+                    refreshCategories();
+                    showError("This category no longer exists.");
             }
-        } catch (SQLException e) {
-            showError("Error updating category: " + e.getMessage());
-        }
+        }, "Error updating category: ");
     }
 
     private void deleteCategory() {
-        int row = categoryTable.getSelectedRow();
-        if (row == -1) {
+        int[] rows = categoryTable.getSelectedRows();
+        if (rows.length == 0) {
             showMessage("Please select a category to delete!");
             return;
         }
 
         int result = JOptionPane.showConfirmDialog(
             this,
-            "Are you sure you want to delete this category?",
+            rows.length == 1 ? "Are you sure you want to delete this category?" : "Are you sure you want to delete these " + rows.length + " categories?",
             "Confirm Delete",
             JOptionPane.YES_NO_OPTION
         );
 
         if (result == JOptionPane.YES_OPTION) {
-            int id = (int) categoryTable.getValueAt(row, 0);
-            try {
-                dao.deleteCategory(id);
-                clearCategoryFields();
-                loadCategories();
-                loadCategoryComboBox();
-                showMessage("Category deleted successfully!");
-            } catch (SQLException e) {
-                showError("Error deleting category: " + e.getMessage());
+            int[] ids = new int[rows.length];
+            for (int i = 0; i < rows.length; i++) {
+                ids[i] = categoryTableModel.getCategoryAt(rows[i]).getId();
             }
+            // One transaction for all of them, then one delta refresh
+            runAsync(asyncDao.deleteCategories(ids), deleted -> {
+                clearCategoryFields();
+                refreshCategories();
+                showMessage(deleted == 1 ? "Category deleted successfully!" : deleted + " categories deleted successfully!");
+            }, "Error deleting categories: ");
         }
     }
 
-    private void loadCategories() {
-        try {
-            List<Category> categories = dao.getAllCategories();
-            updateCategoryTable(categories);
-        } catch (SQLException e) {
-            showError("Error loading categories: " + e.getMessage());
+    // Loads what the tab shows on its first view; the Expenses tab also needs the categories for its combo boxes.
+    // The returned future completes once those loads have finished.
+    private CompletableFuture<?> loadTab(int index) {
+        List<CompletableFuture<?>> loads = new ArrayList<>();
+        if ((index == CATEGORIES_TAB || index == EXPENSES_TAB) && !categoriesLoaded) {
+            categoriesLoaded = true;
+            loads.add(loadCategories());
         }
+        if (index == EXPENSES_TAB && !expensesLoaded) {
+            expensesLoaded = true;
+            loads.add(loadExpenses());
+            buildSearchIndex();
+        }
+        return CompletableFuture.allOf(loads.toArray(new CompletableFuture<?>[0]));
     }
 
-    private void updateCategoryTable(List<Category> categories) {
-        categoryTableModel.setRowCount(0);
-        for (Category c : categories) {
-            Object[] row = {
-                c.getId(),
-                c.getName(),
-                c.getDescription(),
-                c.getCreated_at(),
-                c.getUpdated_at()
-            };
-            categoryTableModel.addRow(row);
-        }
+    // One query feeds both the category table and the expense form's combo box
+    private CompletableFuture<?> loadCategories() {
+        CompletableFuture<List<Category>> load = categoryTableModel.reload();
+        runAsync(load, this::updateCategoryComboBox, "Error loading categories: ");
+        return load;
+    }
+
+    // Fetches only what changed since the last load, including edits made outside this application
+    private void refreshCategories() {
+        runAsync(categoryTableModel.refreshChanges(), changes -> {
+            if (!changes.isEmpty()) {
+                updateCategoryComboBox(categoryTableModel.getCategories());
+                expenseTableModel.applyCategoryChanges(changes);
+            }
+        }, "Error refreshing categories: ");
     }
 
     private void loadSelectedCategory() {
-        int row = categoryTable.getSelectedRow();
-        if (row != -1) {
-            categoryNameField.setText(categoryTableModel.getValueAt(row, 1).toString());
-            Object desc = categoryTableModel.getValueAt(row, 2);
-            categoryDescriptionArea.setText(desc != null ? desc.toString() : "");
+        if (categoryTable.getSelectedRowCount() != 1) {
+            return;
+        }
+        Category category = categoryTableModel.getCategoryAt(categoryTable.getSelectedRow());
+        if (category != null) {
+            categoryNameField.setText(category.getName());
+            String desc = category.getDescription();
+            categoryDescriptionArea.setText(desc != null ? desc : "");
         }
     }
 
@@ -380,29 +575,31 @@ public class ExpenseTrackerGUI extends JFrame {
             return;
         }
 
+        Money amount;
         try {
-            BigDecimal amount = new BigDecimal(amountText);
-            Expense expense = new Expense();
-            expense.setTitle(title);
-            expense.setDescription(description);
-            expense.setAmount(amount);
-            expense.setCategoryId(selectedCategory.getId());
-            
-            dao.createExpense(expense);
-            clearExpenseFields();
-            loadExpenses();
-            showMessage("Expense added successfully!");
+            amount = Money.parse(amountText);
         } catch (NumberFormatException e) {
             showError("Invalid amount format!");
-        } catch (SQLException e) {
-            showError("Error adding expense: " + e.getMessage());
+            return;
         }
+
+        Expense expense = new Expense();
+        expense.setTitle(title);
+        expense.setDescription(description);
+        expense.setAmount(amount);
+        expense.setCategoryId(selectedCategory.getId());
+
+        runAsync(asyncDao.createExpense(expense), id -> {
+            clearExpenseFields();
+            refreshExpenses();
+            showMessage("Expense added successfully!");
+        }, "Error adding expense: ");
     }
 
     private void updateExpense() {
         int row = expenseTable.getSelectedRow();
-        if (row == -1) {
-            showMessage("Please select an expense to update!");
+        if (row == -1 || expenseTable.getSelectedRowCount() > 1) {
+            showMessage("Please select a single expense to update!");
             return;
         }
 
@@ -426,91 +623,218 @@ public class ExpenseTrackerGUI extends JFrame {
             return;
         }
 
-        int id = (int) expenseTable.getValueAt(row, 0);
+        Expense selected = expenseTableModel.getExpenseAt(row);
+        if (selected == null) {
+            showMessage("Please wait for the selected expense to load!");
+            return;
+        }
 
+        Money amount;
         try {
-            BigDecimal amount = new BigDecimal(amountText);
-            Expense expense = dao.getExpenseById(id);
-            if (expense != null) {
-                expense.setTitle(title);
-                expense.setDescription(description);
-                expense.setAmount(amount);
-                expense.setCategoryId(selectedCategory.getId());
-                
-                dao.updateExpense(expense);
-                clearExpenseFields();
-                loadExpenses();
-                showMessage("Expense updated successfully!");
-            }
+            amount = Money.parse(amountText);
         } catch (NumberFormatException e) {
             showError("Invalid amount format!");
-        } catch (SQLException e) {
-            showError("Error updating expense: " + e.getMessage());
+            return;
         }
+
+        // Guarded by the version shown in the table, so an edit made elsewhere in the meantime is not overwritten
+        Expense expense = new Expense(selected.getId(), title, description, amount, selectedCategory.getId(),
+            selectedCategory.getName(), selected.getCreated_at(), selected.getUpdated_at());
+        runAsync(asyncDao.updateExpenseIfCurrent(expense), result -> {
+            switch (result) {
+                case UPDATED:
+                    clearExpenseFields();
+                    refreshExpenses();
+                    showMessage("Expense updated successfully!");
+                    break;
+                case CONFLICT:
+                    refreshExpenses();
+                    showError("This expense was changed by someone else. The table now shows the latest version; review it and update again.");
+                    break;
+                default:
+                    clearExpenseFields();
+                    refreshExpenses();
+                    showError("This expense no longer exists.");
+            }
+        }, "Error updating expense: ");
     }
 
     private void deleteExpense() {
-        int row = expenseTable.getSelectedRow();
-        if (row == -1) {
+        if (expenseTable.getSelectedRowCount() == 0) {
             showMessage("Please select an expense to delete!");
             return;
         }
+        runAsync(selectedExpenseIds(), ids -> {
+            int result = JOptionPane.showConfirmDialog(
+                this,
+                ids.length == 1 ? "Are you sure you want to delete this expense?" : "Are you sure you want to delete these " + ids.length + " expenses?",
+                "Confirm Delete",
+                JOptionPane.YES_NO_OPTION
+            );
+
+            if (result == JOptionPane.YES_OPTION) {
+                // One transaction for all of them, then one delta refresh patches the table
+                runAsync(asyncDao.deleteExpenses(ids), deleted -> {
+                    clearExpenseFields();
+                    refreshExpenses();
+                    showMessage(deleted == 1 ? "Expense deleted successfully!" : deleted + " expenses deleted successfully!");
+                }, "Error deleting expenses: ");
+            }
+        }, "Error reading the selected expenses: ");
+    }
 
-        int result = JOptionPane.showConfirmDialog(
-            this,
-            "Are you sure you want to delete this expense?",
-            "Confirm Delete",
-            JOptionPane.YES_NO_OPTION
-        );
+    // Moves every selected expense to the category chosen in the form
+    private void reassignExpenseCategory() {
+        if (expenseTable.getSelectedRowCount() == 0) {
+            showMessage("Please select the expenses to move!");
+            return;
+        }
+        Category selectedCategory = (Category) categoryComboBox.getSelectedItem();
+        if (selectedCategory == null) {
+            showMessage("Please select a category!");
+            return;
+        }
+        runAsync(selectedExpenseIds().thenCompose(ids -> asyncDao.reassignCategory(ids, selectedCategory.getId())), updated -> {
+            refreshExpenses();
+            showMessage(updated + (updated == 1 ? " expense" : " expenses") + " moved to " + selectedCategory.getName() + ".");
+        }, "Error changing category: ");
+    }
 
-        if (result == JOptionPane.YES_OPTION) {
-            int id = (int) expenseTable.getValueAt(row, 0);
-            try {
-                dao.deleteExpense(id);
-                clearExpenseFields();
-                loadExpenses();
-                showMessage("Expense deleted successfully!");
-            } catch (SQLException e) {
-                showError("Error deleting expense: " + e.getMessage());
+    // IDs of the selected rows; rows whose pages are not loaded, as after select-all, are looked up in the background
+    private CompletableFuture<int[]> selectedExpenseIds() {
+        return expenseTableModel.getExpenseIdsAt(expenseTable.getSelectedRows());
+    }
+
+    private CompletableFuture<?> loadExpenses() {
+        CompletableFuture<Integer> load = expenseTableModel.reload();
+        runAsync(load, rows -> { }, "Error loading expenses: ");
+        return load;
+    }
+
+    private void refreshExpenses() {
+        runAsync(expenseTableModel.refreshChanges(), changes -> {
+            if (changes > 0) {
+                reportSnapshot = null;
             }
+        }, "Error refreshing expenses: ");
+        ExpenseSearchIndex index = searchIndex;
+        if (index != null) {
+            runAsync(asyncDao.submitLatest("search-index-refresh", () -> index.refresh(dao)), changes -> {
+                // New or edited rows may now match the query shown
+                if (!changes.isEmpty() && expenseTableModel.isShowingSearchResults()) {
+                    searchExpenses();
+                }
+            }, "Error updating search index: ");
         }
     }
 
-    private void loadExpenses() {
+    private void queryExpenses(ExpenseQuery query) {
+        runAsync(expenseTableModel.setQuery(query), rows -> { }, "Error loading expenses: ");
+    }
+
+    // The To date is inclusive and both amounts are optional; the current sort order is kept
+    private void applyExpenseFilter() {
+        ExpenseQuery.Builder builder = expenseTableModel.getQuery().toBuilder();
         try {
-            List<Expense> expenses = dao.getAllExpenses();
-            updateExpenseTable(expenses);
-        } catch (SQLException e) {
-            showError("Error loading expenses: " + e.getMessage());
+            String from = filterFromField.getText().trim();
+            String to = filterToField.getText().trim();
+            builder.createdFrom(from.isEmpty() ? null : LocalDate.parse(from).atStartOfDay());
+            builder.createdTo(to.isEmpty() ? null : LocalDate.parse(to).plusDays(1).atStartOfDay());
+        } catch (DateTimeParseException e) {
+            showError("Dates must use the yyyy-mm-dd format!");
+            return;
+        }
+        try {
+            String min = filterMinAmountField.getText().trim();
+            String max = filterMaxAmountField.getText().trim();
+            builder.minAmount(min.isEmpty() ? null : Money.parse(min));
+            builder.maxAmount(max.isEmpty() ? null : Money.parse(max));
+        } catch (NumberFormatException e) {
+            showError("Please enter valid amounts!");
+            return;
         }
+        Object category = filterCategoryComboBox.getSelectedItem();
+        builder.categoryIds(category instanceof Category
+            ? Collections.singleton(((Category) category).getId())
+            : Collections.emptySet());
+        builder.titlePrefix(filterTitleField.getText().trim());
+        queryExpenses(builder.build());
     }
 
-    private void updateExpenseTable(List<Expense> expenses) {
-        expenseTableModel.setRowCount(0);
-        for (Expense e : expenses) {
-            Object[] row = {
-                e.getId(),
-                e.getTitle(),
-                e.getDescription(),
-                e.getAmount(),
-                e.getCategoryName(),
-                e.getCreated_at(),
-                e.getUpdated_at()
-            };
-            expenseTableModel.addRow(row);
+    private void clearExpenseFilter() {
+        filterFromField.setText("");
+        filterToField.setText("");
+        filterCategoryComboBox.setSelectedIndex(0);
+        filterMinAmountField.setText("");
+        filterMaxAmountField.setText("");
+        filterTitleField.setText("");
+        ExpenseQuery current = expenseTableModel.getQuery();
+        queryExpenses(ExpenseQuery.builder().sort(current.getSort(), current.isDescending()).build());
+    }
+
+    private void buildSearchIndex() {
+        int threads = AppConfig.getInt("expense.search.threads", Runtime.getRuntime().availableProcessors());
+        long start = System.nanoTime();
+        runAsync(asyncDao.submit(() -> ExpenseSearchIndex.build(dao, threads)), index -> {
+            searchIndex = index;
+            expenseSearchStatusLabel.setText("Indexed " + index.size() + " expenses in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+            if (!expenseSearchField.getText().trim().isEmpty()) {
+                searchExpenses();
+            }
+        }, "Error building search index: ");
+    }
+
+    // The index lookup and loading the matching rows run off the event dispatch thread, so a refresh holding the
+    // index's write lock never stalls typing; a newer search supersedes one still running
+    private void searchExpenses() {
+        String query = expenseSearchField.getText().trim();
+        if (query.isEmpty()) {
+            expenseTableModel.clearSearchResults();
+            expenseSearchStatusLabel.setText(" ");
+            return;
         }
+        ExpenseSearchIndex index = searchIndex;
+        if (index == null) {
+            expenseSearchStatusLabel.setText("Building search index...");
+            return;
+        }
+
+        runAsync(asyncDao.submitLatest("expense-search", () -> {
+            long start = System.nanoTime();
+            List<SearchHit> hits = index.search(query, SEARCH_LIMIT);
+            long searchMicros = (System.nanoTime() - start) / 1_000;
+            List<Integer> ids = new ArrayList<>(hits.size());
+            for (SearchHit hit : hits) {
+                ids.add(hit.getExpenseId());
+            }
+            List<Expense> expenses = dao.getExpensesByIds(ids);
+            String status = (hits.size() == SEARCH_LIMIT ? "Top " : "") + expenses.size()
+                + " matches, searched in " + searchMicros / 1000.0 + " ms";
+            return new SearchResults(expenses, status);
+        }), results -> {
+            if (!query.equals(expenseSearchField.getText().trim())) {
+                return;
+            }
+            expenseTableModel.showSearchResults(results.expenses);
+            expenseSearchStatusLabel.setText(results.status);
+        }, "Error searching expenses: ");
     }
 
     private void loadSelectedExpense() {
+        if (expenseTable.getSelectedRowCount() != 1) {
+            return;
+        }
         int row = expenseTable.getSelectedRow();
-        if (row != -1) {
-            expenseTitleField.setText(expenseTableModel.getValueAt(row, 1).toString());
-            Object desc = expenseTableModel.getValueAt(row, 2);
-            expenseDescriptionArea.setText(desc != null ? desc.toString() : "");
-            expenseAmountField.setText(expenseTableModel.getValueAt(row, 3).toString());
+        Expense expense = expenseTableModel.getExpenseAt(row);
+        if (expense != null) {
+            expenseTitleField.setText(expense.getTitle());
+            String desc = expense.getDescription();
+            expenseDescriptionArea.setText(desc != null ? desc : "");
+            expenseAmountField.setText(expense.getAmount().toString());
             
             // Set category combo box
-            String categoryName = expenseTableModel.getValueAt(row, 4).toString();
+            String categoryName = expense.getCategoryName();
             for (int i = 0; i < categoryComboBox.getItemCount(); i++) {
                 Category category = categoryComboBox.getItemAt(i);
                 if (category.getName().equals(categoryName)) {
@@ -529,18 +853,92 @@ public class ExpenseTrackerGUI extends JFrame {
         expenseTable.clearSelection();
     }
 
-    private void loadCategoryComboBox() {
+    // Report methods
+    private void runReport() {
+        LocalDateTime from;
+        LocalDateTime to;
         try {
-            List<Category> categories = dao.getAllCategories();
-            categoryComboBox.removeAllItems();
-            for (Category category : categories) {
-                categoryComboBox.addItem(category);
+            from = LocalDate.parse(reportFromField.getText().trim()).atStartOfDay();
+            // The To date is inclusive, so the query runs up to the start of the next day
+            to = LocalDate.parse(reportToField.getText().trim()).plusDays(1).atStartOfDay();
+        } catch (DateTimeParseException e) {
+            showError("Dates must use the yyyy-mm-dd format!");
+            return;
+        }
+        ReportGrouping grouping = (ReportGrouping) reportGroupingComboBox.getSelectedItem();
+
+        if (!reportInMemoryCheckBox.isSelected()) {
+            runAsync(asyncDao.submitLatest("report", () -> reportDao.summarize(grouping, from, to)),
+                this::updateReportTable, "Error running report: ");
+            return;
+        }
+
+        CompletableFuture<ExpenseColumns> snapshot = reportSnapshot != null
+            ? CompletableFuture.completedFuture(reportSnapshot)
+            : asyncDao.submitLatest("report-snapshot", () -> ExpenseColumns.load(dao));
+        // The scan itself takes milliseconds on the fork-join pool, so it runs straight from the EDT
+        runAsync(snapshot, columns -> {
+            reportSnapshot = columns;
+            long start = System.nanoTime();
+            updateReportTable(columns.summarize(grouping, from, to));
+            long scanMillis = (System.nanoTime() - start) / 1_000_000;
+            reportTotalLabel.setText(reportTotalLabel.getText() + "    (snapshot of " + columns.size() + " rows from "
+                + columns.getLoadedAt().withNano(0).toLocalTime() + ", scanned in " + scanMillis + " ms)");
+        }, "Error running report: ");
+    }
+
+    private void updateReportTable(List<ExpenseSummary> summaries) {
+        reportTableModel.setRowCount(0);
+        long count = 0;
+        Money total = Money.ZERO;
+        for (ExpenseSummary s : summaries) {
+            Object[] row = {
+                s.getGroup(),
+                s.getCount(),
+                s.getTotal(),
+                s.getMin(),
+                s.getMax(),
+                s.getAverage()
+            };
+            reportTableModel.addRow(row);
+            count += s.getCount();
+            total = total.plus(s.getTotal());
+        }
+        reportTotalLabel.setText("Expenses: " + count + "    Total: " + total);
+    }
+
+    private void updateCategoryComboBox(List<Category> categories) {
+        categoryComboBox.removeAllItems();
+        for (Category category : categories) {
+            categoryComboBox.addItem(category);
+        }
+        // Keep the filter's selection by ID, since the Category objects are replaced
+        Object selected = filterCategoryComboBox.getSelectedItem();
+        filterCategoryComboBox.removeAllItems();
+        filterCategoryComboBox.addItem("All");
+        for (Category category : categories) {
+            filterCategoryComboBox.addItem(category);
+            if (selected instanceof Category && ((Category) selected).getId() == category.getId()) {
+                filterCategoryComboBox.setSelectedItem(category);
             }
-        } catch (SQLException e) {
-            showError("Error loading categories for combo box: " + e.getMessage());
         }
     }
 
+    // Tracks the call in the status bar, then runs onSuccess or reports the error on the event dispatch thread
+    private <T> void runAsync(CompletableFuture<T> future, Consumer<T> onSuccess, String errorPrefix) {
+        busyIndicator.track(future);
+        future.whenComplete((result, error) -> SwingUtilities.invokeLater(() -> {
+            if (error == null) {
+                onSuccess.accept(result);
+                return;
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (!(cause instanceof CancellationException)) {
+                showError(errorPrefix + cause.getMessage());
+            }
+        }));
+    }
+
     private void showMessage(String message) {
         JOptionPane.showMessageDialog(this, message, "Information", JOptionPane.INFORMATION_MESSAGE);
     }
@@ -548,4 +946,14 @@ public class ExpenseTrackerGUI extends JFrame {
     private void showError(String message) {
         JOptionPane.showMessageDialog(this, message, "Error", JOptionPane.ERROR_MESSAGE);
     }
+
+    private static final class SearchResults {
+        private final List<Expense> expenses;
+        private final String status;
+
+        private SearchResults(List<Expense> expenses, String status) {
+            this.expenses = expenses;
+            this.status = status;
+        }
+    }
 }
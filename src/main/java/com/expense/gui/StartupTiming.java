@@ -0,0 +1,34 @@
+package com.expense.gui;
+
+import com.expense.util.AppConfig;
+
+import java.time.Instant;
+
+// Startup milestones measured from JVM start: the window's first paint, and the first tab's data on screen. Each is
+// printed once. With expense.startup.exitWhenInteractive the process exits after the second, for the startup benchmark.
+final class StartupTiming {
+
+    private final long startMillis = ProcessHandle.current().info().startInstant()
+        .map(Instant::toEpochMilli)
+        .orElse(System.currentTimeMillis());
+    private boolean painted;
+    private boolean interactive;
+
+    void firstPaint() {
+        if (!painted) {
+            painted = true;
+            System.out.println("Startup: first paint after " + (System.currentTimeMillis() - startMillis) + " ms");
+        }
+    }
+
+    void interactive() {
+        if (interactive) {
+            return;
+        }
+        interactive = true;
+        System.out.println("Startup: interactive after " + (System.currentTimeMillis() - startMillis) + " ms");
+        if (AppConfig.getBoolean("expense.startup.exitWhenInteractive", false)) {
+            System.exit(0);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.expense.io;
+
+import com.expense.model.Category;
+import com.expense.model.Expense;
+import com.expense.model.Money;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+
+// Hand-written encoder and decoder for the messages in src/main/proto/expense_backup.proto
+final class BackupCodec {
+
+    static final int FORMAT_VERSION = 1;
+
+    // BackupRecord fields
+    static final int RECORD_HEADER = 1;
+    static final int RECORD_CATEGORY = 2;
+    static final int RECORD_EXPENSE = 3;
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private BackupCodec() {
+    }
+
+    static void writeHeader(CodedOutputStream out, LocalDateTime createdAt, int categoryCount) throws IOException {
+        long micros = toMicros(createdAt);
+        int size = CodedOutputStream.computeUInt32Size(1, FORMAT_VERSION)
+            + CodedOutputStream.computeInt64Size(2, micros)
+            + CodedOutputStream.computeUInt32Size(3, categoryCount);
+        writeRecordPrefix(out, RECORD_HEADER, size);
+        out.writeUInt32(1, FORMAT_VERSION);
+        out.writeInt64(2, micros);
+        out.writeUInt32(3, categoryCount);
+    }
+
+    static void writeCategory(CodedOutputStream out, Category category) throws IOException {
+        long created = toMicros(category.getCreated_at());
+        long updated = toMicros(category.getUpdated_at());
+        int size = CodedOutputStream.computeInt32Size(1, category.getId())
+            + stringSize(2, category.getName())
+            + stringSize(3, category.getDescription())
+            + CodedOutputStream.computeInt64Size(4, created)
+            + CodedOutputStream.computeInt64Size(5, updated);
+        writeRecordPrefix(out, RECORD_CATEGORY, size);
+        out.writeInt32(1, category.getId());
+        writeString(out, 2, category.getName());
+        writeString(out, 3, category.getDescription());
+        out.writeInt64(4, created);
+        out.writeInt64(5, updated);
+    }
+
+    static void writeExpense(CodedOutputStream out, Expense expense) throws IOException {
+        long cents = expense.getAmount().getMinorUnits();
+        long created = toMicros(expense.getCreated_at());
+        long updated = toMicros(expense.getUpdated_at());
+        int size = CodedOutputStream.computeInt32Size(1, expense.getId())
+            + stringSize(2, expense.getTitle())
+            + stringSize(3, expense.getDescription())
+            + CodedOutputStream.computeSInt64Size(4, cents)
+            + CodedOutputStream.computeInt32Size(5, expense.getCategoryId())
+            + CodedOutputStream.computeInt64Size(6, created)
+            + CodedOutputStream.computeInt64Size(7, updated);
+        writeRecordPrefix(out, RECORD_EXPENSE, size);
+        out.writeInt32(1, expense.getId());
+        writeString(out, 2, expense.getTitle());
+        writeString(out, 3, expense.getDescription());
+        out.writeSInt64(4, cents);
+        out.writeInt32(5, expense.getCategoryId());
+        out.writeInt64(6, created);
+        out.writeInt64(7, updated);
+    }
+
+    // Positions the input at the start of the record's payload and returns the BackupRecord field number
+    static int readRecordType(CodedInputStream in) throws IOException {
+        int tag = in.readTag();
+        if (WireFormat.getTagWireType(tag) != WireFormat.WIRETYPE_LENGTH_DELIMITED) {
+            throw new IOException("Corrupt backup record, unexpected tag " + tag);
+        }
+        in.readRawVarint32();
+        return WireFormat.getTagFieldNumber(tag);
+    }
+
+    // Returns {format_version, category_count}
+    static int[] readHeader(CodedInputStream in) throws IOException {
+        int[] header = new int[2];
+        int tag;
+        while ((tag = in.readTag()) != 0) {
+            switch (WireFormat.getTagFieldNumber(tag)) {
+                case 1: header[0] = in.readUInt32(); break;
+                case 3: header[1] = in.readUInt32(); break;
+                default: in.skipField(tag);
+            }
+        }
+        return header;
+    }
+
+    static Category readCategory(CodedInputStream in) throws IOException {
+        Category category = new Category();
+        category.setDescription(null);
+        int tag;
+        while ((tag = in.readTag()) != 0) {
+            switch (WireFormat.getTagFieldNumber(tag)) {
+                case 1: category.setId(in.readInt32()); break;
+                case 2: category.setName(in.readStringRequireUtf8()); break;
+                case 3: category.setDescription(in.readStringRequireUtf8()); break;
+                case 4: category.setCreated_at(fromMicros(in.readInt64())); break;
+                case 5: category.setUpdated_at(fromMicros(in.readInt64())); break;
+                default: in.skipField(tag);
+            }
+        }
+        return category;
+    }
+
+    static Expense readExpense(CodedInputStream in) throws IOException {
+        Expense expense = new Expense();
+        int tag;
+        while ((tag = in.readTag()) != 0) {
+            switch (WireFormat.getTagFieldNumber(tag)) {
+                case 1: expense.setId(in.readInt32()); break;
+                case 2: expense.setTitle(in.readStringRequireUtf8()); break;
+                case 3: expense.setDescription(in.readStringRequireUtf8()); break;
+                case 4: expense.setAmount(Money.ofMinor(in.readSInt64())); break;
+                case 5: expense.setCategoryId(in.readInt32()); break;
+                case 6: expense.setCreated_at(fromMicros(in.readInt64())); break;
+                case 7: expense.setUpdated_at(fromMicros(in.readInt64())); break;
+                default: in.skipField(tag);
+            }
+        }
+        return expense;
+    }
+
+    private static void writeRecordPrefix(CodedOutputStream out, int recordField, int payloadSize) throws IOException {
+        int recordSize = CodedOutputStream.computeTagSize(recordField) + CodedOutputStream.computeUInt32SizeNoTag(payloadSize) + payloadSize;
+        out.writeUInt32NoTag(recordSize);
+        out.writeTag(recordField, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+        out.writeUInt32NoTag(payloadSize);
+    }
+
+    // Null strings are left out, which decodes back to null
+    private static int stringSize(int field, String value) {
+        return value != null ? CodedOutputStream.computeStringSize(field, value) : 0;
+    }
+
+    private static void writeString(CodedOutputStream out, int field, String value) throws IOException {
+        if (value != null) {
+            out.writeString(field, value);
+        }
+    }
+
+    private static long toMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return EPOCH.plus(micros, ChronoUnit.MICROS);
+    }
+}
@@ -0,0 +1,251 @@
+package com.expense.io;
+
+import com.expense.dao.ExpenseTrackerDAO;
+import com.expense.model.Category;
+import com.expense.model.Expense;
+import com.google.protobuf.CodedInputStream;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Restores a file written by {@link BackupWriter}. Categories are matched
+ * by name or created first, and expenses get their category IDs remapped.
+ * One thread splits the file into raw records, a worker pool decodes them
+ * chunk by chunk, and a single writer thread inserts each chunk with
+ * {@link ExpenseTrackerDAO#createExpenses(List)}. Restoring adds rows;
+ * it never clears existing data.
+ */
+public class BackupReader {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int CHUNK_SIZE = 1000;
+    private static final List<Expense> END_OF_INPUT = new ArrayList<>();
+
+    private final ExpenseTrackerDAO dao;
+    private final int decoderThreads;
+
+    // Category ID in the backup to category ID in this database; filled before any expense is decoded
+    private final Map<Integer, Integer> categoryIds = new HashMap<>();
+    private final AtomicLong expensesRestored = new AtomicLong();
+    private final AtomicLong expensesSkipped = new AtomicLong();
+    private volatile SQLException writeFailure;
+    private volatile IOException decodeFailure;
+
+    public BackupReader(ExpenseTrackerDAO dao, int decoderThreads) {
+        this.dao = dao;
+        this.decoderThreads = Math.max(1, decoderThreads);
+    }
+
+    public BackupResult restore(Path file) throws IOException, SQLException {
+        long start = System.nanoTime();
+        categoryIds.clear();
+        expensesRestored.set(0);
+        expensesSkipped.set(0);
+        writeFailure = null;
+        decodeFailure = null;
+
+        int categories;
+        try (InputStream stream = openStream(file)) {
+            categories = restore(CodedInputStream.newInstance(stream, BUFFER_SIZE));
+        }
+        return new BackupResult(categories, expensesRestored.get(), expensesSkipped.get(), Files.size(file), System.nanoTime() - start);
+    }
+
+    private int restore(CodedInputStream in) throws IOException, SQLException {
+        byte[] frame = readFrame(in);
+        if (frame == null) {
+            throw new IOException("Backup file is empty");
+        }
+        CodedInputStream headerRecord = CodedInputStream.newInstance(frame);
+        if (BackupCodec.readRecordType(headerRecord) != BackupCodec.RECORD_HEADER) {
+            throw new IOException("Not a backup file: missing header");
+        }
+        int[] header = BackupCodec.readHeader(headerRecord);
+        if (header[0] > BackupCodec.FORMAT_VERSION) {
+            throw new IOException("Backup format version " + header[0] + " is newer than this application supports");
+        }
+
+        List<Category> categories = new ArrayList<>(header[1]);
+        boolean categoriesRestored = false;
+
+        BlockingQueue<List<Expense>> toWrite = new ArrayBlockingQueue<>(decoderThreads * 2);
+        Thread writer = new Thread(() -> writeChunks(toWrite), "backup-restore-writer");
+        writer.start();
+        ExecutorService decoders = Executors.newFixedThreadPool(decoderThreads, r -> {
+            Thread t = new Thread(r, "backup-restore-decoder");
+            t.setDaemon(true);
+            return t;
+        });
+        Semaphore chunksInFlight = new Semaphore(decoderThreads * 2);
+        try {
+            List<byte[]> chunk = new ArrayList<>(CHUNK_SIZE);
+            while ((frame = readFrame(in)) != null && writeFailure == null && decodeFailure == null) {
+                // Single-byte tag: field number in the high bits
+                int recordType = frame[0] >>> 3;
+                if (recordType == BackupCodec.RECORD_CATEGORY) {
+                    CodedInputStream record = CodedInputStream.newInstance(frame);
+                    BackupCodec.readRecordType(record);
+                    categories.add(BackupCodec.readCategory(record));
+                    continue;
+                }
+                if (recordType != BackupCodec.RECORD_EXPENSE) {
+                    continue;
+                }
+                if (!categoriesRestored) {
+                    restoreCategories(categories);
+                    categoriesRestored = true;
+                }
+                chunk.add(frame);
+                if (chunk.size() == CHUNK_SIZE) {
+                    submitChunk(decoders, chunksInFlight, chunk, toWrite);
+                    chunk = new ArrayList<>(CHUNK_SIZE);
+                }
+            }
+            if (!categoriesRestored) {
+                restoreCategories(categories);
+            }
+            if (!chunk.isEmpty()) {
+                submitChunk(decoders, chunksInFlight, chunk, toWrite);
+            }
+
+            decoders.shutdown();
+            decoders.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            toWrite.put(END_OF_INPUT);
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            decoders.shutdownNow();
+            writer.interrupt();
+            throw new IOException("Restore interrupted", e);
+        } catch (IOException | SQLException | RuntimeException e) {
+            decoders.shutdownNow();
+            writer.interrupt();
+            throw e;
+        }
+
+        if (decodeFailure != null) {
+            throw decodeFailure;
+        }
+        if (writeFailure != null) {
+            throw writeFailure;
+        }
+        return categories.size();
+    }
+
+    // Reuses categories that already exist under the same name and creates the rest in one batch
+    private void restoreCategories(List<Category> categories) throws SQLException {
+        List<Category> toCreate = new ArrayList<>();
+        List<Integer> backupIds = new ArrayList<>();
+        for (Category category : categories) {
+            Category existing = dao.getCategoryByName(category.getName());
+            if (existing != null) {
+                categoryIds.put(category.getId(), existing.getId());
+            } else {
+                backupIds.add(category.getId());
+                toCreate.add(category);
+            }
+        }
+        if (toCreate.isEmpty()) {
+            return;
+        }
+        int[] created = dao.createCategories(toCreate);
+        for (int i = 0; i < created.length; i++) {
+            categoryIds.put(backupIds.get(i), created[i]);
+        }
+    }
+
+    private void submitChunk(ExecutorService decoders, Semaphore chunksInFlight, List<byte[]> frames,
+                             BlockingQueue<List<Expense>> toWrite) throws InterruptedException {
+        chunksInFlight.acquire();
+        decoders.execute(() -> {
+            try {
+                List<Expense> expenses = new ArrayList<>(frames.size());
+                for (byte[] frame : frames) {
+                    CodedInputStream record = CodedInputStream.newInstance(frame);
+                    BackupCodec.readRecordType(record);
+                    Expense expense = BackupCodec.readExpense(record);
+                    Integer categoryId = categoryIds.get(expense.getCategoryId());
+                    if (categoryId == null) {
+                        expensesSkipped.incrementAndGet();
+                        continue;
+                    }
+                    expense.setCategoryId(categoryId);
+                    expenses.add(expense);
+                }
+                if (!expenses.isEmpty()) {
+                    toWrite.put(expenses);
+                }
+            } catch (IOException e) {
+                decodeFailure = e;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                chunksInFlight.release();
+            }
+        });
+    }
+
+    // Keeps draining after a failure so decoder threads never block on a full queue
+    private void writeChunks(BlockingQueue<List<Expense>> toWrite) {
+        try {
+            List<Expense> chunk;
+            while ((chunk = toWrite.take()) != END_OF_INPUT) {
+                if (writeFailure != null) {
+                    continue;
+                }
+                try {
+                    dao.createExpenses(chunk);
+                    expensesRestored.addAndGet(chunk.size());
+                } catch (SQLException e) {
+                    writeFailure = e;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // One length-delimited record, or null at end of input
+    private static byte[] readFrame(CodedInputStream in) throws IOException {
+        if (in.isAtEnd()) {
+            return null;
+        }
+        int length = in.readRawVarint32();
+        byte[] frame = in.readRawBytes(length);
+        in.resetSizeCounter();
+        if (frame.length == 0) {
+            throw new IOException("Corrupt backup file: empty record");
+        }
+        return frame;
+    }
+
+    // Accepts plain and gzip-compressed backups
+    private static InputStream openStream(Path file) throws IOException {
+        BufferedInputStream stream = new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE);
+        stream.mark(2);
+        int first = stream.read();
+        int second = stream.read();
+        stream.reset();
+        if (first == 0x1f && second == 0x8b) {
+            return new GZIPInputStream(stream, BUFFER_SIZE);
+        }
+        return stream;
+    }
+}
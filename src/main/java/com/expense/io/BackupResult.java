@@ -0,0 +1,52 @@
+package com.expense.io;
+
+public class BackupResult {
+    private final long categories;
+    private final long expenses;
+    private final long skipped;
+    private final long bytes;
+    private final long elapsedNanos;
+
+    public BackupResult(long categories, long expenses, long skipped, long bytes, long elapsedNanos) {
+        this.categories = categories;
+        this.expenses = expenses;
+        this.skipped = skipped;
+        this.bytes = bytes;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getCategories() {
+        return categories;
+    }
+
+    public long getExpenses() {
+        return expenses;
+    }
+
+    // Restore only: expenses left out because their category was not in the backup
+    public long getSkipped() {
+        return skipped;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedNanos / 1_000_000;
+    }
+
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : (categories + expenses) * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    public double getMegabytesPerSecond() {
+        return elapsedNanos == 0 ? 0 : bytes * 1_000_000_000.0 / elapsedNanos / (1024 * 1024);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("categories=%d expenses=%d skipped=%d bytes=%d in %d ms (%.0f rows/s, %.1f MB/s)",
+            categories, expenses, skipped, bytes, getElapsedMillis(), getRowsPerSecond(), getMegabytesPerSecond());
+    }
+}
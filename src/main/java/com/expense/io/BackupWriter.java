@@ -0,0 +1,58 @@
+package com.expense.io;
+
+import com.expense.dao.ExpenseFilter;
+import com.expense.dao.ExpenseTrackerDAO;
+import com.expense.model.Category;
+import com.google.protobuf.CodedOutputStream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes the whole dataset as length-delimited protobuf records (see
+ * src/main/proto/expense_backup.proto): a header, every category, then
+ * every expense straight from a streaming query.
+ */
+public class BackupWriter {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final ExpenseTrackerDAO dao;
+
+    public BackupWriter(ExpenseTrackerDAO dao) {
+        this.dao = dao;
+    }
+
+    public BackupResult backup(Path file, boolean gzip) throws IOException, SQLException {
+        long start = System.nanoTime();
+        long[] counts;
+        try (OutputStream stream = openStream(file, gzip)) {
+            counts = backup(stream);
+        }
+        return new BackupResult(counts[0], counts[1], 0, Files.size(file), System.nanoTime() - start);
+    }
+
+    // Returns {categories, expenses}
+    public long[] backup(OutputStream stream) throws IOException, SQLException {
+        CodedOutputStream out = CodedOutputStream.newInstance(stream, BUFFER_SIZE);
+        List<Category> categories = dao.getAllCategories();
+        BackupCodec.writeHeader(out, LocalDateTime.now(), categories.size());
+        for (Category category : categories) {
+            BackupCodec.writeCategory(out, category);
+        }
+        long expenses = dao.streamExpenses(new ExpenseFilter(), expense -> BackupCodec.writeExpense(out, expense));
+        out.flush();
+        return new long[] {categories.size(), expenses};
+    }
+
+    private static OutputStream openStream(Path file, boolean gzip) throws IOException {
+        OutputStream stream = Files.newOutputStream(file);
+        return gzip ? new GZIPOutputStream(stream, BUFFER_SIZE) : stream;
+    }
+}
@@ -0,0 +1,284 @@
+package com.expense.io;
+
+import com.expense.dao.ExpenseTrackerDAO;
+import com.expense.model.Category;
+import com.expense.model.Expense;
+import com.expense.model.Money;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Streams a CSV file into the expenses table. One thread reads records,
+ * a worker pool parses, validates and resolves categories chunk by chunk,
+ * and a single writer thread inserts the chunks through
+ * {@link ExpenseTrackerDAO#createExpenses(List)}. Bounded hand-offs keep
+ * memory flat no matter how large the file is.
+ *
+ * <p>The header row names the columns: {@code title}, {@code amount} and
+ * {@code category} are required, {@code description} and {@code date}
+ * ({@code yyyy-MM-dd} or ISO date-time) are optional.
+ */
+public class CsvExpenseImporter {
+
+    private static final int CHUNK_SIZE = 1000;
+    private static final int MAX_ERRORS = 100;
+    private static final List<Expense> END_OF_INPUT = new ArrayList<>();
+
+    private final ExpenseTrackerDAO dao;
+    private final int parserThreads;
+    private final boolean createMissingCategories;
+
+    // Lower-cased category name to ID
+    private final Map<String, Integer> categoryIds = new ConcurrentHashMap<>();
+    private final Object categoryLock = new Object();
+
+    private final AtomicLong rowsRead = new AtomicLong();
+    private final AtomicLong rowsImported = new AtomicLong();
+    private final AtomicLong rowsRejected = new AtomicLong();
+    private final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+    private volatile SQLException writeFailure;
+
+    public CsvExpenseImporter(ExpenseTrackerDAO dao, int parserThreads, boolean createMissingCategories) {
+        this.dao = dao;
+        this.parserThreads = Math.max(1, parserThreads);
+        this.createMissingCategories = createMissingCategories;
+    }
+
+    public ImportResult importFile(Path file) throws IOException, SQLException {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return importFrom(reader);
+        }
+    }
+
+    public ImportResult importFrom(Reader source) throws IOException, SQLException {
+        long start = System.nanoTime();
+        rowsRead.set(0);
+        rowsImported.set(0);
+        rowsRejected.set(0);
+        errors.clear();
+        writeFailure = null;
+        for (Category category : dao.getAllCategories()) {
+            categoryIds.put(key(category.getName()), category.getId());
+        }
+
+        BufferedReader reader = source instanceof BufferedReader ? (BufferedReader) source : new BufferedReader(source, 1 << 16);
+        String header = Csv.readRecord(reader);
+        if (header == null) {
+            return result(start);
+        }
+        Map<String, Integer> columns = columnIndexes(Csv.parseRecord(header));
+
+        BlockingQueue<List<Expense>> toWrite = new ArrayBlockingQueue<>(parserThreads * 2);
+        Thread writer = new Thread(() -> writeChunks(toWrite), "csv-import-writer");
+        writer.setDaemon(true);
+        writer.start();
+
+        ExecutorService parsers = Executors.newFixedThreadPool(parserThreads, r -> {
+            Thread t = new Thread(r, "csv-import-parser");
+            t.setDaemon(true);
+            return t;
+        });
+        Semaphore chunksInFlight = new Semaphore(parserThreads * 2);
+        try {
+            long lineNumber = 1;
+            List<String> chunk = new ArrayList<>(CHUNK_SIZE);
+            String record;
+            while ((record = Csv.readRecord(reader)) != null && writeFailure == null) {
+                if (!record.isBlank()) {
+                    chunk.add(record);
+                }
+                if (chunk.size() == CHUNK_SIZE) {
+                    submitChunk(parsers, chunksInFlight, chunk, lineNumber + 1, columns, toWrite);
+                    lineNumber += chunk.size();
+                    chunk = new ArrayList<>(CHUNK_SIZE);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                submitChunk(parsers, chunksInFlight, chunk, lineNumber + 1, columns, toWrite);
+            }
+
+            parsers.shutdown();
+            parsers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            toWrite.put(END_OF_INPUT);
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            parsers.shutdownNow();
+            writer.interrupt();
+            throw new IOException("CSV import interrupted", e);
+        } catch (IOException | RuntimeException e) {
+            parsers.shutdownNow();
+            writer.interrupt();
+            throw e;
+        }
+
+        if (writeFailure != null) {
+            throw writeFailure;
+        }
+        return result(start);
+    }
+
+    private void submitChunk(ExecutorService parsers, Semaphore chunksInFlight, List<String> records, long firstRecord,
+                             Map<String, Integer> columns, BlockingQueue<List<Expense>> toWrite) throws InterruptedException {
+        chunksInFlight.acquire();
+        parsers.execute(() -> {
+            try {
+                List<Expense> parsed = parseChunk(records, firstRecord, columns);
+                if (!parsed.isEmpty()) {
+                    toWrite.put(parsed);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                reject(firstRecord, "chunk failed: " + e);
+            } finally {
+                chunksInFlight.release();
+            }
+        });
+    }
+
+    // Keeps draining after a failure so parser threads never block on a full queue
+    private void writeChunks(BlockingQueue<List<Expense>> toWrite) {
+        try {
+            List<Expense> chunk;
+            while ((chunk = toWrite.take()) != END_OF_INPUT) {
+                if (writeFailure != null) {
+                    continue;
+                }
+                try {
+                    dao.createExpenses(chunk);
+                    rowsImported.addAndGet(chunk.size());
+                } catch (SQLException e) {
+                    writeFailure = e;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private List<Expense> parseChunk(List<String> records, long firstRecord, Map<String, Integer> columns) {
+        List<Expense> expenses = new ArrayList<>(records.size());
+        for (int i = 0; i < records.size(); i++) {
+            rowsRead.incrementAndGet();
+            long recordNumber = firstRecord + i;
+            List<String> fields = Csv.parseRecord(records.get(i));
+            try {
+                expenses.add(parseExpense(fields, columns));
+            } catch (IllegalArgumentException | DateTimeParseException | ArithmeticException e) {
+                reject(recordNumber, e.getMessage());
+            } catch (SQLException e) {
+                reject(recordNumber, "could not create category: " + e.getMessage());
+            }
+        }
+        return expenses;
+    }
+
+    private Expense parseExpense(List<String> fields, Map<String, Integer> columns) throws SQLException {
+        String title = field(fields, columns, "title");
+        if (title.isEmpty()) {
+            throw new IllegalArgumentException("title is required");
+        }
+        String amountText = field(fields, columns, "amount");
+        if (amountText.isEmpty()) {
+            throw new IllegalArgumentException("amount is required");
+        }
+        Money amount;
+        try {
+            amount = Money.parse(amountText);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid amount '" + amountText + "'");
+        }
+        String categoryName = field(fields, columns, "category");
+        if (categoryName.isEmpty()) {
+            throw new IllegalArgumentException("category is required");
+        }
+
+        Expense expense = new Expense(title, field(fields, columns, "description"), amount, resolveCategory(categoryName));
+        String date = field(fields, columns, "date");
+        if (!date.isEmpty()) {
+            LocalDateTime createdAt = date.length() <= 10
+                ? LocalDate.parse(date).atStartOfDay()
+                : LocalDateTime.parse(date.replace(' ', 'T'));
+            expense.setCreated_at(createdAt);
+            expense.setUpdated_at(createdAt);
+        }
+        return expense;
+    }
+
+    private int resolveCategory(String name) throws SQLException {
+        String key = key(name);
+        Integer id = categoryIds.get(key);
+        if (id != null) {
+            return id;
+        }
+        if (!createMissingCategories) {
+            throw new IllegalArgumentException("unknown category '" + name + "'");
+        }
+        synchronized (categoryLock) {
+            id = categoryIds.get(key);
+            if (id == null) {
+                id = dao.createCategory(new Category(name, "Created by CSV import"));
+                categoryIds.put(key, id);
+            }
+            return id;
+        }
+    }
+
+    private void reject(long recordNumber, String reason) {
+        rowsRejected.incrementAndGet();
+        if (errors.size() < MAX_ERRORS) {
+            errors.add("record " + recordNumber + ": " + reason);
+        }
+    }
+
+    private ImportResult result(long start) {
+        return new ImportResult(rowsRead.get(), rowsImported.get(), rowsRejected.get(),
+            System.nanoTime() - start, new ArrayList<>(errors));
+    }
+
+    private static Map<String, Integer> columnIndexes(List<String> header) throws IOException {
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(key(header.get(i)), i);
+        }
+        for (String required : new String[] {"title", "amount", "category"}) {
+            if (!columns.containsKey(required)) {
+                throw new IOException("CSV header is missing the '" + required + "' column");
+            }
+        }
+        return columns;
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        return index != null && index < fields.size() ? fields.get(index).trim() : "";
+    }
+
+    private static String key(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+}
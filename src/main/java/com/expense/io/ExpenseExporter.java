@@ -0,0 +1,104 @@
+package com.expense.io;
+
+import com.expense.dao.ExpenseFilter;
+import com.expense.dao.ExpenseTrackerDAO;
+import com.expense.model.Expense;
+import com.expense.util.Json;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes expenses straight from a streaming DAO query to CSV or JSON Lines.
+ * Each row is formatted and written as soon as it is read, so heap use stays
+ * the same whether the export holds a hundred rows or a hundred million.
+ */
+public class ExpenseExporter {
+
+    public enum Format {
+        CSV,
+        JSON_LINES
+    }
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final String CSV_HEADER = "id,title,description,amount,category_id,category,created_at,updated_at";
+
+    private final ExpenseTrackerDAO dao;
+
+    public ExpenseExporter(ExpenseTrackerDAO dao) {
+        this.dao = dao;
+    }
+
+    public ExportResult export(ExpenseFilter filter, Format format, Path file, boolean gzip) throws IOException, SQLException {
+        long start = System.nanoTime();
+        long rows;
+        try (Writer out = openWriter(file, gzip)) {
+            rows = export(filter, format, out);
+        }
+        return new ExportResult(rows, Files.size(file), System.nanoTime() - start);
+    }
+
+    public long export(ExpenseFilter filter, Format format, Writer out) throws IOException, SQLException {
+        if (format == Format.CSV) {
+            out.write(CSV_HEADER);
+            out.write('\n');
+            return dao.streamExpenses(filter, expense -> writeCsv(out, expense));
+        }
+        return dao.streamExpenses(filter, expense -> writeJson(out, expense));
+    }
+
+    private static Writer openWriter(Path file, boolean gzip) throws IOException {
+        OutputStream stream = Files.newOutputStream(file);
+        if (gzip) {
+            stream = new GZIPOutputStream(stream, BUFFER_SIZE);
+        }
+        return new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    private static void writeCsv(Writer out, Expense e) throws IOException {
+        out.write(Integer.toString(e.getId()));
+        out.write(',');
+        Csv.appendField(out, e.getTitle());
+        out.write(',');
+        Csv.appendField(out, e.getDescription());
+        out.write(',');
+        e.getAmount().writeTo(out);
+        out.write(',');
+        out.write(Integer.toString(e.getCategoryId()));
+        out.write(',');
+        Csv.appendField(out, e.getCategoryName());
+        out.write(',');
+        out.write(e.getCreated_at().toString());
+        out.write(',');
+        out.write(e.getUpdated_at().toString());
+        out.write('\n');
+    }
+
+    private static void writeJson(Writer out, Expense e) throws IOException {
+        out.write("{\"id\":");
+        out.write(Integer.toString(e.getId()));
+        out.write(",\"title\":");
+        Json.appendString(out, e.getTitle());
+        out.write(",\"description\":");
+        Json.appendString(out, e.getDescription());
+        out.write(",\"amount\":");
+        e.getAmount().writeTo(out);
+        out.write(",\"categoryId\":");
+        out.write(Integer.toString(e.getCategoryId()));
+        out.write(",\"category\":");
+        Json.appendString(out, e.getCategoryName());
+        out.write(",\"createdAt\":\"");
+        out.write(e.getCreated_at().toString());
+        out.write("\",\"updatedAt\":\"");
+        out.write(e.getUpdated_at().toString());
+        out.write("\"}\n");
+    }
+}
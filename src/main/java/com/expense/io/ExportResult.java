@@ -0,0 +1,34 @@
+package com.expense.io;
+
+public class ExportResult {
+    private final long rows;
+    private final long bytes;
+    private final long elapsedNanos;
+
+    public ExportResult(long rows, long bytes, long elapsedNanos) {
+        this.rows = rows;
+        this.bytes = bytes;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedNanos / 1_000_000;
+    }
+
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : rows * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("rows=%d bytes=%d in %d ms (%.0f rows/s)", rows, bytes, getElapsedMillis(), getRowsPerSecond());
+    }
+}
@@ -0,0 +1,50 @@
+package com.expense.io;
+
+import java.util.List;
+
+public class ImportResult {
+    private final long rowsRead;
+    private final long rowsImported;
+    private final long rowsRejected;
+    private final long elapsedNanos;
+    private final List<String> errors;
+
+    public ImportResult(long rowsRead, long rowsImported, long rowsRejected, long elapsedNanos, List<String> errors) {
+        this.rowsRead = rowsRead;
+        this.rowsImported = rowsImported;
+        this.rowsRejected = rowsRejected;
+        this.elapsedNanos = elapsedNanos;
+        this.errors = errors;
+    }
+
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    public long getRowsImported() {
+        return rowsImported;
+    }
+
+    public long getRowsRejected() {
+        return rowsRejected;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedNanos / 1_000_000;
+    }
+
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : rowsImported * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    // First few problems only; the rejected count covers the rest
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("read=%d imported=%d rejected=%d in %d ms (%.0f rows/s)",
+            rowsRead, rowsImported, rowsRejected, getElapsedMillis(), getRowsPerSecond());
+    }
+}
@@ -0,0 +1,133 @@
+package com.expense.metrics;
+
+import com.expense.util.AppConfig;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+/**
+ * Latency metrics for the DAO layer. Each operation is published over JMX and,
+ * every {@code expense.metrics.reportSeconds} (default 60, 0 turns it off),
+ * logged if it was called since the previous report. Connection acquisition
+ * is tracked as its own operation and subtracted from the execution time of
+ * the operation that waited for it.
+ */
+public final class DaoMetrics {
+
+    public static final String CONNECTION_ACQUIRE = "connection.acquire";
+
+    public interface TimedCall<T, E extends Exception> {
+        T call() throws SQLException, E;
+    }
+
+    // Connection wait accumulated by the current thread, so nested operations can each take their share out
+    private static final ThreadLocal<long[]> ACQUIRE_NANOS = ThreadLocal.withInitial(() -> new long[1]);
+
+    private static final DaoMetrics INSTANCE = new DaoMetrics(
+        AppConfig.getBoolean("expense.metrics.jmx", true),
+        AppConfig.getLong("expense.metrics.reportSeconds", 60));
+
+    private final Map<String, OperationMetrics> operations = new ConcurrentHashMap<>();
+    private final OperationMetrics connectionAcquire;
+    private final boolean jmx;
+    private final Map<String, Long> reportedCalls = new HashMap<>();
+
+    private DaoMetrics(boolean jmx, long reportSeconds) {
+        this.jmx = jmx;
+        this.connectionAcquire = operation(CONNECTION_ACQUIRE);
+        if (reportSeconds > 0) {
+            ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "dao-metrics-reporter");
+                t.setDaemon(true);
+                return t;
+            });
+            reporter.scheduleAtFixedRate(this::report, reportSeconds, reportSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    public static DaoMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    public OperationMetrics operation(String name) {
+        OperationMetrics metrics = operations.get(name);
+        if (metrics != null) {
+            return metrics;
+        }
+        return operations.computeIfAbsent(name, this::register);
+    }
+
+    public List<OperationMetrics> getOperations() {
+        List<OperationMetrics> list = new ArrayList<>(operations.values());
+        list.sort((a, b) -> a.getName().compareTo(b.getName()));
+        return list;
+    }
+
+    // Runs the call and records its latency, its row count and whether it threw
+    public <T, E extends Exception> T call(String name, ToLongFunction<T> rows, TimedCall<T, E> call) throws SQLException, E {
+        OperationMetrics metrics = operation(name);
+        long[] acquired = ACQUIRE_NANOS.get();
+        long acquiredBefore = acquired[0];
+        long start = System.nanoTime();
+        T result;
+        try {
+            result = call.call();
+        } catch (Exception | Error e) {
+            metrics.record(System.nanoTime() - start, acquired[0] - acquiredBefore, 0, true);
+            throw e;
+        }
+        metrics.record(System.nanoTime() - start, acquired[0] - acquiredBefore, rows.applyAsLong(result), false);
+        return result;
+    }
+
+    // Times obtaining a connection; the wait is charged to the enclosing call, if any
+    public <T, E extends Exception> T acquire(TimedCall<T, E> connect) throws SQLException, E {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            T connection = connect.call();
+            failed = false;
+            return connection;
+        } finally {
+            long waited = System.nanoTime() - start;
+            ACQUIRE_NANOS.get()[0] += waited;
+            connectionAcquire.record(waited, 0, failed ? 0 : 1, failed);
+        }
+    }
+
+    // Logs every operation called since the previous report
+    public synchronized void report() {
+        for (OperationMetrics metrics : getOperations()) {
+            long calls = metrics.getCalls();
+            Long previous = reportedCalls.put(metrics.getName(), calls);
+            if (calls > 0 && (previous == null || calls != previous)) {
+                System.out.println("DAO metrics: " + metrics);
+            }
+        }
+    }
+
+    private OperationMetrics register(String name) {
+        OperationMetrics metrics = new OperationMetrics(name);
+        if (jmx) {
+            try {
+                MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+                server.registerMBean(metrics, new ObjectName("com.expense:type=DaoMetrics,operation=" + name));
+            } catch (JMException e) {
+                System.err.println("Failed to register DAO metrics MBean for " + name + ": " + e.getMessage());
+            }
+        }
+        return metrics;
+    }
+}
@@ -0,0 +1,123 @@
+package com.expense.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Call, error and row counts for one operation, with a histogram of its total
+ * latency and one of its execution time (latency minus the time spent waiting
+ * for a connection).
+ */
+public class OperationMetrics implements OperationMetricsMXBean {
+
+    private final String name;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LatencyHistogram execution = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+
+    OperationMetrics(String name) {
+        this.name = name;
+    }
+
+    public void record(long latencyNanos, long acquireNanos, long rowCount, boolean failed) {
+        latency.record(latencyNanos);
+        execution.record(latencyNanos - acquireNanos);
+        if (failed) {
+            errors.increment();
+        }
+        if (rowCount > 0) {
+            rows.add(rowCount);
+        }
+    }
+
+    public HistogramSnapshot getLatency() {
+        return latency.snapshot();
+    }
+
+    public HistogramSnapshot getExecution() {
+        return execution.snapshot();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getCalls() {
+        return latency.snapshot().getCount();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public long getRows() {
+        return rows.sum();
+    }
+
+    @Override
+    public double getMeanMillis() {
+        return latency.snapshot().getMeanMillis();
+    }
+
+    @Override
+    public double getP50Millis() {
+        return latency.snapshot().getPercentileMillis(50);
+    }
+
+    @Override
+    public double getP95Millis() {
+        return latency.snapshot().getPercentileMillis(95);
+    }
+
+    @Override
+    public double getP99Millis() {
+        return latency.snapshot().getPercentileMillis(99);
+    }
+
+    @Override
+    public double getMaxMillis() {
+        return latency.snapshot().getMaxMillis();
+    }
+
+    @Override
+    public double getExecutionP50Millis() {
+        return execution.snapshot().getPercentileMillis(50);
+    }
+
+    @Override
+    public double getExecutionP95Millis() {
+        return execution.snapshot().getPercentileMillis(95);
+    }
+
+    @Override
+    public double getExecutionP99Millis() {
+        return execution.snapshot().getPercentileMillis(99);
+    }
+
+    @Override
+    public double getExecutionMaxMillis() {
+        return execution.snapshot().getMaxMillis();
+    }
+
+    @Override
+    public void reset() {
+        latency.reset();
+        execution.reset();
+        errors.reset();
+        rows.reset();
+    }
+
+    @Override
+    public String toString() {
+        HistogramSnapshot total = latency.snapshot();
+        HistogramSnapshot exec = execution.snapshot();
+        return String.format("%s calls=%d errors=%d rows=%d mean=%.3fms p50=%.3fms p95=%.3fms p99=%.3fms max=%.3fms exec.p95=%.3fms exec.p99=%.3fms",
+            name, total.getCount(), errors.sum(), rows.sum(), total.getMeanMillis(),
+            total.getPercentileMillis(50), total.getPercentileMillis(95), total.getPercentileMillis(99),
+            total.getMaxMillis(), exec.getPercentileMillis(95), exec.getPercentileMillis(99));
+    }
+}
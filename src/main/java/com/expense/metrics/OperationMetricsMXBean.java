@@ -0,0 +1,34 @@
+package com.expense.metrics;
+
+// JMX view of one DAO operation, registered as com.expense:type=DaoMetrics,operation=<name>
+public interface OperationMetricsMXBean {
+
+    String getName();
+
+    long getCalls();
+
+    long getErrors();
+
+    long getRows();
+
+    double getMeanMillis();
+
+    double getP50Millis();
+
+    double getP95Millis();
+
+    double getP99Millis();
+
+    double getMaxMillis();
+
+    // Latency with connection acquisition taken out, i.e. time spent running statements and mapping rows
+    double getExecutionP50Millis();
+
+    double getExecutionP95Millis();
+
+    double getExecutionP99Millis();
+
+    double getExecutionMaxMillis();
+
+    void reset();
+}
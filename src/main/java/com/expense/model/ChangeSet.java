@@ -0,0 +1,37 @@
+package com.expense.model;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Rows inserted or updated and rows deleted since a watermark, plus the watermark to pass on the next call
+public class ChangeSet<T, K> {
+    private final List<T> changed;
+    private final List<K> deleted;
+    private final LocalDateTime watermark;
+
+    public ChangeSet(List<T> changed, List<K> deleted, LocalDateTime watermark) {
+        this.changed = changed;
+        this.deleted = deleted;
+        this.watermark = watermark;
+    }
+
+    public List<T> getChanged() {
+        return changed;
+    }
+
+    public List<K> getDeleted() {
+        return deleted;
+    }
+
+    public LocalDateTime getWatermark() {
+        return watermark;
+    }
+
+    public boolean isEmpty() {
+        return changed.isEmpty() && deleted.isEmpty();
+    }
+
+    public int size() {
+        return changed.size() + deleted.size();
+    }
+}
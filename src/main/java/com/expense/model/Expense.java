@@ -1,13 +1,12 @@
 package com.expense.model;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 public class Expense {
     private int id;
     private String title;
     private String description;
-    private BigDecimal amount;
+    private Money amount;
     private int categoryId;
     private String categoryName;
     private LocalDateTime created_at;
@@ -18,7 +17,7 @@ public class Expense {
         this.updated_at = LocalDateTime.now();
     }
 
-    public Expense(String title, String description, BigDecimal amount, int categoryId) {
+    public Expense(String title, String description, Money amount, int categoryId) {
         this();
         this.title = title;
         this.description = description;
@@ -26,7 +25,7 @@ public class Expense {
         this.categoryId = categoryId;
     }
 
-    public Expense(int id, String title, String description, BigDecimal amount, int categoryId,String categoryName, LocalDateTime created_at, LocalDateTime updated_at) {
+    public Expense(int id, String title, String description, Money amount, int categoryId,String categoryName, LocalDateTime created_at, LocalDateTime updated_at) {
         this.id = id;
         this.title = title;
         this.description = description;
@@ -49,7 +48,7 @@ public class Expense {
         return description;
     }
 
-    public BigDecimal getAmount() {
+    public Money getAmount() {
         return amount;
     }
 
@@ -81,7 +80,7 @@ public class Expense {
         this.description = description;
     }
 
-    public void setAmount(BigDecimal amount) {
+    public void setAmount(Money amount) {
         this.amount = amount;
     }
 
@@ -0,0 +1,26 @@
+package com.expense.model;
+
+import java.time.LocalDateTime;
+
+// Position of an expense in the (created_at DESC, id DESC) listing order
+public class ExpenseKey {
+    private final LocalDateTime created_at;
+    private final int id;
+
+    public ExpenseKey(LocalDateTime created_at, int id) {
+        this.created_at = created_at;
+        this.id = id;
+    }
+
+    public static ExpenseKey of(Expense expense) {
+        return new ExpenseKey(expense.getCreated_at(), expense.getId());
+    }
+
+    public LocalDateTime getCreated_at() {
+        return created_at;
+    }
+
+    public int getId() {
+        return id;
+    }
+}
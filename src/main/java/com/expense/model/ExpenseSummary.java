@@ -0,0 +1,44 @@
+package com.expense.model;
+
+// One aggregated row of a report: a group label plus count, total, min, max and average of amount
+public class ExpenseSummary {
+    private final String group;
+    private final long count;
+    private final Money total;
+    private final Money min;
+    private final Money max;
+    private final Money average;
+
+    public ExpenseSummary(String group, long count, Money total, Money min, Money max, Money average) {
+        this.group = group;
+        this.count = count;
+        this.total = total;
+        this.min = min;
+        this.max = max;
+        this.average = average;
+    }
+
+    public String getGroup() {
+        return group;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public Money getTotal() {
+        return total;
+    }
+
+    public Money getMin() {
+        return min;
+    }
+
+    public Money getMax() {
+        return max;
+    }
+
+    public Money getAverage() {
+        return average;
+    }
+}
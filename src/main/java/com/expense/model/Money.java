@@ -0,0 +1,209 @@
+package com.expense.model;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * An amount of money with two decimal places, held as a {@code long} count of
+ * minor units (cents). Arithmetic throws {@link ArithmeticException} on
+ * overflow instead of wrapping. Parsing, formatting and JDBC access work on
+ * the digits directly, without going through {@link BigDecimal}.
+ */
+public final class Money implements Comparable<Money> {
+
+    public static final Money ZERO = new Money(0);
+
+    // Longest formatted value: sign, 17 integer digits, point and two decimals
+    private static final int MAX_CHARS = 21;
+
+    private final long minorUnits;
+
+    private Money(long minorUnits) {
+        this.minorUnits = minorUnits;
+    }
+
+    public static Money ofMinor(long minorUnits) {
+        return minorUnits == 0 ? ZERO : new Money(minorUnits);
+    }
+
+    // Exact conversion; throws ArithmeticException for more than two significant decimal places or out-of-range values
+    public static Money of(BigDecimal amount) {
+        return ofMinor(amount.movePointRight(2).longValueExact());
+    }
+
+    /**
+     * Parses an optionally signed decimal such as {@code 12}, {@code -3.5} or
+     * {@code 0.99}. Decimal places past the second must be zeros. Throws
+     * {@link NumberFormatException} for anything else, like {@code new BigDecimal}.
+     */
+    public static Money parse(CharSequence text) {
+        int length = text.length();
+        int pos = 0;
+        boolean negative = false;
+        if (length > 0 && (text.charAt(0) == '-' || text.charAt(0) == '+')) {
+            negative = text.charAt(0) == '-';
+            pos++;
+        }
+        long units = 0;
+        int digits = 0;
+        int decimals = -1;
+        for (; pos < length; pos++) {
+            char c = text.charAt(pos);
+            if (c == '.' && decimals < 0) {
+                decimals = 0;
+                continue;
+            }
+            if (c < '0' || c > '9') {
+                throw new NumberFormatException("Invalid amount '" + text + "'");
+            }
+            digits++;
+            if (decimals >= 0 && ++decimals > 2) {
+                if (c != '0') {
+                    throw new NumberFormatException("Amount '" + text + "' has more than two decimal places");
+                }
+                continue;
+            }
+            // Accumulate negatively so Long.MIN_VALUE parses too
+            if (units < (Long.MIN_VALUE + (c - '0')) / 10) {
+                throw new NumberFormatException("Amount '" + text + "' is out of range");
+            }
+            units = units * 10 - (c - '0');
+        }
+        if (digits == 0) {
+            throw new NumberFormatException("Invalid amount '" + text + "'");
+        }
+        for (int scale = Math.max(decimals, 0); scale < 2; scale++) {
+            if (units < Long.MIN_VALUE / 10) {
+                throw new NumberFormatException("Amount '" + text + "' is out of range");
+            }
+            units *= 10;
+        }
+        if (!negative && units == Long.MIN_VALUE) {
+            throw new NumberFormatException("Amount '" + text + "' is out of range");
+        }
+        return ofMinor(negative ? units : -units);
+    }
+
+    // Reads a DECIMAL column as text, which the driver hands over without building a BigDecimal; SQL NULL gives null
+    public static Money read(ResultSet rs, int column) throws SQLException {
+        String text = rs.getString(column);
+        return text != null ? parse(text) : null;
+    }
+
+    public static Money read(ResultSet rs, String column) throws SQLException {
+        return read(rs, rs.findColumn(column));
+    }
+
+    // Binds as decimal text, which MySQL converts to DECIMAL exactly; this is what the driver does with a BigDecimal
+    public void bind(PreparedStatement stmt, int index) throws SQLException {
+        stmt.setString(index, toString());
+    }
+
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, 2);
+    }
+
+    public Money plus(Money other) {
+        return ofMinor(Math.addExact(minorUnits, other.minorUnits));
+    }
+
+    public Money minus(Money other) {
+        return ofMinor(Math.subtractExact(minorUnits, other.minorUnits));
+    }
+
+    public Money times(long factor) {
+        return ofMinor(Math.multiplyExact(minorUnits, factor));
+    }
+
+    // Rounds half away from zero, like BigDecimal's HALF_UP
+    public Money dividedBy(long divisor) {
+        long quotient = minorUnits / divisor;
+        long remainder = minorUnits % divisor;
+        if (Math.abs(remainder) >= Math.abs(divisor) - Math.abs(remainder)) {
+            quotient += (minorUnits < 0) == (divisor < 0) ? 1 : -1;
+        }
+        return ofMinor(quotient);
+    }
+
+    public Money negate() {
+        return ofMinor(Math.negateExact(minorUnits));
+    }
+
+    public Money abs() {
+        return minorUnits < 0 ? negate() : this;
+    }
+
+    public int signum() {
+        return Long.signum(minorUnits);
+    }
+
+    public Money min(Money other) {
+        return compareTo(other) <= 0 ? this : other;
+    }
+
+    public Money max(Money other) {
+        return compareTo(other) >= 0 ? this : other;
+    }
+
+    public StringBuilder appendTo(StringBuilder out) {
+        char[] buf = new char[MAX_CHARS];
+        int start = format(buf);
+        return out.append(buf, start, MAX_CHARS - start);
+    }
+
+    public void writeTo(Writer out) throws IOException {
+        char[] buf = new char[MAX_CHARS];
+        int start = format(buf);
+        out.write(buf, start, MAX_CHARS - start);
+    }
+
+    // Fills buf from the end and returns the index of the first character
+    private int format(char[] buf) {
+        int pos = MAX_CHARS;
+        // Negative arithmetic again, so Long.MIN_VALUE needs no special case
+        long units = minorUnits < 0 ? minorUnits : -minorUnits;
+        for (int i = 0; i < 2; i++) {
+            buf[--pos] = (char) ('0' - units % 10);
+            units /= 10;
+        }
+        buf[--pos] = '.';
+        do {
+            buf[--pos] = (char) ('0' - units % 10);
+            units /= 10;
+        } while (units != 0);
+        if (minorUnits < 0) {
+            buf[--pos] = '-';
+        }
+        return pos;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Money && ((Money) o).minorUnits == minorUnits;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minorUnits);
+    }
+
+    @Override
+    public String toString() {
+        char[] buf = new char[MAX_CHARS];
+        int start = format(buf);
+        return new String(buf, start, MAX_CHARS - start);
+    }
+}
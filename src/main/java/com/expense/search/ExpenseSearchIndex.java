@@ -0,0 +1,475 @@
+package com.expense.search;
+
+import com.expense.dao.ExpenseFilter;
+import com.expense.dao.ExpenseTrackerDAO;
+import com.expense.model.ChangeSet;
+import com.expense.model.Expense;
+import com.expense.model.ExpenseKey;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over expense titles and descriptions. Every
+ * query token matches as a prefix, all tokens must match, and hits are
+ * ranked by a TF-IDF style score where title matches count more than
+ * description matches. A search only scores the ranges of IDs whose
+ * per-block maximum weights could still reach the current top hits. The
+ * index is built once from a streaming scan and then kept current from
+ * the DAO's delta sync with {@link #refresh}.
+ */
+public class ExpenseSearchIndex {
+
+    private static final float TITLE_WEIGHT = 3f;
+    // Terms that only extend a query token score lower than an exact match
+    private static final float PREFIX_MATCH_FACTOR = 0.5f;
+    private static final int BUILD_CHUNK_SIZE = 5000;
+    // A query token matches at most this many indexed terms, so a one-letter prefix does not touch the whole index
+    private static final int MAX_EXPANSIONS = 64;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, Postings> terms = new TreeMap<>();
+    // Terms indexed for each expense, so updates and deletes know which postings to touch
+    private final Map<Integer, String[]> docTerms = new HashMap<>();
+    private volatile LocalDateTime watermark;
+
+    public ExpenseSearchIndex() {
+    }
+
+    // Streams every expense once and tokenizes chunks of rows on a worker pool
+    public static ExpenseSearchIndex build(ExpenseTrackerDAO dao, int threads) throws SQLException {
+        ExpenseSearchIndex index = new ExpenseSearchIndex();
+        LocalDateTime startedAt = LocalDateTime.now();
+        int workers = Math.max(1, threads);
+        ConcurrentLinkedQueue<Chunk> chunks = new ConcurrentLinkedQueue<>();
+        ExecutorService pool = Executors.newFixedThreadPool(workers, r -> {
+            Thread t = new Thread(r, "search-index-builder");
+            t.setDaemon(true);
+            return t;
+        });
+        Semaphore chunksInFlight = new Semaphore(workers * 2);
+        try {
+            // Single slot holding the chunk being filled by the streaming callback
+            List<List<Expense>> pending = new ArrayList<>(1);
+            pending.add(new ArrayList<>(BUILD_CHUNK_SIZE));
+            dao.streamExpenses(new ExpenseFilter(), expense -> {
+                List<Expense> current = pending.get(0);
+                current.add(expense);
+                if (current.size() == BUILD_CHUNK_SIZE) {
+                    submitChunk(pool, chunksInFlight, current, chunks);
+                    pending.set(0, new ArrayList<>(BUILD_CHUNK_SIZE));
+                }
+            });
+            if (!pending.get(0).isEmpty()) {
+                submitChunk(pool, chunksInFlight, pending.get(0), chunks);
+            }
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (IOException e) {
+            throw new SQLException("Search index build failed", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Search index build interrupted", e);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        index.merge(chunks);
+        index.watermark = startedAt;
+        return index;
+    }
+
+    private static void submitChunk(ExecutorService pool, Semaphore chunksInFlight, List<Expense> expenses,
+                                    Collection<Chunk> chunks) throws IOException {
+        try {
+            chunksInFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Search index build interrupted", e);
+        }
+        pool.execute(() -> {
+            try {
+                Chunk chunk = new Chunk();
+                for (Expense expense : expenses) {
+                    Map<String, Float> weights = termWeights(expense);
+                    for (Map.Entry<String, Float> entry : weights.entrySet()) {
+                        chunk.terms.computeIfAbsent(entry.getKey(), t -> new Postings()).append(expense.getId(), entry.getValue());
+                    }
+                    chunk.docTerms.put(expense.getId(), weights.keySet().toArray(new String[0]));
+                }
+                chunks.add(chunk);
+            } finally {
+                chunksInFlight.release();
+            }
+        });
+    }
+
+    // Concatenates the per-chunk postings and makes every document share the merged term strings
+    private void merge(Collection<Chunk> chunks) {
+        Map<String, String> canonical = new HashMap<>();
+        Map<String, Postings> merged = new HashMap<>();
+        for (Chunk chunk : chunks) {
+            for (Map.Entry<String, Postings> entry : chunk.terms.entrySet()) {
+                String term = canonical.computeIfAbsent(entry.getKey(), t -> t);
+                merged.computeIfAbsent(term, t -> new Postings()).appendAll(entry.getValue());
+            }
+            for (Map.Entry<Integer, String[]> entry : chunk.docTerms.entrySet()) {
+                String[] docTermList = entry.getValue();
+                for (int i = 0; i < docTermList.length; i++) {
+                    docTermList[i] = canonical.get(docTermList[i]);
+                }
+                docTerms.put(entry.getKey(), docTermList);
+            }
+        }
+        merged.values().parallelStream().forEach(Postings::sort);
+        terms.putAll(merged);
+    }
+
+    public LocalDateTime getWatermark() {
+        return watermark;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docTerms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getTermCount() {
+        lock.readLock().lock();
+        try {
+            return terms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Pulls changes made since the last build or refresh; serialised so the watermark only moves forward
+    public synchronized ChangeSet<Expense, ExpenseKey> refresh(ExpenseTrackerDAO dao) throws SQLException {
+        ChangeSet<Expense, ExpenseKey> changes = dao.getExpenseChanges(watermark);
+        apply(changes);
+        return changes;
+    }
+
+    public void apply(ChangeSet<Expense, ExpenseKey> changes) {
+        lock.writeLock().lock();
+        try {
+            for (ExpenseKey key : changes.getDeleted()) {
+                removeDocument(key.getId());
+            }
+            for (Expense expense : changes.getChanged()) {
+                removeDocument(expense.getId());
+                addDocument(expense);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        watermark = changes.getWatermark();
+    }
+
+    public void put(Expense expense) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(expense.getId());
+            addDocument(expense);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int expenseId) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(expenseId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Best hits first, newest expense first on equal scores
+    public List<SearchHit> search(String query, int limit) {
+        List<String> tokens = Tokenizer.tokenize(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            List<TermList[]> expansions = new ArrayList<>(tokens.size());
+            for (String token : new LinkedHashSet<>(tokens)) {
+                SortedMap<String, Postings> matching = terms.subMap(token, token + Character.MAX_VALUE);
+                if (matching.isEmpty()) {
+                    return Collections.emptyList();
+                }
+                expansions.add(expand(matching, tokens));
+            }
+            // The rarest token picks the ranges of IDs to visit
+            expansions.sort((a, b) -> Long.compare(postingCount(a), postingCount(b)));
+            return new TopHits(expansions, limit).run();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // The terms a token matches as a prefix, at most MAX_EXPANSIONS of them: the exact term and the highest scoring
+    private TermList[] expand(SortedMap<String, Postings> matching, List<String> tokens) {
+        List<TermList> lists = new ArrayList<>(Math.min(matching.size(), MAX_EXPANSIONS));
+        PriorityQueue<TermList> best = new PriorityQueue<>(MAX_EXPANSIONS + 1, (x, y) -> Float.compare(x.upper, y.upper));
+        for (Map.Entry<String, Postings> entry : matching.entrySet()) {
+            TermList list = new TermList(entry.getValue(), termScale(entry.getKey(), entry.getValue(), tokens));
+            if (tokens.contains(entry.getKey())) {
+                lists.add(list);
+            } else {
+                best.add(list);
+                if (best.size() > MAX_EXPANSIONS - lists.size()) {
+                    best.poll();
+                }
+            }
+        }
+        while (best.size() > MAX_EXPANSIONS - lists.size()) {
+            best.poll();
+        }
+        lists.addAll(best);
+        return lists.toArray(new TermList[0]);
+    }
+
+    private void addDocument(Expense expense) {
+        Map<String, Float> weights = termWeights(expense);
+        String[] docTermList = new String[weights.size()];
+        int i = 0;
+        for (Map.Entry<String, Float> entry : weights.entrySet()) {
+            Map.Entry<String, Postings> existing = terms.ceilingEntry(entry.getKey());
+            Postings postings;
+            String term;
+            if (existing != null && existing.getKey().equals(entry.getKey())) {
+                term = existing.getKey();
+                postings = existing.getValue();
+            } else {
+                term = entry.getKey();
+                postings = new Postings();
+                terms.put(term, postings);
+            }
+            postings.put(expense.getId(), entry.getValue());
+            docTermList[i++] = term;
+        }
+        docTerms.put(expense.getId(), docTermList);
+    }
+
+    private void removeDocument(int expenseId) {
+        String[] docTermList = docTerms.remove(expenseId);
+        if (docTermList == null) {
+            return;
+        }
+        for (String term : docTermList) {
+            Postings postings = terms.get(term);
+            if (postings != null) {
+                postings.remove(expenseId);
+                if (postings.size() == 0) {
+                    terms.remove(term);
+                }
+            }
+        }
+    }
+
+    private static Map<String, Float> termWeights(Expense expense) {
+        Map<String, Float> weights = new HashMap<>();
+        for (String token : Tokenizer.tokenize(expense.getTitle())) {
+            weights.merge(token, TITLE_WEIGHT, Float::sum);
+        }
+        for (String token : Tokenizer.tokenize(expense.getDescription())) {
+            weights.merge(token, 1f, Float::sum);
+        }
+        return weights;
+    }
+
+    private static long postingCount(TermList[] expansion) {
+        long count = 0;
+        for (TermList list : expansion) {
+            count += list.postings.size();
+        }
+        return count;
+    }
+
+    // Score per unit of weight for one term
+    private float termScale(String term, Postings postings, List<String> tokens) {
+        float idf = (float) Math.log(1 + (double) docTerms.size() / postings.size());
+        return idf * (tokens.contains(term) ? 1f : PREFIX_MATCH_FACTOR);
+    }
+
+    private static final class Chunk {
+        private final Map<String, Postings> terms = new HashMap<>();
+        private final Map<Integer, String[]> docTerms = new HashMap<>();
+    }
+
+    private static final class TermList {
+        private final Postings postings;
+        private final float scale;
+        // No document scores more than this from this term
+        private final float upper;
+        // Next block to visit, walking from the newest range down
+        private int block;
+
+        private TermList(Postings postings, float scale) {
+            this.postings = postings;
+            this.scale = scale;
+            this.upper = scale * postings.maxWeight();
+            this.block = postings.blockCount() - 1;
+        }
+
+        private int range() {
+            return postings.blockRange(block);
+        }
+    }
+
+    /**
+     * Range-at-a-time top-k: walks the ranges of IDs the first token's
+     * expansions occur in from newest to oldest, so a later candidate never
+     * wins a tie. Once {@code limit} hits are held, the lowest of their
+     * scores is a threshold, and a range is passed over when the block
+     * maxima of all tokens in it cannot reach it, or when some token does
+     * not occur in it at all. The ranges left are scored in dense arrays,
+     * one per token, and only documents every token touched are offered.
+     */
+    private static final class TopHits {
+        private final List<TermList[]> tokens;
+        private final int limit;
+        private final PriorityQueue<SearchHit> best;
+        private final float[][] scores;
+        private final long[][] touched;
+
+        private TopHits(List<TermList[]> expansions, int limit) {
+            this.tokens = expansions;
+            this.limit = limit;
+            this.best = new PriorityQueue<>(limit + 1,
+                (x, y) -> x.getScore() != y.getScore() ? Float.compare(x.getScore(), y.getScore()) : Integer.compare(x.getExpenseId(), y.getExpenseId()));
+            this.scores = new float[expansions.size()][Postings.RANGE_SIZE];
+            this.touched = new long[expansions.size()][Postings.RANGE_SIZE / 64];
+        }
+
+        private List<SearchHit> run() {
+            TermList[] driver = tokens.get(0);
+            while (true) {
+                int range = -1;
+                for (TermList list : driver) {
+                    if (list.block >= 0) {
+                        range = Math.max(range, list.range());
+                    }
+                }
+                if (range < 0) {
+                    break;
+                }
+                if (bound(range) > threshold()) {
+                    scoreRange(range);
+                }
+                for (TermList list : driver) {
+                    if (list.block >= 0 && list.range() == range) {
+                        list.block--;
+                    }
+                }
+            }
+            List<SearchHit> hits = new ArrayList<>(best);
+            hits.sort((x, y) -> x.getScore() != y.getScore() ? Float.compare(y.getScore(), x.getScore()) : Integer.compare(y.getExpenseId(), x.getExpenseId()));
+            return hits;
+        }
+
+        // The most any document in the range can score, after moving every list's block back to it; -Infinity when a
+        // token does not occur in the range. Ranges only go down, so each list's blocks are passed over once.
+        private float bound(int range) {
+            float bound = 0;
+            for (TermList[] token : tokens) {
+                float tokenBound = 0;
+                for (TermList list : token) {
+                    while (list.block >= 0 && list.range() > range) {
+                        list.block--;
+                    }
+                    if (list.block >= 0 && list.range() == range) {
+                        tokenBound += list.scale * list.postings.blockMax(list.block);
+                    }
+                }
+                if (tokenBound == 0) {
+                    return Float.NEGATIVE_INFINITY;
+                }
+                bound += tokenBound;
+            }
+            return bound;
+        }
+
+        private void scoreRange(int range) {
+            for (int t = 0; t < tokens.size(); t++) {
+                float[] tokenScores = scores[t];
+                long[] tokenTouched = touched[t];
+                for (TermList list : tokens.get(t)) {
+                    if (list.block < 0 || list.range() != range) {
+                        continue;
+                    }
+                    Postings postings = list.postings;
+                    for (int i = postings.blockStart(list.block); i < postings.blockEnd(list.block); i++) {
+                        int slot = postings.idAt(i) & (Postings.RANGE_SIZE - 1);
+                        tokenScores[slot] += list.scale * postings.weightAt(i);
+                        tokenTouched[slot >>> 6] |= 1L << slot;
+                    }
+                }
+            }
+            int base = range << Postings.RANGE_SHIFT;
+            for (int word = touched[0].length - 1; word >= 0; word--) {
+                long matched = touched[0][word];
+                for (int t = 1; t < tokens.size(); t++) {
+                    matched &= touched[t][word];
+                }
+                while (matched != 0) {
+                    int bit = 63 - Long.numberOfLeadingZeros(matched);
+                    matched &= ~(1L << bit);
+                    int slot = (word << 6) + bit;
+                    float score = 0;
+                    for (float[] tokenScores : scores) {
+                        score += tokenScores[slot];
+                    }
+                    offer(base | slot, score);
+                }
+                for (int t = 0; t < tokens.size(); t++) {
+                    long tokenTouched = touched[t][word];
+                    while (tokenTouched != 0) {
+                        int bit = Long.numberOfTrailingZeros(tokenTouched);
+                        tokenTouched &= tokenTouched - 1;
+                        scores[t][(word << 6) + bit] = 0;
+                    }
+                    touched[t][word] = 0;
+                }
+            }
+        }
+
+        private float threshold() {
+            return best.size() < limit ? Float.NEGATIVE_INFINITY : best.peek().getScore();
+        }
+
+        // Candidates arrive newest first, so a score equal to the lowest held one never displaces it
+        private void offer(int id, float score) {
+            if (best.size() < limit) {
+                best.add(new SearchHit(id, score));
+            } else if (score > best.peek().getScore()) {
+                best.poll();
+                best.add(new SearchHit(id, score));
+            }
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.expense.search;
+
+import java.util.Arrays;
+
+// Posting list for one term. Each entry packs the expense ID into the high 32 bits and the float
+// weight into the low 32 bits, so sorting the longs sorts by ID. IDs are grouped into ranges of
+// RANGE_SIZE, and the entries of each range the term occurs in form a block whose largest weight
+// is kept, so a top-k search can pass over ranges that cannot reach its threshold.
+final class Postings {
+
+    static final int RANGE_SHIFT = 10;
+    static final int RANGE_SIZE = 1 << RANGE_SHIFT;
+
+    private long[] entries = new long[4];
+    private int size;
+    // Per block, in ID order: the range number in the high 32 bits and the index past its last entry in the low 32 bits
+    private long[] blocks = new long[1];
+    private float[] blockMax = new float[1];
+    private int blockCount;
+    // Never lowered by an update or removal, so it stays an upper bound
+    private float maxWeight;
+
+    int size() {
+        return size;
+    }
+
+    int idAt(int index) {
+        return (int) (entries[index] >>> 32);
+    }
+
+    float weightAt(int index) {
+        return Float.intBitsToFloat((int) entries[index]);
+    }
+
+    float maxWeight() {
+        return maxWeight;
+    }
+
+    int blockCount() {
+        return blockCount;
+    }
+
+    int blockRange(int block) {
+        return (int) (blocks[block] >>> 32);
+    }
+
+    int blockStart(int block) {
+        return block == 0 ? 0 : blockEnd(block - 1);
+    }
+
+    int blockEnd(int block) {
+        return (int) blocks[block];
+    }
+
+    float blockMax(int block) {
+        return blockMax[block];
+    }
+
+    // Same contract as Arrays.binarySearch, over the blocks' ranges
+    int findBlock(int range) {
+        int low = 0;
+        int high = blockCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midRange = blockRange(mid);
+            if (midRange < range) {
+                low = mid + 1;
+            } else if (midRange > range) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    // Bulk loading only; call sort() before the list is searched
+    void append(int id, float weight) {
+        if (size == entries.length) {
+            entries = Arrays.copyOf(entries, size * 2);
+        }
+        entries[size++] = pack(id, weight);
+    }
+
+    void appendAll(Postings other) {
+        if (size + other.size > entries.length) {
+            entries = Arrays.copyOf(entries, Math.max(size + other.size, size * 2));
+        }
+        System.arraycopy(other.entries, 0, entries, size, other.size);
+        size += other.size;
+    }
+
+    void sort() {
+        Arrays.sort(entries, 0, size);
+        if (entries.length > size * 2) {
+            entries = Arrays.copyOf(entries, Math.max(size, 4));
+        }
+        blockCount = 0;
+        maxWeight = 0;
+        for (int i = 0; i < size; i++) {
+            int range = idAt(i) >>> RANGE_SHIFT;
+            if (blockCount == 0 || blockRange(blockCount - 1) != range) {
+                insertBlock(blockCount, range, i);
+            }
+            blocks[blockCount - 1]++;
+            blockMax[blockCount - 1] = Math.max(blockMax[blockCount - 1], weightAt(i));
+            maxWeight = Math.max(maxWeight, weightAt(i));
+        }
+    }
+
+    void put(int id, float weight) {
+        int index = indexOf(id);
+        int block = findBlock(id >>> RANGE_SHIFT);
+        maxWeight = Math.max(maxWeight, weight);
+        if (index >= 0) {
+            entries[index] = pack(id, weight);
+            updateBlockMax(block);
+            return;
+        }
+        int insertAt = -index - 1;
+        if (size == entries.length) {
+            entries = Arrays.copyOf(entries, size * 2);
+        }
+        System.arraycopy(entries, insertAt, entries, insertAt + 1, size - insertAt);
+        entries[insertAt] = pack(id, weight);
+        size++;
+        if (block < 0) {
+            block = -block - 1;
+            insertBlock(block, id >>> RANGE_SHIFT, insertAt);
+        }
+        blockMax[block] = Math.max(blockMax[block], weight);
+        for (int b = block; b < blockCount; b++) {
+            blocks[b]++;
+        }
+    }
+
+    void remove(int id) {
+        int index = indexOf(id);
+        if (index >= 0) {
+            System.arraycopy(entries, index + 1, entries, index, size - index - 1);
+            size--;
+            int block = findBlock(id >>> RANGE_SHIFT);
+            for (int b = block; b < blockCount; b++) {
+                blocks[b]--;
+            }
+            if (blockStart(block) == blockEnd(block)) {
+                System.arraycopy(blocks, block + 1, blocks, block, blockCount - block - 1);
+                System.arraycopy(blockMax, block + 1, blockMax, block, blockCount - block - 1);
+                blockCount--;
+            } else {
+                updateBlockMax(block);
+            }
+        }
+    }
+
+    // Same contract as Arrays.binarySearch
+    int indexOf(int id) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midId = idAt(mid);
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    // An empty block for range at position block, whose entries start at start
+    private void insertBlock(int block, int range, int start) {
+        if (blockCount == blocks.length) {
+            blocks = Arrays.copyOf(blocks, blockCount * 2);
+            blockMax = Arrays.copyOf(blockMax, blockCount * 2);
+        }
+        System.arraycopy(blocks, block, blocks, block + 1, blockCount - block);
+        System.arraycopy(blockMax, block, blockMax, block + 1, blockCount - block);
+        blocks[block] = ((long) range << 32) | start;
+        blockMax[block] = 0;
+        blockCount++;
+    }
+
+    private void updateBlockMax(int block) {
+        float max = 0;
+        for (int i = blockStart(block); i < blockEnd(block); i++) {
+            max = Math.max(max, weightAt(i));
+        }
+        blockMax[block] = max;
+    }
+
+    private static long pack(int id, float weight) {
+        return ((long) id << 32) | (Float.floatToRawIntBits(weight) & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,24 @@
+package com.expense.search;
+
+public class SearchHit {
+    private final int expenseId;
+    private final float score;
+
+    public SearchHit(int expenseId, float score) {
+        this.expenseId = expenseId;
+        this.score = score;
+    }
+
+    public int getExpenseId() {
+        return expenseId;
+    }
+
+    public float getScore() {
+        return score;
+    }
+
+    @Override
+    public String toString() {
+        return expenseId + " (" + score + ")";
+    }
+}
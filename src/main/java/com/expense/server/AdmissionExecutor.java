@@ -0,0 +1,60 @@
+package com.expense.server;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+// Caps the number of exchanges queued or running. An exchange over the cap runs inline on the server's
+// dispatcher thread with the overloaded flag set, so ApiHandler answers 503 without touching the database.
+class AdmissionExecutor implements Executor {
+
+    private static final ThreadLocal<Boolean> OVERLOADED = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    private final ExecutorService workers;
+    private final Semaphore permits;
+    private final LongAdder rejected = new LongAdder();
+
+    AdmissionExecutor(ExecutorService workers, int maxInFlight) {
+        this.workers = workers;
+        this.permits = new Semaphore(maxInFlight);
+    }
+
+    static boolean isOverloaded() {
+        return OVERLOADED.get();
+    }
+
+    @Override
+    public void execute(Runnable exchange) {
+        if (permits.tryAcquire()) {
+            try {
+                workers.execute(() -> {
+                    try {
+                        exchange.run();
+                    } finally {
+                        permits.release();
+                    }
+                });
+                return;
+            } catch (RejectedExecutionException e) {
+                permits.release();
+            }
+        }
+        rejected.increment();
+        OVERLOADED.set(Boolean.TRUE);
+        try {
+            exchange.run();
+        } finally {
+            OVERLOADED.set(Boolean.FALSE);
+        }
+    }
+
+    long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    void shutdown() {
+        workers.shutdown();
+    }
+}
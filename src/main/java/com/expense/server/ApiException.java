@@ -0,0 +1,16 @@
+package com.expense.server;
+
+// Rejects a request with the given HTTP status; the message is returned to the client
+class ApiException extends Exception {
+
+    private final int status;
+
+    ApiException(int status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    int getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,187 @@
+package com.expense.server;
+
+import com.expense.util.DatabaseRouter;
+import com.expense.util.Json;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Base for the API's handlers: splits the path into the context and an
+ * optional resource ID, turns failures into JSON error responses and always
+ * sends exactly one response. Closing the exchange drains any unread request
+ * body, so the connection can be kept alive.
+ */
+abstract class ApiHandler implements HttpHandler {
+
+    static final int MAX_BODY_BYTES = 64 * 1024;
+
+    // Clients that send this header get read-your-writes across requests; otherwise it only spans the one request
+    static final String SESSION_HEADER = "X-Session-Id";
+
+    private static final AtomicLong REQUEST_SESSIONS = new AtomicLong();
+
+    @Override
+    public final void handle(HttpExchange exchange) throws IOException {
+        String session = exchange.getRequestHeaders().getFirst(SESSION_HEADER);
+        String previousSession = DatabaseRouter.bindSession(session != null && !session.isBlank()
+            ? "api:" + session : "api-request:" + REQUEST_SESSIONS.incrementAndGet());
+        try {
+            if (AdmissionExecutor.isOverloaded()) {
+                sendError(exchange, 503, "Server is busy, retry later");
+                return;
+            }
+            String path = exchange.getRequestURI().getPath();
+            String id = path.substring(Math.min(path.length(), exchange.getHttpContext().getPath().length()));
+            while (id.startsWith("/")) {
+                id = id.substring(1);
+            }
+            while (id.endsWith("/")) {
+                id = id.substring(0, id.length() - 1);
+            }
+            handle(exchange, exchange.getRequestMethod(), id.isEmpty() ? null : id);
+        } catch (ApiException e) {
+            sendError(exchange, e.getStatus(), e.getMessage());
+        } catch (SQLTransientConnectionException e) {
+            sendError(exchange, 503, "Database is busy, retry later");
+        } catch (SQLException | RuntimeException e) {
+            System.err.println("API request " + exchange.getRequestMethod() + " " + exchange.getRequestURI() + " failed: " + e.getMessage());
+            sendError(exchange, 500, "Internal server error");
+        } finally {
+            DatabaseRouter.restoreSession(previousSession);
+            exchange.close();
+        }
+    }
+
+    // id is the path segment after the context, or null for the collection itself
+    abstract void handle(HttpExchange exchange, String method, String id) throws IOException, ApiException, SQLException;
+
+    static void send(HttpExchange exchange, int status, CharSequence json) throws IOException {
+        if (json == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        byte[] body = json.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        StringBuilder json = new StringBuilder("{\"error\":");
+        Json.appendString(json, message);
+        json.append('}');
+        send(exchange, status, json);
+    }
+
+    static Map<String, Object> readBody(HttpExchange exchange) throws IOException, ApiException {
+        byte[] body;
+        try (InputStream in = exchange.getRequestBody()) {
+            body = in.readNBytes(MAX_BODY_BYTES + 1);
+        }
+        if (body.length > MAX_BODY_BYTES) {
+            throw new ApiException(413, "Request body is larger than " + MAX_BODY_BYTES + " bytes");
+        }
+        try {
+            return Json.parseObject(new String(body, StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new ApiException(400, "Malformed JSON: " + e.getMessage());
+        }
+    }
+
+    static Map<String, String> queryParameters(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null || query.isEmpty()) {
+            return params;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            params.put(name, value);
+        }
+        return params;
+    }
+
+    static int parseId(String id) throws ApiException {
+        try {
+            return Integer.parseInt(id);
+        } catch (NumberFormatException e) {
+            throw new ApiException(404, "Not found: " + id);
+        }
+    }
+
+    static String requiredString(Map<String, Object> body, String field) throws ApiException {
+        String value = optionalString(body, field);
+        if (value == null || value.isEmpty()) {
+            throw new ApiException(400, field + " is required");
+        }
+        return value;
+    }
+
+    static String optionalString(Map<String, Object> body, String field) throws ApiException {
+        Object value = body.get(field);
+        if (value == null) {
+            return null;
+        }
+        if (!(value instanceof String)) {
+            throw new ApiException(400, field + " must be a string");
+        }
+        return ((String) value).trim();
+    }
+
+    // Accepts a JSON number or a numeric string
+    static BigDecimal optionalDecimal(Map<String, Object> body, String field) throws ApiException {
+        Object value = body.get(field);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return value instanceof BigDecimal ? (BigDecimal) value : new BigDecimal(value.toString().trim());
+        } catch (NumberFormatException e) {
+            throw new ApiException(400, field + " must be a number");
+        }
+    }
+
+    static Integer optionalInt(Map<String, Object> body, String field) throws ApiException {
+        BigDecimal value = optionalDecimal(body, field);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return value.intValueExact();
+        } catch (ArithmeticException e) {
+            throw new ApiException(400, field + " must be an integer");
+        }
+    }
+
+    // The updatedAt value of a previously returned resource, used as the expected version of an update
+    static LocalDateTime requiredVersion(Map<String, Object> body) throws ApiException {
+        String value = optionalString(body, "updatedAt");
+        try {
+            return LocalDateTime.parse(value);
+        } catch (NullPointerException | DateTimeParseException e) {
+            throw new ApiException(400, "updatedAt must be a timestamp as returned by the API");
+        }
+    }
+
+    static ApiException methodNotAllowed(String method) {
+        return new ApiException(405, "Method not allowed: " + method);
+    }
+}
@@ -0,0 +1,62 @@
+package com.expense.server;
+
+import com.expense.model.Category;
+import com.expense.model.Expense;
+import com.expense.model.ExpenseSummary;
+import com.expense.util.Json;
+
+import java.io.IOException;
+import java.util.List;
+
+// Response bodies; field names match the JSON Lines export
+final class ApiJson {
+
+    private ApiJson() {
+    }
+
+    static void appendCategory(StringBuilder out, Category c) throws IOException {
+        out.append("{\"id\":").append(c.getId());
+        out.append(",\"name\":");
+        Json.appendString(out, c.getName());
+        out.append(",\"description\":");
+        Json.appendString(out, c.getDescription());
+        out.append(",\"createdAt\":\"").append(c.getCreated_at());
+        out.append("\",\"updatedAt\":\"").append(c.getUpdated_at()).append("\"}");
+    }
+
+    static void appendExpense(StringBuilder out, Expense e) throws IOException {
+        out.append("{\"id\":").append(e.getId());
+        out.append(",\"title\":");
+        Json.appendString(out, e.getTitle());
+        out.append(",\"description\":");
+        Json.appendString(out, e.getDescription());
+        e.getAmount().appendTo(out.append(",\"amount\":"));
+        out.append(",\"categoryId\":").append(e.getCategoryId());
+        out.append(",\"category\":");
+        Json.appendString(out, e.getCategoryName());
+        out.append(",\"createdAt\":\"").append(e.getCreated_at());
+        out.append("\",\"updatedAt\":\"").append(e.getUpdated_at()).append("\"}");
+    }
+
+    static void appendSummary(StringBuilder out, ExpenseSummary s) throws IOException {
+        out.append("{\"group\":");
+        Json.appendString(out, s.getGroup());
+        out.append(",\"count\":").append(s.getCount());
+        s.getTotal().appendTo(out.append(",\"total\":"));
+        s.getMin().appendTo(out.append(",\"min\":"));
+        s.getMax().appendTo(out.append(",\"max\":"));
+        s.getAverage().appendTo(out.append(",\"average\":")).append('}');
+    }
+
+    static StringBuilder categories(List<Category> categories) throws IOException {
+        StringBuilder out = new StringBuilder(128 + categories.size() * 128);
+        out.append("{\"categories\":[");
+        for (int i = 0; i < categories.size(); i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            appendCategory(out, categories.get(i));
+        }
+        return out.append("]}");
+    }
+}
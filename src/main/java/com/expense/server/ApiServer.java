@@ -0,0 +1,75 @@
+package com.expense.server;
+
+import com.expense.dao.ExpenseReportDAO;
+import com.expense.dao.ExpenseTrackerDAO;
+import com.expense.util.AppConfig;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Headless HTTP/JSON API over the DAOs, on the JDK's built-in server.
+ * Exchanges run on virtual threads when the JVM has them (JDK 21+) and on a
+ * fixed pool of {@code expense.server.threads} platform threads otherwise.
+ * At most {@code expense.server.maxInFlight} requests are queued or running;
+ * the rest are answered with 503 straight away. Connections are kept alive
+ * between requests.
+ */
+public class ApiServer {
+
+    private final HttpServer server;
+    private final AdmissionExecutor executor;
+
+    public ApiServer(String host, int port) throws IOException {
+        this(new ExpenseTrackerDAO(), new ExpenseReportDAO(), host, port,
+            AppConfig.getInt("expense.server.threads", 64),
+            AppConfig.getInt("expense.server.maxInFlight", 1024),
+            AppConfig.getInt("expense.server.backlog", 1024));
+    }
+
+    public ApiServer(ExpenseTrackerDAO dao, ExpenseReportDAO reportDao, String host, int port,
+                     int threads, int maxInFlight, int backlog) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(host, port), backlog);
+        executor = new AdmissionExecutor(newWorkers(threads), maxInFlight);
+        server.setExecutor(executor);
+        server.createContext("/api/categories", new CategoryHandler(dao));
+        server.createContext("/api/expenses", new ExpenseHandler(dao));
+        server.createContext("/api/reports", new ReportHandler(reportDao));
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    // Gives in-flight exchanges up to delaySeconds to finish
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+    }
+
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    public long getRejectedCount() {
+        return executor.getRejectedCount();
+    }
+
+    // Looked up reflectively so the build can stay on Java 17
+    private static ExecutorService newWorkers(int threads) {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(threads, r -> {
+                Thread t = new Thread(r, "api-worker");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.expense.server;
+
+import com.expense.dao.ExpenseTrackerDAO;
+import com.expense.model.Category;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.Map;
+
+// /api/categories and /api/categories/{id}
+class CategoryHandler extends ApiHandler {
+
+    private final ExpenseTrackerDAO dao;
+
+    CategoryHandler(ExpenseTrackerDAO dao) {
+        this.dao = dao;
+    }
+
+    @Override
+    void handle(HttpExchange exchange, String method, String id) throws IOException, ApiException, SQLException {
+        if (id == null) {
+            switch (method) {
+                case "GET": send(exchange, 200, ApiJson.categories(dao.getAllCategories())); return;
+                case "POST": create(exchange); return;
+                default: throw methodNotAllowed(method);
+            }
+        }
+        int categoryId = parseId(id);
+        switch (method) {
+            case "GET": send(exchange, 200, json(find(categoryId))); return;
+            case "PUT": update(exchange, categoryId); return;
+            case "DELETE":
+                if (!dao.deleteCategory(categoryId)) {
+                    throw notFound(categoryId);
+                }
+                send(exchange, 204, null);
+                return;
+            default: throw methodNotAllowed(method);
+        }
+    }
+
+    private void create(HttpExchange exchange) throws IOException, ApiException, SQLException {
+        Map<String, Object> body = readBody(exchange);
+        Category category = new Category();
+        category.setName(requiredString(body, "name"));
+        category.setDescription(optionalString(body, "description"));
+        checkNameIsFree(category.getName(), 0);
+        int id = dao.createCategory(category);
+        exchange.getResponseHeaders().set("Location", "/api/categories/" + id);
+        send(exchange, 201, json(category));
+    }
+
+    // Fields left out of the body keep their current values; updatedAt works as for expenses
+    private void update(HttpExchange exchange, int categoryId) throws IOException, ApiException, SQLException {
+        Map<String, Object> body = readBody(exchange);
+        Category category = find(categoryId);
+        if (body.containsKey("updatedAt")) {
+            category.setUpdated_at(requiredVersion(body));
+        }
+        if (body.containsKey("name")) {
+            category.setName(requiredString(body, "name"));
+            checkNameIsFree(category.getName(), categoryId);
+        }
+        if (body.containsKey("description")) {
+            category.setDescription(optionalString(body, "description"));
+        }
+        switch (dao.updateCategoryIfCurrent(category)) {
+            case UPDATED: send(exchange, 200, json(category)); return;
+            case CONFLICT: throw new ApiException(409, "Category " + categoryId + " was changed since version " + category.getUpdated_at());
+            default: throw notFound(categoryId);
+        }
+    }
+
+    private void checkNameIsFree(String name, int categoryId) throws ApiException, SQLException {
+        Category existing = dao.getCategoryByName(name);
+        if (existing != null && existing.getId() != categoryId) {
+            throw new ApiException(409, "A category named '" + name + "' already exists");
+        }
+    }
+
+    private Category find(int categoryId) throws ApiException, SQLException {
+        Category category = dao.getCategoryById(categoryId);
+        if (category == null) {
+            throw notFound(categoryId);
+        }
+        return category;
+    }
+
+    private static StringBuilder json(Category category) throws IOException {
+        StringBuilder out = new StringBuilder(256);
+        ApiJson.appendCategory(out, category);
+        return out;
+    }
+
+    private static ApiException notFound(int categoryId) {
+        return new ApiException(404, "Category " + categoryId + " not found");
+    }
+}
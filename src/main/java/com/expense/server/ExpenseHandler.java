@@ -0,0 +1,199 @@
+package com.expense.server;
+
+import com.expense.dao.ExpenseTrackerDAO;
+import com.expense.model.Category;
+import com.expense.model.Expense;
+import com.expense.model.ExpenseKey;
+import com.expense.model.Money;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * /api/expenses and /api/expenses/{id}. Listing is keyset-paged, newest
+ * first: each page carries a {@code next} cursor to pass back as
+ * {@code ?after=}, or null on the last page.
+ */
+class ExpenseHandler extends ApiHandler {
+
+    static final int DEFAULT_PAGE_SIZE = 100;
+    static final int MAX_PAGE_SIZE = 1000;
+    private static final Money MAX_AMOUNT = Money.ofMinor(99_999_999_99L);
+
+    private final ExpenseTrackerDAO dao;
+
+    ExpenseHandler(ExpenseTrackerDAO dao) {
+        this.dao = dao;
+    }
+
+    @Override
+    void handle(HttpExchange exchange, String method, String id) throws IOException, ApiException, SQLException {
+        if (id == null) {
+            switch (method) {
+                case "GET": list(exchange); return;
+                case "POST": create(exchange); return;
+                default: throw methodNotAllowed(method);
+            }
+        }
+        int expenseId = parseId(id);
+        switch (method) {
+            case "GET": send(exchange, 200, json(find(expenseId))); return;
+            case "PUT": update(exchange, expenseId); return;
+            case "DELETE":
+                if (!dao.deleteExpense(expenseId)) {
+                    throw notFound(expenseId);
+                }
+                send(exchange, 204, null);
+                return;
+            default: throw methodNotAllowed(method);
+        }
+    }
+
+    private void list(HttpExchange exchange) throws IOException, ApiException, SQLException {
+        Map<String, String> params = queryParameters(exchange);
+        int limit = DEFAULT_PAGE_SIZE;
+        if (params.containsKey("limit")) {
+            try {
+                limit = Integer.parseInt(params.get("limit"));
+            } catch (NumberFormatException e) {
+                throw new ApiException(400, "limit must be an integer");
+            }
+            if (limit < 1 || limit > MAX_PAGE_SIZE) {
+                throw new ApiException(400, "limit must be between 1 and " + MAX_PAGE_SIZE);
+            }
+        }
+        ExpenseKey after = parseCursor(params.get("after"));
+
+        List<Expense> page = dao.getExpensesPage(after, limit);
+        StringBuilder out = new StringBuilder(64 + page.size() * 256);
+        out.append("{\"expenses\":[");
+        for (int i = 0; i < page.size(); i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            ApiJson.appendExpense(out, page.get(i));
+        }
+        out.append("],\"next\":");
+        if (page.size() == limit) {
+            out.append('"').append(cursorOf(page.get(page.size() - 1))).append('"');
+        } else {
+            out.append("null");
+        }
+        send(exchange, 200, out.append('}'));
+    }
+
+    private void create(HttpExchange exchange) throws IOException, ApiException, SQLException {
+        Map<String, Object> body = readBody(exchange);
+        Expense expense = new Expense();
+        expense.setTitle(requiredString(body, "title"));
+        expense.setDescription(optionalString(body, "description"));
+        expense.setAmount(requiredAmount(body));
+        expense.setCategoryId(requiredCategory(body).getId());
+        int id = dao.createExpense(expense);
+        exchange.getResponseHeaders().set("Location", "/api/expenses/" + id);
+        send(exchange, 201, json(find(id)));
+    }
+
+    // Fields left out of the body keep their current values. An updatedAt in the body is the version the client
+    // last saw; without it the update is guarded by the version read here. Either way a concurrent edit gives 409.
+    private void update(HttpExchange exchange, int expenseId) throws IOException, ApiException, SQLException {
+        Map<String, Object> body = readBody(exchange);
+        Expense expense = find(expenseId);
+        if (body.containsKey("updatedAt")) {
+            expense.setUpdated_at(requiredVersion(body));
+        }
+        if (body.containsKey("title")) {
+            expense.setTitle(requiredString(body, "title"));
+        }
+        if (body.containsKey("description")) {
+            expense.setDescription(optionalString(body, "description"));
+        }
+        if (body.containsKey("amount")) {
+            expense.setAmount(requiredAmount(body));
+        }
+        if (body.containsKey("categoryId")) {
+            Category category = requiredCategory(body);
+            expense.setCategoryId(category.getId());
+            expense.setCategoryName(category.getName());
+        }
+        switch (dao.updateExpenseIfCurrent(expense)) {
+            case UPDATED: send(exchange, 200, json(expense)); return;
+            case CONFLICT: throw new ApiException(409, "Expense " + expenseId + " was changed since version " + expense.getUpdated_at());
+            default: throw notFound(expenseId);
+        }
+    }
+
+    // amount is DECIMAL(10, 2) in the schema
+    private static Money requiredAmount(Map<String, Object> body) throws ApiException {
+        BigDecimal value = optionalDecimal(body, "amount");
+        if (value == null) {
+            throw new ApiException(400, "amount is required");
+        }
+        if (value.stripTrailingZeros().scale() > 2) {
+            throw new ApiException(400, "amount must have at most two decimal places");
+        }
+        Money amount;
+        try {
+            amount = Money.of(value);
+        } catch (ArithmeticException e) {
+            throw new ApiException(400, "amount is out of range");
+        }
+        if (amount.abs().compareTo(MAX_AMOUNT) > 0) {
+            throw new ApiException(400, "amount is out of range");
+        }
+        return amount;
+    }
+
+    private Category requiredCategory(Map<String, Object> body) throws ApiException, SQLException {
+        Integer categoryId = optionalInt(body, "categoryId");
+        if (categoryId == null) {
+            throw new ApiException(400, "categoryId is required");
+        }
+        Category category = dao.getCategoryById(categoryId);
+        if (category == null) {
+            throw new ApiException(400, "Category " + categoryId + " does not exist");
+        }
+        return category;
+    }
+
+    private Expense find(int expenseId) throws ApiException, SQLException {
+        Expense expense = dao.getExpenseById(expenseId);
+        if (expense == null) {
+            throw notFound(expenseId);
+        }
+        return expense;
+    }
+
+    // <created_at>_<id> of the last row on the page
+    private static String cursorOf(Expense expense) {
+        return expense.getCreated_at() + "_" + expense.getId();
+    }
+
+    private static ExpenseKey parseCursor(String cursor) throws ApiException {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        int split = cursor.lastIndexOf('_');
+        try {
+            return new ExpenseKey(LocalDateTime.parse(cursor.substring(0, split)), Integer.parseInt(cursor.substring(split + 1)));
+        } catch (DateTimeParseException | NumberFormatException | IndexOutOfBoundsException e) {
+            throw new ApiException(400, "Invalid cursor: " + cursor);
+        }
+    }
+
+    private static StringBuilder json(Expense expense) throws IOException {
+        StringBuilder out = new StringBuilder(256);
+        ApiJson.appendExpense(out, expense);
+        return out;
+    }
+
+    private static ApiException notFound(int expenseId) {
+        return new ApiException(404, "Expense " + expenseId + " not found");
+    }
+}
@@ -0,0 +1,66 @@
+package com.expense.server;
+
+import com.expense.dao.ExpenseReportDAO;
+import com.expense.dao.ReportGrouping;
+import com.expense.model.ExpenseSummary;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// GET /api/reports?grouping=category|day|week|month&from=yyyy-MM-dd&to=yyyy-MM-dd, both dates inclusive
+class ReportHandler extends ApiHandler {
+
+    private final ExpenseReportDAO reportDao;
+
+    ReportHandler(ExpenseReportDAO reportDao) {
+        this.reportDao = reportDao;
+    }
+
+    @Override
+    void handle(HttpExchange exchange, String method, String id) throws IOException, ApiException, SQLException {
+        if (id != null) {
+            throw new ApiException(404, "Not found: " + id);
+        }
+        if (!method.equals("GET")) {
+            throw methodNotAllowed(method);
+        }
+        Map<String, String> params = queryParameters(exchange);
+        ReportGrouping grouping;
+        try {
+            grouping = ReportGrouping.valueOf(params.getOrDefault("grouping", "category").toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ApiException(400, "grouping must be one of category, day, week, month");
+        }
+        LocalDateTime from = parseDate(params.get("from"), 0);
+        LocalDateTime to = parseDate(params.get("to"), 1);
+
+        List<ExpenseSummary> rows = reportDao.summarize(grouping, from, to);
+        StringBuilder out = new StringBuilder(64 + rows.size() * 128);
+        out.append("{\"grouping\":\"").append(grouping.name().toLowerCase(Locale.ROOT)).append("\",\"rows\":[");
+        for (int i = 0; i < rows.size(); i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            ApiJson.appendSummary(out, rows.get(i));
+        }
+        send(exchange, 200, out.append("]}"));
+    }
+
+    private static LocalDateTime parseDate(String value, int plusDays) throws ApiException {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value).plusDays(plusDays).atStartOfDay();
+        } catch (DateTimeParseException e) {
+            throw new ApiException(400, "Invalid date, expected yyyy-MM-dd: " + value);
+        }
+    }
+}
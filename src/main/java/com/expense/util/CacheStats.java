@@ -0,0 +1,48 @@
+package com.expense.util;
+
+public class CacheStats {
+    private final String cacheName;
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long size;
+
+    public CacheStats(String cacheName, long hits, long misses, long evictions, long size) {
+        this.cacheName = cacheName;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.size = size;
+    }
+
+    public String getCacheName() {
+        return cacheName;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public double getHitRatio() {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("cache=%s hits=%d misses=%d hitRatio=%.3f evictions=%d size=%d",
+            cacheName, hits, misses, getHitRatio(), evictions, size);
+    }
+}
@@ -0,0 +1,389 @@
+package com.expense.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded JDBC connection pool. Callers get a proxy whose {@code close()} hands
+ * the physical connection back to the pool instead of closing the socket.
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    private final String name;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final PoolConfig config;
+
+    // One permit per connection that may be handed out at the same time
+    private final Semaphore permits;
+    // Most recently returned connections sit at the head, so the tail ages out first
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Set<ConnectionHandle> borrowed = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final ScheduledExecutorService housekeeper;
+
+    private final LongAdder borrowCount = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final LongAccumulator maxWaitNanos = new LongAccumulator(Long::max, 0);
+    private final LongAdder timeoutCount = new LongAdder();
+    private final LongAdder createdCount = new LongAdder();
+    private final LongAdder destroyedCount = new LongAdder();
+    private final LongAdder leakCount = new LongAdder();
+
+    private volatile boolean closed;
+
+    public ConnectionPool(String name, String url, String username, String password, PoolConfig config) {
+        this.name = name;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.config = config;
+        this.permits = new Semaphore(config.getMaxSize(), true);
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "pool-" + name + "-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = config.getHousekeepingPeriodMillis();
+        housekeeper.scheduleWithFixedDelay(this::housekeep, 0, period, TimeUnit.MILLISECONDS);
+    }
+
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool " + name + " is closed");
+        }
+
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(config.getAcquireTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+                timeoutCount.increment();
+                throw new SQLTransientConnectionException("Timed out after " + config.getAcquireTimeoutMillis()
+                    + " ms waiting for a connection from pool " + name + " (" + getStats() + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+
+        try {
+            PooledConnection pooled = takeIdleOrCreate();
+            ConnectionHandle handle = new ConnectionHandle(pooled);
+            borrowed.add(handle);
+
+            long waited = System.nanoTime() - start;
+            borrowCount.increment();
+            totalWaitNanos.add(waited);
+            maxWaitNanos.accumulate(waited);
+            return handle.proxy;
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    // Opens the connections missing from the minimum size all at once, one thread each, instead of one after another
+    // on the housekeeper, and returns how many opened. Throws only when none could be opened.
+    public int warmUp() throws SQLException {
+        int missing = config.getMinSize() - totalConnections.get();
+        if (closed || missing <= 0) {
+            return 0;
+        }
+        ExecutorService opener = Executors.newFixedThreadPool(missing, r -> {
+            Thread t = new Thread(r, "pool-" + name + "-warmup");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<Future<PooledConnection>> opening = new ArrayList<>(missing);
+            for (int i = 0; i < missing; i++) {
+                opening.add(opener.submit(this::create));
+            }
+            int opened = 0;
+            SQLException failure = null;
+            for (Future<PooledConnection> future : opening) {
+                try {
+                    idle.offerLast(future.get());
+                    opened++;
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = e.getCause() instanceof SQLException ? (SQLException) e.getCause() : new SQLException(e.getCause());
+                    }
+                }
+            }
+            if (opened == 0 && failure != null) {
+                throw failure;
+            }
+            return opened;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while opening connections for pool " + name, e);
+        } finally {
+            opener.shutdown();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // Connections in use plus threads waiting for one
+    public int getLoad() {
+        return borrowed.size() + permits.getQueueLength();
+    }
+
+    public PoolStats getStats() {
+        long borrows = borrowCount.sum();
+        double avgWait = borrows == 0 ? 0 : totalWaitNanos.sum() / 1_000_000.0 / borrows;
+        return new PoolStats(name, borrowed.size(), idle.size(), totalConnections.get(), permits.getQueueLength(),
+            borrows, avgWait, maxWaitNanos.get() / 1_000_000.0, timeoutCount.sum(),
+            createdCount.sum(), destroyedCount.sum(), leakCount.sum());
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            destroy(pooled);
+        }
+    }
+
+    private PooledConnection takeIdleOrCreate() throws SQLException {
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            if (isUsable(pooled)) {
+                return pooled;
+            }
+            destroy(pooled);
+        }
+        return create();
+    }
+
+    // Skips the ping for connections that were in use a moment ago
+    private boolean isUsable(PooledConnection pooled) {
+        long idleMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - pooled.lastUsedNanos);
+        if (idleMillis < config.getValidationIntervalMillis()) {
+            return true;
+        }
+        try {
+            return pooled.physical.isValid(config.getValidationTimeoutSeconds());
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PooledConnection create() throws SQLException {
+        totalConnections.incrementAndGet();
+        try {
+            Connection physical = DriverManager.getConnection(url, username, password);
+            createdCount.increment();
+            return new PooledConnection(physical);
+        } catch (SQLException | RuntimeException e) {
+            totalConnections.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private void destroy(PooledConnection pooled) {
+        totalConnections.decrementAndGet();
+        destroyedCount.increment();
+        try {
+            pooled.physical.close();
+        } catch (SQLException e) {
+            // Already broken, nothing left to release
+        }
+    }
+
+    private void release(ConnectionHandle handle) {
+        borrowed.remove(handle);
+        PooledConnection pooled = handle.pooled;
+        try {
+            if (handle.broken || closed || totalConnections.get() > config.getMaxSize() || !reset(handle)) {
+                destroy(pooled);
+            } else {
+                pooled.lastUsedNanos = System.nanoTime();
+                idle.offerFirst(pooled);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    // Undoes session state a borrower may have changed so the next borrower starts clean
+    private boolean reset(ConnectionHandle handle) {
+        Connection physical = handle.pooled.physical;
+        try {
+            if (physical.isClosed()) {
+                return false;
+            }
+            if (handle.stateChanged) {
+                if (!physical.getAutoCommit()) {
+                    physical.rollback();
+                    physical.setAutoCommit(true);
+                }
+                if (physical.isReadOnly()) {
+                    physical.setReadOnly(false);
+                }
+                if (physical.getTransactionIsolation() != handle.pooled.defaultIsolation) {
+                    physical.setTransactionIsolation(handle.pooled.defaultIsolation);
+                }
+            }
+            physical.clearWarnings();
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void housekeep() {
+        try {
+            evictIdle();
+            fillToMinimum();
+            detectLeaks();
+        } catch (RuntimeException e) {
+            System.err.println("Connection pool " + name + " housekeeping failed: " + e.getMessage());
+        }
+    }
+
+    private void evictIdle() {
+        long idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(config.getIdleTimeoutMillis());
+        long now = System.nanoTime();
+        Iterator<PooledConnection> oldestFirst = idle.descendingIterator();
+        while (oldestFirst.hasNext() && totalConnections.get() > config.getMinSize()) {
+            PooledConnection pooled = oldestFirst.next();
+            if (now - pooled.lastUsedNanos > idleTimeoutNanos && idle.remove(pooled)) {
+                destroy(pooled);
+            }
+        }
+    }
+
+    private void fillToMinimum() {
+        while (!closed && totalConnections.get() < config.getMinSize()) {
+            try {
+                idle.offerLast(create());
+            } catch (SQLException e) {
+                System.err.println("Connection pool " + name + " could not open a connection: " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+    private void detectLeaks() {
+        long threshold = config.getLeakDetectionThresholdMillis();
+        if (threshold <= 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        for (ConnectionHandle handle : borrowed) {
+            long heldMillis = TimeUnit.NANOSECONDS.toMillis(now - handle.borrowedAtNanos);
+            if (!handle.leakReported && heldMillis > threshold) {
+                handle.leakReported = true;
+                leakCount.increment();
+                System.err.println("Possible connection leak in pool " + name + ": connection held for "
+                    + heldMillis + " ms by " + handle.ownerThread);
+                if (handle.borrowSite != null) {
+                    handle.borrowSite.printStackTrace();
+                }
+            }
+        }
+    }
+
+    private static final class PooledConnection {
+        private final Connection physical;
+        private final int defaultIsolation;
+        private volatile long lastUsedNanos;
+
+        private PooledConnection(Connection physical) throws SQLException {
+            this.physical = physical;
+            this.defaultIsolation = physical.getTransactionIsolation();
+            this.lastUsedNanos = System.nanoTime();
+        }
+    }
+
+    private final class ConnectionHandle implements InvocationHandler {
+        private final PooledConnection pooled;
+        private final Connection proxy;
+        private final long borrowedAtNanos = System.nanoTime();
+        private final String ownerThread = Thread.currentThread().getName();
+        private final Exception borrowSite;
+        private volatile boolean closed;
+        private volatile boolean leakReported;
+        private boolean stateChanged;
+        private boolean broken;
+
+        private ConnectionHandle(PooledConnection pooled) {
+            this.pooled = pooled;
+            this.borrowSite = config.getLeakDetectionThresholdMillis() > 0
+                ? new Exception("Connection borrowed here") : null;
+            this.proxy = (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(), new Class<?>[] {Connection.class}, this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        release(this);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + name + "]";
+                case "setAutoCommit":
+                case "setReadOnly":
+                case "setTransactionIsolation":
+                    stateChanged = true;
+                    break;
+                default:
+                    break;
+            }
+
+            if (closed) {
+                throw new SQLException("Connection has already been returned to pool " + name);
+            }
+            try {
+                return method.invoke(pooled.physical, args);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof SQLException) {
+                    String state = ((SQLException) cause).getSQLState();
+                    if (state != null && state.startsWith("08")) {
+                        broken = true;
+                    }
+                }
+                throw cause;
+            }
+        }
+    }
+}
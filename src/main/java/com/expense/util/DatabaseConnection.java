@@ -1,24 +1,98 @@
 package com.expense.util;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 
 public class DatabaseConnection {
-    public static final String URL = "jdbc:mysql://localhost:3306/expense_tracker";
-    public static final String USERNAME = "root";
-    public static final String PASSWORD = "blSibi@2ndid";
+    // expense.db.backend=embedded keeps the data in an in-process H2 database file at expense.db.path instead of a
+    // MySQL server; MySQL mode covers most of the SQL and SqlDialect the rest. MONTH is a keyword in H2 but a column here.
+    public static final boolean EMBEDDED = "embedded".equalsIgnoreCase(AppConfig.getString("expense.db.backend", "mysql"));
+    public static final String EMBEDDED_OPTIONS = ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=MONTH";
 
+    // Overridable with expense.db.url / .username / .password, e.g. to point benchmarks at a stand-in database.
+    // The default caches server-side prepared statements per connection, sized for the DAO's dynamic query shapes.
+    public static final String URL = AppConfig.getString("expense.db.url", EMBEDDED
+        ? "jdbc:h2:file:" + AppConfig.getString("expense.db.path", "~/.expense-tracker/expenses") + EMBEDDED_OPTIONS
+        : "jdbc:mysql://localhost:3306/expense_tracker?rewriteBatchedStatements=true"
+            + "&useServerPrepStmts=true&cachePrepStmts=true&prepStmtCacheSize=250&prepStmtCacheSqlLimit=2048");
+    public static final String USERNAME = AppConfig.getString("expense.db.username", EMBEDDED ? "sa" : "root");
+    public static final String PASSWORD = AppConfig.getString("expense.db.password", EMBEDDED ? "" : "blSibi@2ndid");
+    public static final SqlDialect DIALECT = SqlDialect.forUrl(URL);
+
+    // Loaded explicitly: the shaded jar keeps only one driver's META-INF/services entry
     static {
         try {
-            Class.forName("com.mysql.cj.jdbc.Driver");
+            Class.forName(DIALECT.getDriverClassName());
         } catch (ClassNotFoundException e) {
             System.out.println("JDBC Driver is missing");
             System.exit(1);
         }
     }
 
+    // Comma-separated replica URLs; replicas use the primary's credentials unless overridden
+    public static final String REPLICA_URLS = AppConfig.getString("expense.db.replicas", "");
+    private static final long REPLICA_MAX_LAG_SECONDS = AppConfig.getLong("expense.db.replicaMaxLagSeconds", 4);
+
+    // Created on first use so the driver check above always runs first
+    private static final class RouterHolder {
+        private static final DatabaseRouter ROUTER = createRouter();
+
+        private static DatabaseRouter createRouter() {
+            ConnectionPool primary = new ConnectionPool("primary", URL, USERNAME, PASSWORD,
+                PoolConfig.fromProperties("expense.pool"));
+            List<ConnectionPool> replicas = new ArrayList<>();
+            String username = AppConfig.getString("expense.db.replica.username", USERNAME);
+            String password = AppConfig.getString("expense.db.replica.password", PASSWORD);
+            for (String url : REPLICA_URLS.split(",")) {
+                if (!url.isBlank()) {
+                    replicas.add(new ConnectionPool("replica-" + (replicas.size() + 1), url.trim(), username, password,
+                        PoolConfig.fromProperties("expense.replicaPool")));
+                }
+            }
+            DatabaseRouter.Selection selection = "least-loaded".equalsIgnoreCase(AppConfig.getString("expense.db.replicaSelection", "round-robin"))
+                ? DatabaseRouter.Selection.LEAST_LOADED : DatabaseRouter.Selection.ROUND_ROBIN;
+            // The lag limit stays under the 5 s overlap of the DAO's change queries, so delta refreshes never skip a row.
+            // Replicas without a lag report are only checked for liveness.
+            DatabaseRouter router = new DatabaseRouter(primary, replicas, selection,
+                AppConfig.getLong("expense.db.readYourWritesMillis", 2_000),
+                DIALECT.supportsReplicationLag() ? REPLICA_MAX_LAG_SECONDS : 0,
+                AppConfig.getLong("expense.db.replicaHealthCheckMillis", 5_000));
+            Runtime.getRuntime().addShutdownHook(new Thread(router::close, "pool-shutdown"));
+            return router;
+        }
+    }
+
+    // Primary connection; use getWriteConnection for writes that should start a read-your-writes window
     public static Connection getDBConnection() throws SQLException {
-        return DriverManager.getConnection(URL, USERNAME, PASSWORD);
+        return RouterHolder.ROUTER.getPrimaryConnection();
+    }
+
+    public static Connection getWriteConnection() throws SQLException {
+        return RouterHolder.ROUTER.getWriteConnection();
+    }
+
+    // A replica when one is configured and healthy and the current session has not written recently
+    public static Connection getReadConnection() throws SQLException {
+        return RouterHolder.ROUTER.getReadConnection();
+    }
+
+    // Loads the driver and opens the pools' minimum connections in parallel, so the first queries find them ready
+    public static int warmUp() throws SQLException {
+        return RouterHolder.ROUTER.warmUp();
+    }
+
+    // How far behind the primary a read may be: the replica lag limit when replicas are configured, otherwise 0
+    public static long getMaxReadLagMillis() {
+        return !REPLICA_URLS.isBlank() ? REPLICA_MAX_LAG_SECONDS * 1000 : 0;
+    }
+
+    public static PoolStats getPoolStats() {
+        return RouterHolder.ROUTER.getPrimaryStats();
+    }
+
+    public static List<PoolStats> getReplicaPoolStats() {
+        return RouterHolder.ROUTER.getReplicaStats();
     }
-}
\ No newline at end of file
+}
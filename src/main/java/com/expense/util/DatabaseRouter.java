@@ -0,0 +1,272 @@
+package com.expense.util;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends writes to the primary pool and reads to a healthy read replica,
+ * falling back to the primary when there is none. After a write, the
+ * session that made it reads from the primary for the read-your-writes
+ * window. A background check takes replicas out of rotation while they
+ * fail validation or lag further behind than the configured limit, and
+ * puts them back once they recover.
+ */
+public class DatabaseRouter implements AutoCloseable {
+
+    public enum Selection {
+        ROUND_ROBIN,
+        LEAST_LOADED
+    }
+
+    // Reads and writes outside any bound session share this one, which suits the single-user GUI
+    public static final String DEFAULT_SESSION = "default";
+
+    private static final String REPLICA_STATUS = "SHOW REPLICA STATUS";
+
+    private static final ThreadLocal<String> SESSION = new ThreadLocal<>();
+
+    private final ConnectionPool primary;
+    private final List<Replica> replicas;
+    private final Selection selection;
+    private final long readYourWritesNanos;
+    private final long maxLagSeconds;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final Map<String, Long> pinnedUntil = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService healthChecker;
+
+    // A maxLagSeconds of 0 checks replicas for liveness only, for databases that cannot report their lag
+    public DatabaseRouter(ConnectionPool primary, List<ConnectionPool> replicaPools, Selection selection,
+                          long readYourWritesMillis, long maxLagSeconds, long healthCheckMillis) {
+        this.primary = primary;
+        this.selection = selection;
+        this.readYourWritesNanos = TimeUnit.MILLISECONDS.toNanos(readYourWritesMillis);
+        this.maxLagSeconds = maxLagSeconds;
+        List<Replica> list = new ArrayList<>(replicaPools.size());
+        for (ConnectionPool pool : replicaPools) {
+            list.add(new Replica(pool));
+        }
+        this.replicas = Collections.unmodifiableList(list);
+
+        if (replicas.isEmpty()) {
+            healthChecker = null;
+            return;
+        }
+        healthChecker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "replica-health-check");
+            t.setDaemon(true);
+            return t;
+        });
+        healthChecker.scheduleWithFixedDelay(this::checkHealth, healthCheckMillis, healthCheckMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Binds the calling thread to a read-your-writes session and returns the previous binding, for restoreSession
+    public static String bindSession(String session) {
+        String previous = SESSION.get();
+        SESSION.set(session);
+        return previous;
+    }
+
+    public static void restoreSession(String previous) {
+        if (previous == null) {
+            SESSION.remove();
+        } else {
+            SESSION.set(previous);
+        }
+    }
+
+    // Primary connection that does not start a read-your-writes window, e.g. for DDL or change feeds
+    public Connection getPrimaryConnection() throws SQLException {
+        return primary.getConnection();
+    }
+
+    public Connection getWriteConnection() throws SQLException {
+        if (!replicas.isEmpty() && readYourWritesNanos > 0) {
+            pinnedUntil.put(currentSession(), System.nanoTime() + readYourWritesNanos);
+        }
+        return primary.getConnection();
+    }
+
+    public Connection getReadConnection() throws SQLException {
+        if (replicas.isEmpty() || isPinned(currentSession())) {
+            return primary.getConnection();
+        }
+        Replica replica = choose();
+        if (replica == null) {
+            return primary.getConnection();
+        }
+        try {
+            return replica.pool.getConnection();
+        } catch (SQLTransientConnectionException e) {
+            // Busy, not broken: let the primary absorb the overflow
+            return primary.getConnection();
+        } catch (SQLException e) {
+            replica.markDown(e.getMessage());
+            return primary.getConnection();
+        }
+    }
+
+    // Fills the primary and replica pools to their minimum sizes; a replica that cannot connect is taken out of rotation
+    public int warmUp() throws SQLException {
+        int opened = primary.warmUp();
+        for (Replica replica : replicas) {
+            try {
+                opened += replica.pool.warmUp();
+            } catch (SQLException e) {
+                replica.markDown(e.getMessage());
+            }
+        }
+        return opened;
+    }
+
+    public PoolStats getPrimaryStats() {
+        return primary.getStats();
+    }
+
+    public List<PoolStats> getReplicaStats() {
+        List<PoolStats> stats = new ArrayList<>(replicas.size());
+        for (Replica replica : replicas) {
+            stats.add(replica.pool.getStats());
+        }
+        return stats;
+    }
+
+    public int getHealthyReplicaCount() {
+        int healthy = 0;
+        for (Replica replica : replicas) {
+            if (replica.healthy) {
+                healthy++;
+            }
+        }
+        return healthy;
+    }
+
+    @Override
+    public void close() {
+        if (healthChecker != null) {
+            healthChecker.shutdownNow();
+        }
+        for (Replica replica : replicas) {
+            replica.pool.close();
+        }
+        primary.close();
+    }
+
+    private static String currentSession() {
+        String session = SESSION.get();
+        return session != null ? session : DEFAULT_SESSION;
+    }
+
+    private boolean isPinned(String session) {
+        Long until = pinnedUntil.get(session);
+        if (until == null) {
+            return false;
+        }
+        if (System.nanoTime() - until < 0) {
+            return true;
+        }
+        pinnedUntil.remove(session, until);
+        return false;
+    }
+
+    private Replica choose() {
+        if (selection == Selection.LEAST_LOADED) {
+            Replica best = null;
+            int bestLoad = Integer.MAX_VALUE;
+            for (Replica replica : replicas) {
+                int load = replica.pool.getLoad();
+                if (replica.healthy && load < bestLoad) {
+                    best = replica;
+                    bestLoad = load;
+                }
+            }
+            return best;
+        }
+        int start = Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (replica.healthy) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    private void checkHealth() {
+        for (Replica replica : replicas) {
+            try (Connection conn = replica.pool.getConnection()) {
+                if (!conn.isValid(2)) {
+                    replica.markDown("connection failed validation");
+                    continue;
+                }
+                Long lag = maxLagSeconds > 0 ? replicationLag(conn, replica) : null;
+                if (lag != null && lag > maxLagSeconds) {
+                    replica.markDown("replication lag " + lag + " s exceeds " + maxLagSeconds + " s");
+                } else {
+                    replica.markUp();
+                }
+            } catch (SQLTransientConnectionException e) {
+                // Every connection is in use, which says nothing about the replica's health
+            } catch (SQLException | RuntimeException e) {
+                replica.markDown(e.getMessage());
+            }
+        }
+        long now = System.nanoTime();
+        pinnedUntil.values().removeIf(until -> now - until >= 0);
+    }
+
+    // Seconds_Behind_Source, Long.MAX_VALUE while replication is stopped, or null when it cannot be read
+    private Long replicationLag(Connection conn, Replica replica) {
+        try (
+            Statement stmt = conn.createStatement();
+            ResultSet res = stmt.executeQuery(REPLICA_STATUS)
+        ) {
+            if (!res.next()) {
+                return null;
+            }
+            long lag = res.getLong("Seconds_Behind_Source");
+            return res.wasNull() ? Long.MAX_VALUE : lag;
+        } catch (SQLException e) {
+            if (!replica.lagUnavailableReported) {
+                replica.lagUnavailableReported = true;
+                System.err.println("Cannot read replication lag from " + replica.pool.getName() + ", checking liveness only: " + e.getMessage());
+            }
+            return null;
+        }
+    }
+
+    private static final class Replica {
+        private final ConnectionPool pool;
+        private volatile boolean healthy = true;
+        private volatile boolean lagUnavailableReported;
+
+        private Replica(ConnectionPool pool) {
+            this.pool = pool;
+        }
+
+        private void markDown(String reason) {
+            if (healthy) {
+                healthy = false;
+                System.err.println("Read replica " + pool.getName() + " taken out of rotation: " + reason);
+            }
+        }
+
+        private void markUp() {
+            if (!healthy) {
+                healthy = true;
+                System.out.println("Read replica " + pool.getName() + " is back in rotation");
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.expense.util;
+
+public class PoolConfig {
+    private int minSize = 2;
+    private int maxSize = 10;
+    private long acquireTimeoutMillis = 5_000;
+    private long idleTimeoutMillis = 600_000;
+    private long validationIntervalMillis = 500;
+    private int validationTimeoutSeconds = 2;
+    // Off by default: when set, every borrow captures a stack trace to report where a leaked connection came from
+    private long leakDetectionThresholdMillis = 0;
+    private long housekeepingPeriodMillis = 30_000;
+
+    public PoolConfig() {
+    }
+
+    // Reads overrides such as expense.pool.maxSize from AppConfig
+    public static PoolConfig fromProperties(String prefix) {
+        PoolConfig config = new PoolConfig();
+        config.setMinSize(AppConfig.getInt(prefix + ".minSize", config.getMinSize()));
+        config.setMaxSize(AppConfig.getInt(prefix + ".maxSize", config.getMaxSize()));
+        config.setAcquireTimeoutMillis(AppConfig.getLong(prefix + ".acquireTimeoutMillis", config.getAcquireTimeoutMillis()));
+        config.setIdleTimeoutMillis(AppConfig.getLong(prefix + ".idleTimeoutMillis", config.getIdleTimeoutMillis()));
+        config.setValidationIntervalMillis(AppConfig.getLong(prefix + ".validationIntervalMillis", config.getValidationIntervalMillis()));
+        config.setValidationTimeoutSeconds(AppConfig.getInt(prefix + ".validationTimeoutSeconds", config.getValidationTimeoutSeconds()));
+        config.setLeakDetectionThresholdMillis(AppConfig.getLong(prefix + ".leakDetectionThresholdMillis", config.getLeakDetectionThresholdMillis()));
+        config.setHousekeepingPeriodMillis(AppConfig.getLong(prefix + ".housekeepingPeriodMillis", config.getHousekeepingPeriodMillis()));
+        return config;
+    }
+
+    public int getMinSize() {
+        return minSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getAcquireTimeoutMillis() {
+        return acquireTimeoutMillis;
+    }
+
+    public long getIdleTimeoutMillis() {
+        return idleTimeoutMillis;
+    }
+
+    public long getValidationIntervalMillis() {
+        return validationIntervalMillis;
+    }
+
+    public int getValidationTimeoutSeconds() {
+        return validationTimeoutSeconds;
+    }
+
+    public long getLeakDetectionThresholdMillis() {
+        return leakDetectionThresholdMillis;
+    }
+
+    public long getHousekeepingPeriodMillis() {
+        return housekeepingPeriodMillis;
+    }
+
+    public void setMinSize(int minSize) {
+        this.minSize = Math.max(0, minSize);
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = Math.max(1, maxSize);
+    }
+
+    public void setAcquireTimeoutMillis(long acquireTimeoutMillis) {
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+    }
+
+    public void setIdleTimeoutMillis(long idleTimeoutMillis) {
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    public void setValidationIntervalMillis(long validationIntervalMillis) {
+        this.validationIntervalMillis = validationIntervalMillis;
+    }
+
+    public void setValidationTimeoutSeconds(int validationTimeoutSeconds) {
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+    }
+
+    public void setLeakDetectionThresholdMillis(long leakDetectionThresholdMillis) {
+        this.leakDetectionThresholdMillis = leakDetectionThresholdMillis;
+    }
+
+    public void setHousekeepingPeriodMillis(long housekeepingPeriodMillis) {
+        this.housekeepingPeriodMillis = housekeepingPeriodMillis;
+    }
+}
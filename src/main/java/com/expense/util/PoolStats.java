@@ -0,0 +1,88 @@
+package com.expense.util;
+
+public class PoolStats {
+    private final String poolName;
+    private final int active;
+    private final int idle;
+    private final int total;
+    private final int waiting;
+    private final long borrowCount;
+    private final double averageWaitMillis;
+    private final double maxWaitMillis;
+    private final long timeoutCount;
+    private final long createdCount;
+    private final long destroyedCount;
+    private final long leakCount;
+
+    public PoolStats(String poolName, int active, int idle, int total, int waiting, long borrowCount,
+                     double averageWaitMillis, double maxWaitMillis, long timeoutCount,
+                     long createdCount, long destroyedCount, long leakCount) {
+        this.poolName = poolName;
+        this.active = active;
+        this.idle = idle;
+        this.total = total;
+        this.waiting = waiting;
+        this.borrowCount = borrowCount;
+        this.averageWaitMillis = averageWaitMillis;
+        this.maxWaitMillis = maxWaitMillis;
+        this.timeoutCount = timeoutCount;
+        this.createdCount = createdCount;
+        this.destroyedCount = destroyedCount;
+        this.leakCount = leakCount;
+    }
+
+    public String getPoolName() {
+        return poolName;
+    }
+
+    public int getActive() {
+        return active;
+    }
+
+    public int getIdle() {
+        return idle;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public int getWaiting() {
+        return waiting;
+    }
+
+    public long getBorrowCount() {
+        return borrowCount;
+    }
+
+    public double getAverageWaitMillis() {
+        return averageWaitMillis;
+    }
+
+    public double getMaxWaitMillis() {
+        return maxWaitMillis;
+    }
+
+    public long getTimeoutCount() {
+        return timeoutCount;
+    }
+
+    public long getCreatedCount() {
+        return createdCount;
+    }
+
+    public long getDestroyedCount() {
+        return destroyedCount;
+    }
+
+    public long getLeakCount() {
+        return leakCount;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("pool=%s active=%d idle=%d total=%d waiting=%d borrows=%d avgWait=%.3fms maxWait=%.3fms timeouts=%d created=%d destroyed=%d leaks=%d",
+            poolName, active, idle, total, waiting, borrowCount, averageWaitMillis, maxWaitMillis,
+            timeoutCount, createdCount, destroyedCount, leakCount);
+    }
+}
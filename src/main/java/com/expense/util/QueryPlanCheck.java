@@ -0,0 +1,40 @@
+package com.expense.util;
+
+// One statement for SchemaManager.checkQueryPlans, with sample parameters to EXPLAIN it with
+public class QueryPlanCheck {
+    private final String name;
+    private final String sql;
+    private final boolean fullScanAllowed;
+    private final boolean filesortAllowed;
+    private final Object[] params;
+
+    public QueryPlanCheck(String name, String sql, boolean fullScanAllowed, boolean filesortAllowed, Object... params) {
+        this.name = name;
+        this.sql = sql;
+        this.fullScanAllowed = fullScanAllowed;
+        this.filesortAllowed = filesortAllowed;
+        this.params = params;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    // True for statements that read a whole table by design, such as exports
+    public boolean isFullScanAllowed() {
+        return fullScanAllowed;
+    }
+
+    // True for statements whose ORDER BY or GROUP BY cannot come from an index, such as grouped reports
+    public boolean isFilesortAllowed() {
+        return filesortAllowed;
+    }
+
+    public Object[] getParams() {
+        return params;
+    }
+}
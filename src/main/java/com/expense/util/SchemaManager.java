@@ -0,0 +1,259 @@
+package com.expense.util;
+
+import com.expense.model.Money;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Creates and migrates the schema on the primary. Applied migrations are
+ * recorded in {@code schema_version}; every step is also safe to repeat, so
+ * installs created before this class existed are brought up to date without
+ * touching their data. A named MySQL lock keeps two instances starting at
+ * the same time from migrating concurrently; the embedded database is
+ * opened by one process only and needs none.
+ */
+public final class SchemaManager {
+
+    private static final String LOCK_NAME = "expense_tracker_schema";
+    private static final int LOCK_TIMEOUT_SECONDS = 30;
+
+    private static final String CREATE_SCHEMA_VERSION = "CREATE TABLE IF NOT EXISTS schema_version (version INT NOT NULL PRIMARY KEY, description VARCHAR(255) NOT NULL, applied_at DATETIME(6) NOT NULL)";
+    private static final String SELECT_SCHEMA_VERSION = "SELECT COALESCE(MAX(version), 0) FROM schema_version";
+    private static final String INSERT_SCHEMA_VERSION = "INSERT INTO schema_version(version, description, applied_at) VALUES(?, ?, ?)";
+    private static final String SELECT_INDEX_COLUMNS = DatabaseConnection.DIALECT.indexColumnsSql();
+
+    private static final String CREATE_CATEGORIES = "CREATE TABLE IF NOT EXISTS categories (id INT NOT NULL AUTO_INCREMENT PRIMARY KEY, name VARCHAR(100) NOT NULL, description TEXT, created_at DATETIME(6) NOT NULL, updated_at DATETIME(6) NOT NULL, UNIQUE KEY uk_categories_name (name))";
+    private static final String CREATE_EXPENSES = "CREATE TABLE IF NOT EXISTS expenses (id INT NOT NULL AUTO_INCREMENT PRIMARY KEY, title VARCHAR(255) NOT NULL, description TEXT, amount DECIMAL(10, 2) NOT NULL, category_id INT, created_at DATETIME(6) NOT NULL, updated_at DATETIME(6) NOT NULL, CONSTRAINT fk_expenses_category FOREIGN KEY (category_id) REFERENCES categories(id))";
+    private static final String CREATE_EXPENSE_TOMBSTONES = "CREATE TABLE IF NOT EXISTS expense_tombstones (id INT NOT NULL PRIMARY KEY, created_at DATETIME(6) NOT NULL, deleted_at DATETIME(6) NOT NULL, INDEX idx_expense_tombstones_deleted_at (deleted_at))";
+    private static final String CREATE_CATEGORY_TOMBSTONES = "CREATE TABLE IF NOT EXISTS category_tombstones (id INT NOT NULL PRIMARY KEY, deleted_at DATETIME(6) NOT NULL, INDEX idx_category_tombstones_deleted_at (deleted_at))";
+
+    private static final String CREATE_EXPENSES_ARCHIVE = "CREATE TABLE IF NOT EXISTS expenses_archive (id INT NOT NULL PRIMARY KEY, title VARCHAR(255) NOT NULL, description TEXT, amount DECIMAL(10, 2) NOT NULL, category_id INT, created_at DATETIME(6) NOT NULL, updated_at DATETIME(6) NOT NULL, INDEX idx_expenses_archive_created_id (created_at, id), INDEX idx_expenses_archive_category_created (category_id, created_at))";
+    private static final String CREATE_MONTHLY_ROLLUPS = "CREATE TABLE IF NOT EXISTS expense_monthly_rollups (month DATE NOT NULL, category_id INT NOT NULL, expense_count BIGINT NOT NULL, total DECIMAL(16, 2) NOT NULL, min_amount DECIMAL(10, 2) NOT NULL, max_amount DECIMAL(10, 2) NOT NULL, PRIMARY KEY (month, category_id))";
+    private static final String CREATE_ARCHIVE_STATE = "CREATE TABLE IF NOT EXISTS expense_archive_state (id INT NOT NULL PRIMARY KEY, archived_before DATETIME(6))";
+    private static final String INSERT_ARCHIVE_STATE = "INSERT IGNORE INTO expense_archive_state(id, archived_before) VALUES(1, NULL)";
+
+    private interface Step {
+        void apply(Connection conn) throws SQLException;
+    }
+
+    private static final class Migration {
+        private final int version;
+        private final String description;
+        private final Step step;
+
+        private Migration(int version, String description, Step step) {
+            this.version = version;
+            this.description = description;
+            this.step = step;
+        }
+    }
+
+    private static final List<Migration> MIGRATIONS = List.of(
+        new Migration(1, "Create categories and expenses", conn -> execute(conn, CREATE_CATEGORIES, CREATE_EXPENSES)),
+        // Keyset paging and ORDER BY created_at, the delta-sync change queries, and category filters and joins
+        new Migration(2, "Index expenses and categories for the DAO's query shapes", conn -> {
+            ensureIndex(conn, "expenses", "idx_expenses_created_id", "created_at", "id");
+            ensureIndex(conn, "expenses", "idx_expenses_updated_at", "updated_at");
+            ensureIndex(conn, "expenses", "idx_expenses_category_created", "category_id", "created_at");
+            ensureIndex(conn, "categories", "idx_categories_updated_at", "updated_at");
+        }),
+        new Migration(3, "Create tombstone tables for delta sync", conn -> execute(conn, CREATE_EXPENSE_TOMBSTONES, CREATE_CATEGORY_TOMBSTONES)),
+        // Expenses past the archive horizon, their monthly per-category totals, and how far archiving has got
+        new Migration(4, "Create the expense archive and monthly rollups", conn -> execute(conn, CREATE_EXPENSES_ARCHIVE, CREATE_MONTHLY_ROLLUPS, CREATE_ARCHIVE_STATE, INSERT_ARCHIVE_STATE)),
+        // Sorting and filtering by amount and title; InnoDB appends the primary key, which serves as the keyset tie-breaker
+        new Migration(5, "Index expenses for ExpenseQuery sorts and filters", conn -> {
+            for (String table : new String[] {"expenses", "expenses_archive"}) {
+                ensureIndex(conn, table, "idx_" + table + "_amount", "amount");
+                ensureIndex(conn, table, "idx_" + table + "_title", "title");
+            }
+            ensureIndex(conn, "expenses_archive", "idx_expenses_archive_updated_at", "updated_at");
+        })
+    );
+
+    private static final AtomicBoolean READY = new AtomicBoolean();
+    private static final boolean MANAGED = AppConfig.getBoolean("expense.schema.manage", true);
+
+    private SchemaManager() {
+    }
+
+    // Migrates once per process; later calls return immediately. expense.schema.manage=false leaves the schema to
+    // whoever set up the database, as the benchmark stand-in does.
+    public static void ensureSchema() throws SQLException {
+        if (READY.get() || !MANAGED) {
+            return;
+        }
+        synchronized (SchemaManager.class) {
+            if (!READY.get()) {
+                migrate();
+                READY.set(true);
+            }
+        }
+    }
+
+    // Applies every migration newer than the recorded version and returns how many ran.
+    // DDL commits implicitly in MySQL, so each migration is recorded right after it completes.
+    public static int migrate() throws SQLException {
+        try (Connection conn = DatabaseConnection.getDBConnection()) {
+            lock(conn);
+            try {
+                execute(conn, CREATE_SCHEMA_VERSION);
+                int current;
+                try (
+                    Statement stmt = conn.createStatement();
+                    ResultSet res = stmt.executeQuery(SELECT_SCHEMA_VERSION)
+                ) {
+                    current = res.next() ? res.getInt(1) : 0;
+                }
+                int applied = 0;
+                for (Migration migration : MIGRATIONS) {
+                    if (migration.version <= current) {
+                        continue;
+                    }
+                    migration.step.apply(conn);
+                    try (PreparedStatement stmt = conn.prepareStatement(INSERT_SCHEMA_VERSION)) {
+                        stmt.setInt(1, migration.version);
+                        stmt.setString(2, migration.description);
+                        stmt.setTimestamp(3, Timestamp.valueOf(LocalDateTime.now()));
+                        stmt.executeUpdate();
+                    }
+                    System.out.println("Applied schema migration " + migration.version + ": " + migration.description);
+                    applied++;
+                }
+                return applied;
+            } finally {
+                unlock(conn);
+            }
+        }
+    }
+
+    public static int getLatestVersion() {
+        return MIGRATIONS.get(MIGRATIONS.size() - 1).version;
+    }
+
+    /**
+     * EXPLAINs each statement and returns a warning, also printed to stderr,
+     * for every table it reads with a full scan of at least
+     * {@code expense.schema.planWarnRows} estimated rows (default 10000) or
+     * sorts with a filesort, unless the check allows it.
+     */
+    public static List<String> checkQueryPlans(List<QueryPlanCheck> checks) throws SQLException {
+        long warnRows = AppConfig.getLong("expense.schema.planWarnRows", 10_000);
+        List<String> warnings = new ArrayList<>();
+        if (!DatabaseConnection.DIALECT.supportsPlanChecks()) {
+            System.out.println("Query plan checks need MySQL's EXPLAIN and are skipped on " + DatabaseConnection.DIALECT);
+            return warnings;
+        }
+        try (Connection conn = DatabaseConnection.getDBConnection()) {
+            for (QueryPlanCheck check : checks) {
+                try (PreparedStatement stmt = conn.prepareStatement("EXPLAIN " + check.getSql())) {
+                    bind(stmt, check.getParams());
+                    try (ResultSet res = stmt.executeQuery()) {
+                        while (res.next()) {
+                            String table = res.getString("table");
+                            String type = res.getString("type");
+                            long rows = res.getLong("rows");
+                            String extra = res.getString("Extra");
+                            if (!check.isFullScanAllowed() && "ALL".equals(type) && rows >= warnRows) {
+                                warnings.add(check.getName() + " reads table " + table + " with a full scan (~" + rows + " rows)");
+                            }
+                            if (!check.isFilesortAllowed() && extra != null && extra.contains("Using filesort")) {
+                                warnings.add(check.getName() + " sorts table " + table + " with a filesort (" + extra + ")");
+                            }
+                        }
+                    }
+                } catch (SQLException e) {
+                    warnings.add(check.getName() + " could not be explained: " + e.getMessage());
+                }
+            }
+        }
+        for (String warning : warnings) {
+            System.err.println("Query plan check: " + warning);
+        }
+        return warnings;
+    }
+
+    // Creates the index unless one already starts with the same columns, whatever its name
+    private static void ensureIndex(Connection conn, String table, String name, String... columns) throws SQLException {
+        List<String> wanted = Arrays.asList(columns);
+        List<List<String>> existing = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(SELECT_INDEX_COLUMNS)) {
+            stmt.setString(1, table);
+            try (ResultSet res = stmt.executeQuery()) {
+                String currentIndex = null;
+                List<String> currentColumns = null;
+                while (res.next()) {
+                    String index = res.getString(1);
+                    if (!index.equals(currentIndex)) {
+                        currentIndex = index;
+                        currentColumns = new ArrayList<>();
+                        existing.add(currentColumns);
+                    }
+                    currentColumns.add(res.getString(2).toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        for (List<String> indexColumns : existing) {
+            if (indexColumns.size() >= wanted.size() && indexColumns.subList(0, wanted.size()).equals(wanted)) {
+                return;
+            }
+        }
+        execute(conn, "CREATE INDEX " + name + " ON " + table + " (" + String.join(", ", columns) + ")");
+    }
+
+    private static void execute(Connection conn, String... statements) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : statements) {
+                stmt.execute(sql);
+            }
+        }
+    }
+
+    private static void lock(Connection conn) throws SQLException {
+        if (!DatabaseConnection.DIALECT.supportsNamedLocks()) {
+            return;
+        }
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            stmt.setString(1, LOCK_NAME);
+            stmt.setInt(2, LOCK_TIMEOUT_SECONDS);
+            try (ResultSet res = stmt.executeQuery()) {
+                if (!res.next() || res.getInt(1) != 1) {
+                    throw new SQLException("Timed out after " + LOCK_TIMEOUT_SECONDS + " s waiting for another instance to finish migrating the schema");
+                }
+            }
+        }
+    }
+
+    private static void unlock(Connection conn) throws SQLException {
+        if (!DatabaseConnection.DIALECT.supportsNamedLocks()) {
+            return;
+        }
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            stmt.setString(1, LOCK_NAME);
+            stmt.executeQuery().close();
+        }
+    }
+
+    private static void bind(PreparedStatement stmt, Object[] params) throws SQLException {
+        for (int i = 0; i < params.length; i++) {
+            Object param = params[i];
+            if (param instanceof LocalDateTime) {
+                stmt.setTimestamp(i + 1, Timestamp.valueOf((LocalDateTime) param));
+            } else if (param instanceof Money) {
+                ((Money) param).bind(stmt, i + 1);
+            } else {
+                stmt.setObject(i + 1, param);
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.expense.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The SQL that differs between the MySQL server and the embedded H2 database.
+ * H2 runs in MySQL mode, so plain queries, DDL and {@code INSERT IGNORE} are
+ * shared; this covers date formatting, upserts, the index catalog, result
+ * streaming, named locks and EXPLAIN.
+ */
+public enum SqlDialect {
+    MYSQL("com.mysql.cj.jdbc.Driver"),
+    H2("org.h2.Driver");
+
+    private final String driverClassName;
+
+    SqlDialect(String driverClassName) {
+        this.driverClassName = driverClassName;
+    }
+
+    public static SqlDialect forUrl(String url) {
+        return url.startsWith("jdbc:h2:") ? H2 : MYSQL;
+    }
+
+    public String getDriverClassName() {
+        return driverClassName;
+    }
+
+    // An embedded database belongs to one process, so cross-instance locks have nothing to guard
+    public boolean supportsNamedLocks() {
+        return this == MYSQL;
+    }
+
+    // Whether EXPLAIN reports MySQL's access type, row estimate and Extra columns
+    public boolean supportsPlanChecks() {
+        return this == MYSQL;
+    }
+
+    // Whether a replica reports how far behind it is through SHOW REPLICA STATUS. Any database can stand in as a
+    // replica, e.g. a second H2 database in tests, but only MySQL's lag can be checked.
+    public boolean supportsReplicationLag() {
+        return this == MYSQL;
+    }
+
+    // Fetch size for reading a large result row by row: MySQL streams only with Integer.MIN_VALUE, which H2 rejects.
+    // H2 keeps the driver default and buffers results past MAX_MEMORY_ROWS on disk.
+    public int streamingFetchSize() {
+        return this == MYSQL ? Integer.MIN_VALUE : 0;
+    }
+
+    // Index name and column per row, ordered by index and position, for the table bound to the one parameter
+    public String indexColumnsSql() {
+        return this == MYSQL
+            ? "SELECT index_name, column_name FROM information_schema.statistics WHERE table_schema = DATABASE() AND table_name = ? ORDER BY index_name, seq_in_index"
+            : "SELECT index_name, column_name FROM information_schema.index_columns WHERE table_schema = SCHEMA() AND table_name = ? ORDER BY index_name, ordinal_position";
+    }
+
+    // First day of the month of a DATETIME column, as a DATE
+    public String monthStart(String column) {
+        return this == MYSQL ? "DATE_FORMAT(" + column + ", '%Y-%m-01')" : "CAST(DATE_TRUNC('MONTH', " + column + ") AS DATE)";
+    }
+
+    // yyyy-MM-dd
+    public String dayText(String column) {
+        return this == MYSQL ? "DATE_FORMAT(" + column + ", '%Y-%m-%d')" : "FORMATDATETIME(" + column + ", 'yyyy-MM-dd')";
+    }
+
+    // ISO week-based year and week, e.g. 2024-W05
+    public String weekText(String column) {
+        return this == MYSQL ? "DATE_FORMAT(" + column + ", '%x-W%v')"
+            : "CONCAT(CAST(EXTRACT(ISO_WEEK_YEAR FROM " + column + ") AS VARCHAR), '-W', LPAD(CAST(EXTRACT(ISO_WEEK FROM " + column + ") AS VARCHAR), 2, '0'))";
+    }
+
+    // yyyy-MM
+    public String monthText(String column) {
+        return this == MYSQL ? "DATE_FORMAT(" + column + ", '%Y-%m')" : "FORMATDATETIME(" + column + ", 'yyyy-MM')";
+    }
+
+    /**
+     * Inserts {@code rows}, a VALUES list or a query producing the given
+     * columns, and overwrites the other columns of any row whose key already
+     * exists.
+     */
+    public String upsert(String table, String columns, String key, String rows) {
+        if (this == H2) {
+            return "MERGE INTO " + table + "(" + columns + ") KEY(" + key + ") " + rows;
+        }
+        List<String> updates = new ArrayList<>();
+        for (String column : columns.split(",")) {
+            column = column.trim();
+            if (!column.equals(key)) {
+                updates.add(column + " = VALUES(" + column + ")");
+            }
+        }
+        return "INSERT INTO " + table + "(" + columns + ") " + rows + " ON DUPLICATE KEY UPDATE " + String.join(", ", updates);
+    }
+}
@@ -0,0 +1,55 @@
+package com.expense.dao;
+
+import com.expense.model.Category;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CategoryCacheTest {
+
+    @Test
+    void discardsALoadReadBeforeAWrite() {
+        CategoryCache cache = new CategoryCache();
+        long readStarted = cache.readStarted();
+        cache.put(category(2, "Rent"));
+
+        assertFalse(cache.load(List.of(category(1, "Food")), readStarted));
+        assertFalse(cache.isLoaded());
+
+        assertTrue(cache.load(List.of(category(1, "Food"), category(2, "Rent")), cache.readStarted()));
+        assertNotNull(cache.getByName("Rent"));
+    }
+
+    @Test
+    void skipsARowReadBeforeARemove() {
+        CategoryCache cache = new CategoryCache();
+        cache.load(List.of(category(1, "Food")), cache.readStarted());
+        long readStarted = cache.readStarted();
+        cache.remove(1);
+
+        cache.putIfUnchanged(category(1, "Food"), readStarted);
+        assertNull(cache.getById(1));
+    }
+
+    @Test
+    void putsManyAtOnce() {
+        CategoryCache cache = new CategoryCache();
+        cache.load(List.of(), cache.readStarted());
+        cache.putAll(List.of(category(1, "Food"), category(2, "Rent")));
+
+        assertEquals(2, cache.getAll().size());
+    }
+
+    private static Category category(int id, String name) {
+        Category category = new Category(name, null);
+        category.setId(id);
+        return category;
+    }
+}
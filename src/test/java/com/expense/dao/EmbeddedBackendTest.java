@@ -0,0 +1,194 @@
+package com.expense.dao;
+
+import com.expense.model.Category;
+import com.expense.model.ChangeSet;
+import com.expense.model.Expense;
+import com.expense.model.ExpenseKey;
+import com.expense.model.ExpenseSummary;
+import com.expense.model.Money;
+import com.expense.util.DatabaseConnection;
+import com.expense.util.SchemaManager;
+import com.expense.util.SqlDialect;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Runs the DAOs against the embedded H2 backend that the surefire configuration selects
+class EmbeddedBackendTest {
+
+    private final ExpenseTrackerDAO dao = new ExpenseTrackerDAO();
+
+    @BeforeEach
+    void resetDatabase() throws SQLException {
+        assertEquals(SqlDialect.H2, DatabaseConnection.DIALECT);
+        try (
+            Connection conn = DatabaseConnection.getDBConnection();
+            Statement stmt = conn.createStatement()
+        ) {
+            stmt.execute("DROP ALL OBJECTS");
+        }
+        SchemaManager.migrate();
+        dao.invalidateCategoryCache();
+        dao.invalidateExpenseCache();
+    }
+
+    @Test
+    void createsReadsUpdatesAndDeletesAnExpense() throws SQLException {
+        int categoryId = dao.createCategory(new Category("Food", "Groceries and meals"));
+        int id = dao.createExpense(new Expense("Lunch", "Sandwich", Money.parse("12.50"), categoryId));
+
+        Expense read = dao.getExpenseById(id);
+        assertNotNull(read);
+        assertEquals(Money.parse("12.50"), read.getAmount());
+        assertEquals("Food", read.getCategoryName());
+
+        read.setAmount(Money.parse("13.75"));
+        assertEquals(UpdateResult.UPDATED, dao.updateExpenseIfCurrent(read));
+        assertEquals(Money.parse("13.75"), dao.getExpenseById(id).getAmount());
+
+        assertTrue(dao.deleteExpense(id));
+        assertNull(dao.getExpenseById(id));
+    }
+
+    @Test
+    void reportsAStaleBatchedEditAsAConflict() throws SQLException {
+        int categoryId = dao.createCategory(new Category("Food", null));
+        int id = dao.createExpense(new Expense("Lunch", null, Money.parse("10.00"), categoryId));
+        Expense a = dao.getExpenseById(id);
+        Expense b = dao.getExpenseById(id);
+
+        b.setAmount(Money.parse("20.00"));
+        assertEquals(UpdateResult.UPDATED, dao.updateExpenseIfCurrent(b));
+        a.setAmount(Money.parse("30.00"));
+        assertArrayEquals(new UpdateResult[] {UpdateResult.CONFLICT}, dao.updateExpensesIfCurrent(List.of(a)));
+        assertEquals(Money.parse("20.00"), dao.getExpenseById(id).getAmount());
+    }
+
+    @Test
+    void streamsEveryExpense() throws Exception {
+        int categoryId = dao.createCategory(new Category("Travel", null));
+        List<Expense> expenses = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            expenses.add(new Expense("Ticket " + i, null, Money.ofMinor(100 + i), categoryId));
+        }
+        dao.createExpenses(expenses);
+
+        List<Expense> streamed = new ArrayList<>();
+        assertEquals(25, dao.streamExpenses(new ExpenseFilter(), streamed::add));
+        assertEquals(25, streamed.size());
+    }
+
+    @Test
+    void findsExpenseIdsInPageOrder() throws SQLException {
+        int categoryId = dao.createCategory(new Category("Books", null));
+        List<Expense> expenses = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            expenses.add(new Expense("Book " + i, null, Money.ofMinor(500 + i), categoryId));
+        }
+        dao.createExpenses(expenses);
+
+        ExpenseQuery query = ExpenseQuery.builder().limit(10).build();
+        List<Expense> page = dao.findExpenses(query, null);
+        ExpenseCursor afterThird = dao.getExpenseCursorAfter(query, null, 2);
+        int[] ids = dao.findExpenseIds(query.toBuilder().limit(4).build(), afterThird);
+        assertEquals(4, ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            assertEquals(page.get(i + 3).getId(), ids[i]);
+        }
+    }
+
+    @Test
+    void reportsDeletesThroughTombstones() throws SQLException {
+        int categoryId = dao.createCategory(new Category("Fuel", null));
+        int kept = dao.createExpense(new Expense("Diesel", null, Money.parse("60"), categoryId));
+        int first = dao.createExpense(new Expense("Petrol", null, Money.parse("40"), categoryId));
+        int second = dao.createExpense(new Expense("Petrol", null, Money.parse("45"), categoryId));
+        LocalDateTime since = LocalDateTime.now();
+
+        assertEquals(2, dao.deleteExpenses(new int[] {first, second}));
+        assertEquals(0, dao.deleteExpenses(new int[] {first}));
+
+        ChangeSet<Expense, ExpenseKey> changes = dao.getExpenseChanges(since);
+        List<Integer> deleted = new ArrayList<>();
+        for (ExpenseKey key : changes.getDeleted()) {
+            deleted.add(key.getId());
+        }
+        assertTrue(deleted.contains(first));
+        assertTrue(deleted.contains(second));
+        assertNotNull(dao.getExpenseById(kept));
+    }
+
+    @Test
+    void summarizesByMonthAndCategory() throws SQLException {
+        int food = dao.createCategory(new Category("Food", null));
+        int rent = dao.createCategory(new Category("Rent", null));
+        dao.createExpense(new Expense("Lunch", null, Money.parse("10.00"), food));
+        dao.createExpense(new Expense("Dinner", null, Money.parse("20.00"), food));
+        dao.createExpense(new Expense("Flat", null, Money.parse("700.00"), rent));
+
+        LocalDateTime now = LocalDateTime.now();
+        ExpenseReportDAO reports = new ExpenseReportDAO();
+        List<ExpenseSummary> months = reports.summarize(ReportGrouping.MONTH, now.minusDays(40), now.plusDays(1));
+        assertEquals(1, months.size());
+        assertEquals(String.format("%d-%02d", now.getYear(), now.getMonthValue()), months.get(0).getGroup());
+        assertEquals(Money.parse("730.00"), months.get(0).getTotal());
+
+        List<ExpenseSummary> categories = reports.summarize(ReportGrouping.CATEGORY, null, null);
+        assertEquals(2, categories.size());
+        assertEquals("Rent", categories.get(0).getGroup());
+        assertEquals(Money.parse("15.00"), categories.get(1).getAverage());
+    }
+
+    @Test
+    void keepsARealUncategorizedCategoryApartAcrossTheArchive() throws SQLException {
+        int uncategorized = dao.createCategory(new Category("Uncategorized", null));
+        try (
+            Connection conn = DatabaseConnection.getDBConnection();
+            Statement stmt = conn.createStatement()
+        ) {
+            stmt.executeUpdate("INSERT INTO expenses(title, amount, category_id, created_at, updated_at) VALUES"
+                + " ('Old, no category', 10.00, NULL, '2020-01-15 12:00:00', '2020-01-15 12:00:00'),"
+                + " ('Old, categorized', 20.00, " + uncategorized + ", '2020-01-15 12:00:00', '2020-01-15 12:00:00')");
+        }
+        new ExpenseArchiver().archive(LocalDate.now().withDayOfMonth(1).atStartOfDay());
+        dao.createExpense(new Expense("New", null, Money.parse("5.00"), uncategorized));
+
+        List<ExpenseSummary> categories = new ExpenseReportDAO().summarize(ReportGrouping.CATEGORY, null, null);
+        assertEquals(2, categories.size());
+        assertEquals(Money.parse("25.00"), categories.get(0).getTotal());
+        assertEquals(Money.parse("10.00"), categories.get(1).getTotal());
+    }
+
+    @Test
+    void findsRowsArchivedAfterTheHorizonWasCached() throws SQLException {
+        int categoryId = dao.createCategory(new Category("Food", null));
+        try (
+            Connection conn = DatabaseConnection.getDBConnection();
+            Statement stmt = conn.createStatement()
+        ) {
+            stmt.executeUpdate("INSERT INTO expenses(title, amount, category_id, created_at, updated_at) VALUES"
+                + " ('Old', 10.00, " + categoryId + ", '2020-01-15 12:00:00', '2020-01-15 12:00:00')");
+        }
+        ExpenseQuery query = ExpenseQuery.builder().limit(10).build();
+        assertEquals(1, dao.findExpenses(query, null).size());
+
+        new ExpenseArchiver().archive(LocalDate.now().withDayOfMonth(1).atStartOfDay());
+        List<Expense> found = dao.findExpenses(query, null);
+        assertEquals(1, found.size());
+        assertEquals("Old", found.get(0).getTitle());
+    }
+}
@@ -0,0 +1,80 @@
+package com.expense.search;
+
+import com.expense.model.Expense;
+import com.expense.model.Money;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExpenseSearchIndexTest {
+
+    private static final String[] WORDS = {"store", "stores", "station", "coffee", "lunch", "rent", "fuel", "taxi"};
+
+    @Test
+    void aSmallLimitReturnsTheHeadOfALargeOne() {
+        ExpenseSearchIndex index = randomIndex(20_000);
+        for (String query : new String[] {"store", "st", "coffee lunch", "st taxi"}) {
+            List<SearchHit> all = index.search(query, 20_000);
+            List<SearchHit> top = index.search(query, 50);
+            assertEquals(50, top.size(), query);
+            for (int i = 0; i < top.size(); i++) {
+                assertEquals(all.get(i).getExpenseId(), top.get(i).getExpenseId(), query);
+            }
+        }
+    }
+
+    @Test
+    void everyTokenMustMatch() {
+        ExpenseSearchIndex index = new ExpenseSearchIndex();
+        index.put(expense(1, "Coffee at the station", null));
+        index.put(expense(2, "Coffee", "lunch"));
+        index.put(expense(3, "Lunch", null));
+
+        List<SearchHit> hits = index.search("coff lunch", 10);
+        assertEquals(1, hits.size());
+        assertEquals(2, hits.get(0).getExpenseId());
+    }
+
+    @Test
+    void removedAndChangedExpensesLeaveTheirTerms() {
+        ExpenseSearchIndex index = randomIndex(5_000);
+        int removed = index.search("coffee", 1).get(0).getExpenseId();
+        index.remove(removed);
+        for (SearchHit hit : index.search("coffee", 5_000)) {
+            assertNotEquals(removed, hit.getExpenseId());
+        }
+
+        index.put(expense(3_000, "Rent", null));
+        for (SearchHit hit : index.search("coffee", 5_000)) {
+            assertNotEquals(3_000, hit.getExpenseId());
+        }
+        assertTrue(index.search("rent", 5_000).stream().anyMatch(hit -> hit.getExpenseId() == 3_000));
+    }
+
+    private static ExpenseSearchIndex randomIndex(int expenses) {
+        Random random = new Random(42);
+        ExpenseSearchIndex index = new ExpenseSearchIndex();
+        for (int id = 1; id <= expenses; id++) {
+            index.put(expense(id, words(random, 1 + random.nextInt(3)), random.nextBoolean() ? words(random, 3) : null));
+        }
+        return index;
+    }
+
+    private static String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            text.append(i == 0 ? "" : " ").append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+
+    private static Expense expense(int id, String title, String description) {
+        return new Expense(id, title, description, Money.parse("1.00"), 1, "Test", null, null);
+    }
+}
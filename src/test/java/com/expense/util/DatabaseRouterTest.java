@@ -0,0 +1,147 @@
+package com.expense.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Routes between two in-memory H2 databases that each know their own name, standing in for a primary and a replica
+class DatabaseRouterTest {
+
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+
+    // Keep the in-memory databases alive until the test ends; the pools connect with IFEXISTS so they never recreate one
+    private final List<Connection> holders = new ArrayList<>();
+    private DatabaseRouter router;
+
+    @AfterEach
+    void close() throws SQLException {
+        if (router != null) {
+            router.close();
+        }
+        for (Connection holder : holders) {
+            holder.close();
+        }
+    }
+
+    @Test
+    void readsGoToTheReplicaAndWritesToThePrimary() throws SQLException {
+        router = router(60_000, 60_000);
+
+        assertEquals("replica", read());
+        assertEquals("primary", write());
+        String previous = DatabaseRouter.bindSession("other");
+        try {
+            assertEquals("replica", read());
+        } finally {
+            DatabaseRouter.restoreSession(previous);
+        }
+    }
+
+    @Test
+    void aSessionReadsItsOwnWritesFromThePrimary() throws SQLException {
+        router = router(60_000, 60_000);
+
+        String previous = DatabaseRouter.bindSession("writer");
+        try {
+            assertEquals("primary", write());
+            assertEquals("primary", read());
+            DatabaseRouter.bindSession("reader");
+            assertEquals("replica", read());
+        } finally {
+            DatabaseRouter.restoreSession(previous);
+        }
+    }
+
+    @Test
+    void readsReturnToTheReplicaWhenTheWindowEnds() throws Exception {
+        router = router(50, 60_000);
+
+        assertEquals("primary", write());
+        assertEquals("primary", read());
+        Thread.sleep(100);
+        assertEquals("replica", read());
+    }
+
+    @Test
+    void aReplicaThatCannotConnectLeavesTheRotation() throws SQLException {
+        String missing = "jdbc:h2:mem:missing-" + DATABASES.incrementAndGet() + ";IFEXISTS=TRUE";
+        router = new DatabaseRouter(pool("primary", database("primary")), List.of(pool("replica", missing)),
+            DatabaseRouter.Selection.ROUND_ROBIN, 60_000, 0, 60_000);
+
+        assertEquals("primary", read());
+        assertEquals(0, router.getHealthyReplicaCount());
+        assertEquals("primary", read());
+    }
+
+    @Test
+    void theHealthCheckTakesADeadReplicaOutOfRotation() throws Exception {
+        router = router(60_000, 20);
+        assertEquals("replica", read());
+
+        try (Statement stmt = holders.get(1).createStatement()) {
+            stmt.execute("SHUTDOWN");
+        }
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (router.getHealthyReplicaCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, router.getHealthyReplicaCount());
+        assertEquals("primary", read());
+    }
+
+    // H2 cannot report replication lag, so the router checks liveness only, as DatabaseConnection sets it up for H2
+    private DatabaseRouter router(long readYourWritesMillis, long healthCheckMillis) throws SQLException {
+        return new DatabaseRouter(pool("primary", database("primary")), List.of(pool("replica", database("replica"))),
+            DatabaseRouter.Selection.ROUND_ROBIN, readYourWritesMillis, 0, healthCheckMillis);
+    }
+
+    private String database(String name) throws SQLException {
+        String url = "jdbc:h2:mem:" + name + "-" + DATABASES.incrementAndGet();
+        Connection holder = DriverManager.getConnection(url, "sa", "");
+        holders.add(holder);
+        try (Statement stmt = holder.createStatement()) {
+            stmt.execute("CREATE TABLE whoami (name VARCHAR(20))");
+            stmt.execute("INSERT INTO whoami VALUES ('" + name + "')");
+        }
+        return url + ";IFEXISTS=TRUE";
+    }
+
+    private static ConnectionPool pool(String name, String url) {
+        PoolConfig config = new PoolConfig();
+        config.setMinSize(1);
+        config.setMaxSize(2);
+        return new ConnectionPool(name, url, "sa", "", config);
+    }
+
+    private String read() throws SQLException {
+        try (Connection conn = router.getReadConnection()) {
+            return name(conn);
+        }
+    }
+
+    private String write() throws SQLException {
+        try (Connection conn = router.getWriteConnection()) {
+            return name(conn);
+        }
+    }
+
+    private static String name(Connection conn) throws SQLException {
+        try (
+            Statement stmt = conn.createStatement();
+            ResultSet res = stmt.executeQuery("SELECT name FROM whoami")
+        ) {
+            res.next();
+            return res.getString(1);
+        }
+    }
+}